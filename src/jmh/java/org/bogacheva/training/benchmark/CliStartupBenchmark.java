@@ -0,0 +1,132 @@
+package org.bogacheva.training.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time from launching the CLI to its prompt, against an in-memory H2 database:
+ * <ul>
+ *     <li>{@code eager} - the cli profile with the web server and eager beans, as it used to start</li>
+ *     <li>{@code cli} - the cli profile as configured</li>
+ *     <li>{@code cli-fast} - the AOT-processed jar with its class-data sharing archive, which must be
+ *     built first with {@code mvn -Pcli-fast package}</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CliStartupBenchmark {
+
+    private static final String PROMPT = "\n> ";
+    private static final Path FAST_BUILD = Path.of("target", "cli");
+
+    @Param({"eager", "cli", "cli-fast"})
+    private String launch;
+
+    private ProcessBuilder processBuilder;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String classPath = System.getProperty("java.class.path");
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>(List.of(java));
+        File workingDirectory = new File(".");
+        switch (launch) {
+            case "eager", "cli" -> command.addAll(List.of("-cp", classPath));
+            case "cli-fast" -> {
+                if (!Files.exists(FAST_BUILD.resolve("ShelveIt.jsa"))) {
+                    throw new IllegalStateException("Build the fast-start CLI first: mvn -Pcli-fast package");
+                }
+                // The archive stays usable when entries are appended to the class path it was recorded with
+                command.addAll(List.of("-XX:SharedArchiveFile=ShelveIt.jsa", "-Dspring.aot.enabled=true",
+                        "-cp", "ShelveIt.jar" + File.pathSeparator + h2Jar(classPath)));
+                workingDirectory = FAST_BUILD.toFile();
+            }
+            default -> throw new IllegalArgumentException(launch);
+        }
+        command.addAll(List.of("org.bogacheva.training.Application",
+                "--spring.profiles.active=cli",
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=PostgreSQL",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--logging.level.root=WARN"));
+        if (launch.equals("eager")) {
+            command.addAll(List.of("--spring.main.web-application-type=servlet",
+                    "--spring.main.lazy-initialization=false",
+                    "--spring.data.jpa.repositories.bootstrap-mode=default",
+                    "--server.port=0", "--management.server.port=0"));
+        }
+        processBuilder = new ProcessBuilder(command)
+                .directory(workingDirectory)
+                .redirectErrorStream(true);
+    }
+
+    @Benchmark
+    public Process timeToPrompt() throws IOException {
+        process = processBuilder.start();
+        awaitPrompt(process.getInputStream());
+        return process;
+    }
+
+    @TearDown(Level.Invocation)
+    public void exit() throws IOException, InterruptedException {
+        try (OutputStream input = process.getOutputStream()) {
+            input.write("exit\n".getBytes(StandardCharsets.UTF_8));
+        }
+        process.getInputStream().transferTo(OutputStream.nullOutputStream());
+        if (!process.waitFor(1, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+        }
+    }
+
+    private static void awaitPrompt(InputStream output) throws IOException {
+        // The prompt is the only line starting with "> ", and it is not followed by a line break
+        StringBuilder tail = new StringBuilder();
+        int b;
+        while ((b = output.read()) != -1) {
+            tail.append((char) b);
+            if (tail.length() > PROMPT.length()) {
+                tail.deleteCharAt(0);
+            }
+            if (tail.toString().equals(PROMPT) && output.available() == 0) {
+                return;
+            }
+        }
+        throw new IllegalStateException("The CLI exited before showing its prompt");
+    }
+
+    private static String h2Jar(String classPath) {
+        return Arrays.stream(classPath.split(File.pathSeparator))
+                .filter(entry -> Path.of(entry).getFileName().toString().startsWith("h2-"))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("H2 is not on the class path"));
+    }
+}
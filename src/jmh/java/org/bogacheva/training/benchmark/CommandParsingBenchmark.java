@@ -0,0 +1,65 @@
+package org.bogacheva.training.benchmark;
+
+import org.bogacheva.training.translation.StringToCommandTranslator;
+import org.bogacheva.training.view.cli.commands.BaseCommand;
+import org.bogacheva.training.view.cli.creation.DefaultCommandFactory;
+import org.bogacheva.training.view.cli.parsing.DefaultCommandParser;
+import org.bogacheva.training.view.cli.parsing.ParsedCommand;
+import org.bogacheva.training.view.cli.validation.DefaultCommandValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses and translates a typical line of each shape the CLI accepts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandParsingBenchmark {
+
+    private static final Map<String, String> INPUTS = Map.of(
+            "create-item", "create item --name \"Programming Book\" --storage 5 --keywords \"book,programming,tech\"",
+            "search-item", "search item --name laptop --keywords gaming,computer",
+            "items-by-storage", "get items by storage --id 10",
+            "list", "list storages",
+            "broken", "create item --name");
+
+    @Param({"create-item", "search-item", "items-by-storage", "list", "broken"})
+    private String command;
+
+    private String input;
+    private DefaultCommandParser parser;
+    private StringToCommandTranslator translator;
+
+    @Setup
+    public void setUp() {
+        input = INPUTS.get(command);
+        parser = new DefaultCommandParser();
+        translator = new StringToCommandTranslator(parser, new DefaultCommandValidator(), new DefaultCommandFactory());
+    }
+
+    @Benchmark
+    public ParsedCommand parse() {
+        return parser.parse(input);
+    }
+
+    @Benchmark
+    public BaseCommand translate() {
+        return translator.translate(input);
+    }
+}
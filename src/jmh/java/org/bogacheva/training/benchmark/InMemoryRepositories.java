@@ -0,0 +1,55 @@
+package org.bogacheva.training.benchmark;
+
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Repository fakes that answer the search queries from an in-memory graph, so that benchmarks
+ * measure the service rather than the database. Any other repository method throws.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    static ItemRepository items(InventoryGraph graph) {
+        return (ItemRepository) Proxy.newProxyInstance(ItemRepository.class.getClassLoader(),
+                new Class<?>[]{ItemRepository.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "findByNameLikeIgnoreCase" -> findByNameLike(graph, (String) args[0]);
+                    case "findByAnyKeyword" -> findByAnyKeyword(graph, cast(args[0]));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static StorageRepository storages() {
+        return (StorageRepository) Proxy.newProxyInstance(StorageRepository.class.getClassLoader(),
+                new Class<?>[]{StorageRepository.class}, (proxy, method, args) -> {
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    // Only the %part% patterns that DefaultItemSearchService builds
+    private static List<Item> findByNameLike(InventoryGraph graph, String pattern) {
+        String part = pattern.substring(1, pattern.length() - 1);
+        return graph.items.stream()
+                .filter(item -> item.getName().toLowerCase(Locale.ROOT).contains(part))
+                .toList();
+    }
+
+    private static List<Item> findByAnyKeyword(InventoryGraph graph, List<String> keywords) {
+        return graph.items.stream()
+                .filter(item -> item.getKeywords().stream()
+                        .anyMatch(keyword -> keywords.contains(keyword.toLowerCase(Locale.ROOT))))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> cast(Object keywords) {
+        return (List<String>) keywords;
+    }
+}
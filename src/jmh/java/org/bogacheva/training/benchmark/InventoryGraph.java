@@ -0,0 +1,62 @@
+package org.bogacheva.training.benchmark;
+
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A deterministic storage hierarchy with items, wired in both directions like entities loaded by
+ * Hibernate: one residence, then rooms, furniture and units, with the items spread over the units.
+ */
+final class InventoryGraph {
+
+    static final String[] WORDS = {"box", "book", "cable", "shirt", "mug", "charger", "lamp", "jar",
+            "towel", "pen", "battery", "candle", "glove", "plate", "sock", "tape"};
+
+    private static final int ROOMS = 8;
+    private static final int FURNITURE_PER_ROOM = 5;
+    private static final int UNITS_PER_FURNITURE = 4;
+
+    final List<Storage> storages = new ArrayList<>();
+    final List<Item> items = new ArrayList<>();
+
+    private long nextStorageId = 1;
+
+    InventoryGraph(int itemCount) {
+        Random random = new Random(42);
+        Storage home = storage("Home", StorageType.RESIDENCE, null);
+        List<Storage> units = new ArrayList<>();
+        for (int r = 0; r < ROOMS; r++) {
+            Storage room = storage("Room " + r, StorageType.ROOM, home);
+            for (int f = 0; f < FURNITURE_PER_ROOM; f++) {
+                Storage furniture = storage("Furniture " + r + " " + f, StorageType.FURNITURE, room);
+                for (int u = 0; u < UNITS_PER_FURNITURE; u++) {
+                    units.add(storage("Unit " + r + " " + f + " " + u, StorageType.UNIT, furniture));
+                }
+            }
+        }
+        for (int i = 0; i < itemCount; i++) {
+            Storage unit = units.get(random.nextInt(units.size()));
+            String word = WORDS[random.nextInt(WORDS.length)];
+            Item item = new Item(word + " " + i, unit);
+            item.setId((long) i + 1);
+            item.setKeywords(List.of(word, WORDS[random.nextInt(WORDS.length)]));
+            unit.getItems().add(item);
+            items.add(item);
+        }
+    }
+
+    private Storage storage(String name, StorageType type, Storage parent) {
+        Storage storage = new Storage(name, type, parent);
+        storage.setId(nextStorageId++);
+        if (parent != null) {
+            parent.getSubStorages().add(storage);
+        }
+        storages.add(storage);
+        return storage;
+    }
+}
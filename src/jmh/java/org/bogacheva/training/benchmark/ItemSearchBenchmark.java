@@ -0,0 +1,74 @@
+package org.bogacheva.training.benchmark;
+
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.item.search.DefaultItemSearchService;
+import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.mapper.ItemMapperImpl;
+import org.bogacheva.training.service.mapper.StorageMapperHelper;
+import org.bogacheva.training.service.mapper.StorageMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link DefaultItemSearchService#search} against in-memory repositories, covering result
+ * merging and DTO mapping. Each search word matches about 1/16 of the items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    private int items;
+
+    private AnnotationConfigApplicationContext context;
+    private DefaultItemSearchService searchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(
+                ItemMapperImpl.class, StorageMapperImpl.class, StorageMapperHelper.class);
+        InventoryGraph graph = new InventoryGraph(items);
+        // The normalized assembler is not used by search
+        searchService = new DefaultItemSearchService(InMemoryRepositories.items(graph),
+                InMemoryRepositories.storages(), context.getBean(ItemMapper.class), null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDTO> byName() {
+        return searchService.search("Book", null);
+    }
+
+    @Benchmark
+    public List<ItemDTO> byKeywords() {
+        return searchService.search(null, List.of("Cable", "Lamp"));
+    }
+
+    @Benchmark
+    public List<ItemDTO> byNameAndKeywords() {
+        return searchService.search("book", List.of("cable", "lamp"));
+    }
+}
@@ -0,0 +1,72 @@
+package org.bogacheva.training.benchmark;
+
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.mapper.ItemMapperImpl;
+import org.bogacheva.training.service.mapper.StorageMapper;
+import org.bogacheva.training.service.mapper.StorageMapperHelper;
+import org.bogacheva.training.service.mapper.StorageMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maps a whole inventory to DTOs. Every item DTO embeds its storage with the IDs of all the items
+ * stored next to it, so the cost of {@code ItemMapper.toDTOList} grows with the items per storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({"1000", "100000"})
+    private int items;
+
+    private AnnotationConfigApplicationContext context;
+    private ItemMapper itemMapper;
+    private StorageMapper storageMapper;
+    private InventoryGraph graph;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The generated mappers are field-injected
+        context = new AnnotationConfigApplicationContext(
+                ItemMapperImpl.class, StorageMapperImpl.class, StorageMapperHelper.class);
+        itemMapper = context.getBean(ItemMapper.class);
+        storageMapper = context.getBean(StorageMapper.class);
+        graph = new InventoryGraph(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDTO> itemsToDTOList() {
+        return itemMapper.toDTOList(graph.items);
+    }
+
+    @Benchmark
+    public List<StorageDTO> storagesToDTOList() {
+        return storageMapper.toDTOList(graph.storages);
+    }
+}
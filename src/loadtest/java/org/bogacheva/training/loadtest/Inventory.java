@@ -0,0 +1,81 @@
+package org.bogacheva.training.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The storages and items the workload operates on. Seeded through the REST API before the run,
+ * with one residence, rooms, four pieces of furniture per room and three units per piece of
+ * furniture; items created during the run are added as they are confirmed.
+ */
+final class Inventory {
+
+    static final String[] WORDS = {"box", "book", "cable", "shirt", "mug", "charger", "lamp", "jar",
+            "towel", "pen", "battery", "candle", "glove", "plate", "sock", "tape"};
+
+    private static final int FURNITURE_PER_ROOM = 4;
+    private static final int UNITS_PER_FURNITURE = 3;
+
+    private final List<Long> storages = new ArrayList<>();
+    private final List<Long> units = new ArrayList<>();
+    private final List<Long> items = new CopyOnWriteArrayList<>();
+
+    static Inventory seed(InventoryClient client, int rooms, int itemCount) throws IOException, InterruptedException {
+        Inventory inventory = new Inventory();
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        long home = inventory.addStorage(client.id(client.createStorage("Load test " + run, "RESIDENCE", null)));
+        for (int r = 0; r < rooms; r++) {
+            long room = inventory.addStorage(client.id(client.createStorage("Room " + r, "ROOM", home)));
+            for (int f = 0; f < FURNITURE_PER_ROOM; f++) {
+                long furniture = inventory.addStorage(
+                        client.id(client.createStorage("Furniture " + r + " " + f, "FURNITURE", room)));
+                for (int u = 0; u < UNITS_PER_FURNITURE; u++) {
+                    long unit = inventory.addStorage(
+                            client.id(client.createStorage("Unit " + r + " " + f + " " + u, "UNIT", furniture)));
+                    inventory.units.add(unit);
+                }
+            }
+        }
+        // Sequential, as concurrent creates in one storage can conflict on its version
+        for (int i = 0; i < itemCount; i++) {
+            inventory.items.add(client.id(inventory.createItem(client)));
+        }
+        return inventory;
+    }
+
+    HttpResponse<byte[]> createItem(InventoryClient client) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String word = randomWord();
+        return client.createItem(word + " " + random.nextInt(1_000_000), randomUnit(),
+                List.of(word, randomWord()));
+    }
+
+    void addItem(long itemId) {
+        items.add(itemId);
+    }
+
+    long randomStorage() {
+        return storages.get(ThreadLocalRandom.current().nextInt(storages.size()));
+    }
+
+    long randomUnit() {
+        return units.get(ThreadLocalRandom.current().nextInt(units.size()));
+    }
+
+    long randomItem() {
+        return items.get(ThreadLocalRandom.current().nextInt(items.size()));
+    }
+
+    static String randomWord() {
+        return WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+    }
+
+    private long addStorage(long id) {
+        storages.add(id);
+        return id;
+    }
+}
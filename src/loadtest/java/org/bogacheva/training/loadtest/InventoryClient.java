@@ -0,0 +1,104 @@
+package org.bogacheva.training.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * The REST calls of the workload. Response bodies are read in full, as a browser would, so that
+ * serialization is part of the measured latency.
+ */
+final class InventoryClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    InventoryClient(URI baseUrl, Executor executor) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    HttpResponse<byte[]> createStorage(String name, String type, Long parentId) throws IOException, InterruptedException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", name);
+        body.put("type", type);
+        body.put("parentId", parentId);
+        return send(post("/api/storages", body));
+    }
+
+    HttpResponse<byte[]> createItem(String name, long storageId, List<String> keywords)
+            throws IOException, InterruptedException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("name", name);
+        body.put("storageId", storageId);
+        body.put("keywords", keywords);
+        return send(post("/api/items", body));
+    }
+
+    HttpResponse<byte[]> searchByName(String name) throws IOException, InterruptedException {
+        return send(get("/api/items/search?name=" + URLEncoder.encode(name, StandardCharsets.UTF_8)));
+    }
+
+    HttpResponse<byte[]> searchByKeyword(String keyword) throws IOException, InterruptedException {
+        return send(get("/api/items/search?keywords=" + URLEncoder.encode(keyword, StandardCharsets.UTF_8)));
+    }
+
+    HttpResponse<byte[]> subtreeItems(long storageId) throws IOException, InterruptedException {
+        return send(get("/api/storages/" + storageId + "/items"));
+    }
+
+    HttpResponse<byte[]> moveItem(long itemId, long storageId) throws IOException, InterruptedException {
+        return send(post("/api/storages/" + storageId + "/items", List.of(itemId)));
+    }
+
+    long id(HttpResponse<byte[]> response) throws IOException {
+        if (response.statusCode() / 100 != 2) {
+            throw new IOException("Request to " + response.uri() + " failed with status " + response.statusCode());
+        }
+        JsonNode id = objectMapper.readTree(response.body()).get("id");
+        if (id == null) {
+            throw new IOException("Response of " + response.uri() + " has no id");
+        }
+        return id.asLong();
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) throws IOException {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept", "application/json");
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
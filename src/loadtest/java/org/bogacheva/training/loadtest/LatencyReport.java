@@ -0,0 +1,131 @@
+package org.bogacheva.training.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and error counts per operation. Errors are counted by HTTP status, or by
+ * exception type when no response arrived.
+ */
+final class LatencyReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<String, LongAdder>> errors = new EnumMap<>(Operation.class);
+    private final LongAdder dropped = new LongAdder();
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            errors.put(operation, new ConcurrentHashMap<>());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, String error) {
+        latencies.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        if (error != null) {
+            errors.get(operation).computeIfAbsent(error, key -> new LongAdder()).increment();
+        }
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void print(PrintStream out, Duration measured) {
+        out.printf("%-8s %9s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "op", "requests", "errors", "err%", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        long totalErrors = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            long errorCount = errorCount(operation);
+            total += count;
+            totalErrors += errorCount;
+            out.printf("%-8s %9d %8d %6.2f%% %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.label(), count, errorCount, 100.0 * errorCount / count, count / seconds(measured),
+                    millis(histogram, PERCENTILES[0]), millis(histogram, PERCENTILES[1]),
+                    millis(histogram, PERCENTILES[2]), millis(histogram, PERCENTILES[3]),
+                    histogram.getMaxValue() / 1000.0);
+        }
+        out.printf("%-8s %9d %8d %6.2f%% %9.1f%n", "total", total, totalErrors,
+                total == 0 ? 0.0 : 100.0 * totalErrors / total, total / seconds(measured));
+        if (dropped.sum() > 0) {
+            out.printf("%d arrivals were dropped as too many requests were in flight%n", dropped.sum());
+        }
+        for (Operation operation : Operation.values()) {
+            errors.get(operation).forEach((error, count) ->
+                    out.printf("%s errors: %d x %s%n", operation.label(), count.sum(), error));
+        }
+    }
+
+    void write(Path file, LoadTestOptions options, Duration measured) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", options.baseUrl().toString());
+        report.put("model", options.openModel() ? "open" : "closed");
+        report.put("rate", options.rate());
+        report.put("concurrency", options.openModel() ? null : options.concurrency());
+        report.put("measuredSeconds", seconds(measured));
+        report.put("dropped", dropped.sum());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("requests", histogram.getTotalCount());
+            result.put("errors", errorCount(operation));
+            result.put("throughput", histogram.getTotalCount() / seconds(measured));
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES) {
+                percentiles.put(percentileName(percentile), millis(histogram, percentile));
+            }
+            percentiles.put("max", histogram.getMaxValue() / 1000.0);
+            result.put("latencyMillis", percentiles);
+            Map<String, Long> errorsByCause = new TreeMap<>();
+            errors.get(operation).forEach((error, count) -> errorsByCause.put(error, count.sum()));
+            result.put("errorsByCause", errorsByCause);
+            operations.put(operation.label(), result);
+        }
+        report.put("operations", operations);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+    }
+
+    private long errorCount(Operation operation) {
+        return errors.get(operation).values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    // p50 rather than p50.0
+    private static String percentileName(double percentile) {
+        return "p" + (percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1e9;
+    }
+}
@@ -0,0 +1,169 @@
+package org.bogacheva.training.loadtest;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a weighted mix of item creates, searches, subtree listings and moves against a running
+ * instance, then reports throughput, latency percentiles and error rates per operation.
+ * <p>
+ * With {@code --rate} the run follows an open model: requests arrive at a fixed rate whether or not
+ * earlier ones have completed, and latency is measured from when a request was due rather than when
+ * it was sent, so a stalled server is not hidden by the generator slowing down with it. Without it,
+ * {@code --concurrency} virtual users send requests back to back. Run with
+ * {@code mvn -Ploadtest test -Dloadtest.args="--rate=200 --duration=2m"}; see
+ * {@link LoadTestOptions} for all options.
+ */
+public final class LoadTest {
+
+    private final LoadTestOptions options;
+    private final InventoryClient client;
+    private final Inventory inventory;
+    private final LatencyReport report = new LatencyReport();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private LoadTest(LoadTestOptions options, InventoryClient client, Inventory inventory) {
+        this.options = options;
+        this.client = client;
+        this.inventory = inventory;
+        List<Map.Entry<Operation, Integer>> mix = options.mix().entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .toList();
+        this.operations = new Operation[mix.size()];
+        this.cumulativeWeights = new int[mix.size()];
+        int total = 0;
+        for (int i = 0; i < mix.size(); i++) {
+            total += mix.get(i).getValue();
+            operations[i] = mix.get(i).getKey();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            InventoryClient client = new InventoryClient(options.baseUrl(), executor);
+            System.out.printf("Seeding %d rooms and %d items at %s%n", options.rooms(), options.items(), options.baseUrl());
+            Inventory inventory = Inventory.seed(client, options.rooms(), options.items());
+
+            LoadTest loadTest = new LoadTest(options, client, inventory);
+            System.out.printf("Running %s for %s after a %s warmup with mix %s%n",
+                    options.openModel() ? "at " + options.rate() + " requests/s" : options.concurrency() + " virtual users",
+                    options.duration(), options.warmup(), options.mix());
+            if (options.openModel()) {
+                loadTest.runOpen(executor);
+            } else {
+                loadTest.runClosed(executor);
+            }
+
+            loadTest.report.print(System.out, options.duration());
+            if (options.report() != null) {
+                loadTest.report.write(options.report(), options, options.duration());
+                System.out.printf("Report written to %s%n", options.report());
+            }
+        }
+    }
+
+    private void runOpen(ExecutorService executor) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        for (long arrival = 0; ; arrival++) {
+            long due = start + Math.round(arrival * 1e9 / options.rate());
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            boolean measured = due >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    report.recordDropped();
+                }
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    execute(nextOperation(), due, measured);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(options.maxInFlight());
+    }
+
+    private void runClosed(ExecutorService executor) throws Exception {
+        long measureFrom = System.nanoTime() + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+        List<Future<?>> users = new ArrayList<>();
+        for (int i = 0; i < options.concurrency(); i++) {
+            users.add(executor.submit(() -> {
+                for (long started = System.nanoTime(); started < end; started = System.nanoTime()) {
+                    execute(nextOperation(), started, started >= measureFrom);
+                }
+            }));
+        }
+        for (Future<?> user : users) {
+            user.get();
+        }
+    }
+
+    private void execute(Operation operation, long due, boolean measured) {
+        String error = null;
+        long completed;
+        try {
+            HttpResponse<byte[]> response = send(operation);
+            completed = System.nanoTime();
+            if (response.statusCode() >= 400) {
+                error = "HTTP " + response.statusCode();
+            } else if (operation == Operation.CREATE) {
+                inventory.addItem(client.id(response));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed = System.nanoTime();
+            error = e.getClass().getSimpleName();
+        } catch (Exception e) {
+            completed = System.nanoTime();
+            error = e.getClass().getSimpleName();
+        }
+        if (measured) {
+            report.record(operation, completed - due, error);
+        }
+    }
+
+    private HttpResponse<byte[]> send(Operation operation) throws Exception {
+        return switch (operation) {
+            case CREATE -> inventory.createItem(client);
+            case SEARCH -> ThreadLocalRandom.current().nextBoolean()
+                    ? client.searchByName(Inventory.randomWord())
+                    : client.searchByKeyword(Inventory.randomWord());
+            case SUBTREE -> client.subtreeItems(inventory.randomStorage());
+            case MOVE -> client.moveItem(inventory.randomItem(), inventory.randomUnit());
+        };
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+}
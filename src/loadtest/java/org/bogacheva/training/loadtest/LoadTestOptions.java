@@ -0,0 +1,92 @@
+package org.bogacheva.training.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of {@link LoadTest}, given as {@code --name=value}.
+ *
+ * @param baseUrl     the instance under test
+ * @param rate        requests per second for an open-model run, or 0 for a closed-model run
+ * @param concurrency virtual users of a closed-model run
+ * @param maxInFlight requests an open-model run may have outstanding before it drops arrivals
+ * @param warmup      time before measurement starts
+ * @param duration    measured time
+ * @param mix         relative weight of each operation
+ * @param rooms       rooms to seed, each with furniture and units
+ * @param items       items to seed
+ * @param report      file to write the JSON report to, or null
+ */
+record LoadTestOptions(URI baseUrl, double rate, int concurrency, int maxInFlight, Duration warmup,
+                       Duration duration, Map<Operation, Integer> mix, int rooms, int items, Path report) {
+
+    private static final Set<String> NAMES = Set.of("base-url", "rate", "concurrency", "max-in-flight",
+            "warmup", "duration", "mix", "rooms", "items", "report");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            if (!NAMES.contains(name)) {
+                throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+            values.put(name, arg.substring(separator + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+                URI.create(values.getOrDefault("base-url", "http://localhost:8080")),
+                Double.parseDouble(values.getOrDefault("rate", "0")),
+                Integer.parseInt(values.getOrDefault("concurrency", "16")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "1000")),
+                Duration.parse("PT" + values.getOrDefault("warmup", "10s")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s")),
+                parseMix(values.getOrDefault("mix", "create:10,search:50,subtree:30,move:10")),
+                Integer.parseInt(values.getOrDefault("rooms", "8")),
+                Integer.parseInt(values.getOrDefault("items", "1000")),
+                values.containsKey("report") ? Path.of(values.get("report")) : null);
+        options.validate();
+        return options;
+    }
+
+    boolean openModel() {
+        return rate > 0;
+    }
+
+    private void validate() {
+        if (rate < 0 || concurrency < 1 || maxInFlight < 1 || rooms < 1 || items < 1) {
+            throw new IllegalArgumentException("Rate must not be negative; concurrency, max-in-flight, "
+                    + "rooms and items must be positive");
+        }
+        if (duration.isNegative() || duration.isZero() || warmup.isNegative()) {
+            throw new IllegalArgumentException("Duration must be positive and warmup must not be negative");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix must give at least one operation a positive weight");
+        }
+    }
+
+    // e.g. create:10,search:50,subtree:30,move:10
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in mix but got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative: " + entry);
+            }
+            weights.put(Operation.parse(parts[0]), weight);
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,26 @@
+package org.bogacheva.training.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The requests of the inventory workload.
+ */
+enum Operation {
+
+    /** {@code POST /api/items} into a random unit. */
+    CREATE,
+    /** {@code GET /api/items/search} by a name part or a keyword. */
+    SEARCH,
+    /** {@code GET /api/storages/{id}/items} for a random storage. */
+    SUBTREE,
+    /** {@code POST /api/storages/{id}/items} moving a random item to a random unit. */
+    MOVE;
+
+    static Operation parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,57 @@
+package org.bogacheva.training;
+
+import org.bogacheva.training.view.cli.batch.BatchCommandProcessor;
+import org.bogacheva.training.view.cli.batch.BatchSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * CommandLineRunner for the non-interactive batch mode, active with the {@code batch} profile.
+ * Reads commands from the file given by {@code shelveit.cli.batch.input}, or from standard input
+ * when it is {@code -}, and writes one JSON line per command to standard output. Exits with
+ * status 1 when any command failed.
+ */
+@Component
+@Profile("batch")
+public class BatchCommandLineRunner implements CommandLineRunner {
+
+    private final BatchCommandProcessor processor;
+    private final String input;
+
+    public BatchCommandLineRunner(BatchCommandProcessor processor,
+                                  @Value("${shelveit.cli.batch.input:-}") String input) {
+        this.processor = processor;
+        this.input = input;
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        BatchSummary summary;
+        try (BufferedReader reader = openInput()) {
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            summary = processor.process(reader, writer);
+            writer.flush();
+        }
+        System.err.printf("Ran %d commands in %d transactions, %d failed, in %d ms%n",
+                summary.commands(), summary.transactions(), summary.failed(), summary.elapsed().toMillis());
+
+        System.exit(summary.failed() == 0 ? 0 : 1);
+    }
+
+    private BufferedReader openInput() throws IOException {
+        return "-".equals(input)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(input), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+package org.bogacheva.training;
+
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.domain.sync.SyncChange;
+import org.bogacheva.training.domain.sync.SyncEntityType;
+import org.bogacheva.training.domain.sync.SyncOperation;
+import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.mapper.StorageMapper;
+import org.bogacheva.training.service.mapper.StorageMapperHelper;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints the CLI needs in a native image, beyond what Spring AOT infers
+ * from the bean definitions: the help texts, which are looked up by command name, the entities
+ * Hibernate instantiates and populates reflectively, and the MapStruct mapper implementations,
+ * which are generated under the mapper name with an {@code Impl} suffix.
+ */
+public class CliRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String HELP_TEXTS = "help/*.txt";
+
+    private static final List<Class<?>> ENTITIES = List.of(Item.class, Storage.class, SyncChange.class);
+
+    private static final List<Class<?>> ENUMS = List.of(StorageType.class, SyncEntityType.class, SyncOperation.class);
+
+    private static final List<Class<?>> MAPPERS = List.of(ItemMapper.class, StorageMapper.class);
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.resources().registerPattern(HELP_TEXTS);
+
+        ENTITIES.forEach(entity -> hints.reflection().registerType(entity,
+                MemberCategory.DECLARED_FIELDS,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                MemberCategory.INVOKE_DECLARED_METHODS));
+        ENUMS.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.PUBLIC_FIELDS,
+                MemberCategory.INVOKE_PUBLIC_METHODS));
+
+        MAPPERS.forEach(mapper -> hints.reflection().registerType(
+                TypeReference.of(mapper.getName() + "Impl"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS));
+        hints.reflection().registerType(StorageMapperHelper.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+}
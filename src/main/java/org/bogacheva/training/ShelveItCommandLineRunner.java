@@ -4,60 +4,40 @@ import org.bogacheva.training.translation.StringToCommandTranslator;
 import org.bogacheva.training.translation.Translator;
 import org.bogacheva.training.view.cli.ShelveItView;
 import org.bogacheva.training.view.cli.commands.BaseCommand;
-import org.bogacheva.training.view.cli.execution.CommandExecutor;
-import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
-import org.bogacheva.training.view.cli.formatting.OutputFormatter;
+import org.bogacheva.training.view.cli.execution.CancellableCommandRunner;
+import org.bogacheva.training.view.cli.session.CliSession;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 /**
  * CommandLineRunner implementation for the ShelveIt application.
- * Handles reading user input, translating it to commands, and coordinating
- * command execution. 
+ * Runs one {@link CliSession} on the console and exits when it ends. Commands run on a worker
+ * thread and can be cancelled with Ctrl-C.
  */
 @Component
-@Profile("cli")
+@Profile("cli & !batch")
+@ImportRuntimeHints(CliRuntimeHints.class)
 public class ShelveItCommandLineRunner implements CommandLineRunner {
 
     private final ShelveItView shelveItView;
     private final Translator<String, BaseCommand> translator;
-    private final CommandExecutor commandExecutor;
-    private final OutputFormatter outputFormatter;
+    private final CancellableCommandRunner commandRunner;
 
     public ShelveItCommandLineRunner(
             ShelveItView shelveItView,
             StringToCommandTranslator translator,
-            CommandExecutor commandExecutor,
-            OutputFormatter outputFormatter) {
+            CancellableCommandRunner commandRunner) {
         this.shelveItView = shelveItView;
         this.translator = translator;
-        this.commandExecutor = commandExecutor;
-        this.outputFormatter = outputFormatter;
+        this.commandRunner = commandRunner;
     }
 
     @Override
     public void run(String... args) {
-        shelveItView.printHeader();
-        boolean exitRequested = false;
-        
-        do {
-            shelveItView.printPrompt();
-            try {
-                String userInput = shelveItView.readCommand();
-                BaseCommand command = translator.translate(userInput);
-                CommandExecutionResult result = commandExecutor.execute(command);
-                outputFormatter.formatAndDisplay(result);
-                exitRequested = result.isShouldExit();
-                
-            } catch (Exception e) {
-                shelveItView.printError(e.getMessage());
-            }
-        } while (!exitRequested);
-        
-        shelveItView.printExit();
+        new CliSession(shelveItView, translator, commandRunner::run).run();
 
         System.exit(0);
     }
-
 }
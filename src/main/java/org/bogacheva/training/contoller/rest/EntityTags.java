@@ -0,0 +1,162 @@
+package org.bogacheva.training.contoller.rest;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.bogacheva.training.exceptions.PreconditionFailedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds strong entity tags from change versions and evaluates conditional requests against them.
+ * Versions are always looked up before the response body is built, so a body is never sent
+ * with a tag newer than its content. Binary encodings of a resource carry a tag of their own,
+ * as a strong tag must identify the exact bytes of one representation.
+ */
+final class EntityTags {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    private static final Map<MediaType, String> BINARY_REPRESENTATIONS = Map.of(
+            MediaType.APPLICATION_CBOR, "cbor",
+            SMILE, "smile");
+    // The types the Jackson converters write, in the order Spring MVC registers them
+    private static final List<MediaType> PRODUCIBLE_TYPES = List.of(
+            MediaType.APPLICATION_JSON, new MediaType("application", "*+json"), SMILE, MediaType.APPLICATION_CBOR);
+    private static final List<MediaType> ANY_APPLICATION_TYPE = List.of(MediaType.ALL, new MediaType("application"));
+
+    private EntityTags() {
+    }
+
+    static String item(Long itemId, long version) {
+        return list(itemName(itemId), version);
+    }
+
+    static String storage(Long storageId, long version) {
+        return list(storageName(storageId), version);
+    }
+
+    static String list(String name, long version) {
+        return "\"" + name + "-v" + version + "\"";
+    }
+
+    // Distinguishes alternative views of the same resource version
+    static String variant(String eTag, String variant) {
+        return eTag.substring(0, eTag.length() - 1) + "-" + variant + "\"";
+    }
+
+    static String itemName(Long itemId) {
+        return "item-" + itemId;
+    }
+
+    static String storageName(Long storageId) {
+        return "storage-" + storageId;
+    }
+
+    /**
+     * Extracts the change version an update is conditional on from an {@code If-Match} header.
+     * Tags are compared strongly, so weak tags never match.
+     *
+     * @param ifMatch the header value, may be null
+     * @param name the name the resource's tags are built from, e.g. {@link #itemName(Long)}
+     * @return the version of the first tag of this resource, empty if the header is absent or {@code *}
+     * @throws PreconditionFailedException if the header names no version of this resource
+     */
+    static Optional<Long> expectedVersion(String ifMatch, String name) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return Optional.empty();
+        }
+        String prefix = "\"" + name + "-v";
+        for (String tag : ifMatch.split(",")) {
+            tag = withoutRepresentation(tag.trim());
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                try {
+                    return Optional.of(Long.parseLong(tag.substring(prefix.length(), tag.length() - 1)));
+                } catch (NumberFormatException ignored) {
+                    // not one of our tags, keep looking
+                }
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version of " + name + ".");
+    }
+
+    /**
+     * Checks {@code If-None-Match} against the given tag. When the client's copy is current,
+     * the 304 status and ETag header are already written and the handler should return {@code null}.
+     * Otherwise the ETag header is set on the response and the handler proceeds as usual.
+     *
+     * @param request the current request
+     * @param eTag the current tag, empty if the resource does not exist
+     * @return true if the request has been answered with 304 Not Modified
+     */
+    static boolean isNotModified(WebRequest request, Optional<String> eTag) {
+        if (eTag.isEmpty()) {
+            return false;
+        }
+        if (request instanceof NativeWebRequest nativeRequest
+                && nativeRequest.getNativeResponse() instanceof HttpServletResponse response) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return request.checkNotModified(forRepresentation(request, eTag.get()));
+    }
+
+    private static String forRepresentation(WebRequest request, String eTag) {
+        return binaryRepresentation(request)
+                .map(suffix -> variant(eTag, suffix))
+                .orElse(eTag);
+    }
+
+    // Selects the encoding as Spring MVC's content negotiation will once the tag is set: accepted
+    // types ordered by quality and then specificity are narrowed to the producible types they are
+    // compatible with, and the first concrete type wins, while a bare wildcard means JSON
+    private static Optional<String> binaryRepresentation(WebRequest request) {
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return Optional.empty();
+        }
+        List<MediaType> candidates = new ArrayList<>();
+        try {
+            List<MediaType> acceptable = MediaType.parseMediaTypes(List.of(accept));
+            MimeTypeUtils.sortBySpecificity(acceptable);
+            for (MediaType acceptType : acceptable) {
+                for (MediaType produceType : PRODUCIBLE_TYPES) {
+                    if (acceptType.isCompatibleWith(produceType)) {
+                        MediaType narrowed = produceType.copyQualityValue(acceptType);
+                        candidates.add(acceptType.isLessSpecific(narrowed) ? narrowed : acceptType);
+                    }
+                }
+            }
+            MimeTypeUtils.sortBySpecificity(candidates);
+        } catch (IllegalArgumentException ex) {
+            // Spring answers such a header with 406, which carries no tag
+            return Optional.empty();
+        }
+        for (MediaType candidate : candidates) {
+            if (candidate.isConcrete()) {
+                return BINARY_REPRESENTATIONS.entrySet().stream()
+                        .filter(entry -> entry.getKey().equalsTypeAndSubtype(candidate))
+                        .map(Map.Entry::getValue)
+                        .findFirst();
+            }
+            if (candidate.isPresentIn(ANY_APPLICATION_TYPE)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String withoutRepresentation(String tag) {
+        for (String suffix : BINARY_REPRESENTATIONS.values()) {
+            String tagEnd = "-" + suffix + "\"";
+            if (tag.endsWith(tagEnd)) {
+                return tag.substring(0, tag.length() - tagEnd.length()) + "\"";
+            }
+        }
+        return tag;
+    }
+}
@@ -2,16 +2,29 @@ package org.bogacheva.training.contoller.rest;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.bogacheva.training.service.concurrency.OptimisticLockRetrier;
 import org.bogacheva.training.service.dto.ItemCreateDTO;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
 import org.bogacheva.training.service.dto.ItemUpdateDTO;
 import org.bogacheva.training.service.item.search.ItemSearchService;
 import org.bogacheva.training.service.item.crud.ItemService;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
+import org.bogacheva.training.service.item.view.StorageInclude;
+import org.bogacheva.training.service.sync.ChangeVersionService;
+import org.bogacheva.training.service.paging.KeysetStreams;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/items")
@@ -20,6 +33,8 @@ public class ItemRestController {
 
     private final ItemService itemService;
     private final ItemSearchService itemSearchService;
+    private final ChangeVersionService changeVersionService;
+    private final OptimisticLockRetrier retrier;
 
     @PostMapping
     public ResponseEntity<ItemDTO> create(@Valid @RequestBody ItemCreateDTO itemCreateDTO) {
@@ -28,39 +43,124 @@ public class ItemRestController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ItemDTO>> getAll() {
-        return ResponseEntity.ok(itemService.getAll());
+    public ResponseEntity<Stream<ItemDTO>> getAll(WebRequest request) {
+        if (EntityTags.isNotModified(request, latestListTag())) {
+            return null;
+        }
+        return ResponseEntity.ok(KeysetStreams.of(itemService::getPageAfter, ItemDTO::getId));
+    }
+
+    @GetMapping(params = NormalizedViews.PARAM)
+    public ResponseEntity<MappingJacksonValue> getAllNormalized(
+            @RequestParam(required = false) Set<String> fields,
+            WebRequest request) {
+        Set<String> itemFields = NormalizedViews.fields(fields);
+        if (EntityTags.isNotModified(request, NormalizedViews.tag(latestListTag(), Set.of(), itemFields))) {
+            return null;
+        }
+        Stream<ItemRefDTO> items = KeysetStreams.of(itemService::getRefPageAfter, ItemRefDTO::getId);
+        return ResponseEntity.ok(NormalizedViews.withFields(items, itemFields));
     }
 
     @GetMapping("/{itemId}")
-    public ResponseEntity<ItemDTO> get(@PathVariable Long itemId) {
+    public ResponseEntity<ItemDTO> get(@PathVariable Long itemId, WebRequest request) {
+        Optional<String> eTag = changeVersionService.getItemVersion(itemId)
+                .map(version -> EntityTags.item(itemId, version));
+        if (EntityTags.isNotModified(request, eTag)) {
+            return null;
+        }
         return ResponseEntity.ok(itemService.getById(itemId));
     }
 
     @GetMapping("/search")
     public ResponseEntity<List<ItemDTO>> search(
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) List<String> keywords) {
+            @RequestParam(required = false) List<String> keywords,
+            WebRequest request) {
+        if (EntityTags.isNotModified(request, latestListTag())) {
+            return null;
+        }
         List<ItemDTO> items = itemSearchService.search(name, keywords);
         return ResponseEntity.ok(items);
     }
 
+    @GetMapping(value = "/search", params = NormalizedViews.PARAM)
+    public ResponseEntity<MappingJacksonValue> searchNormalized(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<String> keywords,
+            @RequestParam(required = false) Set<String> include,
+            @RequestParam(required = false) Set<String> fields,
+            WebRequest request) {
+        Set<StorageInclude> storageIncludes = NormalizedViews.include(include);
+        Set<String> itemFields = NormalizedViews.fields(fields);
+        if (EntityTags.isNotModified(request, NormalizedViews.tag(latestListTag(), storageIncludes, itemFields))) {
+            return null;
+        }
+        NormalizedItemsDTO items = itemSearchService.searchNormalized(name, keywords, storageIncludes);
+        return ResponseEntity.ok(NormalizedViews.withFields(items, itemFields));
+    }
+
     @GetMapping("/{itemId}/near")
-    public ResponseEntity<List<ItemDTO>> getItemsNear(@PathVariable Long itemId) {
+    public ResponseEntity<List<ItemDTO>> getItemsNear(@PathVariable Long itemId, WebRequest request) {
+        if (EntityTags.isNotModified(request, latestListTag())) {
+            return null;
+        }
         List<ItemDTO> nearItems = itemSearchService.getItemsNear(itemId);
         return ResponseEntity.ok(nearItems);
     }
 
-    @GetMapping("/{storageId}")
-    public ResponseEntity<List<ItemDTO>> getByStorageId(@PathVariable Long storageId) {
+    @GetMapping(value = "/{itemId}/near", params = NormalizedViews.PARAM)
+    public ResponseEntity<MappingJacksonValue> getItemsNearNormalized(
+            @PathVariable Long itemId,
+            @RequestParam(required = false) Set<String> include,
+            @RequestParam(required = false) Set<String> fields,
+            WebRequest request) {
+        Set<StorageInclude> storageIncludes = NormalizedViews.include(include);
+        Set<String> itemFields = NormalizedViews.fields(fields);
+        if (EntityTags.isNotModified(request, NormalizedViews.tag(latestListTag(), storageIncludes, itemFields))) {
+            return null;
+        }
+        NormalizedItemsDTO nearItems = itemSearchService.getItemsNearNormalized(itemId, storageIncludes);
+        return ResponseEntity.ok(NormalizedViews.withFields(nearItems, itemFields));
+    }
+
+    // Not mapped to "/{storageId}": that pattern is indistinguishable from "/{itemId}"
+    @GetMapping("/storage/{storageId}")
+    public ResponseEntity<List<ItemDTO>> getByStorageId(@PathVariable Long storageId, WebRequest request) {
+        if (EntityTags.isNotModified(request, latestListTag())) {
+            return null;
+        }
         List<ItemDTO> itemByStorageId = itemSearchService.getByStorageId(storageId);
         return ResponseEntity.ok(itemByStorageId);
     }
 
+    @GetMapping(value = "/storage/{storageId}", params = NormalizedViews.PARAM)
+    public ResponseEntity<MappingJacksonValue> getByStorageIdNormalized(
+            @PathVariable Long storageId,
+            @RequestParam(required = false) Set<String> include,
+            @RequestParam(required = false) Set<String> fields,
+            WebRequest request) {
+        Set<StorageInclude> storageIncludes = NormalizedViews.include(include);
+        Set<String> itemFields = NormalizedViews.fields(fields);
+        if (EntityTags.isNotModified(request, NormalizedViews.tag(latestListTag(), storageIncludes, itemFields))) {
+            return null;
+        }
+        NormalizedItemsDTO items = itemSearchService.getByStorageIdNormalized(storageId, storageIncludes);
+        return ResponseEntity.ok(NormalizedViews.withFields(items, itemFields));
+    }
+
     @PutMapping("/{itemId}")
     public ResponseEntity<ItemDTO> update(
             @PathVariable Long itemId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ItemUpdateDTO itemUpdateDTO) {
+        Optional<Long> expectedVersion = EntityTags.expectedVersion(ifMatch, EntityTags.itemName(itemId));
+        if (expectedVersion.isPresent()) {
+            return ResponseEntity.ok(itemService.update(itemId, itemUpdateDTO, expectedVersion.get()));
+        }
+        if (isMove(itemUpdateDTO)) {
+            return ResponseEntity.ok(retrier.execute(() -> itemService.update(itemId, itemUpdateDTO)));
+        }
         return ResponseEntity.ok(itemService.update(itemId, itemUpdateDTO));
     }
 
@@ -70,9 +170,33 @@ public class ItemRestController {
         return ResponseEntity.noContent().build();
     }
 
+    // Moves the selected items in one transaction and answers with their number
+    @PostMapping("/move")
+    public ResponseEntity<Integer> moveAll(@RequestParam Long storageId, @RequestBody ItemSelectionDTO selection) {
+        return ResponseEntity.ok(itemService.moveAll(selection, storageId));
+    }
+
+    // Deletes the selected items in one transaction and answers with their number
+    @PostMapping("/remove")
+    public ResponseEntity<Integer> deleteAll(@RequestBody ItemSelectionDTO selection) {
+        return ResponseEntity.ok(itemService.deleteAll(selection));
+    }
+
     @GetMapping("/{itemId}/trackStorages")
-    public ResponseEntity<List<Long>> trackStorages(@PathVariable Long itemId) {
+    public ResponseEntity<List<Long>> trackStorages(@PathVariable Long itemId, WebRequest request) {
+        if (EntityTags.isNotModified(request, latestListTag())) {
+            return null;
+        }
         List<Long> storageIds = itemSearchService.getStorageHierarchyIds(itemId);
         return ResponseEntity.ok(storageIds);
     }
+
+    // Moving an item gives the same result however often it is applied, so a lost race can simply be retried
+    private boolean isMove(ItemUpdateDTO dto) {
+        return dto.getStorageId() != null && dto.getName() == null && dto.getKeywords() == null;
+    }
+
+    private Optional<String> latestListTag() {
+        return Optional.of(EntityTags.list("items", changeVersionService.getLatestVersion()));
+    }
 }
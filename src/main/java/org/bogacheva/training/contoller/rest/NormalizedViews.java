@@ -0,0 +1,99 @@
+package org.bogacheva.training.contoller.rest;
+
+import com.fasterxml.jackson.databind.ser.PropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
+import org.bogacheva.training.service.item.view.StorageInclude;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Request handling for the opt-in normalized view of item lists, selected with {@code view=normalized}.
+ * {@code include=items,storages} returns child ID lists instead of counts for the referenced storages,
+ * {@code fields=name,storageId} limits the item properties returned; the ID is always kept.
+ * <p>
+ * The full item and storage lists are streamed in this view as bare entries, item references and
+ * storage summaries respectively, without the map of referenced storages that the shorter lists carry.
+ */
+final class NormalizedViews {
+
+    static final String PARAM = "view=normalized";
+
+    // Properties of ItemRefDTO
+    private static final List<String> ITEM_FIELDS = List.of("id", "name", "storageId", "keywords");
+
+    private NormalizedViews() {
+    }
+
+    static Set<StorageInclude> include(Set<String> include) {
+        Set<StorageInclude> result = EnumSet.noneOf(StorageInclude.class);
+        if (include == null) {
+            return result;
+        }
+        for (String value : include) {
+            try {
+                result.add(StorageInclude.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Unknown include: " + value + ". Supported: items, storages.");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the item properties to return, sorted; empty if all of them are requested
+     */
+    static Set<String> fields(Set<String> fields) {
+        Set<String> result = new TreeSet<>();
+        if (fields == null || fields.isEmpty()) {
+            return result;
+        }
+        for (String field : fields) {
+            if (!ITEM_FIELDS.contains(field.trim())) {
+                throw new IllegalArgumentException("Unknown field: " + field + ". Supported: " + ITEM_FIELDS + ".");
+            }
+            result.add(field.trim());
+        }
+        result.add("id");
+        return result;
+    }
+
+    /**
+     * @param body a {@link NormalizedItemsDTO} or a stream of {@link ItemRefDTO}
+     */
+    static MappingJacksonValue withFields(Object body, Set<String> fields) {
+        PropertyFilter filter = fields.isEmpty()
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(ItemRefDTO.FIELDS_FILTER, filter));
+        return value;
+    }
+
+    /**
+     * Derives the tag of a normalized representation from the tag of the list it is built from.
+     * The view, includes and fields all change the representation, so they are spelled out in the
+     * tag, e.g. {@code "items-v42-n-include.items-fields.id.name"}. Includes come in declaration
+     * order and fields sorted, so each selection has exactly one tag.
+     */
+    static Optional<String> tag(Optional<String> listTag, Set<StorageInclude> include, Set<String> fields) {
+        StringBuilder selection = new StringBuilder("n");
+        if (!include.isEmpty()) {
+            selection.append("-include");
+            include.forEach(value -> selection.append('.').append(value.name().toLowerCase(Locale.ROOT)));
+        }
+        if (!fields.isEmpty()) {
+            selection.append("-fields");
+            fields.forEach(field -> selection.append('.').append(field));
+        }
+        return listTag.map(tag -> EntityTags.variant(tag, selection.toString()));
+    }
+}
@@ -4,21 +4,38 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.service.concurrency.OptimisticLockRetrier;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
+import org.bogacheva.training.service.item.view.StorageInclude;
 import org.bogacheva.training.service.dto.StorageUpdateDTO;
 import org.bogacheva.training.service.dto.StorageCreateDTO;
 import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
 import org.bogacheva.training.service.storage.StorageService;
+import org.bogacheva.training.service.sync.ChangeVersionService;
+import org.bogacheva.training.service.paging.KeysetStreams;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * REST controller for managing storages in the ShelveIt application.
  * Exposes endpoints to create, retrieve, update, delete storages,
  * manage items within storages, and search storages by name/type.
+ * Read endpoints answer conditional requests with 304 Not Modified based on change versions,
+ * updates honour If-Match and answer 412 Precondition Failed when the storage has changed.
+ * Besides JSON, all endpoints speak CBOR and Smile when requested through the Accept header.
+ * Item lists can be requested in the normalized view, see {@link NormalizedViews}.
  */
 @RestController
 @RequestMapping("/api/storages")
@@ -26,6 +43,8 @@ import java.util.List;
 public class StorageRestController {
 
     private final StorageService storageService;
+    private final ChangeVersionService changeVersionService;
+    private final OptimisticLockRetrier retrier;
 
     @PostMapping
     public ResponseEntity<StorageDTO> create(
@@ -38,42 +57,114 @@ public class StorageRestController {
     @GetMapping("/{id}")
     public ResponseEntity<StorageDTO> get(
             @PathVariable @Min(1)
-            Long id) {
+            Long id,
+            WebRequest request) {
+        Optional<String> eTag = changeVersionService.getStorageVersion(id)
+                .map(version -> EntityTags.storage(id, version));
+        if (EntityTags.isNotModified(request, eTag)) {
+            return null;
+        }
         StorageDTO storage = storageService.getById(id);
         return ResponseEntity.ok(storage);
     }
 
     @GetMapping
-    public ResponseEntity<List<StorageDTO>> getAll(
+    public ResponseEntity<Stream<StorageDTO>> getAll(
             @RequestParam(required = false)
-            StorageType type) {
-        List<StorageDTO> storages = storageService.getAll(type);
+            StorageType type,
+            WebRequest request) {
+        if (EntityTags.isNotModified(request, latestListTag())) {
+            return null;
+        }
+        Stream<StorageDTO> storages = KeysetStreams.of(
+                (afterId, limit) -> storageService.getPageAfter(type, afterId, limit), StorageDTO::getId);
+        return ResponseEntity.ok(storages);
+    }
+
+    @GetMapping(params = NormalizedViews.PARAM)
+    public ResponseEntity<Stream<StorageSummaryDTO>> getAllNormalized(
+            @RequestParam(required = false)
+            StorageType type,
+            WebRequest request) {
+        if (EntityTags.isNotModified(request, NormalizedViews.tag(latestListTag(), Set.of(), Set.of()))) {
+            return null;
+        }
+        Stream<StorageSummaryDTO> storages = KeysetStreams.of(
+                (afterId, limit) -> storageService.getSummaryPageAfter(type, afterId, limit),
+                StorageSummaryDTO::getId);
         return ResponseEntity.ok(storages);
     }
 
     @PatchMapping("/{id}")
     public ResponseEntity<StorageDTO> update(
             @PathVariable @Min(1) Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody @Valid
             StorageUpdateDTO updateDTO) {
-        StorageDTO updated = storageService.update(id, updateDTO);
+        Long expectedVersion = EntityTags.expectedVersion(ifMatch, EntityTags.storageName(id)).orElse(null);
+        StorageDTO updated = storageService.update(id, updateDTO, expectedVersion);
         return ResponseEntity.ok(updated);
     }
 
     @GetMapping("/{id}/items")
     public ResponseEntity<List<ItemDTO>> getAllItems(
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest request) {
+        Optional<String> eTag = changeVersionService.getSubtreeVersion(id)
+                .map(version -> EntityTags.list("storage-" + id + "-items", version));
+        if (EntityTags.isNotModified(request, eTag)) {
+            return null;
+        }
         List<ItemDTO> items = storageService.getAllItemDTOs(id);
         return ResponseEntity.ok(items);
     }
 
+    @GetMapping(value = "/{id}/items", params = NormalizedViews.PARAM)
+    public ResponseEntity<MappingJacksonValue> getAllItemsNormalized(
+            @PathVariable Long id,
+            @RequestParam(required = false) Set<String> include,
+            @RequestParam(required = false) Set<String> fields,
+            WebRequest request) {
+        Set<StorageInclude> storageIncludes = NormalizedViews.include(include);
+        Set<String> itemFields = NormalizedViews.fields(fields);
+        Optional<String> eTag = changeVersionService.getSubtreeVersion(id)
+                .map(version -> EntityTags.list("storage-" + id + "-items", version));
+        if (EntityTags.isNotModified(request, NormalizedViews.tag(eTag, storageIncludes, itemFields))) {
+            return null;
+        }
+        NormalizedItemsDTO items = storageService.getAllItemsNormalized(id, storageIncludes);
+        return ResponseEntity.ok(NormalizedViews.withFields(items, itemFields));
+    }
+
     @GetMapping("/{id}/substorages")
     public ResponseEntity<List<StorageDTO>> getSubStorages(
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest request) {
+        Optional<String> eTag = changeVersionService.getSubStoragesVersion(id)
+                .map(version -> EntityTags.list("storage-" + id + "-substorages", version));
+        if (EntityTags.isNotModified(request, eTag)) {
+            return null;
+        }
         List<StorageDTO> substorages = storageService.getSubStorages(id);
         return ResponseEntity.ok(substorages);
     }
 
+    @GetMapping("/{id}/tree")
+    public ResponseEntity<List<StorageTreeNodeDTO>> getTree(
+            @PathVariable Long id,
+            @RequestParam(required = false) @Min(0) Integer depth,
+            WebRequest request) {
+        // Item counts are part of the tree, so it changes with the items of the subtree too
+        Optional<String> eTag = changeVersionService.getSubtreeVersion(id)
+                .map(version -> EntityTags.list("storage-" + id + "-tree", version))
+                .map(tag -> depth != null ? EntityTags.variant(tag, "depth-" + depth) : tag);
+        if (EntityTags.isNotModified(request, eTag)) {
+            return null;
+        }
+        List<StorageTreeNodeDTO> tree = storageService.getTree(id, depth);
+        return ResponseEntity.ok(tree);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(
             @PathVariable @Min(1) Long id) {
@@ -85,7 +176,7 @@ public class StorageRestController {
     public ResponseEntity<StorageDTO> addItemsToStorage(
             @PathVariable @Min(1) Long id,
             @RequestBody List<Long> itemIds) {
-        StorageDTO updated = storageService.addItems(id, itemIds);
+        StorageDTO updated = retrier.execute(() -> storageService.addItems(id, itemIds));
         return ResponseEntity.ok(updated);
     }
 
@@ -100,8 +191,16 @@ public class StorageRestController {
     @GetMapping("/search")
     public ResponseEntity<List<StorageDTO>> searchStorages(
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) StorageType type) {
+            @RequestParam(required = false) StorageType type,
+            WebRequest request) {
+        if (EntityTags.isNotModified(request, latestListTag())) {
+            return null;
+        }
         List<StorageDTO> storages = storageService.searchByNameAndType(name, type);
         return ResponseEntity.ok(storages);
     }
+
+    private Optional<String> latestListTag() {
+        return Optional.of(EntityTags.list("storages", changeVersionService.getLatestVersion()));
+    }
 }
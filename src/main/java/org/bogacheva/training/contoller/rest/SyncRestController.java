@@ -0,0 +1,30 @@
+package org.bogacheva.training.contoller.rest;
+
+import lombok.RequiredArgsConstructor;
+import org.bogacheva.training.service.dto.SyncBatchDTO;
+import org.bogacheva.training.service.sync.SyncService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for delta synchronisation of offline clients.
+ * Clients start with {@code since=0} and keep requesting batches with the returned
+ * {@code version} until {@code hasMore} is false.
+ */
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+public class SyncRestController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncBatchDTO> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(syncService.getChangesSince(since, limit));
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 import org.bogacheva.training.domain.storage.Storage;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.List;
 
@@ -32,8 +34,24 @@ public class Item {
     @Column(name = "keyword")
     private List<String> keywords;
 
+    // Change log version of the latest mutation of this item, see SyncChangeRecorder.
+    // Left out of optimistic locking, as the version already covers the change being stamped.
+    @Builder.Default
+    @OptimisticLock(excluded = true)
+    @ColumnDefault("0")
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion = 0L;
+
+    // Optimistic lock, left null until persisted so that Spring Data treats the entity as new
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // @Builder.Default moves the field initializer out of hand-written constructors
     public Item(String name, Storage storage) {
         this.name = name;
         this.storage = storage;
+        this.changeVersion = 0L;
     }
 }
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
 import org.bogacheva.training.domain.item.Item;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -26,9 +29,12 @@ public class Storage {
     @Enumerated(EnumType.STRING)
     private StorageType type;
 
+    // Mapping a list of storages reads their items and sub-storages for up to 100 storages at once
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "storage", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Item> items = new ArrayList<>();
 
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "parent", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Storage> subStorages = new ArrayList<>();
 
@@ -36,6 +42,20 @@ public class Storage {
     @JoinColumn(name = "parent_id")
     private Storage parent;
 
+    // Change log version of the latest mutation of this storage or of its direct children,
+    // see SyncChangeRecorder. Stamped by every change to a child, so it must not take part in
+    // optimistic locking, or concurrent changes in one storage would conflict.
+    @OptimisticLock(excluded = true)
+    @ColumnDefault("0")
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion = 0L;
+
+    // Optimistic lock, left null until persisted so that Spring Data treats the entity as new
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public Storage(String name, StorageType type, Storage parent) {
         this.name = name;
         this.type = type;
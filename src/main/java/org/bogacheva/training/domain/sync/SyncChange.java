@@ -0,0 +1,54 @@
+package org.bogacheva.training.domain.sync;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A single entry of the change log used by delta synchronisation.
+ * The generated {@code version} is the monotonically increasing change version
+ * that clients pass back as {@code since} on their next sync.
+ * <p>
+ * Versions are assigned when a change is inserted, not when its transaction commits, so a
+ * change may become visible after changes with higher versions. The time it was recorded at
+ * lets readers hold back the most recent changes until earlier ones have had time to commit.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "sync_changes",
+        indexes = {
+                @Index(name = "idx_sync_changes_entity", columnList = "entity_type, entity_id"),
+                @Index(name = "idx_sync_changes_recorded_at", columnList = "recorded_at")
+        })
+public class SyncChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long version;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private SyncEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SyncOperation operation;
+
+    // Empty for changes recorded before the column existed, which are treated as committed
+    @Column(name = "recorded_at")
+    private Instant recordedAt;
+
+    public SyncChange(SyncEntityType entityType, Long entityId, SyncOperation operation) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.recordedAt = Instant.now();
+    }
+}
@@ -0,0 +1,6 @@
+package org.bogacheva.training.domain.sync;
+
+public enum SyncOperation {
+    UPSERT,
+    DELETE
+}
@@ -1,6 +1,7 @@
 package org.bogacheva.training.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -23,6 +24,12 @@ public class GlobalExceptionHandler {
         return buildShelveItErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), ex.getClass().getName());
     }
 
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ShelveItError> handle(ResourceNotFoundException ex) {
+        log.error("Resource not found: {}", ex.getMessage());
+        return buildShelveItErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), ex.getClass().getName());
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ShelveItError> handle(IllegalArgumentException ex) {
         log.error("Invalid argument: {}", ex.getMessage());
@@ -35,6 +42,22 @@ public class GlobalExceptionHandler {
         return buildShelveItErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), ex.getClass().getName());
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ShelveItError> handle(PreconditionFailedException ex) {
+        log.warn("Precondition failed: {}", ex.getMessage());
+        return buildShelveItErrorResponse(HttpStatus.PRECONDITION_FAILED, ex.getMessage(), ex.getClass().getName());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ShelveItError> handle(OptimisticLockingFailureException ex) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+        return buildShelveItErrorResponse(
+                HttpStatus.PRECONDITION_FAILED,
+                "The resource was modified concurrently. Fetch the latest version and retry.",
+                ex.getClass().getName()
+        );
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ShelveItError> handle(MethodArgumentNotValidException ex) {
         List<String> errors = ex.getBindingResult()
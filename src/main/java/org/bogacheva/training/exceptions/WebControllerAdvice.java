@@ -1,6 +1,7 @@
 package org.bogacheva.training.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -77,6 +78,16 @@ public class WebControllerAdvice {
         );
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ModelAndView handleConcurrentModification(OptimisticLockingFailureException ex) {
+        log.warn("Concurrent modification: {}", ex.getMessage());
+        return createErrorModelAndView(
+                "Concurrent Modification",
+                "The data was changed by someone else in the meantime. Please reload and try again.",
+                HttpStatus.CONFLICT.value()
+        );
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ModelAndView handleValidationError(MethodArgumentNotValidException ex) {
         List<String> errors = ex.getBindingResult()
@@ -0,0 +1,96 @@
+package org.bogacheva.training.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps track of the statement each thread is executing, so that another thread can cancel it.
+ * Interrupting a thread does not stop a query waiting on the database, whereas
+ * {@link Statement#cancel()} makes the database abort it and the driver throw in the waiting
+ * thread.
+ * <p>
+ * A statement is only cancelled while it is registered to its thread. Each execution has a lock
+ * of its own, held while a cancel of it is sent and while its thread marks it finished, so a
+ * thread cannot finish its statement and move on to the next one while a cancel is being sent.
+ * Otherwise the cancel could reach the database when the connection is already running another
+ * query, which would then be aborted instead. Sending a cancel can take a network round trip, as
+ * with PostgreSQL, which opens a connection for it, so it is never sent under a lock shared with
+ * other threads.
+ */
+@Slf4j
+@Component
+public class ActiveStatements implements QueryExecutionListener {
+
+    private final Map<Thread, Execution> executions = new ConcurrentHashMap<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        executions.put(Thread.currentThread(), new Execution(execInfo.getStatement()));
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Thread thread = Thread.currentThread();
+        Execution execution = executions.get(thread);
+        if (execution != null && execution.statement == execInfo.getStatement()) {
+            execution.finish();
+            executions.remove(thread, execution);
+        }
+    }
+
+    /**
+     * Cancels the statement the given thread is executing, if any.
+     *
+     * @return whether a statement was cancelled
+     */
+    public boolean cancel(Thread thread) {
+        Execution execution = executions.get(thread);
+        return execution != null && execution.cancel(thread);
+    }
+
+    private static final class Execution {
+
+        private final Statement statement;
+        private final ReentrantLock lock = new ReentrantLock();
+        private boolean finished;
+
+        private Execution(Statement statement) {
+            this.statement = statement;
+        }
+
+        private boolean cancel(Thread owner) {
+            lock.lock();
+            try {
+                if (finished) {
+                    return false;
+                }
+                statement.cancel();
+                return true;
+            } catch (SQLException e) {
+                log.warn("Could not cancel statement of {}: {}", owner, e.getMessage());
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void finish() {
+            lock.lock();
+            try {
+                finished = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.bogacheva.training.monitoring;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Observes every JDBC statement execution on the application data source and adds it to the
+ * statistics of the request being served, if any. A batch counts as one execution.
+ * <p>
+ * Each execution becomes a {@code shelveit.jdbc.statements} timer sample and, when tracing is
+ * enabled, a span nested under the repository call that issued it, carrying the SQL text and
+ * the number of rows changed by DML statements.
+ */
+@Component
+public class QueryMetricsListener implements QueryExecutionListener {
+
+    static final String STATEMENTS_METRIC = "shelveit.jdbc.statements";
+
+    private static final String OBSERVATION = QueryMetricsListener.class.getName();
+
+    // Resolved lazily: the data source is wrapped before the observation registry is available
+    private final ObjectProvider<ObservationRegistry> registry;
+
+    public QueryMetricsListener(ObjectProvider<ObservationRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.stream()
+                .map(QueryInfo::getQuery)
+                .distinct()
+                .collect(Collectors.joining("; "));
+        Observation observation = Observation.createNotStarted(STATEMENTS_METRIC,
+                        registry.getIfAvailable(() -> ObservationRegistry.NOOP))
+                .contextualName("jdbc " + operation(sql))
+                .lowCardinalityKeyValue("db.operation", operation(sql))
+                .highCardinalityKeyValue("db.statement", sql)
+                .start();
+        execInfo.addCustomValue(OBSERVATION, observation);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestQueryStats.record(execInfo.getElapsedTime());
+        Observation observation = execInfo.getCustomValue(OBSERVATION, Observation.class);
+        if (observation == null) {
+            return;
+        }
+        observation.lowCardinalityKeyValue("success", String.valueOf(execInfo.isSuccess()));
+        Long rows = updatedRows(execInfo.getResult());
+        if (rows != null) {
+            observation.highCardinalityKeyValue("db.rows", String.valueOf(rows));
+        }
+        if (execInfo.getThrowable() != null) {
+            observation.error(execInfo.getThrowable());
+        }
+        observation.stop();
+    }
+
+    private static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end == 0 ? "unknown" : trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    // Queries return a result set whose rows are counted by the repository observation instead
+    private static Long updatedRows(Object result) {
+        if (result instanceof Integer count) {
+            return count.longValue();
+        }
+        if (result instanceof int[] counts) {
+            return Arrays.stream(counts).filter(count -> count > 0).asLongStream().sum();
+        }
+        return null;
+    }
+}
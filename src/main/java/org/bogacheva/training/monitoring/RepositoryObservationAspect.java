@@ -0,0 +1,69 @@
+package org.bogacheva.training.monitoring;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Observes every call on a Spring Data repository as {@code shelveit.repository}. The JDBC
+ * statements the call issues become its children, and the number of rows it returned is
+ * recorded on the span, so a trace shows which query a slow service method was waiting on.
+ */
+@Aspect
+@Component
+public class RepositoryObservationAspect {
+
+    static final String OBSERVATION_NAME = "shelveit.repository";
+
+    private final ObservationRegistry registry;
+
+    public RepositoryObservationAspect(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryName(joinPoint.getTarget());
+        String method = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted(OBSERVATION_NAME, registry)
+                .contextualName(repository + "#" + method)
+                .lowCardinalityKeyValue("repository", repository)
+                .lowCardinalityKeyValue("method", method)
+                .start();
+        try (Observation.Scope ignored = observation.openScope()) {
+            Object result = joinPoint.proceed();
+            Long rows = rows(result);
+            if (rows != null) {
+                observation.highCardinalityKeyValue("rows", String.valueOf(rows));
+            }
+            return result;
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static String repositoryName(Object target) {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(target);
+        return interfaces.length > 0 ? interfaces[0].getSimpleName() : target.getClass().getSimpleName();
+    }
+
+    private static Long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return (long) collection.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1L : 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+package org.bogacheva.training.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how many SQL statements each request issued and how long they took, per endpoint.
+ * A rising statement count on an endpoint is the signature of an N+1 regression.
+ */
+@Component
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_METRIC = "shelveit.request.sql.statements";
+    static final String TIME_METRIC = "shelveit.request.sql.time";
+
+    private final MeterRegistry registry;
+
+    public RequestQueryMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestQueryStats.end();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestQueryStats stats) {
+        Tags tags = RequestTags.of(request);
+        DistributionSummary.builder(STATEMENTS_METRIC)
+                .description("SQL statements executed per request")
+                .baseUnit("statements")
+                .serviceLevelObjectives(1, 5, 10, 50, 100)
+                .tags(tags)
+                .register(registry)
+                .record(stats.getStatements());
+        Timer.builder(TIME_METRIC)
+                .description("Time spent executing SQL statements per request")
+                .tags(tags)
+                .register(registry)
+                .record(stats.getElapsedMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,43 @@
+package org.bogacheva.training.monitoring;
+
+/**
+ * Number of JDBC statements executed while serving the current request, and the time spent in them.
+ * Bound to the request thread by {@link RequestQueryMetricsFilter} and fed by {@link QueryMetricsListener};
+ * statements executed on threads without bound stats, such as CLI commands, are not counted here.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long elapsedMillis;
+
+    private RequestQueryStats() {
+    }
+
+    static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static void record(long elapsedMillis) {
+        RequestQueryStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.elapsedMillis += elapsedMillis;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -0,0 +1,203 @@
+package org.bogacheva.training.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the thread CPU time and heap allocation of each request as histograms per endpoint.
+ * Allocation that is out of proportion to the response size shows up here long before it
+ * shows up as GC pressure.
+ * <p>
+ * With {@code shelveit.metrics.server-timing=true} the response also carries a
+ * {@code Server-Timing} header. Headers must be sent before the body, so the header covers the
+ * work done until the response started to be written, i.e. everything except serialization;
+ * the histograms cover the whole request.
+ */
+@Component
+public class RequestResourceMetricsFilter extends OncePerRequestFilter {
+
+    static final String CPU_METRIC = "shelveit.request.cpu";
+    static final String ALLOCATION_METRIC = "shelveit.request.allocation";
+    static final String UNMEASURED_METRIC = "shelveit.request.unmeasured";
+
+    private static final String USAGE_ATTRIBUTE = RequestResourceMetricsFilter.class.getName() + ".usage";
+
+    private final MeterRegistry registry;
+    private final boolean serverTiming;
+
+    public RequestResourceMetricsFilter(MeterRegistry registry,
+                                        @Value("${shelveit.metrics.server-timing:false}") boolean serverTiming) {
+        this.registry = registry;
+        this.serverTiming = serverTiming;
+    }
+
+    // Async dispatches render the result of async processing and are charged to the same request
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestResourceUsage usage = (RequestResourceUsage) request.getAttribute(USAGE_ATTRIBUTE);
+        boolean initial = usage == null;
+        if (initial) {
+            usage = new RequestResourceUsage();
+            request.setAttribute(USAGE_ATTRIBUTE, usage);
+        }
+        RequestResourceUsage.Segment segment = usage.start();
+        ServerTimingResponse timedResponse = serverTiming ? new ServerTimingResponse(response, segment) : null;
+        try {
+            chain.doFilter(request, timedResponse != null ? timedResponse : response);
+            // Responses without a body, such as 304, never trigger the header on their own
+            if (timedResponse != null && !request.isAsyncStarted()) {
+                timedResponse.addServerTiming();
+            }
+        } finally {
+            segment.close();
+            if (!request.isAsyncStarted()) {
+                record(request, usage);
+            } else if (initial) {
+                request.getAsyncContext().addListener(new RecordOnCompletion(request, usage));
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestResourceUsage usage) {
+        Tags tags = RequestTags.of(request);
+        if (!usage.isComplete()) {
+            Counter.builder(UNMEASURED_METRIC)
+                    .description("Requests whose CPU and allocation could not be measured, e.g. on virtual threads")
+                    .tags(tags)
+                    .register(registry)
+                    .increment();
+            return;
+        }
+        Timer.builder(CPU_METRIC)
+                .description("Thread CPU time spent serving a request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry)
+                .record(usage.getCpuNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder(ALLOCATION_METRIC)
+                .description("Heap bytes allocated while serving a request")
+                .baseUnit("bytes")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1024.0)
+                .maximumExpectedValue(1024.0 * 1024 * 1024)
+                .register(registry)
+                .record(usage.getAllocatedBytes());
+    }
+
+    private final class RecordOnCompletion implements AsyncListener {
+
+        private final HttpServletRequest request;
+        private final RequestResourceUsage usage;
+
+        private RecordOnCompletion(HttpServletRequest request, RequestResourceUsage usage) {
+            this.request = request;
+            this.usage = usage;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            record(request, usage);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * Adds the {@code Server-Timing} header just before the response is committed.
+     */
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestResourceUsage.Segment segment;
+        private boolean written;
+
+        private ServerTimingResponse(HttpServletResponse response, RequestResourceUsage.Segment segment) {
+            super(response);
+            this.segment = segment;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addServerTiming();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addServerTiming();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addServerTiming();
+            super.sendRedirect(location);
+        }
+
+        private void addServerTiming() {
+            if (written || isCommitted()) {
+                return;
+            }
+            written = true;
+            addHeader("Server-Timing", String.format(Locale.ROOT, "cpu;dur=%.3f, alloc;desc=\"%d bytes\"",
+                    segment.cpuNanosSoFar() / 1_000_000.0, segment.allocatedBytesSoFar()));
+        }
+    }
+}
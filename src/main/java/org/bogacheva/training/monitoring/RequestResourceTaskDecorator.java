@@ -0,0 +1,26 @@
+package org.bogacheva.training.monitoring;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Charges work handed off to an executor to the request that submitted it, so that async
+ * request processing and {@code @Async} calls show up in the request's CPU and allocation.
+ * Spring Boot applies a single {@code TaskDecorator} bean to the executors it configures.
+ */
+@Component
+public class RequestResourceTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestResourceUsage usage = RequestResourceUsage.current();
+        if (usage == null) {
+            return runnable;
+        }
+        return () -> {
+            try (RequestResourceUsage.Segment ignored = usage.start()) {
+                runnable.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package org.bogacheva.training.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread CPU time and heap allocation spent on serving one request, summed over every thread
+ * that worked on it. Each thread's share is measured as a {@link Segment}: the request thread
+ * by {@link RequestResourceMetricsFilter}, and tasks handed off to executors by
+ * {@link RequestResourceTaskDecorator}.
+ * <p>
+ * The JVM does not report CPU time or allocation for virtual threads; a request with work on
+ * one is marked {@link #isComplete() incomplete} rather than under-reported.
+ */
+public final class RequestResourceUsage {
+
+    private static final ThreadLocal<RequestResourceUsage> CURRENT = new ThreadLocal<>();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private volatile boolean complete = true;
+
+    RequestResourceUsage() {
+    }
+
+    /**
+     * The usage of the request the current thread is working on, or {@code null} outside a request.
+     */
+    public static RequestResourceUsage current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Starts measuring the current thread's work for this request, until the segment is closed.
+     */
+    public Segment start() {
+        return new Segment();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private static long threadCpuNanos() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long threadAllocatedBytes() {
+        return THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemorySupported()
+                ? threads.getCurrentThreadAllocatedBytes()
+                : -1;
+    }
+
+    /**
+     * The part of a request's work done by one thread in one go.
+     */
+    public final class Segment implements AutoCloseable {
+
+        private final RequestResourceUsage previous = CURRENT.get();
+        private final long startCpuNanos = threadCpuNanos();
+        private final long startAllocatedBytes = threadAllocatedBytes();
+
+        private Segment() {
+            CURRENT.set(RequestResourceUsage.this);
+        }
+
+        /**
+         * CPU time of the request so far, including the running part of this segment.
+         */
+        public long cpuNanosSoFar() {
+            return getCpuNanos() + delta(startCpuNanos, threadCpuNanos());
+        }
+
+        /**
+         * Bytes allocated for the request so far, including the running part of this segment.
+         */
+        public long allocatedBytesSoFar() {
+            return getAllocatedBytes() + delta(startAllocatedBytes, threadAllocatedBytes());
+        }
+
+        @Override
+        public void close() {
+            long cpu = threadCpuNanos();
+            long allocated = threadAllocatedBytes();
+            if (startCpuNanos < 0 || cpu < 0 || startAllocatedBytes < 0 || allocated < 0) {
+                complete = false;
+            }
+            cpuNanos.add(delta(startCpuNanos, cpu));
+            allocatedBytes.add(delta(startAllocatedBytes, allocated));
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+
+        private static long delta(long start, long end) {
+            return start < 0 || end < 0 ? 0 : end - start;
+        }
+    }
+}
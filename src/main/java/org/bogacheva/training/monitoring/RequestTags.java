@@ -0,0 +1,21 @@
+package org.bogacheva.training.monitoring;
+
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Tags identifying the endpoint a request was mapped to, shared by the per-request metrics.
+ */
+final class RequestTags {
+
+    private RequestTags() {
+    }
+
+    static Tags of(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return Tags.of(
+                "method", request.getMethod(),
+                "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+    }
+}
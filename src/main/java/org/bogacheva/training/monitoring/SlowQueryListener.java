@@ -0,0 +1,198 @@
+package org.bogacheva.training.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Logs every statement that runs longer than {@code shelveit.slow-query.threshold}, with its
+ * bound parameters and the application method that issued it.
+ * <p>
+ * A sample of slow queries ({@code shelveit.slow-query.explain-sample-rate}) also gets its plan
+ * logged, at most once per statement per {@code shelveit.slow-query.explain-interval}. On
+ * PostgreSQL this is {@code EXPLAIN (ANALYZE, BUFFERS)}, which runs the query a second time, so
+ * it is only done for queries, in a read-only transaction that is rolled back. Plans are
+ * captured on a background thread over an uninstrumented connection, and are dropped rather
+ * than queued when the database is already busy explaining.
+ */
+@Slf4j
+@Component
+public class SlowQueryListener implements QueryExecutionListener, DisposableBean {
+
+    private static final String APPLICATION_PACKAGE = "org.bogacheva.training.";
+    private static final String MONITORING_PACKAGE = APPLICATION_PACKAGE + "monitoring.";
+    private static final int MAX_PARAMETER_LENGTH = 100;
+    private static final int EXPLAIN_TIMEOUT_SECONDS = 30;
+    private static final int MAX_EXPLAINED_STATEMENTS = 1000;
+
+    // Resolved lazily: this listener is wired into the data source it explains on
+    private final ObjectProvider<DataSource> dataSource;
+    private final long thresholdMillis;
+    private final double explainSampleRate;
+    private final long explainIntervalNanos;
+    // When each statement was last explained, oldest first; guarded by itself
+    private final Map<String, Long> lastExplained = new LinkedHashMap<>();
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(4), runnable -> {
+                Thread thread = new Thread(runnable, "slow-query-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public SlowQueryListener(ObjectProvider<DataSource> dataSource,
+                             @Value("${shelveit.slow-query.threshold:200ms}") Duration threshold,
+                             @Value("${shelveit.slow-query.explain-sample-rate:0.1}") double explainSampleRate,
+                             @Value("${shelveit.slow-query.explain-interval:10m}") Duration explainInterval) {
+        this.dataSource = dataSource;
+        this.thresholdMillis = threshold.toMillis();
+        this.explainSampleRate = explainSampleRate;
+        this.explainIntervalNanos = explainInterval.toNanos();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis || queryInfoList.isEmpty()) {
+            return;
+        }
+        String caller = findCaller();
+        for (QueryInfo query : queryInfoList) {
+            log.warn("Slow query took {} ms in {}: {} parameters: {}",
+                    execInfo.getElapsedTime(), caller, query.getQuery(), formatParameters(query));
+        }
+        QueryInfo query = queryInfoList.get(0);
+        if (isQuery(query.getQuery()) && shouldExplain(query.getQuery())) {
+            List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                    ? List.of() : query.getParametersList().get(0);
+            explainer.execute(() -> explain(query.getQuery(), parameters, caller));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        explainer.shutdownNow();
+    }
+
+    private boolean shouldExplain(String sql) {
+        if (ThreadLocalRandom.current().nextDouble() >= explainSampleRate) {
+            return false;
+        }
+        long now = System.nanoTime();
+        synchronized (lastExplained) {
+            // Statements whose interval is over are forgotten, and the oldest ones once the map is full
+            Iterator<Long> explainedAt = lastExplained.values().iterator();
+            while (explainedAt.hasNext()) {
+                if (now - explainedAt.next() < explainIntervalNanos
+                        && lastExplained.size() < MAX_EXPLAINED_STATEMENTS) {
+                    break;
+                }
+                explainedAt.remove();
+            }
+            return lastExplained.putIfAbsent(sql, now) == null;
+        }
+    }
+
+    private void explain(String sql, List<ParameterSetOperation> parameters, String caller) {
+        try (Connection connection = unwrap(dataSource.getObject()).getConnection()) {
+            boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            String explain = postgres ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ";
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(explain + sql)) {
+                statement.setQueryTimeout(EXPLAIN_TIMEOUT_SECONDS);
+                for (ParameterSetOperation parameter : parameters) {
+                    parameter.getMethod().invoke(statement, parameter.getArgs());
+                }
+                log.warn("Plan of slow query in {}:\n{}", caller, readPlan(statement));
+            } finally {
+                connection.rollback();
+            }
+        } catch (Exception e) {
+            log.warn("Could not explain slow query in {}: {}", caller, e.getMessage());
+        }
+    }
+
+    private static String readPlan(PreparedStatement statement) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                if (!plan.isEmpty()) {
+                    plan.append('\n');
+                }
+                plan.append(rows.getString(1));
+            }
+        }
+        return plan.toString();
+    }
+
+    // The proxy would time the EXPLAIN itself, and a slow plan would be explained in turn
+    private static DataSource unwrap(DataSource dataSource) {
+        return dataSource instanceof ProxyDataSource proxy ? proxy.getDataSource() : dataSource;
+    }
+
+    private static boolean isQuery(String sql) {
+        String statement = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return statement.startsWith("select") || statement.startsWith("with");
+    }
+
+    private static String findCaller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(frame -> !frame.getClassName().startsWith(MONITORING_PACKAGE))
+                .filter(frame -> !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName()
+                        + ":" + frame.getLineNumber())
+                .orElse("unknown caller"));
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static String formatParameters(QueryInfo query) {
+        return query.getParametersList().stream()
+                .map(batch -> batch.stream()
+                        .map(SlowQueryListener::formatParameter)
+                        .collect(Collectors.joining(", ", "[", "]")))
+                .collect(Collectors.joining(" "));
+    }
+
+    private static String formatParameter(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        Object value = ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2
+                ? null : args[1];
+        String text = value instanceof String string ? "'" + string + "'" : String.valueOf(value);
+        if (text.length() > MAX_PARAMETER_LENGTH) {
+            text = text.substring(0, MAX_PARAMETER_LENGTH) + "...";
+        }
+        return args[0] + "=" + text;
+    }
+}
@@ -0,0 +1,91 @@
+package org.bogacheva.training.monitoring.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs bounded, on-demand Java Flight Recorder sessions of this process.
+ * <p>
+ * Only one recording runs at a time, and its length is capped at
+ * {@code shelveit.profiling.max-duration}. The {@code profile} settings capture allocation
+ * and lock contention samples; {@code default} is cheaper but coarser. The ShelveIt events
+ * ({@link ServiceCallEvent}, {@link SearchQueryEvent}, {@link HierarchyTraversalEvent}) are
+ * recorded under either.
+ */
+@Slf4j
+@Component
+public class FlightRecorderService {
+
+    public static final String DEFAULT_SETTINGS = "profile";
+    public static final Duration DEFAULT_DURATION = Duration.ofSeconds(30);
+
+    private final Duration maxDuration;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FlightRecorderService(@Value("${shelveit.profiling.max-duration:5m}") Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Records for the given duration, blocking the caller, and writes the recording to a file.
+     *
+     * @param duration how long to record; defaults to 30 seconds and is capped at the maximum
+     * @param settings name of the JFR settings to use, {@code profile} or {@code default}
+     * @param destination file to write the recording to
+     * @throws IllegalArgumentException if the settings are unknown
+     * @throws IllegalStateException if another recording is in progress
+     */
+    public void record(Duration duration, String settings, Path destination) {
+        Configuration configuration = getConfiguration(settings == null ? DEFAULT_SETTINGS : settings);
+        Duration length = bound(duration);
+        if (!lock.tryLock()) {
+            throw new IllegalStateException("A flight recording is already in progress");
+        }
+        try (Recording recording = new Recording(configuration)) {
+            recording.setName("shelveit-on-demand");
+            log.info("Starting {} flight recording for {}", configuration.getName(), length);
+            recording.start();
+            try {
+                Thread.sleep(length);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.info("Flight recording interrupted, keeping what was recorded so far");
+            }
+            recording.stop();
+            recording.dump(destination);
+            log.info("Flight recording written to {}", destination);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write flight recording to " + destination, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Duration bound(Duration duration) {
+        if (duration == null) {
+            return DEFAULT_DURATION.compareTo(maxDuration) < 0 ? DEFAULT_DURATION : maxDuration;
+        }
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Recording duration must be positive: " + duration);
+        }
+        return duration.compareTo(maxDuration) < 0 ? duration : maxDuration;
+    }
+
+    private static Configuration getConfiguration(String settings) {
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Unknown flight recorder settings: " + settings);
+        }
+    }
+}
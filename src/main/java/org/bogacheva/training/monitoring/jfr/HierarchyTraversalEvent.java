@@ -0,0 +1,39 @@
+package org.bogacheva.training.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One walk of the storage hierarchy, up from an item or down from a storage, with the number
+ * of storages it reached.
+ */
+@Name("shelveit.HierarchyTraversal")
+@Label("Hierarchy Traversal")
+@Category({"ShelveIt", "Hierarchy"})
+@Description("Traversal of the storage hierarchy")
+@StackTrace(false)
+public class HierarchyTraversalEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Start ID")
+    long startId;
+
+    @Label("Storages")
+    int storages;
+
+    public void complete(String operation, long startId, int storages) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.startId = startId;
+            this.storages = storages;
+            commit();
+        }
+    }
+}
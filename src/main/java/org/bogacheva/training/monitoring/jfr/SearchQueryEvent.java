@@ -0,0 +1,44 @@
+package org.bogacheva.training.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.Collection;
+
+/**
+ * One item or storage search, with its criteria and the number of matches.
+ */
+@Name("shelveit.SearchQuery")
+@Label("Search Query")
+@Category({"ShelveIt", "Search"})
+@Description("Search for items or storages by name, keywords or type")
+@StackTrace(false)
+public class SearchQueryEvent extends Event {
+
+    @Label("Target")
+    String target;
+
+    @Label("Name")
+    String name;
+
+    @Label("Criteria")
+    String criteria;
+
+    @Label("Results")
+    int results;
+
+    public void complete(String target, String name, Collection<?> criteria, int results) {
+        end();
+        if (shouldCommit()) {
+            this.target = target;
+            this.name = name;
+            this.criteria = criteria == null ? null : criteria.toString();
+            this.results = results;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.bogacheva.training.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call of a public service method, so that allocation and lock samples in a recording can
+ * be attributed to the operation that was running.
+ */
+@Name("shelveit.ServiceCall")
+@Label("Service Call")
+@Category({"ShelveIt", "Service"})
+@Description("Execution of a service method")
+@StackTrace(false)
+public class ServiceCallEvent extends Event {
+
+    @Label("Service")
+    String service;
+
+    @Label("Method")
+    String method;
+
+    @Label("Failed")
+    boolean failed;
+
+    public void complete(String service, String method, boolean failed) {
+        end();
+        if (shouldCommit()) {
+            this.service = service;
+            this.method = method;
+            this.failed = failed;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.bogacheva.training.monitoring.jfr;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits a {@link ServiceCallEvent} around every public method of a {@code @Service} bean.
+ * Outside of a recording the event is disabled and costs no more than the advice itself.
+ */
+@Aspect
+@Component
+public class ServiceCallEventAspect {
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        ServiceCallEvent event = new ServiceCallEvent();
+        event.begin();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.complete(joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                    joinPoint.getSignature().getName(), failed);
+        }
+    }
+}
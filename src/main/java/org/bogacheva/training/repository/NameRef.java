@@ -0,0 +1,10 @@
+package org.bogacheva.training.repository;
+
+/**
+ * ID and name of an item or a storage.
+ */
+public interface NameRef {
+    Long getId();
+
+    String getName();
+}
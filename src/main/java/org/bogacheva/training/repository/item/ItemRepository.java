@@ -2,11 +2,19 @@ package org.bogacheva.training.repository.item;
 
 import jakarta.validation.constraints.NotNull;
 import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.repository.NameRef;
+import org.bogacheva.training.repository.storage.StorageChildCount;
+import org.bogacheva.training.repository.storage.StorageChildRef;
+import org.springframework.data.domain.Pageable;
+import org.bogacheva.training.domain.storage.Storage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for {@link Item} entities.
@@ -51,7 +59,7 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
      * @return list of storage IDs in the hierarchy
      */
     @Query(value = """ 
-    WITH RECURSIVE storage_hierarchy AS (
+    WITH RECURSIVE storage_hierarchy(id, parent_id) AS (
         SELECT s.id, s.parent_id
         FROM storages s
         JOIN items i ON i.storage_id = s.id
@@ -73,4 +81,122 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
      */
     @Query("SELECT i FROM Item i WHERE LOWER(i.name) LIKE :pattern")
     List<Item> findByNameLikeIgnoreCase(@Param("pattern") String pattern);
+
+    /**
+     * Finds items by their IDs, fetching their storages and keywords in the same query.
+     *
+     * @param ids the IDs of the items
+     * @return list of existing items among the given IDs
+     */
+    @Query("SELECT DISTINCT i FROM Item i JOIN FETCH i.storage LEFT JOIN FETCH i.keywords WHERE i.id IN :ids")
+    List<Item> findAllWithKeywordsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the IDs of all items stored directly in any of the given storages.
+     *
+     * @param storageIds the IDs of the storages
+     * @return list of item IDs
+     */
+    @Query("SELECT i.id FROM Item i WHERE i.storage.id IN :storageIds")
+    List<Long> findIdsByStorageIds(@Param("storageIds") Collection<Long> storageIds);
+
+    /**
+     * Finds the IDs of all items whose names match the given pattern, ignoring case.
+     *
+     * @param pattern the search pattern for item names, lower-case, using SQL LIKE syntax
+     * @return list of item IDs
+     */
+    @Query("SELECT i.id FROM Item i WHERE LOWER(i.name) LIKE :pattern")
+    List<Long> findIdsByNameLikeIgnoreCase(@Param("pattern") String pattern);
+
+    /**
+     * Finds the IDs of items that have at least one of the specified keywords (case-insensitive).
+     *
+     * @param keywords list of lower-case keywords to search for
+     * @return list of item IDs
+     */
+    @Query("SELECT DISTINCT i.id FROM Item i JOIN i.keywords k WHERE LOWER(k) IN :keywords")
+    List<Long> findIdsByAnyKeyword(@Param("keywords") List<String> keywords);
+
+    // Finds the storage of each of the given items
+    @Query("SELECT i.storage.id AS storageId, i.id AS id FROM Item i WHERE i.id IN :ids")
+    List<StorageChildRef> findStorageRefsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves the given items to a storage in one statement, bypassing the persistence context.
+     * Each item is stamped with its latest change version, so its changes must be recorded first.
+     *
+     * @param ids the IDs of the items
+     * @param storage the storage to move the items to
+     * @return the number of moved items
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+    UPDATE Item i SET i.storage = :storage, i.version = i.version + 1,
+        i.changeVersion = (SELECT MAX(c.version) FROM SyncChange c
+                           WHERE c.entityType = org.bogacheva.training.domain.sync.SyncEntityType.ITEM
+                           AND c.entityId = i.id)
+    WHERE i.id IN :ids
+    """)
+    int moveAllByIdIn(@Param("ids") Collection<Long> ids, @Param("storage") Storage storage);
+
+    /**
+     * Deletes the given items and their keywords in two statements, bypassing the persistence context.
+     *
+     * @param ids the IDs of the items
+     * @return the number of deleted items
+     */
+    default int deleteAllByIdIn(Collection<Long> ids) {
+        deleteKeywordsByItemIdIn(ids);
+        return deleteByIdIn(ids);
+    }
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM item_keywords WHERE item_id IN (:ids)", nativeQuery = true)
+    int deleteKeywordsByItemIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Item i WHERE i.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the change version of an item as seen in its DTO, which also embeds the item's storage.
+     *
+     * @param itemId the ID of the item
+     * @return the greater of the item's and its storage's change version, empty if the item does not exist
+     */
+    @Query("""
+    SELECT CASE WHEN i.changeVersion > s.changeVersion THEN i.changeVersion ELSE s.changeVersion END
+    FROM Item i JOIN i.storage s
+    WHERE i.id = :itemId
+    """)
+    Optional<Long> findChangeVersion(@Param("itemId") Long itemId);
+
+    /**
+     * Finds the next page of item IDs in ascending order, for keyset pagination.
+     *
+     * @param afterId the last ID of the previous page, 0 for the first page
+     * @param pageable the page size
+     * @return IDs greater than {@code afterId}, in ascending order
+     */
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Finds the next page of item names in ID order, for keyset pagination.
+     *
+     * @param afterId the last ID of the previous page, 0 for the first page
+     * @param pageable the page size
+     * @return IDs and names of items with an ID greater than {@code afterId}, in ascending order
+     */
+    @Query("SELECT i.id AS id, i.name AS name FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<NameRef> findNamesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Counts the items directly contained in each of the given storages; storages without items are omitted
+    @Query("SELECT i.storage.id AS storageId, COUNT(i) AS count FROM Item i WHERE i.storage.id IN :storageIds GROUP BY i.storage.id")
+    List<StorageChildCount> countByStorageIds(@Param("storageIds") Collection<Long> storageIds);
+
+    // Finds the IDs of the items directly contained in each of the given storages
+    @Query("SELECT i.storage.id AS storageId, i.id AS id FROM Item i WHERE i.storage.id IN :storageIds ORDER BY i.id")
+    List<StorageChildRef> findChildRefsByStorageIds(@Param("storageIds") Collection<Long> storageIds);
 }
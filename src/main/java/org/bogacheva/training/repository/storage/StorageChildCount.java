@@ -0,0 +1,10 @@
+package org.bogacheva.training.repository.storage;
+
+/**
+ * Number of direct children, items or sub-storages, of a storage.
+ */
+public interface StorageChildCount {
+    Long getStorageId();
+
+    Long getCount();
+}
@@ -0,0 +1,10 @@
+package org.bogacheva.training.repository.storage;
+
+/**
+ * ID of a direct child, item or sub-storage, of a storage.
+ */
+public interface StorageChildRef {
+    Long getStorageId();
+
+    Long getId();
+}
@@ -2,11 +2,15 @@ package org.bogacheva.training.repository.storage;
 
 import org.bogacheva.training.domain.storage.Storage;
 import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.repository.NameRef;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface StorageRepository extends JpaRepository<Storage, Long> {
 
@@ -18,12 +22,94 @@ public interface StorageRepository extends JpaRepository<Storage, Long> {
     @Query("SELECT s FROM Storage s WHERE LOWER(s.name) LIKE :pattern")
     List<Storage> findByNameLikeIgnoreCase(@Param("pattern") String pattern);
 
+    // Counts the direct sub-storages of each of the given storages; storages without sub-storages are omitted
+    @Query("SELECT s.parent.id AS storageId, COUNT(s) AS count FROM Storage s WHERE s.parent.id IN :parentIds GROUP BY s.parent.id")
+    List<StorageChildCount> countByParentIds(@Param("parentIds") Collection<Long> parentIds);
+
+    // Finds the IDs of the direct sub-storages of each of the given storages
+    @Query("SELECT s.parent.id AS storageId, s.id AS id FROM Storage s WHERE s.parent.id IN :parentIds ORDER BY s.id")
+    List<StorageChildRef> findChildRefsByParentIds(@Param("parentIds") Collection<Long> parentIds);
+
     // Finds all storages of a specific type
     List<Storage> findByType(StorageType type);
 
+    // Finds the next page of storages in ID order, optionally of a specific type, for keyset pagination
+    @Query("SELECT s FROM Storage s WHERE s.id > :afterId AND (:type IS NULL OR s.type = :type) ORDER BY s.id")
+    List<Storage> findPageAfter(@Param("afterId") Long afterId, @Param("type") StorageType type, Pageable pageable);
+
+    // Finds the next page of storage names in ID order, for keyset pagination
+    @Query("SELECT s.id AS id, s.name AS name FROM Storage s WHERE s.id > :afterId ORDER BY s.id")
+    List<NameRef> findNamesAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     // Finds all storages with names containing the specified string, case-insensitive
     List<Storage> findByNameContainingIgnoreCase(String name);
 
     // Finds all storages with names containing the specified string, case-insensitive, and of a specific type
     List<Storage> findByNameContainingIgnoreCaseAndType(String name, StorageType type);
+
+    // Finds the IDs of a storage and all of its sub-storages recursively
+    @Query(value = """
+    WITH RECURSIVE subtree(id) AS (
+        SELECT s.id
+        FROM storages s
+        WHERE s.id = :storageId
+        UNION ALL
+        SELECT child.id
+        FROM storages child
+        JOIN subtree st ON child.parent_id = st.id
+    )
+    SELECT id FROM subtree
+    """, nativeQuery = true)
+    List<Long> findSubtreeIds(@Param("storageId") Long storageId);
+
+    // Finds a storage and its sub-storages down to the given depth, depth first with siblings in ID order, each
+    // with the numbers of its direct items and sub-storages, counted on the foreign key indexes; the zero-padded
+    // ID path orders the rows
+    @Query(value = """
+    WITH RECURSIVE tree(id, name, type, parent_id, depth, path) AS (
+        SELECT s.id, s.name, s.type, s.parent_id, 0, CAST(LPAD(CAST(s.id AS VARCHAR), 19, '0') AS VARCHAR)
+        FROM storages s
+        WHERE s.id = :storageId
+        UNION ALL
+        SELECT child.id, child.name, child.type, child.parent_id, t.depth + 1,
+               CAST(t.path || '/' || LPAD(CAST(child.id AS VARCHAR), 19, '0') AS VARCHAR)
+        FROM storages child
+        JOIN tree t ON child.parent_id = t.id
+        WHERE t.depth < :maxDepth
+    )
+    SELECT t.id AS id, t.name AS name, t.type AS type, t.parent_id AS parentId, t.depth AS depth,
+           (SELECT COUNT(*) FROM items i WHERE i.storage_id = t.id) AS itemCount,
+           (SELECT COUNT(*) FROM storages c WHERE c.parent_id = t.id) AS storageCount
+    FROM tree t
+    ORDER BY t.path
+    """, nativeQuery = true)
+    List<StorageTreeRow> findTree(@Param("storageId") Long storageId, @Param("maxDepth") int maxDepth);
+
+    // Finds the change version of a storage
+    @Query("SELECT s.changeVersion FROM Storage s WHERE s.id = :storageId")
+    Optional<Long> findChangeVersion(@Param("storageId") Long storageId);
+
+    // Finds the highest change version among a storage and its direct sub-storages, null if the storage does not exist
+    @Query("SELECT MAX(s.changeVersion) FROM Storage s WHERE s.id = :storageId OR s.parent.id = :storageId")
+    Optional<Long> findChildrenChangeVersion(@Param("storageId") Long storageId);
+
+    // Finds the highest change version among a storage, all of its sub-storages and the items they contain,
+    // null if the storage does not exist
+    @Query(value = """
+    WITH RECURSIVE subtree(id, change_version) AS (
+        SELECT s.id, s.change_version
+        FROM storages s
+        WHERE s.id = :storageId
+        UNION ALL
+        SELECT child.id, child.change_version
+        FROM storages child
+        JOIN subtree st ON child.parent_id = st.id
+    )
+    SELECT MAX(versions.change_version) FROM (
+        SELECT st.change_version FROM subtree st
+        UNION ALL
+        SELECT i.change_version FROM items i JOIN subtree st ON i.storage_id = st.id
+    ) versions
+    """, nativeQuery = true)
+    Optional<Long> findSubtreeChangeVersion(@Param("storageId") Long storageId);
 }
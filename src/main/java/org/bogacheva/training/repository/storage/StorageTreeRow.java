@@ -0,0 +1,23 @@
+package org.bogacheva.training.repository.storage;
+
+import org.bogacheva.training.domain.storage.StorageType;
+
+/**
+ * A storage of a subtree, with its depth below the root of the subtree and the numbers of its
+ * direct items and sub-storages.
+ */
+public interface StorageTreeRow {
+    Long getId();
+
+    String getName();
+
+    StorageType getType();
+
+    Long getParentId();
+
+    Integer getDepth();
+
+    Long getItemCount();
+
+    Long getStorageCount();
+}
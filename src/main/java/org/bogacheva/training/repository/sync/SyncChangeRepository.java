@@ -0,0 +1,93 @@
+package org.bogacheva.training.repository.sync;
+
+import org.bogacheva.training.domain.sync.SyncChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for {@link SyncChange} entries of the change log.
+ */
+public interface SyncChangeRepository extends JpaRepository<SyncChange, Long> {
+
+    /**
+     * Finds changes recorded after the given version, oldest first.
+     *
+     * @param since the last change version already known to the client
+     * @param pageable limits the number of returned changes
+     * @return list of changes with a version greater than {@code since}
+     */
+    @Query("SELECT c FROM SyncChange c WHERE c.version > :since ORDER BY c.version")
+    List<SyncChange> findChangesSince(@Param("since") Long since, Pageable pageable);
+
+    /**
+     * Records the same operation on each of the given items in one statement. Items that do not
+     * exist are skipped.
+     *
+     * @param itemIds the IDs of the items
+     * @param operation the name of the {@code SyncOperation}
+     * @param recordedAt the time the changes are recorded at
+     * @return the number of recorded changes
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+    INSERT INTO sync_changes (entity_type, entity_id, operation, recorded_at)
+    SELECT 'ITEM', i.id, :operation, :recordedAt FROM items i WHERE i.id IN (:itemIds)
+    """, nativeQuery = true)
+    int insertItemChanges(@Param("itemIds") Collection<Long> itemIds,
+                          @Param("operation") String operation,
+                          @Param("recordedAt") Instant recordedAt);
+
+    /**
+     * Records an upsert of every storage that has no entry in the change log, such as storages
+     * created before the change log existed.
+     *
+     * @param recordedAt the time the changes are recorded at
+     * @return the number of recorded changes
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO sync_changes (entity_type, entity_id, operation, recorded_at)
+    SELECT 'STORAGE', s.id, 'UPSERT', :recordedAt FROM storages s
+    WHERE NOT EXISTS (SELECT 1 FROM sync_changes c WHERE c.entity_type = 'STORAGE' AND c.entity_id = s.id)
+    """, nativeQuery = true)
+    int insertMissingStorageChanges(@Param("recordedAt") Instant recordedAt);
+
+    /**
+     * Records an upsert of every item that has no entry in the change log, such as items
+     * created before the change log existed.
+     *
+     * @param recordedAt the time the changes are recorded at
+     * @return the number of recorded changes
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO sync_changes (entity_type, entity_id, operation, recorded_at)
+    SELECT 'ITEM', i.id, 'UPSERT', :recordedAt FROM items i
+    WHERE NOT EXISTS (SELECT 1 FROM sync_changes c WHERE c.entity_type = 'ITEM' AND c.entity_id = i.id)
+    """, nativeQuery = true)
+    int insertMissingItemChanges(@Param("recordedAt") Instant recordedAt);
+
+    /**
+     * Finds the latest recorded change version.
+     *
+     * @return the highest change version, {@code 0} if nothing has been recorded yet
+     */
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM SyncChange c")
+    long findLatestVersion();
+
+    /**
+     * Finds the first change recorded at or after the given time.
+     *
+     * @param recordedAt the earliest recording time
+     * @return the lowest version recorded since then, {@code null} if there is none
+     */
+    @Query("SELECT MIN(c.version) FROM SyncChange c WHERE c.recordedAt >= :recordedAt")
+    Long findFirstVersionRecordedSince(@Param("recordedAt") Instant recordedAt);
+}
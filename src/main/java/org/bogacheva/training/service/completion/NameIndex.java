@@ -0,0 +1,138 @@
+package org.bogacheva.training.service.completion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bogacheva.training.repository.NameRef;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.service.dto.SyncBatchDTO;
+import org.bogacheva.training.service.dto.SyncItemDTO;
+import org.bogacheva.training.service.dto.SyncStorageDTO;
+import org.bogacheva.training.service.sync.SyncService;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Item and storage names held in memory for completion, so that a lookup never queries the
+ * database. The names are loaded once by paging through both tables, and from then on kept
+ * fresh by replaying the change log from the last committed version seen before loading, which
+ * also picks up changes made by other clients. Like any sync client, the index sees a change
+ * once the commit lag of {@link SyncService#getChangesSince} has passed.
+ * <p>
+ * {@link #refreshAsync()} refreshes on a background thread; requests arriving while a refresh
+ * is pending are merged into it. Lookups in between see the names as of the last refresh.
+ * <p>
+ * A CLI connected to a server with the {@code remote} profile has no database, and no index.
+ */
+@Slf4j
+@Component
+@Profile("!remote")
+public class NameIndex implements DisposableBean {
+
+    static final int PAGE_SIZE = 5000;
+
+    private final ItemRepository itemRepo;
+    private final StorageRepository storageRepo;
+    private final SyncService syncService;
+    private final PrefixIndex items = new PrefixIndex();
+    private final PrefixIndex storages = new PrefixIndex();
+    // The change version the index is up to date with, negative until loaded
+    private long version = -1;
+    private final ThreadPoolExecutor refresher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), runnable -> {
+                Thread thread = new Thread(runnable, "name-index-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public NameIndex(ItemRepository itemRepo,
+                     StorageRepository storageRepo,
+                     SyncService syncService) {
+        this.itemRepo = itemRepo;
+        this.storageRepo = storageRepo;
+        this.syncService = syncService;
+    }
+
+    public PrefixIndex items() {
+        return items;
+    }
+
+    public PrefixIndex storages() {
+        return storages;
+    }
+
+    /**
+     * Loads or refreshes the names in the background and returns immediately.
+     */
+    public void refreshAsync() {
+        refresher.execute(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Could not refresh the name index: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Loads the names on the first call, and applies the changes recorded since the previous
+     * call on later ones.
+     */
+    public synchronized void refresh() {
+        if (version < 0) {
+            load();
+        }
+        SyncBatchDTO batch;
+        do {
+            batch = syncService.getChangesSince(version, PAGE_SIZE);
+            for (SyncItemDTO item : batch.getItems()) {
+                items.put(item.getId(), item.getName());
+            }
+            for (SyncStorageDTO storage : batch.getStorages()) {
+                storages.put(storage.getId(), storage.getName());
+            }
+            batch.getDeletedItemIds().forEach(items::remove);
+            batch.getDeletedStorageIds().forEach(storages::remove);
+            version = batch.getVersion();
+        } while (batch.isHasMore());
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    // Changes made while loading are replayed afterwards, which is harmless as puts are idempotent
+    private void load() {
+        long loadedVersion = syncService.getCommittedVersion();
+        long started = System.nanoTime();
+        loadNames(storageRepo::findNamesAfter, storages);
+        loadNames(itemRepo::findNamesAfter, items);
+        version = loadedVersion;
+        log.debug("Indexed {} item and {} storage names in {} ms", items.size(), storages.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private static void loadNames(BiFunction<Long, Pageable, List<NameRef>> pageAfter, PrefixIndex index) {
+        Pageable page = PageRequest.of(0, PAGE_SIZE);
+        long afterId = 0;
+        List<NameRef> names;
+        do {
+            names = pageAfter.apply(afterId, page);
+            for (NameRef name : names) {
+                index.put(name.getId(), name.getName());
+            }
+            if (!names.isEmpty()) {
+                afterId = names.getLast().getId();
+            }
+        } while (names.size() == PAGE_SIZE);
+    }
+}
@@ -0,0 +1,130 @@
+package org.bogacheva.training.service.completion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Names of one kind of entity, sorted case-insensitively so that all names starting with a prefix
+ * form one range. Entities sharing a name share an entry holding their IDs.
+ * <p>
+ * Updates must come from one thread at a time, while lookups may run concurrently with them.
+ */
+public class PrefixIndex {
+
+    private final Map<Long, String> namesById = new ConcurrentHashMap<>();
+    // Keyed by the names themselves rather than lower-cased copies, which would double the memory.
+    // Arrays of IDs are replaced rather than modified, so readers never see them change.
+    private final ConcurrentNavigableMap<String, long[]> idsByName =
+            new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    /**
+     * Adds an entity, or moves it to its new name if it is already indexed.
+     */
+    public synchronized void put(long id, String name) {
+        String previous = namesById.put(id, name);
+        if (name.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeId(previous, id);
+        }
+        idsByName.merge(name, new long[]{id}, PrefixIndex::append);
+    }
+
+    public synchronized void remove(long id) {
+        String previous = namesById.remove(id);
+        if (previous != null) {
+            removeId(previous, id);
+        }
+    }
+
+    /**
+     * Finds entities whose name starts with the given prefix, ignoring case, in name order.
+     *
+     * @param limit the maximum number of entities to return
+     */
+    public List<Match> find(String prefix, int limit) {
+        List<Match> matches = new ArrayList<>();
+        for (long[] ids : range(prefix).values()) {
+            for (long id : ids) {
+                String name = namesById.get(id);
+                // Skips an entity that is being renamed while we read
+                if (name != null && startsWith(name, prefix)) {
+                    matches.add(new Match(id, name));
+                    if (matches.size() == limit) {
+                        return matches;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the distinct names starting with the given prefix, ignoring case, in name order.
+     * Names differing only in case are returned once.
+     *
+     * @param limit the maximum number of names to return
+     */
+    public List<String> findNames(String prefix, int limit) {
+        List<String> names = new ArrayList<>();
+        for (long[] ids : range(prefix).values()) {
+            String name = namesById.get(ids[0]);
+            if (name != null && startsWith(name, prefix)) {
+                names.add(name);
+                if (names.size() == limit) {
+                    return names;
+                }
+            }
+        }
+        return names;
+    }
+
+    public int size() {
+        return namesById.size();
+    }
+
+    private ConcurrentNavigableMap<String, long[]> range(String prefix) {
+        return idsByName.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void removeId(String name, long id) {
+        idsByName.computeIfPresent(name, (ignored, ids) -> {
+            int index = 0;
+            while (index < ids.length && ids[index] != id) {
+                index++;
+            }
+            if (index == ids.length) {
+                return ids;
+            }
+            if (ids.length == 1) {
+                return null;
+            }
+            long[] rest = new long[ids.length - 1];
+            System.arraycopy(ids, 0, rest, 0, index);
+            System.arraycopy(ids, index + 1, rest, index, rest.length - index);
+            return rest;
+        });
+    }
+
+    private static long[] append(long[] ids, long[] added) {
+        long[] all = Arrays.copyOf(ids, ids.length + added.length);
+        System.arraycopy(added, 0, all, ids.length, added.length);
+        return all;
+    }
+
+    private static boolean startsWith(String name, String prefix) {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * An entity whose name matched a prefix.
+     */
+    public record Match(long id, String name) {
+    }
+}
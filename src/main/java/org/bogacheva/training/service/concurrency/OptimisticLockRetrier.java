@@ -0,0 +1,48 @@
+package org.bogacheva.training.service.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs idempotent operations, such as moving items into a storage, that lost an optimistic
+ * locking race against a concurrent update. Only operations whose outcome does not depend on
+ * the state the caller has seen may be retried; conditional updates must fail instead.
+ * Each attempt has to run in a transaction of its own, so operations are expected to be
+ * calls through a transactional service proxy made outside of any transaction.
+ */
+@Component
+@Slf4j
+public class OptimisticLockRetrier {
+
+    static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MILLIS = 20;
+
+    public <T> T execute(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw ex;
+                }
+                log.debug("Optimistic lock conflict on attempt {}, retrying: {}", attempt, ex.getMessage());
+                backOff(attempt, ex);
+            }
+        }
+    }
+
+    // Randomized so that two conflicting requests do not collide again on the next attempt
+    private void backOff(int attempt, OptimisticLockingFailureException cause) {
+        long delay = BACKOFF_MILLIS * attempt + ThreadLocalRandom.current().nextLong(BACKOFF_MILLIS);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.bogacheva.training.service.dataset;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inserts rows in bulk on the given connection: with {@code COPY} on PostgreSQL, which is an
+ * order of magnitude faster than inserts, and with batched inserts elsewhere.
+ */
+final class BulkInserter {
+
+    private final Connection connection;
+    private final CopyManager copyManager;
+
+    private BulkInserter(Connection connection, CopyManager copyManager) {
+        this.connection = connection;
+        this.copyManager = copyManager;
+    }
+
+    static BulkInserter on(Connection connection) throws SQLException {
+        CopyManager copyManager = connection.isWrapperFor(PGConnection.class)
+                ? connection.unwrap(PGConnection.class).getCopyAPI()
+                : null;
+        return new BulkInserter(connection, copyManager);
+    }
+
+    void insert(String table, String columns, int columnCount, List<Object[]> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (copyManager != null) {
+            copy(table, columns, rows);
+        } else {
+            batch(table, columns, columnCount, rows);
+        }
+    }
+
+    private void copy(String table, String columns, List<Object[]> rows) throws SQLException {
+        StringBuilder data = new StringBuilder(rows.size() * 48);
+        for (Object[] row : rows) {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    data.append('\t');
+                }
+                appendCopyValue(data, row[i]);
+            }
+            data.append('\n');
+        }
+        try {
+            copyManager.copyIn("COPY " + table + " (" + columns + ") FROM STDIN", new StringReader(data.toString()));
+        } catch (IOException e) {
+            throw new SQLException("Could not copy rows into " + table, e);
+        }
+    }
+
+    private void batch(String table, String columns, int columnCount, List<Object[]> rows) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(columnCount, "?"));
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")")) {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    statement.setObject(i + 1, row[i]);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    // COPY text format: tab separated, \N for null, backslash escapes
+    private static void appendCopyValue(StringBuilder data, Object value) {
+        if (value == null) {
+            data.append("\\N");
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> data.append("\\\\");
+                case '\t' -> data.append("\\t");
+                case '\n' -> data.append("\\n");
+                case '\r' -> data.append("\\r");
+                default -> data.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.bogacheva.training.service.dataset;
+
+/**
+ * Shape of a generated household dataset. The same spec always generates the same dataset.
+ *
+ * @param seed                 seed of all random choices
+ * @param residences           number of residences
+ * @param items                total number of items
+ * @param nestedUnitDepth      levels of units nested in units below furniture, so that the
+ *                             hierarchy is {@code 4 + nestedUnitDepth} storages deep
+ * @param keywordVocabulary    number of distinct keywords
+ * @param zipfExponent         skew of items per storage and of keyword popularity; 0 is uniform,
+ *                             1 is classic Zipf
+ */
+public record DatasetSpec(long seed, int residences, int items, int nestedUnitDepth,
+                          int keywordVocabulary, double zipfExponent) {
+
+    public static final int DEFAULT_RESIDENCES = 10;
+    public static final int DEFAULT_NESTED_UNIT_DEPTH = 1;
+    public static final int DEFAULT_KEYWORD_VOCABULARY = 2_000;
+    public static final double DEFAULT_ZIPF_EXPONENT = 1.0;
+
+    public DatasetSpec {
+        if (residences < 1) {
+            throw new IllegalArgumentException("At least one residence is required");
+        }
+        if (items < 0) {
+            throw new IllegalArgumentException("Number of items cannot be negative");
+        }
+        if (nestedUnitDepth < 0) {
+            throw new IllegalArgumentException("Nested unit depth cannot be negative");
+        }
+        if (keywordVocabulary < 1) {
+            throw new IllegalArgumentException("Keyword vocabulary must not be empty");
+        }
+        if (zipfExponent < 0) {
+            throw new IllegalArgumentException("Zipf exponent cannot be negative");
+        }
+    }
+
+    /**
+     * A spec with the default shape.
+     *
+     * @param seed       seed of all random choices
+     * @param residences number of residences
+     * @param items      total number of items
+     * @return the spec
+     */
+    public static DatasetSpec of(long seed, int residences, int items) {
+        return new DatasetSpec(seed, residences, items, DEFAULT_NESTED_UNIT_DEPTH,
+                DEFAULT_KEYWORD_VOCABULARY, DEFAULT_ZIPF_EXPONENT);
+    }
+}
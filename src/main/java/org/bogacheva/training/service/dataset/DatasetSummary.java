@@ -0,0 +1,17 @@
+package org.bogacheva.training.service.dataset;
+
+import java.time.Duration;
+
+/**
+ * What a dataset generation created.
+ *
+ * @param firstStorageId ID of the first generated storage, a residence
+ * @param storages       number of storages
+ * @param items          number of items
+ * @param keywords       number of item keywords
+ * @param depth          depth of the deepest storage, residences being 1
+ * @param elapsed        time taken
+ */
+public record DatasetSummary(long firstStorageId, int storages, int items, long keywords, int depth,
+                             Duration elapsed) {
+}
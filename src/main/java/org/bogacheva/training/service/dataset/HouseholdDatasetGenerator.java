@@ -0,0 +1,268 @@
+package org.bogacheva.training.service.dataset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.domain.sync.SyncEntityType;
+import org.bogacheva.training.domain.sync.SyncOperation;
+import org.bogacheva.training.service.storage.StorageValidatorService;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic households for scale testing: residences with rooms, furniture, units and
+ * units nested in units, with Zipf-distributed item counts per storage and keyword popularity.
+ * The hierarchy follows the storage type rules, and a given {@link DatasetSpec} always produces the
+ * same dataset, apart from IDs, which continue from the existing rows.
+ * <p>
+ * Rows are written in bulk over JDBC in one transaction rather than through the entities, and
+ * each row gets a change log entry so that delta sync picks it up. Entity change versions are
+ * left at 0. IDs are assigned here, continuing from the highest existing one, so on PostgreSQL
+ * both tables are locked against other writes until the transaction ends; reads go on as usual.
+ * Writes that are already running are waited for before the highest ID is read.
+ */
+@Slf4j
+@Service
+public class HouseholdDatasetGenerator {
+
+    private static final int CHUNK_SIZE = 20_000;
+    private static final int MAX_KEYWORDS_PER_ITEM = 3;
+    private static final int MAX_NESTED_UNITS = 2;
+
+    private static final String[] ROOMS = {"Kitchen", "Bedroom", "Living Room", "Bathroom", "Hallway",
+            "Study", "Garage", "Attic", "Basement", "Nursery", "Pantry", "Laundry"};
+    private static final String[] FURNITURE = {"Wardrobe", "Bookshelf", "Desk", "Dresser", "Cabinet",
+            "Sideboard", "Chest", "Shelf", "Nightstand", "Cupboard"};
+    private static final String[] UNITS = {"Drawer", "Box", "Basket", "Bin", "Compartment", "Tray",
+            "Folder", "Pouch", "Case", "Jar"};
+    private static final String[] ADJECTIVES = {"Red", "Blue", "Green", "Old", "New", "Small", "Large",
+            "Wooden", "Metal", "Glass", "Soft", "Spare", "Vintage", "Plastic", "Striped", "Warm"};
+    private static final String[] NOUNS = {"Mug", "Book", "Cable", "Shirt", "Charger", "Lamp", "Towel",
+            "Pen", "Battery", "Candle", "Glove", "Plate", "Sock", "Tape", "Scissors", "Notebook", "Hammer",
+            "Scarf", "Spoon", "Blanket", "Headphones", "Wallet", "Umbrella", "Key", "Brush", "Bottle",
+            "Camera", "Jacket", "Puzzle", "Remote"};
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "to", "vi", "be", "da",
+            "fu", "go", "hi", "ja", "pe", "zu"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StorageValidatorService validator;
+
+    public HouseholdDatasetGenerator(JdbcTemplate jdbcTemplate, StorageValidatorService validator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.validator = validator;
+    }
+
+    /**
+     * Generates a dataset and inserts it.
+     *
+     * @param spec the shape of the dataset
+     * @return what was created
+     */
+    @Transactional
+    public DatasetSummary generate(DatasetSpec spec) {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        DatasetSummary summary = Objects.requireNonNull(jdbcTemplate.execute((ConnectionCallback<DatasetSummary>) connection -> {
+            BulkInserter inserter = BulkInserter.on(connection);
+            lockAgainstWrites(connection);
+            long firstStorageId = nextId(connection, "storages");
+            List<PlannedStorage> storages = planStorages(spec, random.split(), firstStorageId);
+            insertStorages(inserter, storages);
+            long keywords = insertItems(inserter, spec, random.split(), storages, nextId(connection, "items"));
+            restartIdentity(connection, "storages", firstStorageId + storages.size());
+            restartIdentity(connection, "items", nextId(connection, "items"));
+            int depth = storages.stream().mapToInt(PlannedStorage::depth).max().orElse(0);
+            return new DatasetSummary(firstStorageId, storages.size(), spec.items(), keywords, depth,
+                    Duration.ofNanos(System.nanoTime() - started));
+        }));
+        log.info("Generated {} storages and {} items with {} keywords in {} ms (seed {})",
+                summary.storages(), summary.items(), summary.keywords(), summary.elapsed().toMillis(), spec.seed());
+        return summary;
+    }
+
+    private List<PlannedStorage> planStorages(DatasetSpec spec, SplittableRandom random, long firstId) {
+        StoragePlanner planner = new StoragePlanner(random, firstId);
+        for (int r = 0; r < spec.residences(); r++) {
+            PlannedStorage residence = planner.add(null, StorageType.RESIDENCE, "Residence " + (r + 1));
+            int rooms = 3 + random.nextInt(6);
+            for (int room = 0; room < rooms; room++) {
+                PlannedStorage roomStorage = planner.add(residence, StorageType.ROOM, pick(ROOMS, random) + " " + (room + 1));
+                int furniture = 1 + random.nextInt(5);
+                for (int f = 0; f < furniture; f++) {
+                    PlannedStorage furnitureStorage = planner.add(roomStorage, StorageType.FURNITURE,
+                            pick(FURNITURE, random) + " " + (f + 1));
+                    int units = 1 + random.nextInt(4);
+                    for (int u = 0; u < units; u++) {
+                        planner.addUnit(furnitureStorage, u + 1, spec.nestedUnitDepth());
+                    }
+                }
+            }
+        }
+        return planner.storages;
+    }
+
+    private void insertStorages(BulkInserter inserter, List<PlannedStorage> storages) throws SQLException {
+        List<Object[]> rows = new ArrayList<>(storages.size());
+        List<Object[]> changes = new ArrayList<>(storages.size());
+        for (PlannedStorage storage : storages) {
+            rows.add(new Object[]{storage.id(), storage.name(), storage.type().name(),
+                    storage.parent() == null ? null : storage.parent().id(), 0L, 0L});
+            changes.add(change(SyncEntityType.STORAGE, storage.id()));
+        }
+        inserter.insert("storages", "id, name, type, parent_id, change_version, version", 6, rows);
+        inserter.insert("sync_changes", "entity_type, entity_id, operation", 3, changes);
+    }
+
+    // Items, keywords and change log entries are written in chunks to bound memory
+    private long insertItems(BulkInserter inserter, DatasetSpec spec, SplittableRandom random,
+                             List<PlannedStorage> storages, long firstId) throws SQLException {
+        int[] storageByRank = shuffledIndexes(storages.size(), random);
+        ZipfDistribution storagePopularity = new ZipfDistribution(storages.size(), spec.zipfExponent());
+        String[] vocabulary = vocabulary(spec.keywordVocabulary());
+        ZipfDistribution keywordPopularity = new ZipfDistribution(vocabulary.length, spec.zipfExponent());
+
+        long keywordCount = 0;
+        List<Object[]> items = new ArrayList<>(CHUNK_SIZE);
+        List<Object[]> keywords = new ArrayList<>(CHUNK_SIZE * 2);
+        List<Object[]> changes = new ArrayList<>(CHUNK_SIZE);
+        Set<String> itemKeywords = new HashSet<>();
+        for (int i = 0; i < spec.items(); i++) {
+            long id = firstId + i;
+            PlannedStorage storage = storages.get(storageByRank[storagePopularity.sample(random)]);
+            String name = pick(ADJECTIVES, random) + " " + pick(NOUNS, random) + " " + (i + 1);
+            items.add(new Object[]{id, name, storage.id(), 0L, 0L});
+            changes.add(change(SyncEntityType.ITEM, id));
+            itemKeywords.clear();
+            int count = random.nextInt(MAX_KEYWORDS_PER_ITEM + 1);
+            for (int k = 0; k < count; k++) {
+                String keyword = vocabulary[keywordPopularity.sample(random)];
+                if (itemKeywords.add(keyword)) {
+                    keywords.add(new Object[]{id, keyword});
+                }
+            }
+            if (items.size() == CHUNK_SIZE || i == spec.items() - 1) {
+                inserter.insert("items", "id, name, storage_id, change_version, version", 5, items);
+                inserter.insert("item_keywords", "item_id, keyword", 2, keywords);
+                inserter.insert("sync_changes", "entity_type, entity_id, operation", 3, changes);
+                keywordCount += keywords.size();
+                items.clear();
+                keywords.clear();
+                changes.clear();
+            }
+        }
+        return keywordCount;
+    }
+
+    private static Object[] change(SyncEntityType type, long id) {
+        return new Object[]{type.name(), id, SyncOperation.UPSERT.name()};
+    }
+
+    // The nouns first, as real keywords, then made-up words
+    private static String[] vocabulary(int size) {
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            if (i < NOUNS.length) {
+                words[i] = NOUNS[i].toLowerCase();
+            } else {
+                StringBuilder word = new StringBuilder();
+                for (int n = i; n > 0; n /= SYLLABLES.length) {
+                    word.append(SYLLABLES[n % SYLLABLES.length]);
+                }
+                words[i] = word.toString();
+            }
+        }
+        return words;
+    }
+
+    // Spreads the popular ranks over all residences instead of the first one
+    private static int[] shuffledIndexes(int size, SplittableRandom random) {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = indexes[i];
+            indexes[i] = indexes[j];
+            indexes[j] = swap;
+        }
+        return indexes;
+    }
+
+    private static String pick(String[] values, SplittableRandom random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // H2, used by tests only, has no table lock modes and is not written to concurrently
+    private static void lockAgainstWrites(Connection connection) throws SQLException {
+        if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LOCK TABLE storages, items IN EXCLUSIVE MODE");
+        }
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static void restartIdentity(Connection connection, String table, long next) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    private record PlannedStorage(long id, String name, StorageType type, PlannedStorage parent, int depth) {
+    }
+
+    private final class StoragePlanner {
+
+        private final SplittableRandom random;
+        private final List<PlannedStorage> storages = new ArrayList<>();
+        private long nextId;
+
+        private StoragePlanner(SplittableRandom random, long firstId) {
+            this.random = random;
+            this.nextId = firstId;
+        }
+
+        private PlannedStorage add(PlannedStorage parent, StorageType type, String name) {
+            if (parent != null) {
+                validator.validateHierarchySubStorageRules(parent.type(), type);
+            }
+            PlannedStorage storage = new PlannedStorage(nextId++, name, type, parent,
+                    parent == null ? 1 : parent.depth() + 1);
+            storages.add(storage);
+            return storage;
+        }
+
+        private void addUnit(PlannedStorage parent, int number, int nestedLevels) {
+            PlannedStorage unit = add(parent, StorageType.UNIT, pick(UNITS, random) + " " + number);
+            if (nestedLevels > 0) {
+                // At least one nested unit per level keeps the requested depth reachable
+                int nested = 1 + random.nextInt(MAX_NESTED_UNITS);
+                for (int n = 0; n < nested; n++) {
+                    addUnit(unit, n + 1, nestedLevels - 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.bogacheva.training.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Item entry of the normalized view; the storage is referenced by ID only.
+ * Serialized through the {@value #FIELDS_FILTER} filter, which implements sparse fieldsets.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(ItemRefDTO.FIELDS_FILTER)
+public class ItemRefDTO {
+
+    public static final String FIELDS_FILTER = "itemFields";
+
+    private Long id;
+    private String name;
+    private Long storageId;
+    private List<String> keywords;
+}
@@ -0,0 +1,29 @@
+package org.bogacheva.training.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * The items a bulk operation applies to, described as the query that finds them rather than by
+ * their IDs, so that they are found in the transaction of the operation itself. Exactly one
+ * source is used: the items in a storage, the items near another item, or the items matching a
+ * search by name or keywords.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ItemSelectionDTO {
+    private String name;
+    private List<String> keywords;
+    private Long storageId;
+    private Long nearItemId;
+}
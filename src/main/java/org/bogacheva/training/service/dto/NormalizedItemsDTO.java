@@ -0,0 +1,20 @@
+package org.bogacheva.training.service.dto;
+
+import lombok.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Normalized representation of an item list: every storage referenced by the items
+ * appears once in {@code storages}, keyed by its ID, so the size grows linearly with the result.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NormalizedItemsDTO {
+    private List<ItemRefDTO> items;
+    private Map<Long, StorageSummaryDTO> storages;
+}
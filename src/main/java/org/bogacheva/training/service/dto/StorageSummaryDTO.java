@@ -0,0 +1,28 @@
+package org.bogacheva.training.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+import org.bogacheva.training.domain.storage.StorageType;
+
+import java.util.List;
+
+/**
+ * Storage entry of the normalized view. Children are summarized by counts;
+ * their ID lists are only filled in, instead of the counts, when explicitly included.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StorageSummaryDTO {
+    private Long id;
+    private String name;
+    private StorageType type;
+    private Long parentId;
+    private Long itemCount;
+    private Long storageCount;
+    private List<Long> items;
+    private List<Long> storages;
+}
@@ -0,0 +1,23 @@
+package org.bogacheva.training.service.dto;
+
+import lombok.*;
+import org.bogacheva.training.domain.storage.StorageType;
+
+/**
+ * Storage of a tree listing. Nodes are listed depth first, each after its parent, so the tree
+ * can be printed in one pass, indented by their depth below the root of the tree.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageTreeNodeDTO {
+    private Long id;
+    private String name;
+    private StorageType type;
+    private Long parentId;
+    private int depth;
+    private long itemCount;
+    private long storageCount;
+}
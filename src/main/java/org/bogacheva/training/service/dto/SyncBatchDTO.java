@@ -0,0 +1,27 @@
+package org.bogacheva.training.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One batch of changes returned by delta synchronisation.
+ * {@code version} is the change version the client should send as {@code since} next time;
+ * {@code hasMore} tells whether further batches are already available.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SyncBatchDTO {
+    private long since;
+    private long version;
+    private boolean hasMore;
+    private List<SyncItemDTO> items;
+    private List<SyncStorageDTO> storages;
+    private List<Long> deletedItemIds;
+    private List<Long> deletedStorageIds;
+}
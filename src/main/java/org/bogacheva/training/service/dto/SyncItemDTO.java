@@ -0,0 +1,17 @@
+package org.bogacheva.training.service.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncItemDTO {
+    private Long id;
+    private String name;
+    private Long storageId;
+    private List<String> keywords;
+}
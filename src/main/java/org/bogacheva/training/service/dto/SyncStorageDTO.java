@@ -0,0 +1,16 @@
+package org.bogacheva.training.service.dto;
+
+import lombok.*;
+import org.bogacheva.training.domain.storage.StorageType;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncStorageDTO {
+    private Long id;
+    private String name;
+    private StorageType type;
+    private Long parentId;
+}
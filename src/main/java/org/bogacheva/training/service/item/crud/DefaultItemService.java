@@ -1,38 +1,58 @@
 package org.bogacheva.training.service.item.crud;
 
+import io.micrometer.observation.annotation.Observed;
 import org.bogacheva.training.exceptions.ItemNotFoundException;
+import org.bogacheva.training.exceptions.PreconditionFailedException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 import org.bogacheva.training.domain.item.Item;
 import org.bogacheva.training.domain.storage.Storage;
 import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageChildRef;
 import org.bogacheva.training.repository.storage.StorageRepository;
 import org.bogacheva.training.service.dto.ItemCreateDTO;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
 import org.bogacheva.training.service.dto.ItemUpdateDTO;
+import org.bogacheva.training.service.item.search.ItemSelector;
 import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.sync.SyncChangeRecorder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = "shelveit.service")
 public class DefaultItemService implements ItemService {
 
-    
+    // Items per statement of a bulk operation, well below the bind parameter limits of the drivers
+    static final int BULK_CHUNK_SIZE = 1000;
+
     private final ItemRepository itemRepo;
     private final StorageRepository storageRepo;
     private final ItemMapper itemMapper;
+    private final SyncChangeRecorder changeRecorder;
+    private final ItemSelector itemSelector;
 
     public DefaultItemService(ItemRepository itemRepo,
                               StorageRepository storageRepo,
-                              ItemMapper itemMapper) {
+                              ItemMapper itemMapper,
+                              SyncChangeRecorder changeRecorder,
+                              ItemSelector itemSelector) {
         this.itemRepo = itemRepo;
         this.storageRepo = storageRepo;
         this.itemMapper = itemMapper;
+        this.changeRecorder = changeRecorder;
+        this.itemSelector = itemSelector;
     }
 
     @Override
@@ -43,6 +63,8 @@ public class DefaultItemService implements ItemService {
         normalizeKeywords(newItem);
         newItem.setStorage(storage);
         Item savedItem = itemRepo.save(newItem);
+        changeRecorder.recordUpsert(savedItem);
+        changeRecorder.recordUpsert(storage);
         return itemMapper.toDTO(savedItem);
     }
 
@@ -59,24 +81,103 @@ public class DefaultItemService implements ItemService {
         return itemMapper.toDTOList(itemRepo.findAll());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDTO> getPageAfter(Long afterId, int limit) {
+        List<Long> ids = itemRepo.findIdsAfter(afterId, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return itemMapper.toDTOList(findPageWithKeywords(ids));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemRefDTO> getRefPageAfter(Long afterId, int limit) {
+        List<Long> ids = itemRepo.findIdsAfter(afterId, PageRequest.of(0, limit));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return itemMapper.toRefDTOList(findPageWithKeywords(ids));
+    }
+
     @Override
     @Transactional
     public void delete(Long itemId) {
-        getItemOrThrow(itemId);
+        Item item = getItemOrThrow(itemId);
         itemRepo.deleteById(itemId);
+        changeRecorder.recordItemDeletes(List.of(itemId));
+        changeRecorder.recordUpsert(item.getStorage());
     }
 
     @Override
     @Transactional
     public ItemDTO update(Long itemId, ItemUpdateDTO dto) {
+        return update(itemId, dto, null);
+    }
+
+    @Override
+    @Transactional
+    public ItemDTO update(Long itemId, ItemUpdateDTO dto, Long expectedVersion) {
         validateUpdateDTO(dto);
         Item item = getItemOrThrow(itemId);
+        checkExpectedVersion(item, expectedVersion);
+        Storage previousStorage = item.getStorage();
         applyChanges(item, dto);
         normalizeKeywords(item);
         Item savedItem = itemRepo.save(item);
+        changeRecorder.recordUpsert(savedItem);
+        if (savedItem.getStorage() != previousStorage) {
+            changeRecorder.recordUpsert(previousStorage);
+            changeRecorder.recordUpsert(savedItem.getStorage());
+        }
         return itemMapper.toDTO(savedItem);
     }
 
+    @Override
+    @Transactional
+    public int moveAll(ItemSelectionDTO selection, Long storageId) {
+        Storage storage = getStorageByIdOrThrow(storageId);
+        List<Long> ids = new ArrayList<>(itemSelector.findSelectedIds(selection));
+        Set<Long> touchedStorageIds = new HashSet<>();
+        int moved = 0;
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            List<Long> toMove = new ArrayList<>(chunk.size());
+            for (StorageChildRef ref : itemRepo.findStorageRefsByIdIn(chunk)) {
+                if (!storageId.equals(ref.getStorageId())) {
+                    toMove.add(ref.getId());
+                    touchedStorageIds.add(ref.getStorageId());
+                }
+            }
+            if (!toMove.isEmpty()) {
+                changeRecorder.recordBulkItemUpserts(toMove);
+                moved += itemRepo.moveAllByIdIn(toMove, storage);
+            }
+        }
+        if (moved > 0) {
+            touchedStorageIds.add(storageId);
+            storageRepo.findAllById(touchedStorageIds).forEach(changeRecorder::recordUpsert);
+        }
+        return moved;
+    }
+
+    @Override
+    @Transactional
+    public int deleteAll(ItemSelectionDTO selection) {
+        List<Long> ids = new ArrayList<>(itemSelector.findSelectedIds(selection));
+        Set<Long> touchedStorageIds = new HashSet<>();
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            itemRepo.findStorageRefsByIdIn(chunk).forEach(ref -> touchedStorageIds.add(ref.getStorageId()));
+            changeRecorder.recordBulkItemDeletes(chunk);
+            deleted += itemRepo.deleteAllByIdIn(chunk);
+        }
+        storageRepo.findAllById(touchedStorageIds).forEach(changeRecorder::recordUpsert);
+        return deleted;
+    }
+
     private Item getItemOrThrow(Long itemId) {
         if (itemId == null) {
             throw new IllegalArgumentException("Item ID must not be null.");
@@ -85,6 +186,18 @@ public class DefaultItemService implements ItemService {
                 .orElseThrow(() -> new ItemNotFoundException(itemId));
     }
 
+    // Same version as ItemRepository.findChangeVersion, which the item's ETag is built from
+    private void checkExpectedVersion(Item item, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return;
+        }
+        long currentVersion = Math.max(item.getChangeVersion(), item.getStorage().getChangeVersion());
+        if (currentVersion != expectedVersion) {
+            throw new PreconditionFailedException(String.format(
+                    "Item with ID: %s has changed since version %s.", item.getId(), expectedVersion));
+        }
+    }
+
     private Storage getStorageByIdOrThrow(Long storageId) {
         if (storageId == null) {
             throw new IllegalArgumentException("Storage ID must not be null.");
@@ -128,4 +241,10 @@ public class DefaultItemService implements ItemService {
             item.setKeywords(normalized);
         }
     }
+
+    private List<Item> findPageWithKeywords(List<Long> ids) {
+        List<Item> items = new ArrayList<>(itemRepo.findAllWithKeywordsByIdIn(ids));
+        items.sort(Comparator.comparing(Item::getId));
+        return items;
+    }
 }
@@ -2,8 +2,11 @@ package org.bogacheva.training.service.item.crud;
 
 import org.bogacheva.training.service.dto.ItemCreateDTO;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
 import org.bogacheva.training.service.dto.ItemUpdateDTO;
 import org.bogacheva.training.exceptions.ItemNotFoundException;
+import org.bogacheva.training.exceptions.PreconditionFailedException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
 
 import java.util.List;
@@ -34,6 +37,26 @@ public interface ItemService {
      */
     List<ItemDTO> getAll();
 
+    /**
+     * Get a page of items ordered by ID, so that large lists can be read chunk by chunk.
+     *
+     * @param afterId The ID of the last item of the previous page, 0 for the first page.
+     * @param limit   The maximum number of items to return.
+     * @return Up to {@code limit} items with IDs greater than {@code afterId}, in ascending ID order.
+     */
+    List<ItemDTO> getPageAfter(Long afterId, int limit);
+
+    /**
+     * Get a page of items ordered by ID, with their storage referenced by ID only. Unlike
+     * {@link #getPageAfter(Long, int)}, no storage's item list is loaded, so the cost of a page
+     * does not depend on how full its storages are.
+     *
+     * @param afterId The ID of the last item of the previous page, 0 for the first page.
+     * @param limit   The maximum number of items to return.
+     * @return Up to {@code limit} items with IDs greater than {@code afterId}, in ascending ID order.
+     */
+    List<ItemRefDTO> getRefPageAfter(Long afterId, int limit);
+
     /**
      * Delete an item by its ID.
      *
@@ -53,4 +76,43 @@ public interface ItemService {
      * @throws IllegalArgumentException if no fields are provided for update.
      */
     ItemDTO update(Long itemId, ItemUpdateDTO itemUpdateDTO);
+
+    /**
+     * Update an existing item only if it has not changed since the given change version.
+     *
+     * @param itemId          The ID of the item to update.
+     * @param itemUpdateDTO   Data for updating the item.
+     * @param expectedVersion The change version the update is based on, or null to update unconditionally.
+     * @return The updated item as ItemDTO.
+     * @throws ItemNotFoundException       if the item does not exist.
+     * @throws StorageNotFoundException    if the new storage does not exist.
+     * @throws IllegalArgumentException    if no fields are provided for update.
+     * @throws PreconditionFailedException if the item has changed since the expected version.
+     */
+    ItemDTO update(Long itemId, ItemUpdateDTO itemUpdateDTO, Long expectedVersion);
+
+    /**
+     * Move all selected items to a storage. The items are found and moved in one transaction,
+     * with a fixed number of statements per thousand items.
+     *
+     * @param selection     The items to move.
+     * @param storageId     The ID of the storage to move the items to.
+     * @return The number of items moved; items already in the storage are left as they are.
+     * @throws StorageNotFoundException if the storage, or the storage of the selection, does not exist.
+     * @throws ItemNotFoundException    if the item the selection is near does not exist.
+     * @throws IllegalArgumentException if the selection names no items.
+     */
+    int moveAll(ItemSelectionDTO selection, Long storageId);
+
+    /**
+     * Delete all selected items. The items are found and deleted in one transaction,
+     * with a fixed number of statements per thousand items.
+     *
+     * @param selection The items to delete.
+     * @return The number of items deleted.
+     * @throws StorageNotFoundException if the storage of the selection does not exist.
+     * @throws ItemNotFoundException    if the item the selection is near does not exist.
+     * @throws IllegalArgumentException if the selection names no items.
+     */
+    int deleteAll(ItemSelectionDTO selection);
 }
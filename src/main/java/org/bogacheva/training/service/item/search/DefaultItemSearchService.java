@@ -1,21 +1,27 @@
 package org.bogacheva.training.service.item.search;
 
+import io.micrometer.observation.annotation.Observed;
 import org.bogacheva.training.domain.item.Item;
 import org.bogacheva.training.domain.storage.Storage;
 import org.bogacheva.training.repository.item.ItemRepository;
 import org.bogacheva.training.repository.storage.StorageRepository;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
 import org.bogacheva.training.exceptions.InvalidItemOperationException;
 import org.bogacheva.training.exceptions.ItemNotFoundException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
+import org.bogacheva.training.monitoring.jfr.HierarchyTraversalEvent;
+import org.bogacheva.training.monitoring.jfr.SearchQueryEvent;
+import org.bogacheva.training.service.item.view.NormalizedItemsAssembler;
+import org.bogacheva.training.service.item.view.StorageInclude;
 import org.bogacheva.training.service.mapper.ItemMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
+@Observed(name = "shelveit.service")
 @Transactional(readOnly = true)
 public class DefaultItemSearchService implements ItemSearchService {
 
@@ -24,28 +30,32 @@ public class DefaultItemSearchService implements ItemSearchService {
     private final ItemRepository itemRepository;
     private final StorageRepository storageRepository;
     private final ItemMapper itemMapper;
+    private final NormalizedItemsAssembler normalizedAssembler;
+    private final ItemSelector itemSelector;
 
     public DefaultItemSearchService(ItemRepository itemRepository,
                                     StorageRepository storageRepository,
-                                    ItemMapper itemMapper) {
+                                    ItemMapper itemMapper,
+                                    NormalizedItemsAssembler normalizedAssembler,
+                                    ItemSelector itemSelector) {
         this.itemRepository = itemRepository;
         this.storageRepository = storageRepository;
         this.itemMapper = itemMapper;
+        this.normalizedAssembler = normalizedAssembler;
+        this.itemSelector = itemSelector;
     }
 
     @Override
     public List<ItemDTO> search(String partialName, List<String> keywords) {
-       if (!hasName(partialName) && !hasKeywords(keywords)) {
+       if (!itemSelector.hasCriteria(partialName, keywords)) {
            return Collections.emptyList();
        }
-       Set<Item> results = new HashSet<>();
-       if (hasName(partialName)) {
-           results.addAll(searchItemsByName(partialName));
-       }
-       if (hasKeywords(keywords)) {
-           results.addAll(searchItemsByKeywords(keywords));
-       }
-       return itemMapper.toDTOList(new ArrayList<>(results));
+       return itemMapper.toDTOList(findMatchingItems(partialName, keywords));
+    }
+
+    @Override
+    public NormalizedItemsDTO searchNormalized(String partialName, List<String> keywords, Set<StorageInclude> include) {
+        return normalizedAssembler.assemble(findMatchingItems(partialName, keywords), include);
     }
 
     @Override
@@ -53,20 +63,25 @@ public class DefaultItemSearchService implements ItemSearchService {
         if (!hasName(partialStorageName)) {
             return Collections.emptyList();
         }
+        SearchQueryEvent event = new SearchQueryEvent();
+        event.begin();
         List<Storage> storages = searchStoragesByName(partialStorageName);
         List<Item> items = new ArrayList<>();
         for (Storage storage : storages) {
             items.addAll(storage.getItems());
         }
+        event.complete("item-by-storage-name", partialStorageName, null, items.size());
         return itemMapper.toDTOList(items);
     }
 
     @Override
     public List<ItemDTO> getItemsNear(Long itemId) {
-        Item item = getItemByIdOrThrow(itemId);
-        Storage storage = getStorageOrThrow(item);
-        List<Item> itemsNear = itemRepository.findItemsByStorageIdAndExcludeItemId(storage.getId(), itemId);
-        return itemMapper.toDTOList(itemsNear);
+        return itemMapper.toDTOList(findItemsNear(itemId));
+    }
+
+    @Override
+    public NormalizedItemsDTO getItemsNearNormalized(Long itemId, Set<StorageInclude> include) {
+        return normalizedAssembler.assemble(findItemsNear(itemId), include);
     }
 
     @Override
@@ -75,30 +90,43 @@ public class DefaultItemSearchService implements ItemSearchService {
         return itemMapper.toDTOList(itemRepository.findItemsByStorageId(storageId));
     }
 
+    @Override
+    public NormalizedItemsDTO getByStorageIdNormalized(Long storageId, Set<StorageInclude> include) {
+        getStorageByIdOrThrow(storageId);
+        return normalizedAssembler.assemble(itemRepository.findItemsByStorageId(storageId), include);
+    }
+
     @Override
     public List<Long> getStorageHierarchyIds(Long itemId) {
         Item item = getItemByIdOrThrow(itemId);
         getStorageOrThrow(item);
-        return itemRepository.findStorageHierarchyIds(itemId);
+        HierarchyTraversalEvent event = new HierarchyTraversalEvent();
+        event.begin();
+        List<Long> storageIds = itemRepository.findStorageHierarchyIds(itemId);
+        event.complete("item-ancestors", itemId, storageIds.size());
+        return storageIds;
     }
 
-    private String getLikePattern(String partialName) {
-        return "%" + partialName.toLowerCase() + "%";
+    private List<Item> findMatchingItems(String partialName, List<String> keywords) {
+        SearchQueryEvent event = new SearchQueryEvent();
+        event.begin();
+        Set<Item> results = itemSelector.findMatchingItems(partialName, keywords);
+        event.complete("item", partialName, keywords, results.size());
+        return new ArrayList<>(results);
     }
 
-    private List<Storage> searchStoragesByName(String partialName) {
-        return storageRepository.findByNameLikeIgnoreCase(getLikePattern(partialName));
+    private List<Item> findItemsNear(Long itemId) {
+        Item item = getItemByIdOrThrow(itemId);
+        Storage storage = getStorageOrThrow(item);
+        return itemRepository.findItemsByStorageIdAndExcludeItemId(storage.getId(), itemId);
     }
 
-    private List<Item> searchItemsByName(String partialName) {
-        return itemRepository.findByNameLikeIgnoreCase(getLikePattern(partialName));
+    private String getLikePattern(String partialName) {
+        return "%" + partialName.toLowerCase() + "%";
     }
 
-    private List<Item> searchItemsByKeywords(List<String> keywords) {
-        List<String> lowerKeywords = keywords.stream()
-                .map(String::toLowerCase)
-                .collect(Collectors.toList());
-        return itemRepository.findByAnyKeyword(lowerKeywords);
+    private List<Storage> searchStoragesByName(String partialName) {
+        return storageRepository.findByNameLikeIgnoreCase(getLikePattern(partialName));
     }
 
     private Item getItemByIdOrThrow(Long itemId) {
@@ -128,8 +156,4 @@ public class DefaultItemSearchService implements ItemSearchService {
     private boolean hasName(String partialName) {
         return partialName != null && !partialName.trim().isEmpty();
     }
-
-    private boolean hasKeywords(List<String> keywords) {
-        return keywords != null && !keywords.isEmpty();
-    }
 }
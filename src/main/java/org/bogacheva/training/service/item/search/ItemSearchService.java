@@ -1,11 +1,14 @@
 package org.bogacheva.training.service.item.search;
 
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
 import org.bogacheva.training.exceptions.InvalidItemOperationException;
 import org.bogacheva.training.exceptions.ItemNotFoundException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
+import org.bogacheva.training.service.item.view.StorageInclude;
 
 import java.util.List;
+import java.util.Set;
 
 public interface ItemSearchService {
 
@@ -22,6 +25,17 @@ public interface ItemSearchService {
      */
     List<ItemDTO> search(String partialName, List<String> keywords);
 
+    /**
+     * Search items by partial name and/or keywords, returning the normalized view.
+     *
+     * @param partialName partial name to search for (may be null or empty)
+     * @param keywords list of keywords to search for (may be null or empty)
+     * @param include child ID lists to return instead of counts for the referenced storages
+     * @return matching items referencing their storages by ID, and those storages
+     * @see #search(String, List)
+     */
+    NormalizedItemsDTO searchNormalized(String partialName, List<String> keywords, Set<StorageInclude> include);
+
     /**
      * Search items by storage name.
      * <p>
@@ -45,6 +59,16 @@ public interface ItemSearchService {
      */
     List<ItemDTO> getItemsNear(Long itemId);
 
+    /**
+     * Get all other items stored in the same storage as the specified item, returning the normalized view.
+     *
+     * @param itemId ID of the reference item
+     * @param include child ID lists to return instead of counts for the referenced storage
+     * @return other items in the same storage, and that storage
+     * @see #getItemsNear(Long)
+     */
+    NormalizedItemsDTO getItemsNearNormalized(Long itemId, Set<StorageInclude> include);
+
     /**
      * Get all items in a specific storage by storage ID.
      *
@@ -55,6 +79,16 @@ public interface ItemSearchService {
      */
     List<ItemDTO> getByStorageId(Long storageId);
 
+    /**
+     * Get all items in a specific storage by storage ID, returning the normalized view.
+     *
+     * @param storageId ID of the storage
+     * @param include child ID lists to return instead of counts for the storage
+     * @return items in the storage, and the storage itself
+     * @see #getByStorageId(Long)
+     */
+    NormalizedItemsDTO getByStorageIdNormalized(Long storageId, Set<StorageInclude> include);
+
     /**
      * Get the IDs of all storages in the hierarchy that contain the specified item.
      *
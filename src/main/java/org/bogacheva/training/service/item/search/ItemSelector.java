@@ -0,0 +1,100 @@
+package org.bogacheva.training.service.item.search;
+
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.exceptions.ItemNotFoundException;
+import org.bogacheva.training.exceptions.StorageNotFoundException;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Finds the items a search or a bulk operation applies to. A search loads the matching items and
+ * a bulk operation only their IDs, but both match names and keywords the same way, so a bulk
+ * operation acts on exactly the items the same search shows.
+ */
+@Component
+public class ItemSelector {
+
+    private final ItemRepository itemRepository;
+    private final StorageRepository storageRepository;
+
+    public ItemSelector(ItemRepository itemRepository, StorageRepository storageRepository) {
+        this.itemRepository = itemRepository;
+        this.storageRepository = storageRepository;
+    }
+
+    /**
+     * @return whether a search by the given name or keywords can match any item
+     */
+    public boolean hasCriteria(String partialName, List<String> keywords) {
+        return hasName(partialName) || hasKeywords(keywords);
+    }
+
+    /**
+     * Finds the items whose names contain the given text or that have any of the given keywords,
+     * ignoring case. Items matching by name come first.
+     */
+    public Set<Item> findMatchingItems(String partialName, List<String> keywords) {
+        return findMatching(partialName, keywords,
+                itemRepository::findByNameLikeIgnoreCase, itemRepository::findByAnyKeyword);
+    }
+
+    /**
+     * Finds the IDs of the selected items: those in the selected storage, those next to the
+     * selected item, or those matching the search criteria as {@link #findMatchingItems} does.
+     *
+     * @throws IllegalArgumentException if nothing is selected
+     * @throws StorageNotFoundException if the selected storage does not exist
+     * @throws ItemNotFoundException if the selected item does not exist
+     */
+    public Set<Long> findSelectedIds(ItemSelectionDTO selection) {
+        if (selection == null) {
+            throw new IllegalArgumentException("ItemSelectionDTO must not be null.");
+        }
+        if (selection.getStorageId() != null) {
+            Long storageId = selection.getStorageId();
+            storageRepository.findById(storageId).orElseThrow(() -> new StorageNotFoundException(storageId));
+            return new LinkedHashSet<>(itemRepository.findIdsByStorageIds(List.of(storageId)));
+        }
+        if (selection.getNearItemId() != null) {
+            Long itemId = selection.getNearItemId();
+            Item item = itemRepository.findById(itemId).orElseThrow(() -> new ItemNotFoundException(itemId));
+            Set<Long> ids = new LinkedHashSet<>(itemRepository.findIdsByStorageIds(List.of(item.getStorage().getId())));
+            ids.remove(itemId);
+            return ids;
+        }
+        if (!hasCriteria(selection.getName(), selection.getKeywords())) {
+            throw new IllegalArgumentException("A storage, an item or search criteria must be selected.");
+        }
+        return findMatching(selection.getName(), selection.getKeywords(),
+                itemRepository::findIdsByNameLikeIgnoreCase, itemRepository::findIdsByAnyKeyword);
+    }
+
+    private static <T> Set<T> findMatching(String partialName,
+                                           List<String> keywords,
+                                           Function<String, List<T>> byNamePattern,
+                                           Function<List<String>, List<T>> byAnyKeyword) {
+        Set<T> results = new LinkedHashSet<>();
+        if (hasName(partialName)) {
+            results.addAll(byNamePattern.apply("%" + partialName.toLowerCase() + "%"));
+        }
+        if (hasKeywords(keywords)) {
+            results.addAll(byAnyKeyword.apply(keywords.stream().map(String::toLowerCase).toList()));
+        }
+        return results;
+    }
+
+    private static boolean hasName(String partialName) {
+        return partialName != null && !partialName.isBlank();
+    }
+
+    private static boolean hasKeywords(List<String> keywords) {
+        return keywords != null && !keywords.isEmpty();
+    }
+}
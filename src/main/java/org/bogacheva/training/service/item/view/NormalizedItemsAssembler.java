@@ -0,0 +1,91 @@
+package org.bogacheva.training.service.item.view;
+
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageChildCount;
+import org.bogacheva.training.repository.storage.StorageChildRef;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.mapper.StorageMapper;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the normalized view of an item list. Each referenced storage is mapped once, and its
+ * children are summarized by grouped count queries instead of loading its collections, so the
+ * mapping cost grows linearly with the number of items and storages involved.
+ * Must be called within the transaction that loaded the items.
+ */
+@Component
+public class NormalizedItemsAssembler {
+
+    private final ItemRepository itemRepo;
+    private final StorageRepository storageRepo;
+    private final ItemMapper itemMapper;
+    private final StorageMapper storageMapper;
+
+    public NormalizedItemsAssembler(ItemRepository itemRepo,
+                                    StorageRepository storageRepo,
+                                    ItemMapper itemMapper,
+                                    StorageMapper storageMapper) {
+        this.itemRepo = itemRepo;
+        this.storageRepo = storageRepo;
+        this.itemMapper = itemMapper;
+        this.storageMapper = storageMapper;
+    }
+
+    public NormalizedItemsDTO assemble(List<Item> items, Set<StorageInclude> include) {
+        Map<Long, StorageSummaryDTO> storages = new LinkedHashMap<>();
+        for (Item item : items) {
+            Storage storage = item.getStorage();
+            if (storage != null) {
+                storages.computeIfAbsent(storage.getId(), id -> storageMapper.toSummaryDTO(storage));
+            }
+        }
+        if (!storages.isEmpty()) {
+            addItemChildren(storages, include.contains(StorageInclude.ITEMS));
+            addStorageChildren(storages, include.contains(StorageInclude.STORAGES));
+        }
+        return new NormalizedItemsDTO(itemMapper.toRefDTOList(items), storages);
+    }
+
+    private void addItemChildren(Map<Long, StorageSummaryDTO> storages, boolean asIds) {
+        if (asIds) {
+            Map<Long, List<Long>> ids = groupIds(itemRepo.findChildRefsByStorageIds(storages.keySet()));
+            storages.forEach((id, storage) -> storage.setItems(ids.getOrDefault(id, List.of())));
+        } else {
+            Map<Long, Long> counts = toMap(itemRepo.countByStorageIds(storages.keySet()));
+            storages.forEach((id, storage) -> storage.setItemCount(counts.getOrDefault(id, 0L)));
+        }
+    }
+
+    private void addStorageChildren(Map<Long, StorageSummaryDTO> storages, boolean asIds) {
+        if (asIds) {
+            Map<Long, List<Long>> ids = groupIds(storageRepo.findChildRefsByParentIds(storages.keySet()));
+            storages.forEach((id, storage) -> storage.setStorages(ids.getOrDefault(id, List.of())));
+        } else {
+            Map<Long, Long> counts = toMap(storageRepo.countByParentIds(storages.keySet()));
+            storages.forEach((id, storage) -> storage.setStorageCount(counts.getOrDefault(id, 0L)));
+        }
+    }
+
+    private Map<Long, Long> toMap(List<StorageChildCount> counts) {
+        return counts.stream()
+                .collect(Collectors.toMap(StorageChildCount::getStorageId, StorageChildCount::getCount));
+    }
+
+    private Map<Long, List<Long>> groupIds(List<StorageChildRef> refs) {
+        return refs.stream()
+                .collect(Collectors.groupingBy(StorageChildRef::getStorageId,
+                        Collectors.mapping(StorageChildRef::getId, Collectors.toCollection(ArrayList::new))));
+    }
+}
@@ -0,0 +1,10 @@
+package org.bogacheva.training.service.item.view;
+
+/**
+ * Child ID lists that can be requested for the storages of a normalized view
+ * in place of their counts.
+ */
+public enum StorageInclude {
+    ITEMS,
+    STORAGES
+}
@@ -4,6 +4,8 @@ import org.bogacheva.training.domain.item.Item;
 import org.bogacheva.training.domain.storage.Storage;
 import org.bogacheva.training.service.dto.ItemCreateDTO;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.SyncItemDTO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -14,10 +16,22 @@ public interface ItemMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "storage", ignore = true)
+    @Mapping(target = "changeVersion", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Item toEntity(ItemCreateDTO dto);
 
     @Mapping(source = "storage", target = "storage")
     ItemDTO toDTO(Item item);
 
     List<ItemDTO> toDTOList(List<Item> items);
+
+    @Mapping(source = "storage.id", target = "storageId")
+    SyncItemDTO toSyncDTO(Item item);
+
+    List<SyncItemDTO> toSyncDTOList(List<Item> items);
+
+    @Mapping(source = "storage.id", target = "storageId")
+    ItemRefDTO toRefDTO(Item item);
+
+    List<ItemRefDTO> toRefDTOList(List<Item> items);
 }
@@ -3,6 +3,8 @@ package org.bogacheva.training.service.mapper;
 import org.bogacheva.training.domain.storage.Storage;
 import org.bogacheva.training.service.dto.StorageCreateDTO;
 import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.dto.SyncStorageDTO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -20,7 +22,21 @@ public interface StorageMapper {
     @Mapping(target = "items", ignore = true)
     @Mapping(target = "subStorages", ignore = true)
     @Mapping(target = "parent", ignore = true)
+    @Mapping(target = "changeVersion", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Storage toEntity(StorageCreateDTO storageDTO);
 
     List<StorageDTO> toDTOList(List<Storage> storages);
+
+    @Mapping(target = "parentId", source = "parent", qualifiedByName = "mapParentId")
+    SyncStorageDTO toSyncDTO(Storage storage);
+
+    List<SyncStorageDTO> toSyncDTOList(List<Storage> storages);
+
+    @Mapping(target = "parentId", source = "parent", qualifiedByName = "mapParentId")
+    @Mapping(target = "itemCount", ignore = true)
+    @Mapping(target = "storageCount", ignore = true)
+    @Mapping(target = "items", ignore = true)
+    @Mapping(target = "storages", ignore = true)
+    StorageSummaryDTO toSummaryDTO(Storage storage);
 }
@@ -0,0 +1,36 @@
+package org.bogacheva.training.service.paging;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Turns keyset-paginated service calls into lazily fetched streams, which REST responses and the
+ * CLI write out element by element. The next chunk is only loaded once the previous one has been
+ * written, each in a read-only transaction of its own, so neither the full list nor a database
+ * connection is held while a large result is being sent.
+ */
+public final class KeysetStreams {
+
+    public static final int CHUNK_SIZE = 500;
+
+    private KeysetStreams() {
+    }
+
+    /**
+     * @param pageLoader loads up to the given number of elements with IDs greater than the given ID
+     * @param idOf extracts the ID an element is ordered by
+     * @return a stream over all elements; the first chunk is loaded eagerly so that lookup
+     *         failures still result in a regular error response
+     */
+    public static <T> Stream<T> of(BiFunction<Long, Integer, List<T>> pageLoader, Function<T, Long> idOf) {
+        return Stream.iterate(
+                        pageLoader.apply(0L, CHUNK_SIZE),
+                        chunk -> !chunk.isEmpty(),
+                        chunk -> chunk.size() < CHUNK_SIZE
+                                ? List.of()
+                                : pageLoader.apply(idOf.apply(chunk.get(chunk.size() - 1)), CHUNK_SIZE))
+                .flatMap(List::stream);
+    }
+}
@@ -1,24 +1,41 @@
 package org.bogacheva.training.service.storage;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.extern.slf4j.Slf4j;
 import org.bogacheva.training.domain.item.Item;
 import org.bogacheva.training.domain.storage.Storage;
 import org.bogacheva.training.domain.storage.StorageType;
 import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageChildCount;
 import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.storage.StorageTreeRow;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
 import org.bogacheva.training.service.dto.StorageCreateDTO;
 import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
 import org.bogacheva.training.service.dto.StorageUpdateDTO;
+import org.bogacheva.training.exceptions.PreconditionFailedException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
+import org.bogacheva.training.monitoring.jfr.HierarchyTraversalEvent;
+import org.bogacheva.training.monitoring.jfr.SearchQueryEvent;
+import org.bogacheva.training.service.item.view.NormalizedItemsAssembler;
+import org.bogacheva.training.service.item.view.StorageInclude;
 import org.bogacheva.training.service.mapper.ItemMapper;
 import org.bogacheva.training.service.mapper.StorageMapper;
+import org.bogacheva.training.service.sync.SyncChangeRecorder;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Service implementation for managing Storage entities in the ShelveIt application.
@@ -31,6 +48,7 @@ import java.util.List;
  * - Parent-child relationships are validated based on compatibility rules (according to StorageType strategies)
  */
 @Service
+@Observed(name = "shelveit.service")
 @Slf4j
 public class DefaultStorageService implements StorageService {
 
@@ -39,17 +57,23 @@ public class DefaultStorageService implements StorageService {
     private final ItemMapper itemMapper;
     private final ItemRepository itemRepo;
     private final StorageValidatorService validator;
+    private final SyncChangeRecorder changeRecorder;
+    private final NormalizedItemsAssembler normalizedAssembler;
 
     public DefaultStorageService(StorageRepository storageRepository,
                                  StorageMapper storageMapper,
                                  ItemMapper itemMapper,
                                  ItemRepository itemRepository,
-                                 StorageValidatorService validator) {
+                                 StorageValidatorService validator,
+                                 SyncChangeRecorder changeRecorder,
+                                 NormalizedItemsAssembler normalizedAssembler) {
         this.storageRepo = storageRepository;
         this.storageMapper = storageMapper;
         this.itemMapper = itemMapper;
         this.itemRepo = itemRepository;
         this.validator = validator;
+        this.changeRecorder = changeRecorder;
+        this.normalizedAssembler = normalizedAssembler;
     }
 
     @Override
@@ -59,6 +83,8 @@ public class DefaultStorageService implements StorageService {
         validator.validateStorageCreation(storageCreateDTO);
         Storage newStorage = buildStorageFromDTO(storageCreateDTO);
         Storage storage = storageRepo.save(newStorage);
+        changeRecorder.recordUpsert(storage);
+        changeRecorder.recordUpsert(storage.getParent());
         log.info("Created new storage with ID: {}", storage.getId());
         return storageMapper.toDTO(storage);
     }
@@ -87,13 +113,52 @@ public class DefaultStorageService implements StorageService {
         return storageMapper.toDTOList(storages);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<StorageDTO> getPageAfter(StorageType type, Long afterId, int limit) {
+        log.debug("Fetching up to {} storages with type: {} after ID: {}", limit, type, afterId);
+        return storageMapper.toDTOList(storageRepo.findPageAfter(afterId, type, PageRequest.of(0, limit)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StorageSummaryDTO> getSummaryPageAfter(StorageType type, Long afterId, int limit) {
+        log.debug("Fetching up to {} storage summaries with type: {} after ID: {}", limit, type, afterId);
+        List<Storage> storages = storageRepo.findPageAfter(afterId, type, PageRequest.of(0, limit));
+        if (storages.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = storages.stream().map(Storage::getId).toList();
+        Map<Long, Long> itemCounts = toCountMap(itemRepo.countByStorageIds(ids));
+        Map<Long, Long> storageCounts = toCountMap(storageRepo.countByParentIds(ids));
+        return storages.stream()
+                .map(storage -> {
+                    StorageSummaryDTO summary = storageMapper.toSummaryDTO(storage);
+                    summary.setItemCount(itemCounts.getOrDefault(storage.getId(), 0L));
+                    summary.setStorageCount(storageCounts.getOrDefault(storage.getId(), 0L));
+                    return summary;
+                })
+                .toList();
+    }
+
     @Override
     @Transactional
     public StorageDTO update(Long id, StorageUpdateDTO dto) {
+        return update(id, dto, null);
+    }
+
+    @Override
+    @Transactional
+    public StorageDTO update(Long id, StorageUpdateDTO dto, Long expectedVersion) {
         log.debug("Updating for storage with ID: {}", id);
         Storage storage = findStorageByIdOrThrow(id);
+        if (expectedVersion != null && !expectedVersion.equals(storage.getChangeVersion())) {
+            throw new PreconditionFailedException(String.format(
+                    "Storage with ID: %s has changed since version %s.", id, expectedVersion));
+        }
         updateStorageProperties(storage, dto);
         Storage savedUpdatedStorage = storageRepo.save(storage);
+        changeRecorder.recordUpsert(savedUpdatedStorage);
         log.info("Updated storage with ID: {}", id);
         return storageMapper.toDTO(savedUpdatedStorage);
     }
@@ -102,8 +167,10 @@ public class DefaultStorageService implements StorageService {
     @Transactional
     public void delete(Long storageId) {
         log.debug("Deleting storage with ID: {}", storageId);
-        findStorageByIdOrThrow(storageId);
+        Storage storage = findStorageByIdOrThrow(storageId);
+        recordSubtreeDeletes(storageId);
         storageRepo.deleteById(storageId);
+        changeRecorder.recordUpsert(storage.getParent());
         log.info("Deleted storage with ID: {}", storageId);
     }
 
@@ -121,6 +188,33 @@ public class DefaultStorageService implements StorageService {
         return itemMapper.toDTOList(items);
     }
 
+    /**
+     * Retrieves all items in a storage subtree as the normalized view.
+     * Unlike {@link #getAllItemDTOs(Long)}, the subtree is resolved with one recursive query
+     * and the items are loaded in bulk rather than by walking the storage collections.
+     *
+     * @param storageId the storage ID
+     * @param include child ID lists to return instead of counts
+     * @return the normalized view of the items
+     * @throws StorageNotFoundException if the storage does not exist
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public NormalizedItemsDTO getAllItemsNormalized(Long storageId, Set<StorageInclude> include) {
+        log.debug("Fetching normalized items for storage with ID: {}", storageId);
+        findStorageByIdOrThrow(storageId);
+        HierarchyTraversalEvent event = new HierarchyTraversalEvent();
+        event.begin();
+        List<Long> storageIds = storageRepo.findSubtreeIds(storageId);
+        event.complete("subtree-query", storageId, storageIds.size());
+        List<Long> itemIds = itemRepo.findIdsByStorageIds(storageIds);
+        List<Item> items = itemIds.isEmpty()
+                ? new ArrayList<>()
+                : new ArrayList<>(itemRepo.findAllWithKeywordsByIdIn(itemIds));
+        items.sort(Comparator.comparing(Item::getId));
+        return normalizedAssembler.assemble(items, include);
+    }
+
     /**
      * Retrieves all direct sub-storages of a parent storage.
      *
@@ -137,15 +231,53 @@ public class DefaultStorageService implements StorageService {
         return storageMapper.toDTOList(subStorages);
     }
 
+    /**
+     * Retrieves a storage subtree, with item and sub-storage counts, from a single recursive query
+     * instead of one query per level.
+     *
+     * @param storageId the root storage ID
+     * @param depth the levels below the root to include, or null for all
+     * @return the nodes of the tree, depth first
+     * @throws StorageNotFoundException if the storage does not exist
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<StorageTreeNodeDTO> getTree(Long storageId, Integer depth) {
+        log.debug("Fetching storage tree for storage with ID: {} down to depth: {}", storageId, depth);
+        HierarchyTraversalEvent event = new HierarchyTraversalEvent();
+        event.begin();
+        List<StorageTreeRow> rows = storageRepo.findTree(storageId, depth != null ? depth : Integer.MAX_VALUE);
+        event.complete("tree-query", storageId, rows.size());
+        if (rows.isEmpty()) {
+            throw new StorageNotFoundException(storageId);
+        }
+        return rows.stream()
+                .map(row -> StorageTreeNodeDTO.builder()
+                        .id(row.getId())
+                        .name(row.getName())
+                        .type(row.getType())
+                        .parentId(row.getParentId())
+                        .depth(row.getDepth())
+                        .itemCount(row.getItemCount())
+                        .storageCount(row.getStorageCount())
+                        .build())
+                .toList();
+    }
+
     @Override
     @Transactional
     public StorageDTO addItems(Long storageId, List<Long> itemIds) {
         log.debug("Adding items {} to storage {}", itemIds, storageId);
         Storage storage = findStorageByIdOrThrow(storageId);
         List<Item> items = itemRepo.findAllById(itemIds);
-        items.forEach(item -> item.setStorage(storage));
+        items.forEach(item -> {
+            changeRecorder.recordUpsert(item.getStorage());
+            item.setStorage(storage);
+        });
         storage.getItems().addAll(items);
         Storage updated = storageRepo.save(storage);
+        items.forEach(changeRecorder::recordUpsert);
+        changeRecorder.recordUpsert(updated);
         return storageMapper.toDTO(updated);
     }
 
@@ -154,14 +286,18 @@ public class DefaultStorageService implements StorageService {
     public StorageDTO removeItems(Long storageId, List<Long> itemIds) {
         log.debug("Removing items {} from storage {}", itemIds, storageId);
         Storage storage = findStorageByIdOrThrow(storageId);
+        List<Long> removedIds = new ArrayList<>();
         storage.getItems().removeIf(item -> {
             if (itemIds.contains(item.getId())) {
                 item.setStorage(null);
+                removedIds.add(item.getId());
                 return true;
             }
             return false;
         });
         Storage updated = storageRepo.save(storage);
+        changeRecorder.recordItemDeletes(removedIds);
+        changeRecorder.recordUpsert(updated);
         return storageMapper.toDTO(updated);
     }
 
@@ -174,6 +310,8 @@ public class DefaultStorageService implements StorageService {
             return Collections.emptyList();
         }
         
+        SearchQueryEvent event = new SearchQueryEvent();
+        event.begin();
         List<Storage> storages;
         if (type == null) {
             storages = storageRepo.findByNameContainingIgnoreCase(name);
@@ -182,7 +320,8 @@ public class DefaultStorageService implements StorageService {
         } else {
             storages = storageRepo.findByNameContainingIgnoreCaseAndType(name, type);
         }
-        
+        event.complete("storage", name, type == null ? null : List.of(type), storages.size());
+
         return storageMapper.toDTOList(storages);
     }
 
@@ -216,15 +355,33 @@ public class DefaultStorageService implements StorageService {
     private List<Item> getAllItems(Long storageId) {
         Storage storage = findStorageByIdOrThrow(storageId);
         List<Item> allItems = new ArrayList<>();
-        collectItemsRecursively(storage, allItems);
+        HierarchyTraversalEvent event = new HierarchyTraversalEvent();
+        event.begin();
+        int storages = collectItemsRecursively(storage, allItems);
+        event.complete("subtree-walk", storageId, storages);
         return allItems;
     }
 
-    private void collectItemsRecursively(Storage storage, List<Item> itemsCollection) {
+    private void recordSubtreeDeletes(Long storageId) {
+        HierarchyTraversalEvent event = new HierarchyTraversalEvent();
+        event.begin();
+        List<Long> storageIds = storageRepo.findSubtreeIds(storageId);
+        event.complete("subtree-delete", storageId, storageIds.size());
+        changeRecorder.recordItemDeletes(itemRepo.findIdsByStorageIds(storageIds));
+        changeRecorder.recordStorageDeletes(storageIds);
+    }
+
+    private static Map<Long, Long> toCountMap(List<StorageChildCount> counts) {
+        return counts.stream().collect(Collectors.toMap(StorageChildCount::getStorageId, StorageChildCount::getCount));
+    }
+
+    private int collectItemsRecursively(Storage storage, List<Item> itemsCollection) {
         itemsCollection.addAll(storage.getItems());
+        int visited = 1;
         for (Storage subStorage : storage.getSubStorages()) {
-            collectItemsRecursively(subStorage, itemsCollection);
+            visited += collectItemsRecursively(subStorage, itemsCollection);
         }
+        return visited;
     }
 
 }
@@ -2,13 +2,19 @@ package org.bogacheva.training.service.storage;
 
 import org.bogacheva.training.domain.storage.StorageType;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
 import org.bogacheva.training.service.dto.StorageCreateDTO;
 import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
 import org.bogacheva.training.service.dto.StorageUpdateDTO;
 import org.bogacheva.training.exceptions.InvalidStorageHierarchyException;
+import org.bogacheva.training.exceptions.PreconditionFailedException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
+import org.bogacheva.training.service.item.view.StorageInclude;
 
 import java.util.List;
+import java.util.Set;
 
 public interface StorageService {
 
@@ -39,6 +45,27 @@ public interface StorageService {
      */
     List<StorageDTO> getAll(StorageType type);
 
+    /**
+     * Retrieves a page of storages ordered by ID, so that large lists can be read chunk by chunk.
+     *
+     * @param type Optional type filter; if null, pages through all storages
+     * @param afterId ID of the last storage of the previous page, 0 for the first page
+     * @param limit Maximum number of storages to return
+     * @return Up to {@code limit} storages with IDs greater than {@code afterId}, in ascending ID order
+     */
+    List<StorageDTO> getPageAfter(StorageType type, Long afterId, int limit);
+
+    /**
+     * Retrieves a page of storages ordered by ID, with their children summarized by counts, which
+     * are computed by grouped queries instead of loading each storage's collections.
+     *
+     * @param type Optional type filter; if null, pages through all storages
+     * @param afterId ID of the last storage of the previous page, 0 for the first page
+     * @param limit Maximum number of storages to return
+     * @return Up to {@code limit} storage summaries with IDs greater than {@code afterId}, in ascending ID order
+     */
+    List<StorageSummaryDTO> getSummaryPageAfter(StorageType type, Long afterId, int limit);
+
     /**
      * Updates the basic properties of a storage (name and/or type).
      * Type changes are validated against the storage hierarchy rules.
@@ -51,6 +78,19 @@ public interface StorageService {
      */
     StorageDTO update(Long id, StorageUpdateDTO dto);
 
+    /**
+     * Updates the basic properties of a storage only if it has not changed since the given change version.
+     *
+     * @param id ID of the storage to update
+     * @param dto DTO containing the properties to update
+     * @param expectedVersion The change version the update is based on, or null to update unconditionally
+     * @return The updated storage as a DTO
+     * @throws StorageNotFoundException if no storage with the given ID exists
+     * @throws IllegalArgumentException if type change violates hierarchy rules
+     * @throws PreconditionFailedException if the storage has changed since the expected version
+     */
+    StorageDTO update(Long id, StorageUpdateDTO dto, Long expectedVersion);
+
     /**
      * Deletes a storage by its ID.
      *
@@ -68,6 +108,17 @@ public interface StorageService {
      */
     List<ItemDTO> getAllItemDTOs(Long storageId);
 
+    /**
+     * Retrieves all items contained in a storage and all its sub-storages recursively,
+     * returning the normalized view.
+     *
+     * @param storageId ID of the storage to retrieve items from
+     * @param include child ID lists to return instead of counts for the referenced storages
+     * @return all items referencing their storages by ID, and those storages
+     * @throws StorageNotFoundException if no storage with the given ID exists
+     */
+    NormalizedItemsDTO getAllItemsNormalized(Long storageId, Set<StorageInclude> include);
+
     /**
      * Retrieves all direct sub-storages of a parent storage.
      *
@@ -77,6 +128,16 @@ public interface StorageService {
      */
     List<StorageDTO> getSubStorages(Long parentId);
 
+    /**
+     * Retrieves a storage and its sub-storages recursively with one query, as a tree listed depth first.
+     *
+     * @param storageId ID of the storage at the root of the tree
+     * @param depth Levels of sub-storages to include below the root; if null, includes all levels
+     * @return The storage followed by its sub-storages, each after its parent, with their item counts
+     * @throws StorageNotFoundException if no storage with the given ID exists
+     */
+    List<StorageTreeNodeDTO> getTree(Long storageId, Integer depth);
+
     /**
      * Adds existing items to a storage.
      *
@@ -0,0 +1,53 @@
+package org.bogacheva.training.service.sync;
+
+import java.util.Optional;
+
+/**
+ * Cheap lookups of change versions, used to answer conditional requests
+ * without loading and mapping the requested data.
+ * <p>
+ * A version returned here changes whenever the corresponding DTO (or list of DTOs) may change.
+ * Lookups return an empty result when the requested entity does not exist.
+ */
+public interface ChangeVersionService {
+
+    /**
+     * Get the version of an item together with the storage embedded in its DTO.
+     *
+     * @param itemId ID of the item
+     * @return the item version, empty if the item does not exist
+     */
+    Optional<Long> getItemVersion(Long itemId);
+
+    /**
+     * Get the version of a storage, including its lists of direct items and sub-storages.
+     *
+     * @param storageId ID of the storage
+     * @return the storage version, empty if the storage does not exist
+     */
+    Optional<Long> getStorageVersion(Long storageId);
+
+    /**
+     * Get the version of the list of direct sub-storages of a storage.
+     *
+     * @param storageId ID of the parent storage
+     * @return the version of the sub-storages list, empty if the storage does not exist
+     */
+    Optional<Long> getSubStoragesVersion(Long storageId);
+
+    /**
+     * Get the version of all items contained in a storage and its sub-storages recursively.
+     *
+     * @param storageId ID of the root storage
+     * @return the version of the subtree, empty if the storage does not exist
+     */
+    Optional<Long> getSubtreeVersion(Long storageId);
+
+    /**
+     * Get the latest change version of the whole inventory.
+     * Used for lists and searches which may be affected by any change.
+     *
+     * @return the latest change version
+     */
+    long getLatestVersion();
+}
@@ -0,0 +1,56 @@
+package org.bogacheva.training.service.sync;
+
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Resolves change versions from the change_version columns stamped by {@link SyncChangeRecorder}.
+ * A storage is re-stamped whenever one of its direct items or sub-storages is added, moved or removed,
+ * so the highest version over a set of storages covers everything shown inside them.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DefaultChangeVersionService implements ChangeVersionService {
+
+    private final ItemRepository itemRepo;
+    private final StorageRepository storageRepo;
+    private final SyncChangeRepository changeRepo;
+
+    public DefaultChangeVersionService(ItemRepository itemRepo,
+                                       StorageRepository storageRepo,
+                                       SyncChangeRepository changeRepo) {
+        this.itemRepo = itemRepo;
+        this.storageRepo = storageRepo;
+        this.changeRepo = changeRepo;
+    }
+
+    @Override
+    public Optional<Long> getItemVersion(Long itemId) {
+        return itemId == null ? Optional.empty() : itemRepo.findChangeVersion(itemId);
+    }
+
+    @Override
+    public Optional<Long> getStorageVersion(Long storageId) {
+        return storageId == null ? Optional.empty() : storageRepo.findChangeVersion(storageId);
+    }
+
+    @Override
+    public Optional<Long> getSubStoragesVersion(Long storageId) {
+        return storageId == null ? Optional.empty() : storageRepo.findChildrenChangeVersion(storageId);
+    }
+
+    @Override
+    public Optional<Long> getSubtreeVersion(Long storageId) {
+        return storageId == null ? Optional.empty() : storageRepo.findSubtreeChangeVersion(storageId);
+    }
+
+    @Override
+    public long getLatestVersion() {
+        return changeRepo.findLatestVersion();
+    }
+}
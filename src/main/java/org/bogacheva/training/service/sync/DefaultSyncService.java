@@ -0,0 +1,135 @@
+package org.bogacheva.training.service.sync;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bogacheva.training.domain.sync.SyncChange;
+import org.bogacheva.training.domain.sync.SyncEntityType;
+import org.bogacheva.training.domain.sync.SyncOperation;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.bogacheva.training.service.dto.SyncBatchDTO;
+import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.mapper.StorageMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Service implementation for delta synchronisation based on the change log.
+ * Only the entities touched after the client's last known version are loaded and mapped,
+ * so the size of a response depends on the amount of changes, not on the size of the inventory.
+ * <p>
+ * Change versions come from an identity column and are taken when a change is inserted, so a
+ * transaction that commits late makes a lower version visible after higher ones. Changes recorded
+ * within the commit lag ({@code shelveit.sync.commit-lag}) are therefore held back together with
+ * all later ones; a client only misses a change when its transaction stays open longer than that.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class DefaultSyncService implements SyncService {
+
+    static final int MAX_BATCH_SIZE = 5000;
+
+    private final SyncChangeRepository changeRepo;
+    private final ItemRepository itemRepo;
+    private final StorageRepository storageRepo;
+    private final ItemMapper itemMapper;
+    private final StorageMapper storageMapper;
+    private final Duration commitLag;
+
+    public DefaultSyncService(SyncChangeRepository changeRepo,
+                              ItemRepository itemRepo,
+                              StorageRepository storageRepo,
+                              ItemMapper itemMapper,
+                              StorageMapper storageMapper,
+                              @Value("${shelveit.sync.commit-lag:5s}") Duration commitLag) {
+        this.changeRepo = changeRepo;
+        this.itemRepo = itemRepo;
+        this.storageRepo = storageRepo;
+        this.itemMapper = itemMapper;
+        this.storageMapper = storageMapper;
+        this.commitLag = commitLag;
+    }
+
+    @Override
+    public SyncBatchDTO getChangesSince(long since, int limit) {
+        validateRequest(since, limit);
+        log.debug("Fetching up to {} changes since version {}", limit, since);
+        List<SyncChange> changes = changeRepo.findChangesSince(since, PageRequest.of(0, limit + 1));
+        int committed = countCommitted(changes, Instant.now().minus(commitLag));
+        boolean hasMore = committed > limit;
+        changes = changes.subList(0, Math.min(committed, limit));
+        long version = changes.isEmpty() ? since : changes.getLast().getVersion();
+
+        Map<SyncEntityType, Set<Long>> upserts = new EnumMap<>(SyncEntityType.class);
+        Map<SyncEntityType, Set<Long>> deletes = new EnumMap<>(SyncEntityType.class);
+        for (SyncEntityType type : SyncEntityType.values()) {
+            upserts.put(type, new LinkedHashSet<>());
+            deletes.put(type, new LinkedHashSet<>());
+        }
+        for (SyncChange change : changes) {
+            collapse(change, upserts.get(change.getEntityType()), deletes.get(change.getEntityType()));
+        }
+
+        return SyncBatchDTO.builder()
+                .since(since)
+                .version(version)
+                .hasMore(hasMore)
+                .items(upserts.get(SyncEntityType.ITEM).isEmpty()
+                        ? Collections.emptyList()
+                        : itemMapper.toSyncDTOList(itemRepo.findAllWithKeywordsByIdIn(upserts.get(SyncEntityType.ITEM))))
+                .storages(upserts.get(SyncEntityType.STORAGE).isEmpty()
+                        ? Collections.emptyList()
+                        : storageMapper.toSyncDTOList(storageRepo.findAllById(upserts.get(SyncEntityType.STORAGE))))
+                .deletedItemIds(new ArrayList<>(deletes.get(SyncEntityType.ITEM)))
+                .deletedStorageIds(new ArrayList<>(deletes.get(SyncEntityType.STORAGE)))
+                .build();
+    }
+
+    @Override
+    public long getCommittedVersion() {
+        Long firstRecent = changeRepo.findFirstVersionRecordedSince(Instant.now().minus(commitLag));
+        return firstRecent == null ? changeRepo.findLatestVersion() : firstRecent - 1;
+    }
+
+    // The number of leading changes recorded before the horizon
+    private static int countCommitted(List<SyncChange> changes, Instant horizon) {
+        for (int i = 0; i < changes.size(); i++) {
+            Instant recordedAt = changes.get(i).getRecordedAt();
+            if (recordedAt != null && !recordedAt.isBefore(horizon)) {
+                return i;
+            }
+        }
+        return changes.size();
+    }
+
+    private void validateRequest(long since, int limit) {
+        if (since < 0) {
+            throw new IllegalArgumentException("Sync version must not be negative.");
+        }
+        if (limit < 1 || limit > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Sync batch size must be between 1 and " + MAX_BATCH_SIZE + ".");
+        }
+    }
+
+    /**
+     * Keeps only the latest operation per entity. Upserted entities that were deleted
+     * in a later batch are simply not found and arrive as tombstones with that batch.
+     */
+    private void collapse(SyncChange change, Set<Long> upsertIds, Set<Long> deleteIds) {
+        Long id = change.getEntityId();
+        if (change.getOperation() == SyncOperation.DELETE) {
+            upsertIds.remove(id);
+            deleteIds.add(id);
+        } else {
+            deleteIds.remove(id);
+            upsertIds.add(id);
+        }
+    }
+}
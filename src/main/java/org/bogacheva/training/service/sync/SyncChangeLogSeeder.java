@@ -0,0 +1,41 @@
+package org.bogacheva.training.service.sync;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Records an upsert for every item and storage that has no entry in the change log yet, once the
+ * server has started. Without it, a database that had items and storages before the change log
+ * was introduced would never send them to a client syncing from version 0. The entries get new
+ * versions, so clients that have synced already receive them with their next batch.
+ * Entities that are in the change log are left alone, so after the first start this only checks.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication
+public class SyncChangeLogSeeder {
+
+    private final SyncChangeRepository changeRepo;
+
+    public SyncChangeLogSeeder(SyncChangeRepository changeRepo) {
+        this.changeRepo = changeRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recordUnloggedEntities() {
+        Instant now = Instant.now();
+        int storages = changeRepo.insertMissingStorageChanges(now);
+        int items = changeRepo.insertMissingItemChanges(now);
+        if (storages > 0 || items > 0) {
+            log.info("Recorded {} storages and {} items missing from the sync change log", storages, items);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.bogacheva.training.service.sync;
+
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.sync.SyncChange;
+import org.bogacheva.training.domain.sync.SyncEntityType;
+import org.bogacheva.training.domain.sync.SyncOperation;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Appends item and storage mutations to the change log.
+ * Must be called from within the transaction that performs the mutation,
+ * so that the log entry is committed or rolled back together with it.
+ * Upserted entities are stamped with the new change version, which makes
+ * version lookups for conditional requests a primary key read.
+ */
+@Component
+public class SyncChangeRecorder {
+
+    private final SyncChangeRepository changeRepo;
+
+    public SyncChangeRecorder(SyncChangeRepository changeRepo) {
+        this.changeRepo = changeRepo;
+    }
+
+    public void recordUpsert(Item item) {
+        if (item != null) {
+            item.setChangeVersion(record(SyncEntityType.ITEM, item.getId(), SyncOperation.UPSERT));
+        }
+    }
+
+    public void recordUpsert(Storage storage) {
+        if (storage != null) {
+            storage.setChangeVersion(record(SyncEntityType.STORAGE, storage.getId(), SyncOperation.UPSERT));
+        }
+    }
+
+    public void recordItemDeletes(Collection<Long> itemIds) {
+        recordAll(SyncEntityType.ITEM, itemIds, SyncOperation.DELETE);
+    }
+
+    /**
+     * Records an upsert of each of the given items with a single insert, for bulk updates that
+     * bypass the entities and stamp their change version themselves.
+     */
+    public void recordBulkItemUpserts(Collection<Long> itemIds) {
+        changeRepo.insertItemChanges(itemIds, SyncOperation.UPSERT.name(), Instant.now());
+    }
+
+    /**
+     * Records a delete of each of the given items with a single insert. Must be called before
+     * the items are deleted.
+     */
+    public void recordBulkItemDeletes(Collection<Long> itemIds) {
+        changeRepo.insertItemChanges(itemIds, SyncOperation.DELETE.name(), Instant.now());
+    }
+
+    public void recordStorageDeletes(Collection<Long> storageIds) {
+        recordAll(SyncEntityType.STORAGE, storageIds, SyncOperation.DELETE);
+    }
+
+    private Long record(SyncEntityType type, Long id, SyncOperation operation) {
+        return changeRepo.save(new SyncChange(type, id, operation)).getVersion();
+    }
+
+    private void recordAll(SyncEntityType type, Collection<Long> ids, SyncOperation operation) {
+        if (ids == null || ids.isEmpty()) {
+            return;
+        }
+        List<SyncChange> changes = ids.stream()
+                .map(id -> new SyncChange(type, id, operation))
+                .toList();
+        changeRepo.saveAll(changes);
+    }
+}
@@ -0,0 +1,35 @@
+package org.bogacheva.training.service.sync;
+
+import org.bogacheva.training.service.dto.SyncBatchDTO;
+
+public interface SyncService {
+
+    /**
+     * Get the changes made to items and storages after the given change version.
+     * <p>
+     * Several changes of the same entity within one batch are collapsed into the latest one:
+     * entities that still exist are returned as upserts, deleted ones as tombstone IDs.
+     * <p>
+     * Changes recorded less than the commit lag ago, and all changes after them, are held back
+     * until a later call. Change versions are assigned before the recording transaction commits,
+     * so this keeps a batch from passing over a change that is not visible yet. No change is
+     * missed as long as transactions commit within the commit lag of recording a change.
+     *
+     * @param since the last change version known to the client, {@code 0} for a full sync, which
+     *              returns every entity as each one has an entry in the change log
+     *              (see {@link SyncChangeLogSeeder})
+     * @param limit the maximum number of change log entries to consume in this batch
+     * @return a batch of upserts and tombstones together with the version to continue from;
+     *         {@code hasMore} is false when the remaining changes are being held back
+     * @throws IllegalArgumentException if {@code since} is negative or {@code limit} is out of range
+     */
+    SyncBatchDTO getChangesSince(long since, int limit);
+
+    /**
+     * Get the change version to continue from after reading the current state of the inventory
+     * directly, the latest version before any change that may not have committed yet.
+     *
+     * @return a version up to which every change has been committed, as far as the commit lag goes
+     */
+    long getCommittedVersion();
+}
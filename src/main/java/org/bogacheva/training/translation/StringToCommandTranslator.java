@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 /**
  * Translates raw user input strings into BaseCommand objects.
  * Coordinates parsing, validation, and command creation using dedicated components.
+ * A pipeline such as {@code search item --keywords winter | move --to 42} becomes one command.
  */
 @Component
 public class StringToCommandTranslator implements Translator<String, BaseCommand> {
@@ -28,7 +29,12 @@ public class StringToCommandTranslator implements Translator<String, BaseCommand
     @Override
     public BaseCommand translate(String input) {
         try {
-            var parsedCommand = commandParser.parse(input);
+            var parsedCommands = commandParser.parsePipeline(input);
+            if (parsedCommands.size() > 1) {
+                commandValidator.validatePipeline(parsedCommands);
+                return commandFactory.createPipeline(parsedCommands);
+            }
+            var parsedCommand = parsedCommands.getFirst();
             commandValidator.validate(parsedCommand);
             return commandFactory.createCommand(parsedCommand);
         } catch (Exception e) {
@@ -1,14 +1,82 @@
 package org.bogacheva.training.view.cli;
 
+import org.bogacheva.training.view.cli.completion.CommandCompleter;
+import org.bogacheva.training.view.cli.completion.NameCompletionMatcher;
+import org.jline.reader.EndOfFileException;
+import org.jline.reader.LineReader;
+import org.jline.reader.LineReaderBuilder;
+import org.jline.reader.UserInterruptException;
+import org.jline.reader.impl.DefaultParser;
+import org.jline.terminal.TerminalBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.concurrent.CancellationException;
 
+/**
+ * Reads lines from standard input. In a terminal, lines are read through JLine, which adds line
+ * editing, history and tab completion; when input is redirected, a plain scanner is used, and
+ * the prompt is written by the printer like all other output.
+ * Ctrl-C while a line is typed throws a {@link CancellationException}.
+ * Line editing can be turned off with {@code shelveit.cli.line-editing.enabled=false}.
+ */
 @Component
 public class ConsoleReader implements Reader<String> {
     private static final Scanner SCANNER = new Scanner(System.in);
+
+    private final Printer<String> printer;
+    private final CommandCompleter completer;
+    private final boolean lineEditing;
+    // Created on first read, so that modes without a prompt never touch the terminal
+    private LineReader lineReader;
+
+    public ConsoleReader(Printer<String> printer,
+                         CommandCompleter completer,
+                         @Value("${shelveit.cli.line-editing.enabled:true}") boolean lineEditing) {
+        this.printer = printer;
+        this.completer = completer;
+        this.lineEditing = lineEditing && System.console() != null;
+    }
+
     @Override
-    public String read() {
-        return SCANNER.nextLine();
+    public String read(String prompt) {
+        if (!lineEditing) {
+            printer.print(prompt);
+            return SCANNER.nextLine();
+        }
+        completer.refreshNames();
+        try {
+            return lineReader().readLine(prompt);
+        } catch (UserInterruptException e) {
+            throw new CancellationException("Input cancelled");
+        } catch (EndOfFileException e) {
+            throw new NoSuchElementException("No line found");
+        }
+    }
+
+    private LineReader lineReader() {
+        if (lineReader == null) {
+            // The command parser only knows double quotes, and no escapes
+            DefaultParser parser = new DefaultParser();
+            parser.setQuoteChars(new char[]{'"'});
+            parser.setEscapeChars(null);
+            try {
+                lineReader = LineReaderBuilder.builder()
+                        .terminal(TerminalBuilder.builder().system(true).build())
+                        .appName("shelveit")
+                        .parser(parser)
+                        .completer(completer)
+                        .completionMatcher(new NameCompletionMatcher())
+                        .option(LineReader.Option.CASE_INSENSITIVE, true)
+                        .build();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open the terminal", e);
+            }
+        }
+        return lineReader;
     }
 }
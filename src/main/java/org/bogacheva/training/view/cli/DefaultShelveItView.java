@@ -3,11 +3,13 @@ package org.bogacheva.training.view.cli;
 import org.bogacheva.training.view.cli.help.HelpTextProvider;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
+import java.util.concurrent.CancellationException;
 
 @Component
 public class DefaultShelveItView implements ShelveItView{
 
+    private static final String PROMPT = "> ";
+
     private final Printer<String> printer;
     private final Reader<String> reader;
     private final HelpTextProvider helpTextProvider;
@@ -27,20 +29,14 @@ public class DefaultShelveItView implements ShelveItView{
         printer.println("Keeping an eye on your things! Good bye!");
     }
 
-    @Override
-    public void printPrompt() {
-        printer.print("> ");
-    }
-
-    @Override
-    public <T> void print(List<T> things) {
-        for (T t : things) {
-            printer.println(t.toString());
-        }
-    }
-
     public String readCommand() {
-        return reader.read();
+        while (true) {
+            try {
+                return reader.read(PROMPT);
+            } catch (CancellationException e) {
+                // Ctrl-C discards the line being typed, as in a shell
+            }
+        }
     }
 
     public void printError(String message) {
@@ -1,5 +1,5 @@
 package org.bogacheva.training.view.cli;
 
 public interface Reader<T> {
-    T read();
-}
\ No newline at end of file
+    T read(String prompt);
+}
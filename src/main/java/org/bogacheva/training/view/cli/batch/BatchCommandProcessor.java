@@ -0,0 +1,174 @@
+package org.bogacheva.training.view.cli.batch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.bogacheva.training.translation.StringToCommandTranslator;
+import org.bogacheva.training.translation.Translator;
+import org.bogacheva.training.view.cli.commands.BaseCommand;
+import org.bogacheva.training.view.cli.commands.BrokenCommand;
+import org.bogacheva.training.view.cli.commands.CommandType;
+import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
+import org.bogacheva.training.view.cli.execution.CommandExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a script of CLI commands, one per line, and writes one JSON object per command.
+ * Blank lines and lines starting with {@code #} are skipped, and {@code exit} ends the script.
+ * <p>
+ * Consecutive mutating commands (see {@link CommandType#isMutating()}) run in a single
+ * transaction of at most {@code shelveit.cli.batch.max-group-size} commands, which saves a
+ * commit per command. Their results are written once the transaction has committed, so every
+ * {@code ok} line is durable. When a command in a group fails, the group is rolled back and
+ * replayed one command per transaction, so that only the failing commands are reported as
+ * errors and the script behaves as if it had run command by command.
+ */
+@Slf4j
+@Component
+public class BatchCommandProcessor {
+
+    private final Translator<String, BaseCommand> translator;
+    private final CommandExecutor commandExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter lineWriter;
+    private final int maxGroupSize;
+
+    public BatchCommandProcessor(StringToCommandTranslator translator,
+                                 CommandExecutor commandExecutor,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${shelveit.cli.batch.max-group-size:100}") int maxGroupSize) {
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException("shelveit.cli.batch.max-group-size must be at least 1");
+        }
+        this.translator = translator;
+        this.commandExecutor = commandExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Item references carry a sparse-fieldset filter; without one configured, all fields are written
+        this.lineWriter = objectMapper.writer(new SimpleFilterProvider().setFailOnUnknownId(false))
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    /**
+     * Runs every command read from {@code input} and writes the outcomes to {@code output}.
+     * Output is flushed after every transaction, so results stream while the script runs.
+     */
+    public BatchSummary process(BufferedReader input, Writer output) throws IOException {
+        long start = System.nanoTime();
+        Run run = new Run(output);
+        String line;
+        int lineNumber = 0;
+        while ((line = input.readLine()) != null) {
+            lineNumber++;
+            String text = line.strip();
+            if (text.isEmpty() || text.startsWith("#")) {
+                continue;
+            }
+            Entry entry = new Entry(lineNumber, text, translator.translate(text));
+            if (entry.command().getCommandType().isMutating()) {
+                run.group.add(entry);
+                if (run.group.size() >= maxGroupSize) {
+                    run.flushGroup();
+                }
+                continue;
+            }
+            run.flushGroup();
+            if (entry.command().getCommandType() == CommandType.EXIT) {
+                run.exitRequested = true;
+                break;
+            }
+            run.write(runAlone(entry));
+            run.transactions++;
+            output.flush();
+        }
+        run.flushGroup();
+        return new BatchSummary(run.commands, run.failed, run.transactions, run.exitRequested,
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private BatchOutcome runAlone(Entry entry) {
+        if (entry.command() instanceof BrokenCommand broken) {
+            return BatchOutcome.error(entry.line(), entry.text(), broken.getErrorMessage());
+        }
+        try {
+            return succeeded(entry, commandExecutor.execute(entry.command()));
+        } catch (RuntimeException e) {
+            return BatchOutcome.error(entry.line(), entry.text(), e.getMessage());
+        }
+    }
+
+    private static BatchOutcome succeeded(Entry entry, CommandExecutionResult result) {
+        return BatchOutcome.ok(entry.line(), entry.text(), result);
+    }
+
+    private record Entry(int line, String text, BaseCommand command) {
+    }
+
+    private final class Run {
+
+        private final Writer output;
+        private final List<Entry> group = new ArrayList<>();
+        private int commands;
+        private int failed;
+        private int transactions;
+        private boolean exitRequested;
+
+        private Run(Writer output) {
+            this.output = output;
+        }
+
+        private void flushGroup() throws IOException {
+            if (group.isEmpty()) {
+                return;
+            }
+            List<BatchOutcome> outcomes = new ArrayList<>(group.size());
+            try {
+                transactionTemplate.executeWithoutResult(status -> group.forEach(
+                        entry -> outcomes.add(succeeded(entry, commandExecutor.execute(entry.command())))));
+                transactions++;
+            } catch (RuntimeException e) {
+                log.debug("Replaying {} commands one by one after: {}", group.size(), e.getMessage());
+                outcomes.forEach(BatchOutcome::close);
+                outcomes.clear();
+                for (Entry entry : group) {
+                    outcomes.add(runAlone(entry));
+                    transactions++;
+                }
+            }
+            try {
+                for (BatchOutcome outcome : outcomes) {
+                    write(outcome);
+                }
+            } finally {
+                // Outcomes after a failed write are never written, but their data is released too
+                outcomes.forEach(BatchOutcome::close);
+            }
+            group.clear();
+            output.flush();
+        }
+
+        private void write(BatchOutcome outcome) throws IOException {
+            try (outcome) {
+                commands++;
+                if (outcome.failed()) {
+                    failed++;
+                }
+                lineWriter.writeValue(output, outcome);
+                output.write('\n');
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.bogacheva.training.view.cli.batch;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * One line of batch output: the outcome of the command on the given line of the script. Data
+ * is written through an iterator, which Jackson writes as an array element by element, so long
+ * listings stream into the line rather than being collected first. The outcome must be closed
+ * once written, which closes the data stream and releases what it is read from, such as the
+ * response of a server.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"line", "command", "status", "message", "data", "error"})
+public record BatchOutcome(int line, String command, Status status, String message,
+                           @JsonIgnore Stream<?> dataStream, String error) implements AutoCloseable {
+
+    public enum Status {
+        OK, ERROR;
+
+        @JsonValue
+        public String toJson() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static BatchOutcome ok(int line, String command, CommandExecutionResult result) {
+        return new BatchOutcome(line, command, Status.OK,
+                result.hasMessage() ? result.getMessage() : null,
+                result.hasData() ? result.getData() : null, null);
+    }
+
+    static BatchOutcome error(int line, String command, String error) {
+        return new BatchOutcome(line, command, Status.ERROR, null, null, error);
+    }
+
+    @JsonProperty("data")
+    public Iterator<?> data() {
+        return dataStream != null ? dataStream.iterator() : null;
+    }
+
+    public boolean failed() {
+        return status == Status.ERROR;
+    }
+
+    @Override
+    public void close() {
+        if (dataStream != null) {
+            dataStream.close();
+        }
+    }
+}
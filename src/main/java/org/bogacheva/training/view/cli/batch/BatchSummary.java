@@ -0,0 +1,10 @@
+package org.bogacheva.training.view.cli.batch;
+
+import java.time.Duration;
+
+/**
+ * Totals of a batch run. {@code exitRequested} is set when the script ended with {@code exit}
+ * rather than running out of lines.
+ */
+public record BatchSummary(int commands, int failed, int transactions, boolean exitRequested, Duration elapsed) {
+}
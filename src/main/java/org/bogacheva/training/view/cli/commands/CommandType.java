@@ -1,25 +1,46 @@
 package org.bogacheva.training.view.cli.commands;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
 public enum CommandType {
-    CREATE_STORAGE,
-    CREATE_ITEM,
-    REMOVE_ITEM,
-    REMOVE_STORAGE,
+    CREATE_STORAGE("type", "name", "parent"),
+    CREATE_ITEM("name", "storage", "keywords"),
+    REMOVE_ITEM("id"),
+    REMOVE_STORAGE("id"),
+    REMOVE_ITEMS,
+    MOVE("to"),
     LIST_STORAGES,
     LIST_ITEMS,
-    LIST_SUBSTORAGES,
-    GET_ITEMS_BY_STORAGE,
-    SEARCH_ITEM,
-    SEARCH_STORAGE,
-    GET_ITEM,
-    GET_STORAGE,
-    GET_ITEMS_NEAR,
-    TRACK_STORAGES,
+    LIST_SUBSTORAGES("id"),
+    GET_ITEMS_BY_STORAGE("id"),
+    SEARCH_ITEM("name", "keywords"),
+    SEARCH_STORAGE("name", "type"),
+    GET_ITEM("id"),
+    GET_STORAGE("id"),
+    GET_ITEMS_NEAR("id"),
+    TRACK_STORAGES("id"),
+    TREE("id", "depth"),
+    PROFILE("seconds", "settings", "file"),
+    GENERATE_DATASET("items", "seed", "residences", "depth"),
     HELP,
 
     EXIT,
     BROKEN;
 
+    private static final Set<CommandType> MUTATING = EnumSet.of(
+            CREATE_STORAGE, CREATE_ITEM, REMOVE_ITEM, REMOVE_STORAGE);
+
+    private final String commandName;
+    private final List<String> options;
+
+    CommandType(String... options) {
+        this.commandName = name().toLowerCase(Locale.ROOT).replace('_', ' ');
+        this.options = List.of(options);
+    }
+
     public static CommandType of(String value) {
         try {
             return CommandType.valueOf(value.toUpperCase());
@@ -27,4 +48,27 @@ public enum CommandType {
             return BROKEN;
         }
     }
+
+    /**
+     * The words that invoke the command on the command line, e.g. {@code get items by storage}.
+     */
+    public String getCommandName() {
+        return commandName;
+    }
+
+    /**
+     * The names of the options the command accepts, without the leading {@code --}.
+     */
+    public List<String> getOptions() {
+        return options;
+    }
+
+    /**
+     * Whether the command changes a handful of rows and may share a transaction with its
+     * neighbours in batch mode. Dataset generation and pipelines write in bulk and keep their
+     * own transaction.
+     */
+    public boolean isMutating() {
+        return MUTATING.contains(this);
+    }
 }
@@ -0,0 +1,16 @@
+package org.bogacheva.training.view.cli.commands;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.bogacheva.training.service.dataset.DatasetSpec;
+
+@Getter
+@ToString
+public final class GenerateDatasetCommand extends BaseCommand {
+    private final DatasetSpec spec;
+
+    public GenerateDatasetCommand(DatasetSpec spec) {
+        super(CommandType.GENERATE_DATASET);
+        this.spec = spec;
+    }
+}
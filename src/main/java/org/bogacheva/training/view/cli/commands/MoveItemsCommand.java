@@ -0,0 +1,23 @@
+package org.bogacheva.training.view.cli.commands;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
+
+/**
+ * Moves the items found by the command before it in a pipeline, e.g.
+ * {@code search item --keywords winter | move --to 42}.
+ */
+@Getter
+@ToString
+public final class MoveItemsCommand extends BaseCommand {
+
+    private final ItemSelectionDTO selection;
+    private final Long storageId;
+
+    public MoveItemsCommand(ItemSelectionDTO selection, long storageId) {
+        super(CommandType.MOVE);
+        this.selection = selection;
+        this.storageId = storageId;
+    }
+}
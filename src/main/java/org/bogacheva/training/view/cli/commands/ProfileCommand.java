@@ -0,0 +1,22 @@
+package org.bogacheva.training.view.cli.commands;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@ToString
+public final class ProfileCommand extends BaseCommand {
+    private final Duration duration;
+    private final String settings;
+    private final Path file;
+
+    public ProfileCommand(Duration duration, String settings, Path file) {
+        super(CommandType.PROFILE);
+        this.duration = duration;
+        this.settings = settings;
+        this.file = file;
+    }
+}
@@ -0,0 +1,21 @@
+package org.bogacheva.training.view.cli.commands;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
+
+/**
+ * Removes the items found by the command before it in a pipeline, e.g.
+ * {@code get items by storage --id 7 | remove items}.
+ */
+@Getter
+@ToString
+public final class RemoveItemsCommand extends BaseCommand {
+
+    private final ItemSelectionDTO selection;
+
+    public RemoveItemsCommand(ItemSelectionDTO selection) {
+        super(CommandType.REMOVE_ITEMS);
+        this.selection = selection;
+    }
+}
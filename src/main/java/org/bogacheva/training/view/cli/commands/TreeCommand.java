@@ -0,0 +1,22 @@
+package org.bogacheva.training.view.cli.commands;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Shows a storage and its sub-storages as an indented tree, down to {@code depth} levels below
+ * the storage, or all levels when the depth is null.
+ */
+@Getter
+@ToString
+public final class TreeCommand extends BaseCommand {
+
+    private final Long storageId;
+    private final Integer depth;
+
+    public TreeCommand(long storageId, Integer depth) {
+        super(CommandType.TREE);
+        this.storageId = storageId;
+        this.depth = depth;
+    }
+}
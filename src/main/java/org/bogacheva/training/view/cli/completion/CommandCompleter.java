@@ -0,0 +1,173 @@
+package org.bogacheva.training.view.cli.completion;
+
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.service.completion.NameIndex;
+import org.bogacheva.training.service.completion.PrefixIndex;
+import org.bogacheva.training.view.cli.commands.CommandType;
+import org.jline.reader.Candidate;
+import org.jline.reader.CompletingParsedLine;
+import org.jline.reader.Completer;
+import org.jline.reader.LineReader;
+import org.jline.reader.ParsedLine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Completes command lines on Tab: command words, the options of the command typed so far, and
+ * option values. Where a command expects the ID of an item or a storage, the typed word is
+ * matched against names and completed to the ID of the chosen one; searches by name complete
+ * the names themselves. Names come from the {@link NameIndex}, so completing never waits for
+ * the database. A CLI connected to a server has no index and completes commands and options only.
+ * After a pipe, the next command is completed as if the line started there.
+ */
+@Component
+public class CommandCompleter implements Completer {
+
+    static final int MAX_CANDIDATES = 100;
+
+    private static final String OPTION_PREFIX = "--";
+    private static final String PIPE = "|";
+    private static final List<List<String>> COMMAND_WORDS = Arrays.stream(CommandType.values())
+            .filter(type -> type != CommandType.BROKEN)
+            .map(type -> List.of(type.getCommandName().split(" ")))
+            .toList();
+    private static final Set<CommandType> ITEM_ID_COMMANDS = EnumSet.of(
+            CommandType.REMOVE_ITEM, CommandType.GET_ITEM, CommandType.GET_ITEMS_NEAR, CommandType.TRACK_STORAGES);
+    private static final Set<String> NAMED_OPTIONS = Set.of("id", "storage", "parent", "to", "name");
+    private static final List<String> PROFILE_SETTINGS = List.of("default", "profile");
+
+    private final ObjectProvider<NameIndex> nameIndex;
+
+    public CommandCompleter(ObjectProvider<NameIndex> nameIndex) {
+        this.nameIndex = nameIndex;
+    }
+
+    /**
+     * Brings the names up to date in the background, to be called before a line is read.
+     */
+    public void refreshNames() {
+        nameIndex.ifAvailable(NameIndex::refreshAsync);
+    }
+
+    @Override
+    public void complete(LineReader reader, ParsedLine line, List<Candidate> candidates) {
+        List<String> before = line.words().subList(0, line.wordIndex());
+        before = before.subList(before.lastIndexOf(PIPE) + 1, before.size());
+        String word = line.word().substring(0, line.wordCursor());
+        // The parser strips an opening quote from the word, and closes it again on completion
+        boolean quoted = line instanceof CompletingParsedLine completing
+                && completing.rawWordCursor() != line.wordCursor();
+        completeCommand(before, word, quoted, candidates);
+    }
+
+    private void completeCommand(List<String> before, String word, boolean quoted, List<Candidate> candidates) {
+        Set<String> nextWords = new LinkedHashSet<>();
+        List<String> command = null;
+        for (List<String> words : COMMAND_WORDS) {
+            if (startsWith(before, words)) {
+                if (command == null || words.size() > command.size()) {
+                    command = words;
+                }
+            } else if (words.size() > before.size() && startsWith(words, before)) {
+                nextWords.add(words.get(before.size()));
+            }
+        }
+        nextWords.forEach(next -> candidates.add(new Candidate(next)));
+        if (command == null) {
+            return;
+        }
+        CommandType type = CommandType.of(String.join("_", command));
+        List<String> arguments = before.subList(command.size(), before.size());
+        if (type == CommandType.HELP) {
+            completeCommand(arguments, word, quoted, candidates);
+        } else {
+            completeArguments(type, arguments, word, quoted, candidates);
+        }
+    }
+
+    private void completeArguments(CommandType command, List<String> arguments, String word, boolean quoted,
+                                   List<Candidate> candidates) {
+        String previous = arguments.isEmpty() ? "" : arguments.getLast();
+        if (previous.startsWith(OPTION_PREFIX) && !word.startsWith("-")) {
+            completeValue(command, previous.substring(OPTION_PREFIX.length()), word, quoted, candidates);
+        } else if (word.isEmpty() || word.startsWith("-")) {
+            for (String option : command.getOptions()) {
+                if (!arguments.contains(OPTION_PREFIX + option)) {
+                    candidates.add(new Candidate(OPTION_PREFIX + option));
+                }
+            }
+        }
+    }
+
+    private void completeValue(CommandType command, String option, String word, boolean quoted,
+                               List<Candidate> candidates) {
+        NameIndex names = nameIndex.getIfAvailable();
+        if (names == null && NAMED_OPTIONS.contains(option)) {
+            return;
+        }
+        switch (option) {
+            case "id" -> {
+                if (ITEM_ID_COMMANDS.contains(command)) {
+                    addIds(names.items(), NameCompletionMatcher.ITEMS_GROUP, word, candidates);
+                } else {
+                    addIds(names.storages(), NameCompletionMatcher.STORAGES_GROUP, word, candidates);
+                }
+            }
+            case "storage", "parent", "to" ->
+                    addIds(names.storages(), NameCompletionMatcher.STORAGES_GROUP, word, candidates);
+            case "name" -> {
+                if (command == CommandType.SEARCH_ITEM) {
+                    addNames(names.items(), NameCompletionMatcher.ITEMS_GROUP, word, quoted, candidates);
+                } else if (command == CommandType.SEARCH_STORAGE) {
+                    addNames(names.storages(), NameCompletionMatcher.STORAGES_GROUP, word, quoted, candidates);
+                }
+            }
+            case "type" -> {
+                for (StorageType type : StorageType.values()) {
+                    candidates.add(new Candidate(type.name()));
+                }
+            }
+            case "settings" -> PROFILE_SETTINGS.forEach(setting -> candidates.add(new Candidate(setting)));
+            default -> {
+                // Free text or numbers, nothing to offer
+            }
+        }
+    }
+
+    private static void addIds(PrefixIndex index, String group, String word, List<Candidate> candidates) {
+        List<PrefixIndex.Match> matches = index.find(word, MAX_CANDIDATES);
+        for (int i = 0; i < matches.size(); i++) {
+            PrefixIndex.Match match = matches.get(i);
+            String id = String.valueOf(match.id());
+            candidates.add(new Candidate(id, id, group, match.name(), null, null, true, i));
+        }
+    }
+
+    private static void addNames(PrefixIndex index, String group, String word, boolean quoted,
+                                 List<Candidate> candidates) {
+        List<String> names = index.findNames(word, MAX_CANDIDATES);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            String value = !quoted && name.indexOf(' ') >= 0 ? '"' + name + '"' : name;
+            candidates.add(new Candidate(value, name, group, null, null, null, true, i));
+        }
+    }
+
+    private static boolean startsWith(List<String> words, List<String> prefix) {
+        if (prefix.size() > words.size()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.size(); i++) {
+            if (!words.get(i).equalsIgnoreCase(prefix.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package org.bogacheva.training.view.cli.completion;
+
+import org.jline.reader.Candidate;
+import org.jline.reader.impl.CompletionMatcherImpl;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Passes item and storage candidates through as they are, since {@link CommandCompleter} has
+ * already matched them by name, and an ID inserted for a name would never match the typed word.
+ * Other candidates go through JLine's usual matching.
+ */
+public class NameCompletionMatcher extends CompletionMatcherImpl {
+
+    public static final String ITEMS_GROUP = "items";
+    public static final String STORAGES_GROUP = "storages";
+
+    private static final Set<String> NAME_GROUPS = Set.of(ITEMS_GROUP, STORAGES_GROUP);
+
+    private List<Candidate> names = List.of();
+
+    @Override
+    public List<Candidate> matches(List<Candidate> candidates) {
+        names = candidates.stream()
+                .filter(candidate -> candidate.group() != null && NAME_GROUPS.contains(candidate.group()))
+                .toList();
+        return names.isEmpty() ? super.matches(candidates) : names;
+    }
+
+    @Override
+    public Candidate exactMatch() {
+        return names.isEmpty() ? super.exactMatch() : null;
+    }
+
+    // Names only need to start with the typed word ignoring case, so there is no common prefix to insert
+    @Override
+    public String getCommonPrefix() {
+        return names.isEmpty() ? super.getCommonPrefix() : "";
+    }
+}
@@ -3,6 +3,8 @@ package org.bogacheva.training.view.cli.creation;
 import org.bogacheva.training.view.cli.commands.BaseCommand;
 import org.bogacheva.training.view.cli.parsing.ParsedCommand;
 
+import java.util.List;
+
 /**
  * Interface for creating command objects.
  */
@@ -15,4 +17,12 @@ public interface CommandFactory {
      * @return the created command
      */
     BaseCommand createCommand(ParsedCommand parsedCommand);
+
+    /**
+     * Creates the command that runs a validated pipeline as a whole.
+     *
+     * @param parsedCommands the parsed commands, in pipeline order
+     * @return the created command
+     */
+    BaseCommand createPipeline(List<ParsedCommand> parsedCommands);
 }
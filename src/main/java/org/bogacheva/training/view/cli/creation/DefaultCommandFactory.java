@@ -1,10 +1,16 @@
 package org.bogacheva.training.view.cli.creation;
 
 import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.service.dataset.DatasetSpec;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
 import org.bogacheva.training.view.cli.commands.*;
 import org.bogacheva.training.view.cli.parsing.ParsedCommand;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -15,33 +21,63 @@ import java.util.Map;
  */
 @Component
 public class DefaultCommandFactory implements CommandFactory {
+
+    private static final DateTimeFormatter PROFILE_FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
     
     @Override
     public BaseCommand createCommand(ParsedCommand parsedCommand) {
-        String commandType = parsedCommand.commandType();
+        CommandType commandType = parsedCommand.commandType();
         Map<String, String> args = parsedCommand.arguments();
         
         return switch (commandType) {
-            case "create storage" -> createCreateStorageCommand(args);
-            case "create item" -> createCreateItemCommand(args);
-            case "remove item" -> createRemoveItemCommand(args);
-            case "remove storage" -> createRemoveStorageCommand(args);
-            case "get item" -> createGetItemByIdCommand(args);
-            case "get storage" -> createGetStorageByIdCommand(args);
-            case "search item" -> createSearchItemCommand(args);
-            case "search storage" -> createSearchStorageCommand(args);
-            case "list storages" -> new ListStoragesCommand();
-            case "list items" -> new ListItemsCommand();
-            case "list substorages" -> createListSubStoragesCommand(args);
-            case "get items by storage" -> createGetItemsByStorageCommand(args);
-            case "get items near" -> createGetItemsNearCommand(args);
-            case "track storages" -> createTrackStoragesCommand(args);
-            case "help" -> createHelpCommand(parsedCommand);
-            case "exit" -> new ExitCommand();
+            case CREATE_STORAGE -> createCreateStorageCommand(args);
+            case CREATE_ITEM -> createCreateItemCommand(args);
+            case REMOVE_ITEM -> createRemoveItemCommand(args);
+            case REMOVE_STORAGE -> createRemoveStorageCommand(args);
+            case GET_ITEM -> createGetItemByIdCommand(args);
+            case GET_STORAGE -> createGetStorageByIdCommand(args);
+            case SEARCH_ITEM -> createSearchItemCommand(args);
+            case SEARCH_STORAGE -> createSearchStorageCommand(args);
+            case LIST_STORAGES -> new ListStoragesCommand();
+            case LIST_ITEMS -> new ListItemsCommand();
+            case LIST_SUBSTORAGES -> createListSubStoragesCommand(args);
+            case GET_ITEMS_BY_STORAGE -> createGetItemsByStorageCommand(args);
+            case GET_ITEMS_NEAR -> createGetItemsNearCommand(args);
+            case TRACK_STORAGES -> createTrackStoragesCommand(args);
+            case TREE -> createTreeCommand(args);
+            case PROFILE -> createProfileCommand(args);
+            case GENERATE_DATASET -> createGenerateDatasetCommand(args);
+            case HELP -> createHelpCommand(parsedCommand);
+            case EXIT -> new ExitCommand();
             default -> new BrokenCommand("Unknown command type: " + commandType);
         };
     }
     
+    @Override
+    public BaseCommand createPipeline(List<ParsedCommand> parsedCommands) {
+        // The first command only describes the items, which are found when the pipeline runs
+        ItemSelectionDTO selection = createItemSelection(parsedCommands.getFirst());
+        ParsedCommand target = parsedCommands.getLast();
+        return switch (target.commandType()) {
+            case MOVE -> new MoveItemsCommand(selection, Long.parseLong(target.arguments().get("to")));
+            case REMOVE_ITEMS -> new RemoveItemsCommand(selection);
+            default -> new BrokenCommand("Unknown pipeline command type: " + target.commandType());
+        };
+    }
+    
+    private ItemSelectionDTO createItemSelection(ParsedCommand source) {
+        Map<String, String> args = source.arguments();
+        return switch (source.commandType()) {
+            case SEARCH_ITEM -> ItemSelectionDTO.builder()
+                    .name(args.getOrDefault("name", null))
+                    .keywords(args.containsKey("keywords") ? parseKeywords(args.get("keywords")) : null)
+                    .build();
+            case GET_ITEMS_BY_STORAGE -> ItemSelectionDTO.builder().storageId(Long.parseLong(args.get("id"))).build();
+            case GET_ITEMS_NEAR -> ItemSelectionDTO.builder().nearItemId(Long.parseLong(args.get("id"))).build();
+            default -> throw new IllegalArgumentException("Unknown pipeline source: " + source.commandType());
+        };
+    }
+    
     private BaseCommand createCreateStorageCommand(Map<String, String> args) {
         String type = args.get("type").toUpperCase();
         String name = args.get("name");
@@ -108,16 +144,36 @@ public class DefaultCommandFactory implements CommandFactory {
         return new TrackStoragesHierarchyCommand(itemId);
     }
     
+    private BaseCommand createTreeCommand(Map<String, String> args) {
+        Long storageId = Long.parseLong(args.get("id"));
+        Integer depth = args.containsKey("depth") ? Integer.parseInt(args.get("depth")) : null;
+        return new TreeCommand(storageId, depth);
+    }
+    
+    private BaseCommand createProfileCommand(Map<String, String> args) {
+        Duration duration = args.containsKey("seconds") ? Duration.ofSeconds(Long.parseLong(args.get("seconds"))) : null;
+        String settings = args.containsKey("settings") ? args.get("settings").toLowerCase() : null;
+        Path file = Path.of(args.getOrDefault("file",
+                "shelveit-" + LocalDateTime.now().format(PROFILE_FILE_TIMESTAMP) + ".jfr"));
+        return new ProfileCommand(duration, settings, file);
+    }
+    
+    private BaseCommand createGenerateDatasetCommand(Map<String, String> args) {
+        DatasetSpec spec = new DatasetSpec(
+                Long.parseLong(args.getOrDefault("seed", "1")),
+                Integer.parseInt(args.getOrDefault("residences", String.valueOf(DatasetSpec.DEFAULT_RESIDENCES))),
+                Integer.parseInt(args.get("items")),
+                Integer.parseInt(args.getOrDefault("depth", String.valueOf(DatasetSpec.DEFAULT_NESTED_UNIT_DEPTH))),
+                DatasetSpec.DEFAULT_KEYWORD_VOCABULARY,
+                DatasetSpec.DEFAULT_ZIPF_EXPONENT);
+        return new GenerateDatasetCommand(spec);
+    }
+
     private BaseCommand createHelpCommand(ParsedCommand parsedCommand) {
-        String[] parts = parsedCommand.commandParts();
-        if (parts.length > 1) {
-            // Join all parts after "help" to get the full command name
-            String command = String.join(" ", Arrays.copyOfRange(parts, 1, parts.length));
-            return new HelpCommand(command);
-        } else {
-            // show general help
-            return new HelpCommand();
-        }
+        // The words after "help" name the command to show help for
+        return parsedCommand.operand() != null
+                ? new HelpCommand(parsedCommand.operand())
+                : new HelpCommand();
     }
     
     private List<String> parseKeywords(String keywordsStr) {
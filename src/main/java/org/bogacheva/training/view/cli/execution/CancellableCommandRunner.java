@@ -0,0 +1,173 @@
+package org.bogacheva.training.view.cli.execution;
+
+import org.bogacheva.training.monitoring.ActiveStatements;
+import org.bogacheva.training.view.cli.commands.BaseCommand;
+import org.bogacheva.training.view.cli.formatting.OutputFormatter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Runs interactive commands on a virtual thread, leaving the main thread free to react to
+ * Ctrl-C. An interrupt cancels the SQL statement the command is waiting on and stops a listing
+ * at the next row. The worker is deliberately not interrupted: an interrupt closes the socket or
+ * file channel a JDBC driver is blocked on, which breaks the connection instead of the query.
+ * The prompt returns as soon as the worker has wound down, or after {@value #GRACE_MILLIS} ms
+ * if it does not, in which case the command finishes in the background without output.
+ * <p>
+ * In a terminal, a spinner shows while a command has been running for more than
+ * {@value #SPINNER_DELAY_MILLIS} ms without output. It can be turned off with
+ * {@code shelveit.cli.progress.enabled=false}.
+ */
+@Component
+public class CancellableCommandRunner {
+
+    static final long TICK_MILLIS = 100;
+    static final long SPINNER_DELAY_MILLIS = 300;
+    static final long GRACE_MILLIS = 2000;
+    private static final String CANCELLED = "Command cancelled";
+
+    private final CommandExecutor commandExecutor;
+    private final OutputFormatter outputFormatter;
+    private final ActiveStatements activeStatements;
+    private final Interrupts interrupts;
+    private final boolean showProgress;
+
+    public CancellableCommandRunner(CommandExecutor commandExecutor,
+                                    OutputFormatter outputFormatter,
+                                    ActiveStatements activeStatements,
+                                    Interrupts interrupts,
+                                    @Value("${shelveit.cli.progress.enabled:true}") boolean showProgress) {
+        this.commandExecutor = commandExecutor;
+        this.outputFormatter = outputFormatter;
+        this.activeStatements = activeStatements;
+        this.interrupts = interrupts;
+        this.showProgress = showProgress && System.console() != null;
+    }
+
+    /**
+     * Executes the command and displays its result.
+     *
+     * @return the result of the command
+     * @throws CancellationException if the command was interrupted
+     */
+    public CommandExecutionResult run(BaseCommand command) {
+        Spinner spinner = new Spinner(showProgress ? System.err : null);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        FutureTask<CommandExecutionResult> task = new FutureTask<>(() -> {
+            CommandExecutionResult result = commandExecutor.execute(command);
+            spinner.stop();
+            if (!cancelled.get()) {
+                outputFormatter.formatAndDisplay(untilCancelled(result, cancelled));
+            } else if (result.getData() != null) {
+                result.getData().close();
+            }
+            return result;
+        });
+        Thread worker = Thread.ofVirtual()
+                .name("cli-" + command.getCommandType().getCommandName().replace(' ', '-'))
+                .start(task);
+        try (Interrupts.Registration ignored = interrupts.onInterrupt(() -> {
+            if (cancelled.compareAndSet(false, true)) {
+                activeStatements.cancel(worker);
+            }
+        })) {
+            return await(task, spinner, cancelled);
+        } finally {
+            spinner.stop();
+        }
+    }
+
+    private static CommandExecutionResult untilCancelled(CommandExecutionResult result, AtomicBoolean cancelled) {
+        if (result.getData() == null) {
+            return result;
+        }
+        Stream<?> data = result.getData().takeWhile(row -> !cancelled.get());
+        return new CommandExecutionResult(data, result.isShouldExit(), result.getMessage());
+    }
+
+    private static CommandExecutionResult await(FutureTask<CommandExecutionResult> task, Spinner spinner,
+                                                AtomicBoolean cancelled) {
+        long started = System.nanoTime();
+        long giveUpAt = 0;
+        while (true) {
+            try {
+                CommandExecutionResult result = task.get(TICK_MILLIS, TimeUnit.MILLISECONDS);
+                if (cancelled.get()) {
+                    throw new CancellationException(CANCELLED);
+                }
+                return result;
+            } catch (TimeoutException e) {
+                long now = System.nanoTime();
+                if (!cancelled.get()) {
+                    spinner.tick(now - started);
+                } else if (giveUpAt == 0) {
+                    spinner.stop();
+                    giveUpAt = now + TimeUnit.MILLISECONDS.toNanos(GRACE_MILLIS);
+                } else if (now - giveUpAt > 0) {
+                    throw new CancellationException(CANCELLED);
+                }
+            } catch (ExecutionException e) {
+                // A cancelled query fails in the driver, which is expected rather than an error
+                if (cancelled.get()) {
+                    throw new CancellationException(CANCELLED);
+                }
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException(CANCELLED);
+            }
+        }
+    }
+
+    /**
+     * Shows that a command is still running, on one line that is cleared before output starts.
+     */
+    private static final class Spinner {
+
+        private static final String FRAMES = "|/-\\";
+
+        private final PrintStream out;
+        private boolean shown;
+        private boolean stopped;
+        private int frame;
+
+        private Spinner(PrintStream out) {
+            this.out = out;
+        }
+
+        synchronized void tick(long elapsedNanos) {
+            if (out == null || stopped || elapsedNanos < TimeUnit.MILLISECONDS.toNanos(SPINNER_DELAY_MILLIS)) {
+                return;
+            }
+            out.printf(Locale.ROOT, "\r%c Working... %.1fs (Ctrl-C to cancel)",
+                    FRAMES.charAt(frame++ % FRAMES.length()), elapsedNanos / 1e9);
+            out.flush();
+            shown = true;
+        }
+
+        synchronized void stop() {
+            stopped = true;
+            if (shown) {
+                out.print("\r\033[K");
+                out.flush();
+                shown = false;
+            }
+        }
+    }
+}
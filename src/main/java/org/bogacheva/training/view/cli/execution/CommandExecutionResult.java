@@ -1,35 +1,51 @@
 package org.bogacheva.training.view.cli.execution;
 
-import lombok.AllArgsConstructor;
 import lombok.Getter;
-import lombok.With;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * Outcome of a command: an optional message and optional rows of data. Rows are a stream, so
+ * that long listings can be fetched while they are being printed; it can be consumed only once.
+ */
 @Getter
-@AllArgsConstructor
 public class CommandExecutionResult {
     
-    private final List<?> data;
+    private final Stream<?> data;
     private final boolean shouldExit;
     private final String message;
     
+    public CommandExecutionResult(Stream<?> data, boolean shouldExit, String message) {
+        this.data = data;
+        this.shouldExit = shouldExit;
+        this.message = message;
+    }
+    
     // Convenience constructors
+    public CommandExecutionResult(List<?> data, boolean shouldExit, String message) {
+        this(data != null ? data.stream() : null, shouldExit, message);
+    }
+    
     public CommandExecutionResult(List<?> data, boolean shouldExit) {
         this(data, shouldExit, null);
     }
     
+    public CommandExecutionResult(Stream<?> data, boolean shouldExit) {
+        this(data, shouldExit, null);
+    }
+    
     public CommandExecutionResult(boolean shouldExit) {
-        this(null, shouldExit, null);
+        this((Stream<?>) null, shouldExit, null);
     }
     
     public CommandExecutionResult(boolean shouldExit, String message) {
-        this(null, shouldExit, message);
+        this((Stream<?>) null, shouldExit, message);
     }
     
     // Utility methods
     public boolean hasData() {
-        return data != null && !data.isEmpty();
+        return data != null;
     }
     
     public boolean hasMessage() {
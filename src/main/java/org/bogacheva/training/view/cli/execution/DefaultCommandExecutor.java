@@ -1,8 +1,10 @@
 package org.bogacheva.training.view.cli.execution;
 
 import lombok.RequiredArgsConstructor;
+import org.bogacheva.training.service.dataset.DatasetSummary;
 import org.bogacheva.training.view.cli.commands.*;
 import org.bogacheva.training.view.cli.help.HelpTextProvider;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -12,6 +14,7 @@ import java.util.List;
 public class DefaultCommandExecutor implements CommandExecutor {
     
     private final ServiceCaller serviceCaller;
+    private final ObjectProvider<LocalOperations> localOperations;
     private final HelpTextProvider helpTextProvider;
     
     @Override
@@ -44,6 +47,17 @@ public class DefaultCommandExecutor implements CommandExecutor {
                 yield new CommandExecutionResult(false, "Storage deleted successfully");
             }
             
+            case MoveItemsCommand cmd -> {
+                int moved = serviceCaller.moveItems(cmd.getSelection(), cmd.getStorageId());
+                yield new CommandExecutionResult(false, String.format(
+                        "Moved %d items to storage %d", moved, cmd.getStorageId()));
+            }
+            
+            case RemoveItemsCommand cmd -> {
+                int removed = serviceCaller.deleteItems(cmd.getSelection());
+                yield new CommandExecutionResult(false, String.format("Removed %d items", removed));
+            }
+            
             case GetItemsByStorageCommand cmd -> new CommandExecutionResult(
                 serviceCaller.getItemsByStorageId(cmd.getStorageId()), false
             );
@@ -76,6 +90,23 @@ public class DefaultCommandExecutor implements CommandExecutor {
                 serviceCaller.getStorageHierarchyIds(cmd.getItemId()), false
             );
             
+            case TreeCommand cmd -> new CommandExecutionResult(
+                serviceCaller.getStorageTree(cmd.getStorageId(), cmd.getDepth()), false
+            );
+            
+            case ProfileCommand cmd -> {
+                localOperations().recordProfile(cmd.getDuration(), cmd.getSettings(), cmd.getFile());
+                yield new CommandExecutionResult(false, "Flight recording written to " + cmd.getFile().toAbsolutePath());
+            }
+            
+            case GenerateDatasetCommand cmd -> {
+                DatasetSummary summary = localOperations().generateDataset(cmd.getSpec());
+                yield new CommandExecutionResult(false, String.format(
+                        "Generated %d storages (IDs from %d, %d levels deep) and %d items with %d keywords in %d ms",
+                        summary.storages(), summary.firstStorageId(), summary.depth(), summary.items(),
+                        summary.keywords(), summary.elapsed().toMillis()));
+            }
+
             case HelpCommand cmd -> new CommandExecutionResult(false, 
                 cmd.isGeneralHelp() 
                     ? helpTextProvider.getHelpText()
@@ -90,4 +121,13 @@ public class DefaultCommandExecutor implements CommandExecutor {
     private CommandExecutionResult createResult(List<?> data, String message) {
         return new CommandExecutionResult(data, false, message);
     }
+
+    // Absent in a CLI connected to a server, whose validator already rejects these commands
+    private LocalOperations localOperations() {
+        LocalOperations operations = localOperations.getIfAvailable();
+        if (operations == null) {
+            throw new IllegalStateException("This command is only available in a CLI running on the server itself");
+        }
+        return operations;
+    }
 }
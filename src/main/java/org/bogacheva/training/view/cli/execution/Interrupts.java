@@ -0,0 +1,18 @@
+package org.bogacheva.training.view.cli.execution;
+
+/**
+ * Source of user interrupts, such as Ctrl-C on the console.
+ */
+public interface Interrupts {
+
+    /**
+     * Runs the action on every interrupt until the returned registration is closed, instead of
+     * whatever an interrupt would do otherwise.
+     */
+    Registration onInterrupt(Runnable action);
+
+    interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,34 @@
+package org.bogacheva.training.view.cli.execution;
+
+import lombok.RequiredArgsConstructor;
+import org.bogacheva.training.monitoring.jfr.FlightRecorderService;
+import org.bogacheva.training.service.dataset.DatasetSpec;
+import org.bogacheva.training.service.dataset.DatasetSummary;
+import org.bogacheva.training.service.dataset.HouseholdDatasetGenerator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * The operations behind the CLI commands that work on the database and JVM of this process, and
+ * so cannot be sent to a server like those of {@link ServiceCaller}. A CLI connected to a server
+ * has none of them.
+ */
+@RequiredArgsConstructor
+@Component
+@Profile("!remote")
+public class LocalOperations {
+
+    private final HouseholdDatasetGenerator datasetGenerator;
+    private final FlightRecorderService flightRecorderService;
+
+    public DatasetSummary generateDataset(DatasetSpec spec) {
+        return datasetGenerator.generate(spec);
+    }
+
+    public void recordProfile(Duration duration, String settings, Path file) {
+        flightRecorderService.record(duration, settings, file);
+    }
+}
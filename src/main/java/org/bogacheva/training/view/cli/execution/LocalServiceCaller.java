@@ -0,0 +1,125 @@
+package org.bogacheva.training.view.cli.execution;
+
+import lombok.RequiredArgsConstructor;
+import org.bogacheva.training.service.dto.ItemCreateDTO;
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
+import org.bogacheva.training.service.dto.StorageCreateDTO;
+import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
+import org.bogacheva.training.service.item.crud.ItemService;
+import org.bogacheva.training.service.item.search.ItemSearchService;
+import org.bogacheva.training.service.paging.KeysetStreams;
+import org.bogacheva.training.service.storage.StorageService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Calls the services of this process directly, each call in its own transaction.
+ */
+@RequiredArgsConstructor
+@Component
+@Profile("!remote")
+public class LocalServiceCaller implements ServiceCaller {
+    
+    private final ItemService itemService;
+    private final StorageService storageService;
+    private final ItemSearchService itemSearchService;
+    
+    // Create operations
+    @Override
+    public ItemDTO createItem(ItemCreateDTO createDTO) {
+        return itemService.create(createDTO);
+    }
+    
+    @Override
+    public StorageDTO createStorage(StorageCreateDTO createDTO) {
+        return storageService.create(createDTO);
+    }
+    
+    // List operations, fetched page by page as the result is printed
+    @Override
+    public Stream<ItemRefDTO> getAllItems() {
+        return KeysetStreams.of(itemService::getRefPageAfter, ItemRefDTO::getId);
+    }
+    
+    @Override
+    public Stream<StorageSummaryDTO> getAllStorages() {
+        return KeysetStreams.of((afterId, limit) -> storageService.getSummaryPageAfter(null, afterId, limit),
+                StorageSummaryDTO::getId);
+    }
+    
+    // Delete operations
+    @Override
+    public void deleteItem(Long id) {
+        itemService.delete(id);
+    }
+    
+    @Override
+    public void deleteStorage(Long id) {
+        storageService.delete(id);
+    }
+    
+    // Bulk operations on a selection of items
+    @Override
+    public int moveItems(ItemSelectionDTO selection, Long storageId) {
+        return itemService.moveAll(selection, storageId);
+    }
+    
+    @Override
+    public int deleteItems(ItemSelectionDTO selection) {
+        return itemService.deleteAll(selection);
+    }
+    
+    // Get by ID operations
+    @Override
+    public ItemDTO getItemById(Long id) {
+        return itemService.getById(id);
+    }
+    
+    @Override
+    public StorageDTO getStorageById(Long id) {
+        return storageService.getById(id);
+    }
+    
+    // Search operations
+    @Override
+    public List<ItemDTO> getItemsByStorageId(Long storageId) {
+        return itemSearchService.getByStorageId(storageId);
+    }
+    
+    @Override
+    public List<StorageDTO> getSubStorages(Long storageId) {
+        return storageService.getSubStorages(storageId);
+    }
+    
+    @Override
+    public Stream<StorageTreeNodeDTO> getStorageTree(Long storageId, Integer depth) {
+        return storageService.getTree(storageId, depth).stream();
+    }
+    
+    @Override
+    public List<ItemDTO> searchItems(String name, List<String> keywords) {
+        return itemSearchService.search(name, keywords);
+    }
+    
+    @Override
+    public List<StorageDTO> searchStorages(String name, org.bogacheva.training.domain.storage.StorageType type) {
+        return storageService.searchByNameAndType(name, type);
+    }
+    
+    @Override
+    public List<ItemDTO> getItemsNear(Long itemId) {
+        return itemSearchService.getItemsNear(itemId);
+    }
+    
+    @Override
+    public List<Long> getStorageHierarchyIds(Long itemId) {
+        return itemSearchService.getStorageHierarchyIds(itemId);
+    }
+}
@@ -1,83 +1,76 @@
 package org.bogacheva.training.view.cli.execution;
 
-import lombok.RequiredArgsConstructor;
+import org.bogacheva.training.domain.storage.StorageType;
 import org.bogacheva.training.service.dto.ItemCreateDTO;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
 import org.bogacheva.training.service.dto.StorageCreateDTO;
 import org.bogacheva.training.service.dto.StorageDTO;
-import org.bogacheva.training.service.item.crud.ItemService;
-import org.bogacheva.training.service.item.search.ItemSearchService;
-import org.bogacheva.training.service.storage.StorageService;
-import org.springframework.stereotype.Component;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
 
 import java.util.List;
+import java.util.stream.Stream;
 
-@RequiredArgsConstructor
-@Component
-public class ServiceCaller {
-    
-    private final ItemService itemService;
-    private final StorageService storageService;
-    private final ItemSearchService itemSearchService;
-    
-    // Create operations
-    public ItemDTO createItem(ItemCreateDTO createDTO) {
-        return itemService.create(createDTO);
-    }
-    
-    public StorageDTO createStorage(StorageCreateDTO createDTO) {
-        return storageService.create(createDTO);
-    }
-    
-    // List operations
-    public List<ItemDTO> getAllItems() {
-        return itemService.getAll();
-    }
-    
-    public List<StorageDTO> getAllStorages() {
-        return storageService.getAll(null);
-    }
-    
-    // Delete operations
-    public void deleteItem(Long id) {
-        itemService.delete(id);
-    }
-    
-    public void deleteStorage(Long id) {
-        storageService.delete(id);
-    }
-    
-    // Get by ID operations
-    public ItemDTO getItemById(Long id) {
-        return itemService.getById(id);
-    }
-    
-    public StorageDTO getStorageById(Long id) {
-        return storageService.getById(id);
-    }
-    
-    // Search operations
-    public List<ItemDTO> getItemsByStorageId(Long storageId) {
-        return itemSearchService.getByStorageId(storageId);
-    }
-    
-    public List<StorageDTO> getSubStorages(Long storageId) {
-        return storageService.getSubStorages(storageId);
-    }
-    
-    public List<ItemDTO> searchItems(String name, List<String> keywords) {
-        return itemSearchService.search(name, keywords);
-    }
-    
-    public List<StorageDTO> searchStorages(String name, org.bogacheva.training.domain.storage.StorageType type) {
-        return storageService.searchByNameAndType(name, type);
-    }
-    
-    public List<ItemDTO> getItemsNear(Long itemId) {
-        return itemSearchService.getItemsNear(itemId);
-    }
-    
-    public List<Long> getStorageHierarchyIds(Long itemId) {
-        return itemSearchService.getStorageHierarchyIds(itemId);
-    }
+/**
+ * The operations behind the CLI commands. {@link LocalServiceCaller} runs them in this process;
+ * with the {@code remote} profile they are sent to a running ShelveIt server instead. Operations
+ * that only work in this process are in {@link LocalOperations}.
+ */
+public interface ServiceCaller {
+
+    ItemDTO createItem(ItemCreateDTO createDTO);
+
+    StorageDTO createStorage(StorageCreateDTO createDTO);
+
+    /**
+     * Lists all items, fetched as the result is consumed. The stream must be closed.
+     */
+    Stream<ItemRefDTO> getAllItems();
+
+    /**
+     * Lists all storages, fetched as the result is consumed. The stream must be closed.
+     */
+    Stream<StorageSummaryDTO> getAllStorages();
+
+    void deleteItem(Long id);
+
+    void deleteStorage(Long id);
+
+    /**
+     * Moves the selected items to a storage, finding and moving them in one transaction.
+     *
+     * @return the number of moved items
+     */
+    int moveItems(ItemSelectionDTO selection, Long storageId);
+
+    /**
+     * Deletes the selected items, finding and deleting them in one transaction.
+     *
+     * @return the number of deleted items
+     */
+    int deleteItems(ItemSelectionDTO selection);
+
+    ItemDTO getItemById(Long id);
+
+    StorageDTO getStorageById(Long id);
+
+    List<ItemDTO> getItemsByStorageId(Long storageId);
+
+    List<StorageDTO> getSubStorages(Long storageId);
+
+    /**
+     * Lists a storage and its sub-storages down to the given depth, all levels when null, depth
+     * first as one tree. The stream must be closed.
+     */
+    Stream<StorageTreeNodeDTO> getStorageTree(Long storageId, Integer depth);
+
+    List<ItemDTO> searchItems(String name, List<String> keywords);
+
+    List<StorageDTO> searchStorages(String name, StorageType type);
+
+    List<ItemDTO> getItemsNear(Long itemId);
+
+    List<Long> getStorageHierarchyIds(Long itemId);
 }
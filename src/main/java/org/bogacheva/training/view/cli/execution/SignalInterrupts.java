@@ -0,0 +1,21 @@
+package org.bogacheva.training.view.cli.execution;
+
+import org.jline.utils.Signals;
+import org.springframework.stereotype.Component;
+
+/**
+ * Interrupts delivered as {@code SIGINT}, i.e. Ctrl-C while the terminal is not reading a line.
+ * While a line is read, JLine sees Ctrl-C as a key instead. The previous handler, which ends the
+ * JVM or belongs to JLine, is restored when the registration is closed.
+ */
+@Component
+public class SignalInterrupts implements Interrupts {
+
+    private static final String SIGNAL = "INT";
+
+    @Override
+    public Registration onInterrupt(Runnable action) {
+        Object previous = Signals.register(SIGNAL, action);
+        return () -> Signals.unregister(SIGNAL, previous);
+    }
+}
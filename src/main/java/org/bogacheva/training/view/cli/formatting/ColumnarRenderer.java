@@ -0,0 +1,309 @@
+package org.bogacheva.training.view.cli.formatting;
+
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes rows of items or storages as aligned columns under a header, storage tree nodes
+ * indented by their depth, and any other rows one per line. Column widths are measured on the
+ * first {@value #WIDTH_SAMPLE} rows, so rows are written as they arrive from the stream. Longer
+ * text further down is cut short, while longer numbers widen their column from that row on, as a
+ * cut-off ID would be misleading. Cells are written straight into the writer, padded from a
+ * shared run of spaces.
+ */
+@Component
+public class ColumnarRenderer {
+
+    static final int WIDTH_SAMPLE = 100;
+
+    private static final int TREE_INDENT = 2;
+
+    private static final String SEPARATOR = "  ";
+    private static final char ELLIPSIS = '…';
+    private static final char ASCII_ELLIPSIS = '~';
+    private static final char[] SPACES = new char[64];
+
+    static {
+        Arrays.fill(SPACES, ' ');
+    }
+
+    private static final Map<Class<?>, List<Column>> COLUMNS = Map.of(
+            ItemDTO.class, List.of(
+                    Column.right("ID", 12, row -> String.valueOf(((ItemDTO) row).getId())),
+                    Column.left("NAME", 40, row -> ((ItemDTO) row).getName()),
+                    Column.right("STORAGE", 12, row -> {
+                        StorageDTO storage = ((ItemDTO) row).getStorage();
+                        return storage != null ? String.valueOf(storage.getId()) : "-";
+                    }),
+                    Column.left("KEYWORDS", 60, row -> keywords(((ItemDTO) row).getKeywords()))),
+            ItemRefDTO.class, List.of(
+                    Column.right("ID", 12, row -> String.valueOf(((ItemRefDTO) row).getId())),
+                    Column.left("NAME", 40, row -> ((ItemRefDTO) row).getName()),
+                    Column.right("STORAGE", 12, row -> {
+                        Long storageId = ((ItemRefDTO) row).getStorageId();
+                        return storageId != null ? String.valueOf(storageId) : "-";
+                    }),
+                    Column.left("KEYWORDS", 60, row -> keywords(((ItemRefDTO) row).getKeywords()))),
+            StorageDTO.class, List.of(
+                    Column.right("ID", 12, row -> String.valueOf(((StorageDTO) row).getId())),
+                    Column.left("NAME", 40, row -> ((StorageDTO) row).getName()),
+                    Column.left("TYPE", 9, row -> String.valueOf(((StorageDTO) row).getType())),
+                    Column.right("PARENT", 12, row -> parent(((StorageDTO) row).getParentId()))),
+            StorageSummaryDTO.class, List.of(
+                    Column.right("ID", 12, row -> String.valueOf(((StorageSummaryDTO) row).getId())),
+                    Column.left("NAME", 40, row -> ((StorageSummaryDTO) row).getName()),
+                    Column.left("TYPE", 9, row -> String.valueOf(((StorageSummaryDTO) row).getType())),
+                    Column.right("PARENT", 12, row -> parent(((StorageSummaryDTO) row).getParentId())),
+                    Column.right("STORAGES", 12, row -> String.valueOf(((StorageSummaryDTO) row).getStorageCount())),
+                    Column.right("ITEMS", 12, row -> String.valueOf(((StorageSummaryDTO) row).getItemCount()))));
+
+    private final char ellipsis;
+
+    public ColumnarRenderer() {
+        this(System.out.charset().newEncoder().canEncode(ELLIPSIS) ? ELLIPSIS : ASCII_ELLIPSIS);
+    }
+
+    /**
+     * @param ellipsis the character that marks text cut short
+     */
+    public ColumnarRenderer(char ellipsis) {
+        this.ellipsis = ellipsis;
+    }
+
+    /**
+     * Writes all rows, pausing where the pager asks to. The writer is flushed before every pause
+     * and at the end, but not closed.
+     *
+     * @return the number of rows written
+     */
+    public long render(Stream<?> rows, Writer out, Pager pager) throws IOException {
+        Iterator<?> iterator = rows.iterator();
+        if (!iterator.hasNext()) {
+            return 0;
+        }
+        Object first = iterator.next();
+        List<Column> columns = COLUMNS.get(first.getClass());
+        Paging paging = new Paging(out, pager);
+        long written;
+        if (first instanceof StorageTreeNodeDTO node) {
+            written = renderTree(node, iterator, out, paging);
+        } else {
+            written = columns == null
+                    ? renderLines(first, iterator, out, paging)
+                    : renderTable(columns, first, iterator, out, paging);
+        }
+        out.flush();
+        return written;
+    }
+
+    private static long renderLines(Object first, Iterator<?> rows, Writer out, Paging paging) throws IOException {
+        long written = 0;
+        Object row = first;
+        while (true) {
+            out.write(String.valueOf(row));
+            out.write('\n');
+            written++;
+            if (!rows.hasNext() || !paging.rowWritten()) {
+                return written;
+            }
+            row = rows.next();
+        }
+    }
+
+    /**
+     * Writes each node under its parent, looking one node ahead to tell whether its sub-storages
+     * follow or were left out by a depth limit.
+     */
+    private static long renderTree(StorageTreeNodeDTO first, Iterator<?> rows, Writer out, Paging paging)
+            throws IOException {
+        long written = 0;
+        StorageTreeNodeDTO node = first;
+        while (true) {
+            StorageTreeNodeDTO next = rows.hasNext() ? (StorageTreeNodeDTO) rows.next() : null;
+            pad(out, TREE_INDENT * node.getDepth());
+            out.write(node.getName());
+            out.write("  #");
+            out.write(String.valueOf(node.getId()));
+            out.write(' ');
+            out.write(String.valueOf(node.getType()));
+            out.write(", ");
+            out.write(count(node.getItemCount(), "item"));
+            boolean childrenFollow = next != null && next.getDepth() > node.getDepth();
+            if (node.getStorageCount() > 0 && !childrenFollow) {
+                out.write(", ");
+                out.write(count(node.getStorageCount(), "sub-storage"));
+                out.write(" not shown");
+            }
+            out.write('\n');
+            written++;
+            if (next == null || !paging.rowWritten()) {
+                return written;
+            }
+            node = next;
+        }
+    }
+
+    private long renderTable(List<Column> columns, Object first, Iterator<?> rows, Writer out, Paging paging)
+            throws IOException {
+        int[] widths = new int[columns.size()];
+        for (int column = 0; column < widths.length; column++) {
+            widths[column] = columns.get(column).header().length();
+        }
+        List<String[]> sample = new ArrayList<>(WIDTH_SAMPLE);
+        Object row = first;
+        while (true) {
+            String[] cells = cells(columns, row, new String[widths.length]);
+            for (int column = 0; column < widths.length; column++) {
+                int width = Math.min(cells[column].length(), columns.get(column).maxWidth());
+                widths[column] = Math.max(widths[column], width);
+            }
+            sample.add(cells);
+            if (sample.size() == WIDTH_SAMPLE || !rows.hasNext()) {
+                break;
+            }
+            row = rows.next();
+        }
+
+        String[] header = new String[widths.length];
+        for (int column = 0; column < widths.length; column++) {
+            header[column] = columns.get(column).header();
+        }
+        writeRow(columns, widths, header, out);
+
+        long written = 0;
+        for (String[] cells : sample) {
+            writeRow(columns, widths, cells, out);
+            written++;
+            if (written < sample.size() || rows.hasNext()) {
+                if (!paging.rowWritten()) {
+                    return written;
+                }
+            }
+        }
+        String[] cells = new String[widths.length];
+        while (rows.hasNext()) {
+            writeRow(columns, widths, cells(columns, rows.next(), cells), out);
+            written++;
+            if (rows.hasNext() && !paging.rowWritten()) {
+                return written;
+            }
+        }
+        return written;
+    }
+
+    private static String[] cells(List<Column> columns, Object row, String[] cells) {
+        for (int column = 0; column < cells.length; column++) {
+            String value = columns.get(column).value().apply(row);
+            cells[column] = value != null ? value : "-";
+        }
+        return cells;
+    }
+
+    private void writeRow(List<Column> columns, int[] widths, String[] cells, Writer out) throws IOException {
+        int last = cells.length - 1;
+        for (int column = 0; column <= last; column++) {
+            if (column > 0) {
+                out.write(SEPARATOR);
+            }
+            String value = cells[column];
+            int width = widths[column];
+            boolean rightAligned = columns.get(column).rightAligned();
+            if (value.length() > width && rightAligned) {
+                width = value.length();
+                widths[column] = width;
+            }
+            if (value.length() > width) {
+                out.write(value, 0, width - 1);
+                out.write(ellipsis);
+            } else if (rightAligned) {
+                pad(out, width - value.length());
+                out.write(value);
+            } else {
+                out.write(value);
+                if (column < last) {
+                    pad(out, width - value.length());
+                }
+            }
+        }
+        out.write('\n');
+    }
+
+    private static String keywords(List<String> keywords) {
+        return keywords != null && !keywords.isEmpty() ? String.join(", ", keywords) : "-";
+    }
+
+    private static String count(long count, String noun) {
+        return count + " " + noun + (count == 1 ? "" : "s");
+    }
+
+    private static String parent(Long parentId) {
+        return parentId != null ? String.valueOf(parentId) : "-";
+    }
+
+    private static void pad(Writer out, int count) throws IOException {
+        for (int remaining = count; remaining > 0; remaining -= SPACES.length) {
+            out.write(SPACES, 0, Math.min(remaining, SPACES.length));
+        }
+    }
+
+    private record Column(String header, int maxWidth, boolean rightAligned, Function<Object, String> value) {
+
+        static Column left(String header, int maxWidth, Function<Object, String> value) {
+            return new Column(header, maxWidth, false, value);
+        }
+
+        static Column right(String header, int maxWidth, Function<Object, String> value) {
+            return new Column(header, maxWidth, true, value);
+        }
+    }
+
+    /**
+     * Counts rows against the page size and asks the pager how to go on when a page is full.
+     */
+    private static final class Paging {
+
+        private final Writer out;
+        private final Pager pager;
+        private int pageSize;
+        private int rowsOnPage;
+
+        private Paging(Writer out, Pager pager) {
+            this.out = out;
+            this.pager = pager;
+            this.pageSize = pager.pageSize();
+        }
+
+        /**
+         * @return whether to write the next row
+         */
+        private boolean rowWritten() throws IOException {
+            if (pageSize <= 0 || ++rowsOnPage < pageSize) {
+                return true;
+            }
+            out.flush();
+            rowsOnPage = 0;
+            return switch (pager.more()) {
+                case NEXT_PAGE -> true;
+                case ALL -> {
+                    pageSize = 0;
+                    yield true;
+                }
+                case STOP -> false;
+            };
+        }
+    }
+}
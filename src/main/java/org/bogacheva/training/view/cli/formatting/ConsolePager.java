@@ -0,0 +1,64 @@
+package org.bogacheva.training.view.cli.formatting;
+
+import org.bogacheva.training.view.cli.Reader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Pauses after every screen of rows when the CLI runs in a terminal. The page size comes from
+ * {@code shelveit.cli.pager.page-size}, or else from the terminal height in {@code LINES}. When
+ * output is redirected nothing pauses, so piping a listing into a file never blocks.
+ */
+@Component
+public class ConsolePager implements Pager {
+
+    private static final int DEFAULT_TERMINAL_LINES = 24;
+    // Room for the header row and the prompt
+    private static final int RESERVED_LINES = 2;
+    private static final String PROMPT = "-- more -- [Enter] next page, [a] all, [q] quit: ";
+
+    private final Reader<String> reader;
+    private final int pageSize;
+
+    public ConsolePager(Reader<String> reader,
+                        @Value("${shelveit.cli.pager.enabled:true}") boolean enabled,
+                        @Value("${shelveit.cli.pager.page-size:0}") int pageSize) {
+        this.reader = reader;
+        this.pageSize = enabled && System.console() != null
+                ? (pageSize > 0 ? pageSize : terminalLines() - RESERVED_LINES)
+                : 0;
+    }
+
+    @Override
+    public int pageSize() {
+        return pageSize;
+    }
+
+    @Override
+    public Continuation more() {
+        String answer;
+        try {
+            answer = reader.read(PROMPT).strip().toLowerCase(Locale.ROOT);
+        } catch (NoSuchElementException | CancellationException e) {
+            return Continuation.STOP;
+        }
+        return switch (answer) {
+            case "q", "quit" -> Continuation.STOP;
+            case "a", "all" -> Continuation.ALL;
+            default -> Continuation.NEXT_PAGE;
+        };
+    }
+
+    private static int terminalLines() {
+        try {
+            int lines = Integer.parseInt(System.getenv().getOrDefault("LINES", ""));
+            return Math.max(lines, RESERVED_LINES + 1);
+        } catch (NumberFormatException e) {
+            return DEFAULT_TERMINAL_LINES;
+        }
+    }
+}
@@ -2,19 +2,46 @@ package org.bogacheva.training.view.cli.formatting;
 
 import org.bogacheva.training.view.cli.ShelveItView;
 import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.stream.Stream;
+
 /**
  * Default implementation of OutputFormatter.
- * Handles formatting and display of command execution results.
+ * Handles formatting and display of command execution results. Rows are rendered as they are
+ * streamed from the service into one buffered writer, which is reused for every command.
  */
 @Component
 public class DefaultOutputFormatter implements OutputFormatter {
     
+    private static final int BUFFER_SIZE = 16 * 1024;
+
     private final ShelveItView view;
+    private final ColumnarRenderer renderer;
+    private final Pager pager;
+    private final Writer out;
     
-    public DefaultOutputFormatter(ShelveItView view) {
+    @Autowired
+    public DefaultOutputFormatter(ShelveItView view, ColumnarRenderer renderer, Pager pager) {
+        this(view, renderer, pager,
+                new BufferedWriter(new OutputStreamWriter(System.out, System.out.charset()), BUFFER_SIZE));
+    }
+
+    /**
+     * Displays through the given view and writer instead of the console, as for a CLI session
+     * connected over a socket.
+     */
+    public DefaultOutputFormatter(ShelveItView view, ColumnarRenderer renderer, Pager pager, Writer out) {
         this.view = view;
+        this.renderer = renderer;
+        this.pager = pager;
+        this.out = out;
     }
     
     @Override
@@ -24,7 +51,12 @@ public class DefaultOutputFormatter implements OutputFormatter {
         }
         
         if (result.hasData()) {
-            view.print(result.getData());
+            // Closing releases what the data is read from when the pager stops early
+            try (Stream<?> data = result.getData()) {
+                renderer.render(data, out, pager);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
     }
 }
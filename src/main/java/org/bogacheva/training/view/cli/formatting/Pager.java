@@ -0,0 +1,38 @@
+package org.bogacheva.training.view.cli.formatting;
+
+/**
+ * Decides where long output pauses and whether it goes on.
+ */
+public interface Pager {
+
+    /** A pager that never pauses. */
+    Pager NONE = new Pager() {
+        @Override
+        public int pageSize() {
+            return 0;
+        }
+
+        @Override
+        public Continuation more() {
+            return Continuation.ALL;
+        }
+    };
+
+    /**
+     * @return the number of rows per page, or 0 to print everything without pausing
+     */
+    int pageSize();
+
+    /**
+     * Called after a full page has been written and flushed, when more rows follow.
+     *
+     * @return how to go on
+     */
+    Continuation more();
+
+    enum Continuation {
+        NEXT_PAGE,
+        ALL,
+        STOP
+    }
+}
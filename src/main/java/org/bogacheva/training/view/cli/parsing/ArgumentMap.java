@@ -0,0 +1,101 @@
+package org.bogacheva.training.view.cli.parsing;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The options of a parsed command, kept as a flat array of names and values. Commands take a
+ * handful of options, so a linear scan is as fast as hashing, and the map costs one array
+ * instead of a table and an entry per option. Read-only once parsing is done.
+ */
+final class ArgumentMap extends AbstractMap<String, String> {
+
+    private static final String[] EMPTY = new String[0];
+
+    private String[] entries = EMPTY;
+    private int size;
+
+    /**
+     * Sets an option, replacing any earlier value, as repeating an option overrides it.
+     */
+    void set(String name, String value) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            entries[index + 1] = value;
+            return;
+        }
+        if (2 * size == entries.length) {
+            String[] grown = new String[Math.max(8, entries.length * 2)];
+            System.arraycopy(entries, 0, grown, 0, entries.length);
+            entries = grown;
+        }
+        entries[2 * size] = name;
+        entries[2 * size + 1] = value;
+        size++;
+    }
+
+    @Override
+    public String get(Object name) {
+        int index = indexOf(name);
+        return index >= 0 ? entries[index + 1] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return indexOf(name) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int index = 2 * next++;
+                        return new SimpleImmutableEntry<>(entries[index], entries[index + 1]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int indexOf(Object name) {
+        for (int index = 0; index < 2 * size; index += 2) {
+            if (Objects.equals(entries[index], name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,5 +1,6 @@
 package org.bogacheva.training.view.cli.parsing;
 
+import java.util.List;
 
 /**
  * Interface for parsing command arguments.
@@ -13,5 +14,13 @@ public interface CommandParser {
      * @return parsed command parts
      */
     ParsedCommand parse(String input);
+
+    /**
+     * Parses the input into the commands of a pipeline, separated by {@code |}.
+     *
+     * @param input the raw input string
+     * @return the parsed commands in order, one for input without a pipe
+     */
+    List<ParsedCommand> parsePipeline(String input);
 }
 
@@ -0,0 +1,19 @@
+package org.bogacheva.training.view.cli.parsing;
+
+/**
+ * Thrown when a command line cannot be parsed. The message names the zero-based position in
+ * the input where parsing stopped, which {@link #getPosition()} also exposes.
+ */
+public class CommandSyntaxException extends IllegalArgumentException {
+
+    private final int position;
+
+    public CommandSyntaxException(String message, int position) {
+        super(message + " at position " + position);
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,160 @@
+package org.bogacheva.training.view.cli.parsing;
+
+import org.bogacheva.training.view.cli.commands.CommandType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Character trie over the command names of {@link CommandType}. Matching is case-insensitive,
+ * treats any run of whitespace between words as a single space, and picks the longest command
+ * that ends on a word boundary, so {@code get item} and {@code get items by storage} coexist.
+ * A pipe also ends a word. A match walks the input once and touches each character at most once.
+ */
+final class CommandTrie {
+
+    static final char PIPE = '|';
+
+    private static final int LETTERS = 26;
+    private static final int SPACE = LETTERS;
+
+    private final Node root = new Node();
+
+    CommandTrie(CommandType... types) {
+        for (CommandType type : types) {
+            if (type != CommandType.BROKEN) {
+                add(type);
+            }
+        }
+    }
+
+    /**
+     * Matches the command at the start of {@code input}, after any leading whitespace.
+     *
+     * @throws CommandSyntaxException if no command name starts there
+     */
+    Match match(String input, int from) {
+        int length = input.length();
+        int i = skipWhitespace(input, from);
+        if (i == length || input.charAt(i) == PIPE) {
+            throw new CommandSyntaxException("Empty command", i);
+        }
+        Node node = root;
+        Node wordNode = root;
+        int wordStart = i;
+        CommandType matched = null;
+        int matchedEnd = -1;
+        while (true) {
+            while (i < length && !isWordEnd(input.charAt(i))) {
+                node = node.next(input.charAt(i));
+                if (node == null) {
+                    if (matched != null) {
+                        return new Match(matched, matchedEnd);
+                    }
+                    throw unknownWord(input, wordStart, wordNode);
+                }
+                i++;
+            }
+            if (node.command != null) {
+                matched = node.command;
+                matchedEnd = i;
+            }
+            int next = skipWhitespace(input, i);
+            Node space = node.children[SPACE];
+            if (space == null || next == length || input.charAt(next) == PIPE) {
+                break;
+            }
+            node = space;
+            wordNode = space;
+            wordStart = next;
+            i = next;
+        }
+        if (matched != null) {
+            return new Match(matched, matchedEnd);
+        }
+        String command = input.substring(skipWhitespace(input, from), i);
+        throw new CommandSyntaxException("Incomplete command '" + command + "', expected "
+                + String.join(", ", words(node.children[SPACE])), skipWhitespace(input, i));
+    }
+
+    static boolean isWordEnd(char c) {
+        return c == PIPE || Character.isWhitespace(c);
+    }
+
+    static int skipWhitespace(String input, int from) {
+        int i = from;
+        while (i < input.length() && Character.isWhitespace(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private void add(CommandType type) {
+        Node node = root;
+        for (char c : type.getCommandName().toCharArray()) {
+            int index = indexOf(c);
+            if (node.children[index] == null) {
+                node.children[index] = new Node();
+            }
+            node = node.children[index];
+        }
+        node.command = type;
+    }
+
+    private CommandSyntaxException unknownWord(String input, int wordStart, Node wordNode) {
+        int wordEnd = wordStart;
+        while (wordEnd < input.length() && !isWordEnd(input.charAt(wordEnd))) {
+            wordEnd++;
+        }
+        String word = input.substring(wordStart, wordEnd);
+        return wordNode == root
+                ? new CommandSyntaxException("Unknown command '" + word + "'", wordStart)
+                : new CommandSyntaxException("Unknown command word '" + word + "', expected "
+                        + String.join(", ", words(wordNode)), wordStart);
+    }
+
+    // The words that can follow a node at the start of a word; only built for error messages
+    private static List<String> words(Node from) {
+        List<String> words = new ArrayList<>();
+        collectWords(from, new StringBuilder(), words);
+        return words;
+    }
+
+    private static void collectWords(Node node, StringBuilder prefix, List<String> words) {
+        if (!prefix.isEmpty() && (node.command != null || node.children[SPACE] != null)) {
+            words.add(prefix.toString());
+        }
+        for (int index = 0; index < LETTERS; index++) {
+            if (node.children[index] != null) {
+                prefix.append((char) ('a' + index));
+                collectWords(node.children[index], prefix, words);
+                prefix.setLength(prefix.length() - 1);
+            }
+        }
+    }
+
+    private static int indexOf(char c) {
+        if (c == ' ') {
+            return SPACE;
+        }
+        char lower = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        return lower >= 'a' && lower <= 'z' ? lower - 'a' : -1;
+    }
+
+    /**
+     * A matched command and the position just after its last word.
+     */
+    record Match(CommandType type, int end) {
+    }
+
+    private static final class Node {
+
+        private final Node[] children = new Node[LETTERS + 1];
+        private CommandType command;
+
+        private Node next(char c) {
+            int index = indexOf(c);
+            return index < 0 || index == SPACE ? null : children[index];
+        }
+    }
+}
@@ -1,95 +1,178 @@
 package org.bogacheva.training.view.cli.parsing;
 
+import org.bogacheva.training.view.cli.commands.CommandType;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
+/**
+ * Parses a command line in a single pass. The command words are matched against a
+ * {@link CommandTrie} built from {@link CommandType}, then the rest of the line is tokenized
+ * into {@code --name value} options. Values run until the next option, may span several words,
+ * and may be quoted to keep spaces or characters that would otherwise split them. Values are
+ * cut from the input as they stand whenever possible, so a typical line allocates little
+ * beyond its option names and values.
+ * <p>
+ * An unquoted {@code |} ends a command and starts the next one of a pipeline.
+ */
 @Component
 public class DefaultCommandParser implements CommandParser {
-    
-    private static final Pattern WHOLE_COMMAND_PATTERN = Pattern.compile("\"([^\"]*)\"|(\\S+)");
-    
+
+    private static final CommandTrie COMMANDS = new CommandTrie(CommandType.values());
+
     @Override
     public ParsedCommand parse(String input) {
-        String[] parts = splitInParts(input);
-        String commandType = parseCommandType(parts);
-        
-        // Special handling for help and exit commands 
-        if ("help".equals(commandType) || "exit".equals(commandType)) {
-            return new ParsedCommand(commandType, parts, Collections.emptyMap());
+        Stage stage = parseStage(input, 0);
+        if (stage.end() < input.length()) {
+            throw new CommandSyntaxException("Unexpected '|'", stage.end());
         }
-        
-        int start = getArgsStartIndex(commandType);
-        Map<String, String> args = parseArguments(Arrays.copyOfRange(parts, start, parts.length));
-        
-        return new ParsedCommand(commandType, parts, args);
-    }
-    
-    private int getArgsStartIndex(String commandType) {
-        return switch (commandType) {
-            case "get items by storage" -> 4;
-            case "get items near" -> 3;
-            default -> 2;
-        };
+        return stage.command();
     }
-    
-    private String[] splitInParts(String input) {
-        List<String> parts = new ArrayList<>();
-        Matcher m = WHOLE_COMMAND_PATTERN.matcher(input);
-        while (m.find()) {
-            // For quoted strings, use group 1; otherwise, use group 2
-            parts.add(m.group(1) != null ? m.group(1) : m.group(2));
-        }
-        return parts.toArray(new String[0]);
-    }
-    
-    private String parseCommandType(String[] parts) {
-        if (parts.length == 0) {
-            return "broken";
-        }
-        if (parts.length == 1) {
-            String command = parts[0].toLowerCase();
-            // Special handling for single-word commands
-            if ("help".equals(command) || "exit".equals(command)) {
-                return command;
+
+    @Override
+    public List<ParsedCommand> parsePipeline(String input) {
+        List<ParsedCommand> commands = new ArrayList<>(2);
+        int from = 0;
+        while (true) {
+            Stage stage = parseStage(input, from);
+            commands.add(stage.command());
+            if (stage.end() == input.length()) {
+                return commands;
             }
-            return command;
+            from = stage.end() + 1;
         }
-        String cmdCandidate = (parts[0] + " " + parts[1]).toLowerCase();
-        return getCommandType(parts, cmdCandidate);
     }
-    
-    private String getCommandType(String[] parts, String cmdCandidate) {
-        if ("get items".equals(cmdCandidate)) {
-            if (parts.length > 3 && parts[2].equalsIgnoreCase("by") && parts[3].equalsIgnoreCase("storage")) {
-                return "get items by storage";
+
+    // Parses the command starting at from, up to the end of the input or the next unquoted pipe
+    private static Stage parseStage(String input, int from) {
+        CommandTrie.Match match = COMMANDS.match(input, from);
+        CommandType type = match.type();
+        boolean takesOperand = type == CommandType.HELP || type == CommandType.EXIT;
+
+        ArgumentMap arguments = new ArgumentMap();
+        Value operand = takesOperand ? new Value(input) : null;
+        String name = null;
+        Value value = new Value(input);
+        int length = input.length();
+        int i = CommandTrie.skipWhitespace(input, match.end());
+        while (i < length) {
+            char c = input.charAt(i);
+            if (c == CommandTrie.PIPE) {
+                break;
             }
-            if (parts.length > 2 && parts[2].equalsIgnoreCase("near")) {
-                return "get items near";
+            int start;
+            int end;
+            int next;
+            if (c == '"') {
+                int close = input.indexOf('"', i + 1);
+                if (close < 0) {
+                    throw new CommandSyntaxException("Unterminated quote", i);
+                }
+                start = i + 1;
+                end = close;
+                next = close + 1;
+                while (start < end && Character.isWhitespace(input.charAt(start))) {
+                    start++;
+                }
+                while (end > start && Character.isWhitespace(input.charAt(end - 1))) {
+                    end--;
+                }
+            } else {
+                start = i;
+                end = wordEnd(input, i);
+                next = end;
+                if (c == '-' && end - start > 1 && input.charAt(i + 1) == '-') {
+                    if (name != null) {
+                        arguments.set(name, value.take());
+                    }
+                    if (end - start == 2) {
+                        throw new CommandSyntaxException("Missing option name after '--'", i);
+                    }
+                    name = input.substring(start + 2, end).toLowerCase(Locale.ROOT);
+                    i = CommandTrie.skipWhitespace(input, next);
+                    continue;
+                }
+            }
+            if (name != null) {
+                value.append(start, end);
+            } else if (operand != null) {
+                operand.append(start, end);
+            } else {
+                throw new CommandSyntaxException("Unexpected argument '" + input.substring(start, end) + "'", i);
             }
+            i = CommandTrie.skipWhitespace(input, next);
         }
-        return cmdCandidate;
+        if (name != null) {
+            arguments.set(name, value.take());
+        }
+        String operandText = operand == null ? null : operand.take();
+        ParsedCommand command = new ParsedCommand(type,
+                operandText == null || operandText.isEmpty() ? null : operandText, arguments);
+        return new Stage(command, Math.min(i, length));
+    }
+
+    private static int wordEnd(String input, int from) {
+        int i = from;
+        while (i < input.length() && !CommandTrie.isWordEnd(input.charAt(i))) {
+            i++;
+        }
+        return i;
     }
-    
-    private Map<String, String> parseArguments(String[] parts) {
-        Map<String, String> args = new HashMap<>();
-        String currentKey = null;
 
-        for (String part : parts) {
-            if (part.startsWith("--")) {
-                currentKey = part.substring(2).toLowerCase(); // Remove "--" prefix
-                args.put(currentKey, ""); // Initialize with empty value
-            } else if (currentKey != null) {
-                args.put(currentKey, args.get(currentKey).isEmpty()
-                        ? part.trim()
-                        : args.get(currentKey) + " " + part.trim());
+    /**
+     * A parsed command and the position of the pipe that ends it, or the length of the input.
+     */
+    private record Stage(ParsedCommand command, int end) {
+    }
+
+    /**
+     * The words of one value, joined by single spaces. While the words are separated by exactly
+     * one space in the input, the value is a single substring and nothing is copied. Reused for
+     * every option of a line.
+     */
+    private static final class Value {
+
+        private final String input;
+        private int start = -1;
+        private int end;
+        private boolean copied;
+        private StringBuilder joined;
+
+        private Value(String input) {
+            this.input = input;
+        }
+
+        private void append(int wordStart, int wordEnd) {
+            if (wordStart == wordEnd) {
+                return;
+            }
+            if (start < 0) {
+                start = wordStart;
+                end = wordEnd;
+            } else if (!copied && wordStart == end + 1 && input.charAt(end) == ' ') {
+                end = wordEnd;
             } else {
-                throw new IllegalArgumentException("Unexpected argument: " + part);
+                if (!copied) {
+                    if (joined == null) {
+                        joined = new StringBuilder(input.length());
+                    }
+                    joined.append(input, start, end);
+                    copied = true;
+                }
+                joined.append(' ').append(input, wordStart, wordEnd);
+            }
+        }
+
+        private String take() {
+            String value = copied ? joined.toString() : start < 0 ? "" : input.substring(start, end);
+            start = -1;
+            if (copied) {
+                joined.setLength(0);
+                copied = false;
             }
+            return value;
         }
-        return args;
     }
 }
@@ -1,5 +1,12 @@
 package org.bogacheva.training.view.cli.parsing;
 
+import org.bogacheva.training.view.cli.commands.CommandType;
+
 import java.util.Map;
 
-public record ParsedCommand(String commandType, String[] commandParts, Map<String, String> arguments) {}
+/**
+ * A command line split into its command, the free text that follows the command words (only
+ * {@code help} and {@code exit} take one, otherwise {@code null}) and its {@code --name value}
+ * options, keyed by lower-case name.
+ */
+public record ParsedCommand(CommandType commandType, String operand, Map<String, String> arguments) {}
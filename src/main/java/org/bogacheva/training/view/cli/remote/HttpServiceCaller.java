@@ -0,0 +1,319 @@
+package org.bogacheva.training.view.cli.remote;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.exceptions.ResourceNotFoundException;
+import org.bogacheva.training.service.dto.ItemCreateDTO;
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
+import org.bogacheva.training.service.dto.StorageCreateDTO;
+import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
+import org.bogacheva.training.view.cli.execution.ServiceCaller;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Sends the CLI operations to the REST API of a running ShelveIt server, so that the CLI starts
+ * neither a persistence unit nor a connection pool of its own.
+ * <p>
+ * Requests go over pooled keep-alive connections, and bodies are exchanged in Smile, the binary
+ * form of JSON. Listings are decoded element by element while the server streams them. Other
+ * reads are revalidated with their entity tag, so that a repeated lookup of unchanged data
+ * costs a 304 Not Modified instead of the full body.
+ */
+@Component
+@Profile("remote")
+public class HttpServiceCaller implements ServiceCaller {
+
+    static final String SMILE = "application/x-jackson-smile";
+    static final int CACHED_RESPONSES = 256;
+
+    private final URI serverUrl;
+    private final Duration timeout;
+    private final HttpClient client;
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.smile().build();
+    private final Map<URI, CachedResponse> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<URI, CachedResponse> eldest) {
+                    return size() > CACHED_RESPONSES;
+                }
+            });
+
+    public HttpServiceCaller(@Value("${shelveit.cli.server.url}") URI serverUrl,
+                             @Value("${shelveit.cli.server.timeout:30s}") Duration timeout) {
+        this.serverUrl = serverUrl;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    @Override
+    public ItemDTO createItem(ItemCreateDTO createDTO) {
+        return send(body(request("/api/items"), "POST", createDTO), ItemDTO.class);
+    }
+
+    @Override
+    public StorageDTO createStorage(StorageCreateDTO createDTO) {
+        return send(body(request("/api/storages"), "POST", createDTO), StorageDTO.class);
+    }
+
+    // The normalized view streams the rows as they are printed, without each item's whole storage
+    @Override
+    public Stream<ItemRefDTO> getAllItems() {
+        return stream("/api/items?view=normalized", ItemRefDTO.class);
+    }
+
+    @Override
+    public Stream<StorageSummaryDTO> getAllStorages() {
+        return stream("/api/storages?view=normalized", StorageSummaryDTO.class);
+    }
+
+    @Override
+    public void deleteItem(Long id) {
+        send(request("/api/items/" + id).DELETE(), Void.class);
+    }
+
+    @Override
+    public void deleteStorage(Long id) {
+        send(request("/api/storages/" + id).DELETE(), Void.class);
+    }
+
+    @Override
+    public int moveItems(ItemSelectionDTO selection, Long storageId) {
+        String path = UriComponentsBuilder.fromPath("/api/items/move").queryParam("storageId", storageId).toUriString();
+        return send(body(request(path), "POST", selection), Integer.class);
+    }
+
+    @Override
+    public int deleteItems(ItemSelectionDTO selection) {
+        return send(body(request("/api/items/remove"), "POST", selection), Integer.class);
+    }
+
+    @Override
+    public ItemDTO getItemById(Long id) {
+        return get(path("/api/items/{id}", id), ItemDTO.class);
+    }
+
+    @Override
+    public StorageDTO getStorageById(Long id) {
+        return get(path("/api/storages/{id}", id), StorageDTO.class);
+    }
+
+    @Override
+    public List<ItemDTO> getItemsByStorageId(Long storageId) {
+        return get(path("/api/items/storage/{id}", storageId), listOf(ItemDTO.class));
+    }
+
+    @Override
+    public List<StorageDTO> getSubStorages(Long storageId) {
+        return get(path("/api/storages/{id}/substorages", storageId), listOf(StorageDTO.class));
+    }
+
+    @Override
+    public Stream<StorageTreeNodeDTO> getStorageTree(Long storageId, Integer depth) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromPath("/api/storages/{id}/tree");
+        if (depth != null) {
+            uri.queryParam("depth", depth);
+        }
+        // The server reads the whole subtree first, but printing starts while the response comes in
+        return stream(uri.buildAndExpand(storageId).toUriString(), StorageTreeNodeDTO.class);
+    }
+
+    @Override
+    public List<ItemDTO> searchItems(String name, List<String> keywords) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromPath("/api/items/search");
+        if (name != null) {
+            uri.queryParam("name", name);
+        }
+        if (keywords != null && !keywords.isEmpty()) {
+            uri.queryParam("keywords", keywords);
+        }
+        return get(uri.encode().build().toUriString(), listOf(ItemDTO.class));
+    }
+
+    @Override
+    public List<StorageDTO> searchStorages(String name, StorageType type) {
+        UriComponentsBuilder uri = UriComponentsBuilder.fromPath("/api/storages/search");
+        if (name != null) {
+            uri.queryParam("name", name);
+        }
+        if (type != null) {
+            uri.queryParam("type", type);
+        }
+        return get(uri.encode().build().toUriString(), listOf(StorageDTO.class));
+    }
+
+    @Override
+    public List<ItemDTO> getItemsNear(Long itemId) {
+        return get(path("/api/items/{id}/near", itemId), listOf(ItemDTO.class));
+    }
+
+    @Override
+    public List<Long> getStorageHierarchyIds(Long itemId) {
+        return get(path("/api/items/{id}/trackStorages", itemId), listOf(Long.class));
+    }
+
+    private <T> T get(String path, Class<T> type) {
+        return get(path, mapper.constructType(type));
+    }
+
+    private <T> T get(String path, JavaType type) {
+        HttpRequest.Builder request = request(path);
+        URI uri = serverUrl.resolve(path);
+        CachedResponse cached = cache.get(uri);
+        if (cached != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, cached.eTag());
+        }
+        HttpResponse<byte[]> response = exchange(request.GET().build());
+        byte[] body;
+        if (response.statusCode() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+            body = cached.body();
+        } else {
+            body = checked(response).body();
+            response.headers().firstValue(HttpHeaders.ETAG)
+                    .ifPresentOrElse(eTag -> cache.put(uri, new CachedResponse(eTag, body)), () -> cache.remove(uri));
+        }
+        return read(body, type);
+    }
+
+    private <T> T send(HttpRequest.Builder request, Class<T> type) {
+        byte[] body = checked(exchange(request.build())).body();
+        return type == Void.class || body.length == 0 ? null : read(body, mapper.constructType(type));
+    }
+
+    // Elements are decoded while the response arrives; closing the stream closes the connection
+    private <T> Stream<T> stream(String path, Class<T> type) {
+        HttpResponse<InputStream> response = exchange(request(path).GET().build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        InputStream body = response.body();
+        try {
+            if (response.statusCode() / 100 != 2) {
+                throw failure(response.statusCode(), body.readAllBytes());
+            }
+            MappingIterator<T> elements = mapper.readerFor(type).readValues(body);
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED), false)
+                    .onClose(() -> close(elements));
+        } catch (IOException e) {
+            close(body);
+            throw new UncheckedIOException("Could not read the response of " + response.uri(), e);
+        } catch (RuntimeException e) {
+            close(body);
+            throw e;
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(serverUrl.resolve(path))
+                .timeout(timeout)
+                .header(HttpHeaders.ACCEPT, SMILE);
+    }
+
+    private HttpRequest.Builder body(HttpRequest.Builder request, String method, Object body) {
+        try {
+            return request.header(HttpHeaders.CONTENT_TYPE, SMILE)
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpResponse<byte[]> exchange(HttpRequest request) {
+        return exchange(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private <T> HttpResponse<T> exchange(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        try {
+            return client.send(request, bodyHandler);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not reach the ShelveIt server at " + serverUrl
+                    + ": " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Request to " + request.uri() + " interrupted");
+        }
+    }
+
+    private HttpResponse<byte[]> checked(HttpResponse<byte[]> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw failure(response.statusCode(), response.body());
+        }
+        return response;
+    }
+
+    // The server answers errors with a ShelveItError; they are raised as the CLI raises them locally
+    private RuntimeException failure(int status, byte[] body) {
+        String message = "The server answered with status " + status;
+        try {
+            JsonNode error = mapper.readTree(body);
+            if (error != null && error.hasNonNull("message")) {
+                message = error.get("message").asText();
+            }
+        } catch (IOException e) {
+            // Not an error body of the API, the status has to do
+        }
+        return switch (status) {
+            case 400 -> new IllegalArgumentException(message);
+            case 404 -> new ResourceNotFoundException(message);
+            default -> new IllegalStateException(message);
+        };
+    }
+
+    private <T> T read(byte[] body, JavaType type) {
+        try {
+            return mapper.readValue(body, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the response of the ShelveIt server", e);
+        }
+    }
+
+    private JavaType listOf(Class<?> elementType) {
+        return mapper.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    private static String path(String template, Long id) {
+        return UriComponentsBuilder.fromPath(template).buildAndExpand(id).toUriString();
+    }
+
+    private static void close(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already broken off, nothing left to release
+        }
+    }
+
+    private record CachedResponse(String eTag, byte[] body) {
+    }
+}
@@ -0,0 +1,30 @@
+package org.bogacheva.training.view.cli.remote;
+
+import org.bogacheva.training.view.cli.commands.CommandType;
+import org.bogacheva.training.view.cli.execution.LocalOperations;
+import org.bogacheva.training.view.cli.validation.DefaultCommandValidator;
+import org.bogacheva.training.view.cli.validation.RestrictedCommandValidator;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Validates commands for a CLI connected to a server. Generating a dataset and profiling work on
+ * the database and JVM of the process they run in, which the REST API does not expose, so they
+ * are rejected here: a remote CLI has no {@link LocalOperations} to run them.
+ */
+@Component
+@Primary
+@Profile("remote")
+public class RemoteCommandValidator extends RestrictedCommandValidator {
+
+    public RemoteCommandValidator(DefaultCommandValidator validator) {
+        super(validator, Map.of(
+                CommandType.GENERATE_DATASET,
+                "'generate dataset' is not available in a remote CLI, run it on the server's own CLI",
+                CommandType.PROFILE,
+                "'profile' is not available in a remote CLI, use the server's jfr management endpoint"));
+    }
+}
@@ -0,0 +1,56 @@
+package org.bogacheva.training.view.cli.session;
+
+import org.bogacheva.training.translation.Translator;
+import org.bogacheva.training.view.cli.ShelveItView;
+import org.bogacheva.training.view.cli.commands.BaseCommand;
+import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
+
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * One interactive CLI session: prints the help text, then reads, translates and runs commands
+ * until the exit command or the end of the input. A failing command prints its error and the
+ * session goes on.
+ */
+public class CliSession {
+
+    private final ShelveItView view;
+    private final Translator<String, BaseCommand> translator;
+    private final Function<BaseCommand, CommandExecutionResult> commandRunner;
+
+    /**
+     * @param commandRunner runs a command and displays its result
+     */
+    public CliSession(ShelveItView view,
+                      Translator<String, BaseCommand> translator,
+                      Function<BaseCommand, CommandExecutionResult> commandRunner) {
+        this.view = view;
+        this.translator = translator;
+        this.commandRunner = commandRunner;
+    }
+
+    public void run() {
+        view.printHeader();
+        boolean exitRequested = false;
+
+        do {
+            String userInput;
+            try {
+                userInput = view.readCommand();
+            } catch (NoSuchElementException e) {
+                // End of input, as when the client disconnects
+                break;
+            }
+            try {
+                BaseCommand command = translator.translate(userInput);
+                CommandExecutionResult result = commandRunner.apply(command);
+                exitRequested = result.isShouldExit();
+            } catch (Exception e) {
+                view.printError(e.getMessage());
+            }
+        } while (!exitRequested);
+
+        view.printExit();
+    }
+}
@@ -0,0 +1,258 @@
+package org.bogacheva.training.view.cli.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bogacheva.training.translation.StringToCommandTranslator;
+import org.bogacheva.training.translation.Translator;
+import org.bogacheva.training.view.cli.DefaultShelveItView;
+import org.bogacheva.training.view.cli.ShelveItView;
+import org.bogacheva.training.view.cli.commands.BaseCommand;
+import org.bogacheva.training.view.cli.commands.CommandType;
+import org.bogacheva.training.view.cli.creation.CommandFactory;
+import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
+import org.bogacheva.training.view.cli.execution.CommandExecutor;
+import org.bogacheva.training.view.cli.formatting.ColumnarRenderer;
+import org.bogacheva.training.view.cli.formatting.DefaultOutputFormatter;
+import org.bogacheva.training.view.cli.formatting.OutputFormatter;
+import org.bogacheva.training.view.cli.formatting.Pager;
+import org.bogacheva.training.view.cli.help.HelpTextProvider;
+import org.bogacheva.training.view.cli.parsing.CommandParser;
+import org.bogacheva.training.view.cli.validation.CommandValidator;
+import org.bogacheva.training.view.cli.validation.RestrictedCommandValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves interactive CLI sessions to clients connecting over a Unix domain socket, or over a TCP
+ * port on the loopback interface when {@code shelveit.cli.sessions.port} is set. All sessions
+ * share the one application context, its connection pool and caches; each runs on its own
+ * virtual thread with its own prompt, view and output, so a slow listing in one session holds
+ * up no other.
+ * <p>
+ * At most {@code shelveit.cli.sessions.max} sessions are open at a time; a client beyond that is
+ * told so and disconnected. Session output is never paged, and ending the client, as with
+ * Ctrl-C in {@code socat}, ends its session.
+ * <p>
+ * Sessions are not authenticated: whoever can connect gets a CLI. The socket is therefore
+ * created in a directory that only the server's user can enter, and the server refuses to start
+ * when that directory is open to anyone else. The TCP port can be reached by every local user.
+ * Either way, {@code profile} and {@code generate dataset}, which write files and bulk data on
+ * the server, are not available in sessions.
+ */
+@Slf4j
+@Component
+@Profile("cli-server")
+public class CliSessionServer implements SmartLifecycle {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+    private static final Map<CommandType, String> UNAVAILABLE = Map.of(
+            CommandType.GENERATE_DATASET,
+            "'generate dataset' is not available in a CLI session, run it on the server's own CLI",
+            CommandType.PROFILE,
+            "'profile' is not available in a CLI session, use the server's jfr management endpoint");
+
+    private final Translator<String, BaseCommand> translator;
+    private final CommandExecutor commandExecutor;
+    private final HelpTextProvider helpTextProvider;
+    private final ColumnarRenderer renderer = new ColumnarRenderer('…');
+    private final Path socketPath;
+    private final int port;
+    private final int maxSessions;
+    private final Semaphore sessionPermits;
+    private final Set<SocketChannel> openSessions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private volatile ServerSocketChannel server;
+    private Thread acceptor;
+
+    public CliSessionServer(CommandParser commandParser,
+                            CommandValidator commandValidator,
+                            CommandFactory commandFactory,
+                            CommandExecutor commandExecutor,
+                            HelpTextProvider helpTextProvider,
+                            @Value("${shelveit.cli.sessions.socket:${java.io.tmpdir}/shelveit-${user.name}/cli.sock}") Path socketPath,
+                            @Value("${shelveit.cli.sessions.port:0}") int port,
+                            @Value("${shelveit.cli.sessions.max:64}") int maxSessions) {
+        this.translator = new StringToCommandTranslator(commandParser,
+                new RestrictedCommandValidator(commandValidator, UNAVAILABLE), commandFactory);
+        this.commandExecutor = commandExecutor;
+        this.helpTextProvider = helpTextProvider;
+        this.socketPath = socketPath;
+        this.port = port;
+        this.maxSessions = maxSessions;
+        this.sessionPermits = new Semaphore(maxSessions);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (isRunning()) {
+            return;
+        }
+        SocketAddress address;
+        try {
+            if (port > 0) {
+                address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+                server = ServerSocketChannel.open(StandardProtocolFamily.INET);
+            } else {
+                createPrivateDirectory(socketPath.toAbsolutePath().getParent());
+                // A socket file left behind by a server that did not shut down cleanly blocks the bind
+                Files.deleteIfExists(socketPath);
+                address = UnixDomainSocketAddress.of(socketPath);
+                server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            }
+            server.bind(address);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the CLI session server", e);
+        }
+        // A platform thread that is not a daemon keeps the application alive without a web server
+        acceptor = Thread.ofPlatform().name("cli-sessions").start(this::acceptSessions);
+        log.info("Serving CLI sessions on {}", address);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!isRunning()) {
+            return;
+        }
+        close(server);
+        openSessions.forEach(CliSessionServer::close);
+        try {
+            acceptor.join();
+            if (port <= 0) {
+                Files.deleteIfExists(socketPath);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not delete the CLI session socket {}", socketPath, e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null && server.isOpen();
+    }
+
+    /**
+     * @return the address sessions are served on, or {@code null} when not running
+     */
+    public SocketAddress getAddress() {
+        try {
+            return isRunning() ? server.getLocalAddress() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void acceptSessions() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("Could not accept a CLI session", e);
+                continue;
+            }
+            if (!sessionPermits.tryAcquire()) {
+                refuse(channel);
+                continue;
+            }
+            openSessions.add(channel);
+            Thread.ofVirtual()
+                    .name("cli-session-" + sessionCount.incrementAndGet())
+                    .start(() -> serve(channel));
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try (channel) {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(
+                    new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8), BUFFER_SIZE);
+            SessionConsole console = new SessionConsole(in, out);
+            ShelveItView view = new DefaultShelveItView(console, console, helpTextProvider);
+            OutputFormatter outputFormatter = new DefaultOutputFormatter(view, renderer, Pager.NONE, out);
+            new CliSession(view, translator, command -> {
+                CommandExecutionResult result = commandExecutor.execute(command);
+                outputFormatter.formatAndDisplay(result);
+                return result;
+            }).run();
+        } catch (IOException | UncheckedIOException e) {
+            // The client went away while the session was writing to it
+            log.debug("CLI session {} ended: {}", Thread.currentThread().getName(), e.getMessage());
+        } finally {
+            openSessions.remove(channel);
+            sessionPermits.release();
+        }
+    }
+
+    // Other users could otherwise connect, or swap the socket file for one of their own
+    private static void createPrivateDirectory(Path directory) throws IOException {
+        if (!directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory);
+            return;
+        }
+        if (Files.notExists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        }
+        UserPrincipal user = directory.getFileSystem().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)
+                || !Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS).equals(user)
+                || !OWNER_ONLY.containsAll(Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS))) {
+            throw new IOException("The CLI session socket must be in a directory that only " + user.getName()
+                    + " can access, which " + directory + " is not");
+        }
+    }
+
+    private void refuse(SocketChannel channel) {
+        try (channel) {
+            Writer out = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8);
+            out.write("Too many CLI sessions (" + maxSessions + "), try again later" + System.lineSeparator());
+            out.flush();
+        } catch (IOException e) {
+            // The client is gone already
+        }
+    }
+
+    private static void close(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already closed
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.bogacheva.training.view.cli.session;
+
+import org.bogacheva.training.view.cli.Printer;
+import org.bogacheva.training.view.cli.Reader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.NoSuchElementException;
+
+/**
+ * The console of a CLI session connected over a socket: prompts and messages are written to the
+ * client as UTF-8 text and flushed at once, and lines are read back without any line editing.
+ */
+public class SessionConsole implements Printer<String>, Reader<String> {
+
+    private final BufferedReader in;
+    private final Writer out;
+
+    public SessionConsole(BufferedReader in, Writer out) {
+        this.in = in;
+        this.out = out;
+    }
+
+    @Override
+    public void print(String text) {
+        write(text);
+    }
+
+    @Override
+    public void println(String text) {
+        write(text + System.lineSeparator());
+    }
+
+    /**
+     * @throws NoSuchElementException when the client has closed its end of the connection
+     */
+    @Override
+    public String read(String prompt) {
+        write(prompt);
+        String line;
+        try {
+            line = in.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read from the session", e);
+        }
+        if (line == null) {
+            throw new NoSuchElementException("No line found");
+        }
+        return line;
+    }
+
+    private void write(String text) {
+        try {
+            out.write(text);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write to the session", e);
+        }
+    }
+}
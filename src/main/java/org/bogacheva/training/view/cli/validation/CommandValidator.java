@@ -2,6 +2,8 @@ package org.bogacheva.training.view.cli.validation;
 
 import org.bogacheva.training.view.cli.parsing.ParsedCommand;
 
+import java.util.List;
+
 /**
  * Interface for validating command arguments.
  */
@@ -14,4 +16,12 @@ public interface CommandValidator {
      * @throws IllegalArgumentException if validation fails
      */
     void validate(ParsedCommand parsedCommand);
+
+    /**
+     * Validates the commands of a pipeline and how they are joined.
+     *
+     * @param parsedCommands the parsed commands, in pipeline order
+     * @throws IllegalArgumentException if validation fails
+     */
+    void validatePipeline(List<ParsedCommand> parsedCommands);
 }
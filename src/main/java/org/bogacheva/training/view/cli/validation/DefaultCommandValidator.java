@@ -1,10 +1,14 @@
 package org.bogacheva.training.view.cli.validation;
 
 import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.view.cli.commands.CommandType;
 import org.bogacheva.training.view.cli.parsing.ParsedCommand;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 @Component
@@ -12,26 +16,61 @@ public class DefaultCommandValidator implements CommandValidator {
     
     private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z0-9 ]+");
     private static final Pattern ID_PATTERN = Pattern.compile("\\d+");
+    private static final Set<String> PROFILE_SETTINGS = Set.of("default", "profile");
+    private static final Set<CommandType> PIPELINE_SOURCES = EnumSet.of(
+            CommandType.SEARCH_ITEM, CommandType.GET_ITEMS_BY_STORAGE, CommandType.GET_ITEMS_NEAR);
+    private static final String PIPELINE_EXAMPLE = "e.g. search item --keywords winter | move --to 42";
     
     @Override
     public void validate(ParsedCommand parsedCommand) {
-        String commandType = parsedCommand.commandType();
+        CommandType commandType = parsedCommand.commandType();
         Map<String, String> args = parsedCommand.arguments();
         
         switch (commandType) {
-            case "create storage" -> validateCreateStorage(args);
-            case "create item" -> validateCreateItem(args);
-            case "remove item", "remove storage", "get item", "get storage", 
-                 "list substorages", "get items by storage", "get items near", 
-                 "track storages" -> validateRequiredArgs(args, "id");
-            case "search item" -> validateSearchItem(args);
-            case "search storage" -> validateSearchStorage(args);
-            case "list storages", "list items", "exit", "help" -> {
+            case CREATE_STORAGE -> validateCreateStorage(args);
+            case CREATE_ITEM -> validateCreateItem(args);
+            case REMOVE_ITEM, REMOVE_STORAGE, GET_ITEM, GET_STORAGE,
+                 LIST_SUBSTORAGES, GET_ITEMS_BY_STORAGE, GET_ITEMS_NEAR,
+                 TRACK_STORAGES -> validateRequiredArgs(args, "id");
+            case TREE -> validateTree(args);
+            case SEARCH_ITEM -> validateSearchItem(args);
+            case SEARCH_STORAGE -> validateSearchStorage(args);
+            case PROFILE -> validateProfile(args);
+            case GENERATE_DATASET -> validateGenerateDataset(args);
+            case LIST_STORAGES, LIST_ITEMS, EXIT, HELP -> {
                 // No validation needed for these commands
             }
+            case MOVE, REMOVE_ITEMS -> throw new IllegalArgumentException("'" + commandType.getCommandName()
+                    + "' takes the items found by the command before it, " + PIPELINE_EXAMPLE);
             default -> throw new IllegalArgumentException("Unknown command type: " + commandType);
         }
     }
+
+    @Override
+    public void validatePipeline(List<ParsedCommand> parsedCommands) {
+        if (parsedCommands.size() != 2) {
+            throw new IllegalArgumentException(
+                    "A pipeline joins a command that finds items to one that changes them, " + PIPELINE_EXAMPLE);
+        }
+        ParsedCommand source = parsedCommands.get(0);
+        if (!PIPELINE_SOURCES.contains(source.commandType())) {
+            throw new IllegalArgumentException("'" + source.commandType().getCommandName()
+                    + "' cannot start a pipeline, use search item, get items by storage or get items near");
+        }
+        validate(source);
+        ParsedCommand target = parsedCommands.get(1);
+        switch (target.commandType()) {
+            case MOVE -> {
+                validateRequiredArgs(target.arguments(), "to");
+                validateId(target.arguments().get("to"));
+            }
+            case REMOVE_ITEMS -> {
+                // Takes nothing but the items
+            }
+            default -> throw new IllegalArgumentException("'" + target.commandType().getCommandName()
+                    + "' cannot take items from a pipe, use move or remove items");
+        }
+    }
     
     private void validateCreateStorage(Map<String, String> args) {
         validateRequiredArgs(args, "type", "name");
@@ -72,6 +111,38 @@ public class DefaultCommandValidator implements CommandValidator {
         }
     }
     
+    private void validateTree(Map<String, String> args) {
+        validateRequiredArgs(args, "id");
+        validateId(args.get("id"));
+        if (args.containsKey("depth") && !ID_PATTERN.matcher(args.get("depth")).matches()) {
+            throw new IllegalArgumentException("Invalid depth: " + args.get("depth"));
+        }
+    }
+
+    private void validateProfile(Map<String, String> args) {
+        if (args.containsKey("seconds") && !ID_PATTERN.matcher(args.get("seconds")).matches()) {
+            throw new IllegalArgumentException("Invalid number of seconds: " + args.get("seconds"));
+        }
+        if (args.containsKey("settings") && !PROFILE_SETTINGS.contains(args.get("settings").toLowerCase())) {
+            throw new IllegalArgumentException("Invalid settings: " + args.get("settings"));
+        }
+        if (args.containsKey("file") && args.get("file").isBlank()) {
+            throw new IllegalArgumentException("Missing file name for --file");
+        }
+    }
+
+    private void validateGenerateDataset(Map<String, String> args) {
+        validateRequiredArgs(args, "items");
+        for (String count : List.of("items", "seed", "residences", "depth")) {
+            if (args.containsKey(count) && !ID_PATTERN.matcher(args.get(count)).matches()) {
+                throw new IllegalArgumentException("Invalid number for --" + count + ": " + args.get(count));
+            }
+        }
+        if (args.containsKey("residences") && Long.parseLong(args.get("residences")) == 0) {
+            throw new IllegalArgumentException("At least one residence is required");
+        }
+    }
+
     private void validateType(String storageType) {
         try {
             StorageType.of(storageType.toUpperCase());
@@ -0,0 +1,45 @@
+package org.bogacheva.training.view.cli.validation;
+
+import org.bogacheva.training.view.cli.commands.CommandType;
+import org.bogacheva.training.view.cli.parsing.ParsedCommand;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rejects the commands that are not available where the CLI runs, each with an explanation,
+ * and leaves the validation of all other commands to another validator.
+ */
+public class RestrictedCommandValidator implements CommandValidator {
+
+    private final CommandValidator validator;
+    private final Map<CommandType, String> unavailable;
+
+    /**
+     * @param validator validates the available commands
+     * @param unavailable the commands to reject, with the error message shown for each
+     */
+    public RestrictedCommandValidator(CommandValidator validator, Map<CommandType, String> unavailable) {
+        this.validator = validator;
+        this.unavailable = Map.copyOf(unavailable);
+    }
+
+    @Override
+    public void validate(ParsedCommand parsedCommand) {
+        rejectUnavailable(parsedCommand);
+        validator.validate(parsedCommand);
+    }
+
+    @Override
+    public void validatePipeline(List<ParsedCommand> parsedCommands) {
+        parsedCommands.forEach(this::rejectUnavailable);
+        validator.validatePipeline(parsedCommands);
+    }
+
+    private void rejectUnavailable(ParsedCommand parsedCommand) {
+        String message = unavailable.get(parsedCommand.commandType());
+        if (message != null) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+}
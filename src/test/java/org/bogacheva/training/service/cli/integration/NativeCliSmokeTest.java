@@ -0,0 +1,80 @@
+package org.bogacheva.training.service.cli.integration;
+
+import org.bogacheva.training.service.testdb.AbstractPostgresIT;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs scripted sessions against the native CLI executable, whose path is given in the
+ * {@code shelveit.native.executable} system property. The {@code cli-native} build profile sets it
+ * after building the executable; without it these tests are skipped.
+ */
+@EnabledIfSystemProperty(named = NativeCliSmokeTest.EXECUTABLE, matches = ".+")
+class NativeCliSmokeTest extends AbstractPostgresIT {
+
+    static final String EXECUTABLE = "shelveit.native.executable";
+
+    @Test
+    @DisplayName("Help texts are read from the image resources")
+    void help_printsCommandHelp() throws Exception {
+        String output = runSession("help create item", "exit");
+
+        assertTrue(output.contains("Welcome to the ShelveIt App!"), output);
+        assertTrue(output.contains("CREATE ITEM"), output);
+        assertTrue(output.contains("Keeping an eye on your things! Good bye!"), output);
+    }
+
+    @Test
+    @DisplayName("Storages and items are created, mapped and found through the database")
+    void createAndSearch_roundTripsThroughDatabase() throws Exception {
+        String output = runSession(
+                "create storage --type RESIDENCE --name Home",
+                "create item --name \"Winter boots\" --storage 1 --keywords winter,shoes",
+                "search item --keywords winter",
+                "track storages --id 1",
+                "exit");
+
+        assertTrue(output.contains("Created storage:"), output);
+        assertTrue(output.contains("Created item:"), output);
+        // Once when created and once when found
+        assertEquals(2, output.split("Winter boots", -1).length - 1, output);
+        assertFalse(output.contains("was not found"), output);
+    }
+
+    @Test
+    @DisplayName("A missing item is reported and the session carries on")
+    void getMissingItem_printsErrorAndContinues() throws Exception {
+        String output = runSession("get item --id 42", "list storages", "exit");
+
+        assertTrue(output.contains("Item with ID: 42 was not found."), output);
+        assertTrue(output.contains("Keeping an eye on your things! Good bye!"), output);
+    }
+
+    private static String runSession(String... lines) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(List.of(System.getProperty(EXECUTABLE),
+                "--spring.profiles.active=cli",
+                "--spring.datasource.url=" + postgres.getJdbcUrl(),
+                "--spring.datasource.username=" + postgres.getUsername(),
+                "--spring.datasource.password=" + postgres.getPassword(),
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--logging.level.root=WARN"))
+                .redirectErrorStream(true)
+                .start();
+        try (OutputStream input = process.getOutputStream()) {
+            input.write((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(process.waitFor(1, TimeUnit.MINUTES), output);
+        assertEquals(0, process.exitValue(), output);
+        return output;
+    }
+}
@@ -0,0 +1,194 @@
+package org.bogacheva.training.service.cli.unit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.bogacheva.training.exceptions.ItemNotFoundException;
+import org.bogacheva.training.translation.StringToCommandTranslator;
+import org.bogacheva.training.view.cli.batch.BatchCommandProcessor;
+import org.bogacheva.training.view.cli.batch.BatchSummary;
+import org.bogacheva.training.view.cli.commands.BaseCommand;
+import org.bogacheva.training.view.cli.commands.BrokenCommand;
+import org.bogacheva.training.view.cli.commands.ExitCommand;
+import org.bogacheva.training.view.cli.commands.ListItemsCommand;
+import org.bogacheva.training.view.cli.commands.RemoveItemCommand;
+import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
+import org.bogacheva.training.view.cli.execution.CommandExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchCommandProcessorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private StringToCommandTranslator translator;
+
+    @Mock
+    private CommandExecutor executor;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private BatchCommandProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        processor = new BatchCommandProcessor(translator, executor, transactionManager, objectMapper, 3);
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        lenient().when(translator.translate(anyString())).thenAnswer(invocation -> command(invocation.getArgument(0)));
+        lenient().when(executor.execute(any(RemoveItemCommand.class)))
+                .thenReturn(new CommandExecutionResult(false, "Item deleted successfully"));
+    }
+
+    @Test
+    @DisplayName("Consecutive mutating commands share a transaction of at most max-group-size commands")
+    void process_consecutiveMutations_areGroupedIntoTransactions() throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+
+        BatchSummary summary = run("""
+                # clean up
+                remove item --id 1
+                remove item --id 2
+
+                remove item --id 3
+                remove item --id 4
+                """, lines);
+
+        verify(transactionManager, times(2)).commit(any());
+        verify(transactionManager, never()).rollback(any());
+        assertEquals(4, summary.commands());
+        assertEquals(0, summary.failed());
+        assertEquals(2, summary.transactions());
+        assertEquals(List.of(2, 3, 5, 6), lines.stream().map(line -> line.get("line").asInt()).toList());
+        assertEquals("ok", lines.get(0).get("status").asText());
+        assertEquals("Item deleted successfully", lines.get(0).get("message").asText());
+    }
+
+    @Test
+    @DisplayName("A failing command rolls back its group, which is replayed one command at a time")
+    void process_failureInGroup_replaysCommandsIndividually() throws Exception {
+        when(executor.execute(argThat(command -> command instanceof RemoveItemCommand remove && remove.getId() == 2L)))
+                .thenThrow(new ItemNotFoundException(2L));
+        List<JsonNode> lines = new ArrayList<>();
+
+        BatchSummary summary = run("""
+                remove item --id 1
+                remove item --id 2
+                remove item --id 3
+                """, lines);
+
+        verify(transactionManager).rollback(any());
+        verify(executor, times(2)).execute(argThat(command -> command instanceof RemoveItemCommand remove && remove.getId() == 1L));
+        assertEquals(1, summary.failed());
+        assertEquals(List.of("ok", "error", "ok"), lines.stream().map(line -> line.get("status").asText()).toList());
+        assertEquals("Item with ID: 2 was not found.", lines.get(1).get("error").asText());
+    }
+
+    @Test
+    @DisplayName("Queries end the current group, run on their own, and exit stops the script")
+    void process_queryAndExit_flushGroupAndStop() throws Exception {
+        when(executor.execute(any(ListItemsCommand.class))).thenReturn(new CommandExecutionResult(List.of("Box"), false));
+        List<JsonNode> lines = new ArrayList<>();
+
+        BatchSummary summary = run("""
+                remove item --id 1
+                list items
+                bogus
+                exit
+                remove item --id 2
+                """, lines);
+
+        verify(transactionManager, times(1)).commit(any());
+        assertTrue(summary.exitRequested());
+        assertEquals(3, summary.commands());
+        assertEquals(1, summary.failed());
+        assertEquals("Box", lines.get(1).get("data").get(0).asText());
+        assertEquals("Unknown command", lines.get(2).get("error").asText());
+        verify(executor, never()).execute(argThat(command -> command instanceof RemoveItemCommand remove && remove.getId() == 2L));
+    }
+
+    @Test
+    @DisplayName("The data of a result is closed once its line has been written")
+    void process_resultData_isClosedAfterWriting() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(executor.execute(any(ListItemsCommand.class)))
+                .thenReturn(new CommandExecutionResult(Stream.of("Box").onClose(() -> closed.set(true)), false));
+        List<JsonNode> lines = new ArrayList<>();
+
+        run("list items\n", lines);
+
+        List<String> fields = new ArrayList<>();
+        lines.get(0).fieldNames().forEachRemaining(fields::add);
+        assertEquals(List.of("line", "command", "status", "data"), fields);
+        assertEquals("Box", lines.get(0).get("data").get(0).asText());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @DisplayName("The data of a result is closed when its line cannot be written")
+    void process_writeFailure_closesResultData() {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(executor.execute(any(ListItemsCommand.class)))
+                .thenReturn(new CommandExecutionResult(Stream.of("Box").onClose(() -> closed.set(true)), false));
+        Writer broken = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThrows(IOException.class,
+                () -> processor.process(new BufferedReader(new StringReader("list items\n")), broken));
+        assertTrue(closed.get());
+    }
+
+    private BatchSummary run(String script, List<JsonNode> lines) throws Exception {
+        StringWriter output = new StringWriter();
+        BatchSummary summary = processor.process(new BufferedReader(new StringReader(script)), output);
+        for (String line : output.toString().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return summary;
+    }
+
+    private static BaseCommand command(String text) {
+        if (text.startsWith("remove item --id ")) {
+            return new RemoveItemCommand(Long.parseLong(text.substring("remove item --id ".length())));
+        }
+        return switch (text) {
+            case "list items" -> new ListItemsCommand();
+            case "exit" -> new ExitCommand();
+            default -> new BrokenCommand("Unknown command");
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package org.bogacheva.training.service.cli.unit;
+
+import org.bogacheva.training.exceptions.ItemNotFoundException;
+import org.bogacheva.training.monitoring.ActiveStatements;
+import org.bogacheva.training.view.cli.commands.ListItemsCommand;
+import org.bogacheva.training.view.cli.execution.CancellableCommandRunner;
+import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
+import org.bogacheva.training.view.cli.execution.CommandExecutor;
+import org.bogacheva.training.view.cli.execution.Interrupts;
+import org.bogacheva.training.view.cli.formatting.OutputFormatter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CancellableCommandRunnerTest {
+
+    @Mock
+    private CommandExecutor executor;
+
+    @Mock
+    private OutputFormatter formatter;
+
+    @Mock
+    private ActiveStatements activeStatements;
+
+    private final CapturingInterrupts interrupts = new CapturingInterrupts();
+
+    private CancellableCommandRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new CancellableCommandRunner(executor, formatter, activeStatements, interrupts, false);
+    }
+
+    @Test
+    @DisplayName("The result of a command is displayed and returned, and the interrupt handler removed")
+    void run_completedCommand_displaysResult() {
+        CommandExecutionResult result = new CommandExecutionResult(List.of("row"), false, "Items:");
+        when(executor.execute(any())).thenReturn(result);
+
+        assertSame(result, runner.run(new ListItemsCommand()));
+
+        ArgumentCaptor<CommandExecutionResult> displayed = ArgumentCaptor.forClass(CommandExecutionResult.class);
+        verify(formatter).formatAndDisplay(displayed.capture());
+        assertEquals("Items:", displayed.getValue().getMessage());
+        assertEquals(List.of("row"), displayed.getValue().getData().toList());
+        assertTrue(interrupts.closed);
+    }
+
+    @Test
+    @DisplayName("An exception thrown by a command reaches the caller as it is")
+    void run_failingCommand_rethrowsCause() {
+        when(executor.execute(any())).thenThrow(new ItemNotFoundException(7L));
+
+        assertThrows(ItemNotFoundException.class, () -> runner.run(new ListItemsCommand()));
+
+        verifyNoInteractions(formatter);
+    }
+
+    @Test
+    @DisplayName("An interrupt cancels the running statement and returns without output")
+    void run_interrupted_cancelsStatement() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch statementCancelled = new CountDownLatch(1);
+        when(executor.execute(any())).thenAnswer(invocation -> {
+            started.countDown();
+            // Stands for a query that fails in the driver once its statement is cancelled
+            if (statementCancelled.await(1, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Query cancelled");
+            }
+            return new CommandExecutionResult(false);
+        });
+        when(activeStatements.cancel(any(Thread.class))).thenAnswer(invocation -> {
+            statementCancelled.countDown();
+            return true;
+        });
+        Thread.ofVirtual().start(() -> {
+            try {
+                started.await();
+                interrupts.fire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        CancellationException thrown =
+                assertThrows(CancellationException.class, () -> runner.run(new ListItemsCommand()));
+
+        assertEquals("Command cancelled", thrown.getMessage());
+        verify(activeStatements).cancel(argThat(thread -> thread.getName().equals("cli-list-items")));
+        verifyNoInteractions(formatter);
+    }
+
+    private static class CapturingInterrupts implements Interrupts {
+
+        private final CountDownLatch registered = new CountDownLatch(1);
+        private volatile Runnable action;
+        private volatile boolean closed;
+
+        @Override
+        public Registration onInterrupt(Runnable action) {
+            this.action = action;
+            registered.countDown();
+            return () -> closed = true;
+        }
+
+        // The command may start before the runner has registered its handler
+        void fire() throws InterruptedException {
+            registered.await();
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.bogacheva.training.service.cli.unit;
+
+import org.bogacheva.training.CliRuntimeHints;
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.sync.SyncChange;
+import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.mapper.StorageMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CliRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new CliRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Every help text is included as a resource")
+    void registerHints_includesAllHelpTexts() throws IOException {
+        Resource[] helpTexts = new PathMatchingResourcePatternResolver().getResources("classpath:help/*.txt");
+
+        assertTrue(helpTexts.length > 0);
+        for (Resource helpText : helpTexts) {
+            String location = "help/" + helpText.getFilename();
+            assertTrue(RuntimeHintsPredicates.resource().forResource(location).test(hints), location);
+        }
+    }
+
+    @Test
+    @DisplayName("Entities can be instantiated and populated reflectively")
+    void registerHints_registersEntities() {
+        for (Class<?> entity : new Class<?>[]{Item.class, Storage.class, SyncChange.class}) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(entity)
+                    .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                    .test(hints), entity.getName());
+        }
+    }
+
+    @Test
+    @DisplayName("The generated mapper implementations are registered and exist")
+    void registerHints_registersMapperImplementations() {
+        for (Class<?> mapper : new Class<?>[]{ItemMapper.class, StorageMapper.class}) {
+            String implementation = mapper.getName() + "Impl";
+            assertDoesNotThrow(() -> Class.forName(implementation));
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(implementation))
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                    .test(hints), implementation);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.bogacheva.training.service.cli.unit;
+
+import org.bogacheva.training.view.cli.commands.BrokenCommand;
+import org.bogacheva.training.view.cli.commands.ExitCommand;
+import org.bogacheva.training.view.cli.commands.ListItemsCommand;
+import org.bogacheva.training.view.cli.commands.ListStoragesCommand;
+import org.bogacheva.training.view.cli.creation.CommandFactory;
+import org.bogacheva.training.view.cli.execution.CommandExecutionResult;
+import org.bogacheva.training.view.cli.execution.CommandExecutor;
+import org.bogacheva.training.view.cli.help.HelpTextProvider;
+import org.bogacheva.training.view.cli.parsing.DefaultCommandParser;
+import org.bogacheva.training.view.cli.parsing.ParsedCommand;
+import org.bogacheva.training.view.cli.session.CliSessionServer;
+import org.bogacheva.training.view.cli.validation.DefaultCommandValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CliSessionServerTest {
+
+    @Mock
+    private CommandFactory factory;
+
+    @Mock
+    private CommandExecutor executor;
+
+    @Mock
+    private HelpTextProvider helpTextProvider;
+
+    @TempDir
+    private Path dir;
+
+    private Path socket;
+    private CliSessionServer server;
+
+    @BeforeEach
+    void setUp() {
+        socket = dir.resolve("sessions").resolve("cli.sock");
+        when(helpTextProvider.getHelpText()).thenReturn("ShelveIt help");
+        when(factory.createCommand(any())).thenAnswer(invocation -> switch (((ParsedCommand) invocation.getArgument(0)).commandType()) {
+            case LIST_ITEMS -> new ListItemsCommand();
+            case LIST_STORAGES -> new ListStoragesCommand();
+            case EXIT -> new ExitCommand();
+            default -> throw new IllegalArgumentException("Unknown command");
+        });
+        when(executor.execute(any(BrokenCommand.class))).thenAnswer(invocation -> new CommandExecutionResult(false,
+                "Broken command: " + ((BrokenCommand) invocation.getArgument(0)).getErrorMessage()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Sessions run side by side, each with its own prompt and output")
+    void sessions_runConcurrently() throws Exception {
+        CountDownLatch storagesListed = new CountDownLatch(1);
+        when(executor.execute(any())).thenAnswer(invocation -> switch (invocation.getArgument(0)) {
+            case ListItemsCommand ignored -> {
+                // Only finishes when the other session gets its turn meanwhile
+                assertTrue(storagesListed.await(5, TimeUnit.SECONDS));
+                yield new CommandExecutionResult(List.of("Torch"), false);
+            }
+            case ListStoragesCommand ignored -> {
+                storagesListed.countDown();
+                yield new CommandExecutionResult(List.of("Garage"), false);
+            }
+            default -> new CommandExecutionResult(true);
+        });
+        start(64);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> session("list items\nexit\n"));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> session("list storages\nexit\n"));
+
+        String items = first.get(10, TimeUnit.SECONDS);
+        String storages = second.get(10, TimeUnit.SECONDS);
+        assertTrue(items.startsWith("ShelveIt help"), items);
+        assertTrue(items.contains("> Torch"), items);
+        assertFalse(items.contains("Garage"), items);
+        assertTrue(storages.contains("> Garage"), storages);
+        assertTrue(storages.endsWith("Keeping an eye on your things! Good bye!"), storages);
+    }
+
+    @Test
+    @DisplayName("A failing command prints its error, and the end of input ends the session")
+    void session_failingCommandAndEndOfInput() {
+        start(64);
+
+        String output = session("unknown\n");
+
+        assertTrue(output.contains("> Broken command: Unknown command 'unknown'"), output);
+        assertTrue(output.endsWith("> Keeping an eye on your things! Good bye!"), output);
+    }
+
+    @Test
+    @DisplayName("Profiling and generating a dataset are not available in a session")
+    void session_serverSideCommands_areRejected() {
+        start(64);
+
+        String output = session("generate dataset --items 100\nprofile --seconds 5\n");
+
+        assertTrue(output.contains("> Broken command: 'generate dataset' is not available in a CLI session"), output);
+        assertTrue(output.contains("> Broken command: 'profile' is not available in a CLI session"), output);
+    }
+
+    @Test
+    @DisplayName("The socket is created in a directory only its owner can access")
+    void start_createsPrivateSocketDirectory() throws IOException {
+        start(64);
+
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socket.getParent())));
+    }
+
+    @Test
+    @DisplayName("The server does not start when others can access the socket directory")
+    void start_sharedSocketDirectory_isRefused() throws IOException {
+        Files.createDirectories(socket.getParent());
+        Files.setPosixFilePermissions(socket.getParent(), PosixFilePermissions.fromString("rwxrwxrwx"));
+        Files.createFile(socket);
+
+        assertThrows(UncheckedIOException.class, () -> start(64));
+        assertTrue(Files.exists(socket));
+    }
+
+    @Test
+    @DisplayName("A client beyond the session limit is told so and disconnected")
+    void sessions_beyondLimit_areRefused() throws IOException {
+        start(1);
+
+        try (SocketChannel open = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            BufferedReader header = reader(open);
+            assertEquals("ShelveIt help", header.readLine());
+
+            assertEquals("Too many CLI sessions (1), try again later", session(""));
+        }
+    }
+
+    @Test
+    @DisplayName("Stopping the server removes its socket file")
+    void stop_deletesSocket() {
+        start(64);
+        assertTrue(Files.exists(socket));
+
+        server.stop();
+
+        assertFalse(server.isRunning());
+        assertFalse(Files.exists(socket));
+    }
+
+    private void start(int maxSessions) {
+        server = new CliSessionServer(new DefaultCommandParser(), new DefaultCommandValidator(), factory,
+                executor, helpTextProvider, socket, 0, maxSessions);
+        server.start();
+    }
+
+    private String session(String input) {
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socket))) {
+            channel.write(StandardCharsets.UTF_8.encode(input));
+            channel.shutdownOutput();
+            return reader(channel).lines().collect(Collectors.joining("\n"));
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static BufferedReader reader(SocketChannel channel) {
+        return new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+package org.bogacheva.training.service.cli.unit;
+
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
+import org.bogacheva.training.view.cli.formatting.ColumnarRenderer;
+import org.bogacheva.training.view.cli.formatting.Pager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarRendererTest {
+
+    private final ColumnarRenderer renderer = new ColumnarRenderer('…');
+
+    @Test
+    @DisplayName("Items are written as columns sized to their values, under a header")
+    void render_items_alignsColumns() throws Exception {
+        StorageDTO drawer = StorageDTO.builder().id(7L).build();
+        Stream<ItemDTO> items = Stream.of(
+                ItemDTO.builder().id(1L).name("Scissors").storage(drawer).keywords(List.of("tools", "paper")).build(),
+                ItemDTO.builder().id(12L).name("Tape").storage(null).keywords(List.of()).build());
+        StringWriter out = new StringWriter();
+
+        long written = renderer.render(items, out, Pager.NONE);
+
+        assertEquals(2, written);
+        assertEquals("""
+                ID  NAME      STORAGE  KEYWORDS
+                 1  Scissors        7  tools, paper
+                12  Tape            -  -
+                """, out.toString());
+    }
+
+    @Test
+    @DisplayName("After the sample, longer text is cut short while longer numbers widen their column")
+    void render_valuesLongerThanSample_truncateTextAndWidenNumbers() throws Exception {
+        Stream<StorageDTO> storages = LongStream.rangeClosed(1, 101).mapToObj(id -> StorageDTO.builder()
+                .id(id == 101 ? 1000 : id)
+                .name(id == 101 ? "Garage cabinet" : "Shelf")
+                .type(StorageType.FURNITURE)
+                .build());
+        StringWriter out = new StringWriter();
+
+        renderer.render(storages, out, Pager.NONE);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(102, lines.length);
+        assertEquals(" ID  NAME   TYPE       PARENT", lines[0]);
+        assertEquals("1000  Gara…  FURNITURE       -", lines[101]);
+    }
+
+    @Test
+    @DisplayName("Tree nodes are indented below their parents, noting sub-storages left out by the depth")
+    void render_treeNodes_indentsByDepth() throws Exception {
+        Stream<StorageTreeNodeDTO> nodes = Stream.of(
+                node(1L, "Home", StorageType.RESIDENCE, 0, 0, 2),
+                node(2L, "Kitchen", StorageType.ROOM, 1, 3, 1),
+                node(4L, "Fridge", StorageType.FURNITURE, 2, 1, 2),
+                node(3L, "Bedroom", StorageType.ROOM, 1, 0, 0));
+        StringWriter out = new StringWriter();
+
+        long written = renderer.render(nodes, out, Pager.NONE);
+
+        assertEquals(4, written);
+        assertEquals("""
+                Home  #1 RESIDENCE, 0 items
+                  Kitchen  #2 ROOM, 3 items
+                    Fridge  #4 FURNITURE, 1 item, 2 sub-storages not shown
+                  Bedroom  #3 ROOM, 0 items
+                """, out.toString());
+    }
+
+    @Test
+    @DisplayName("Output pauses after each page and stops reading the stream when the pager says so")
+    void render_pagerStops_leavesRestOfStreamUnread() throws Exception {
+        AtomicInteger read = new AtomicInteger();
+        AtomicInteger pauses = new AtomicInteger();
+        Stream<Long> ids = LongStream.rangeClosed(1, 1_000).boxed().peek(id -> read.incrementAndGet());
+        Pager pager = new Pager() {
+            @Override
+            public int pageSize() {
+                return 10;
+            }
+
+            @Override
+            public Continuation more() {
+                return pauses.incrementAndGet() < 2 ? Continuation.NEXT_PAGE : Continuation.STOP;
+            }
+        };
+        StringWriter out = new StringWriter();
+
+        long written = renderer.render(ids, out, pager);
+
+        assertEquals(20, written);
+        assertEquals(2, pauses.get());
+        assertTrue(read.get() <= 21, "read " + read.get() + " rows");
+        assertTrue(out.toString().startsWith("1\n2\n"));
+    }
+
+    private static StorageTreeNodeDTO node(Long id, String name, StorageType type, int depth,
+                                           long itemCount, long storageCount) {
+        return StorageTreeNodeDTO.builder().id(id).name(name).type(type).depth(depth)
+                .itemCount(itemCount).storageCount(storageCount).build();
+    }
+}
@@ -0,0 +1,128 @@
+package org.bogacheva.training.service.cli.unit;
+
+import org.bogacheva.training.service.completion.NameIndex;
+import org.bogacheva.training.service.completion.PrefixIndex;
+import org.bogacheva.training.view.cli.completion.CommandCompleter;
+import org.bogacheva.training.view.cli.completion.NameCompletionMatcher;
+import org.jline.reader.Candidate;
+import org.jline.reader.CompletingParsedLine;
+import org.jline.reader.Parser;
+import org.jline.reader.impl.DefaultParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CommandCompleterTest {
+
+    @Mock
+    private NameIndex nameIndex;
+
+    private final PrefixIndex items = new PrefixIndex();
+    private final PrefixIndex storages = new PrefixIndex();
+    private final DefaultParser parser = new DefaultParser();
+    private CommandCompleter completer;
+
+    @BeforeEach
+    void setUp() {
+        parser.setQuoteChars(new char[]{'"'});
+        parser.setEscapeChars(null);
+        items.put(12, "Scissors");
+        items.put(13, "Screwdriver");
+        storages.put(3, "Box 4");
+        storages.put(4, "Garage");
+        when(nameIndex.items()).thenReturn(items);
+        when(nameIndex.storages()).thenReturn(storages);
+        completer = new CommandCompleter(new StaticListableBeanFactory(Map.of("nameIndex", nameIndex))
+                .getBeanProvider(NameIndex.class));
+    }
+
+    @Test
+    @DisplayName("Command words are completed word by word, also after help")
+    void complete_commandWords() {
+        List<String> first = values(complete(""));
+        assertTrue(first.containsAll(List.of("create", "get", "list", "help", "exit")), first.toString());
+        assertFalse(first.contains("broken"));
+        assertEquals(List.of("by", "near"), values(complete("get items ")));
+        assertEquals(List.of("item", "items", "storage"), values(complete("help get ")).stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Options of the typed command are offered, except those already given")
+    void complete_options() {
+        assertEquals(List.of("--storage", "--keywords"), values(complete("create item --name Box --")));
+        assertEquals(List.of("RESIDENCE", "ROOM", "FURNITURE", "UNIT"), values(complete("search storage --type ")));
+        assertEquals(List.of("--to"), values(complete("search item --name Box | move --")));
+    }
+
+    @Test
+    @DisplayName("ID options complete a typed name to the IDs of the matching items or storages")
+    void complete_idOption_offersIdsByName() {
+        List<Candidate> itemIds = complete("remove item --id sc");
+        assertEquals(List.of("12", "13"), values(itemIds));
+        assertEquals("Scissors", itemIds.getFirst().descr());
+
+        assertEquals(List.of("4"), values(complete("create item --name Tape --storage gar")));
+        assertEquals(List.of("4"), values(complete("search item --keywords tools | move --to gar")));
+    }
+
+    @Test
+    @DisplayName("Name options complete names, quoted when they contain spaces unless a quote is open")
+    void complete_nameOption_offersQuotedNames() {
+        assertEquals(List.of("\"Box 4\""), values(complete("search storage --name bo")));
+        assertEquals(List.of("Box 4"), values(complete("search storage --name \"bo")));
+        assertEquals(List.of("Scissors"), values(complete("search item --name scis")));
+    }
+
+    @Test
+    @DisplayName("Without a name index, as when connected to a server, commands and options are still completed")
+    void complete_withoutNameIndex_skipsNames() {
+        completer = new CommandCompleter(new StaticListableBeanFactory().getBeanProvider(NameIndex.class));
+
+        completer.refreshNames();
+        assertEquals(List.of(), values(complete("remove item --id sc")));
+        assertEquals(List.of("--storage", "--keywords"), values(complete("create item --name Box --")));
+        assertEquals(List.of("RESIDENCE", "ROOM", "FURNITURE", "UNIT"), values(complete("search storage --type ")));
+    }
+
+    @Test
+    @DisplayName("The matcher keeps name candidates as they are and matches the others on their value")
+    void matcher_keepsNameCandidates() {
+        NameCompletionMatcher matcher = new NameCompletionMatcher();
+
+        matcher.compile(Map.of(), false, parsed("remove item --id sc"), true, 0, null);
+        assertEquals(List.of("12", "13"), values(matcher.matches(complete("remove item --id sc"))));
+        assertEquals("", matcher.getCommonPrefix());
+
+        matcher.compile(Map.of(), false, parsed("list s"), true, 0, null);
+        assertEquals(List.of("storages", "substorages"), values(matcher.matches(complete("list s"))));
+    }
+
+    private List<Candidate> complete(String line) {
+        List<Candidate> candidates = new ArrayList<>();
+        completer.complete(null, parsed(line), candidates);
+        return candidates;
+    }
+
+    private CompletingParsedLine parsed(String line) {
+        return (CompletingParsedLine) parser.parse(line, line.length(), Parser.ParseContext.COMPLETE);
+    }
+
+    private static List<String> values(List<Candidate> candidates) {
+        return candidates.stream().map(Candidate::value).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package org.bogacheva.training.service.cli.unit;
+
+import org.bogacheva.training.view.cli.commands.CommandType;
+import org.bogacheva.training.view.cli.parsing.CommandSyntaxException;
+import org.bogacheva.training.view.cli.parsing.DefaultCommandParser;
+import org.bogacheva.training.view.cli.parsing.ParsedCommand;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultCommandParserTest {
+
+    private final DefaultCommandParser parser = new DefaultCommandParser();
+
+    @ParameterizedTest
+    @EnumSource(value = CommandType.class, names = "BROKEN", mode = EnumSource.Mode.EXCLUDE)
+    @DisplayName("Every command type is recognised by its name")
+    void parse_commandName_resolvesCommandType(CommandType type) {
+        assertEquals(type, parser.parse(type.getCommandName()).commandType());
+    }
+
+    @Test
+    @DisplayName("Command words match case-insensitively across any whitespace, preferring the longest command")
+    void parse_multiWordCommands_matchLongestCommand() {
+        assertEquals(CommandType.GET_ITEM, parser.parse("get item --id 3").commandType());
+        assertEquals(CommandType.GET_ITEMS_NEAR, parser.parse("  GET   Items\tnear --id 3").commandType());
+
+        ParsedCommand parsed = parser.parse("get items by storage --id 10");
+
+        assertEquals(CommandType.GET_ITEMS_BY_STORAGE, parsed.commandType());
+        assertEquals(Map.of("id", "10"), parsed.arguments());
+    }
+
+    @Test
+    @DisplayName("Option values span words up to the next option, and quotes keep their content together")
+    void parse_options_collectValues() {
+        ParsedCommand parsed = parser.parse(
+                "create item --NAME box  with   buttons --storage 5 --keywords \"sewing, craft\" --empty");
+
+        assertEquals(Map.of(
+                "name", "box with buttons",
+                "storage", "5",
+                "keywords", "sewing, craft",
+                "empty", ""), parsed.arguments());
+        assertNull(parsed.operand());
+    }
+
+    @Test
+    @DisplayName("Words after help name the command to describe")
+    void parse_help_keepsOperand() {
+        assertEquals("get items by storage", parser.parse("help get  items by storage").operand());
+        assertNull(parser.parse("help").operand());
+    }
+
+    @Test
+    @DisplayName("Syntax errors report where in the line parsing stopped")
+    void parse_invalidInput_reportsPosition() {
+        assertEquals(0, positionOf("shelve item"));
+        assertEquals(4, positionOf("get itemz --id 1"));
+        assertEquals(10, positionOf("get items --id 1"));
+        assertEquals(11, positionOf("list items box"));
+        assertEquals(19, positionOf("create item --name \"box"));
+        assertEquals(2, positionOf("  "));
+
+        CommandSyntaxException incomplete = assertThrows(CommandSyntaxException.class, () -> parser.parse("get items"));
+        assertTrue(incomplete.getMessage().contains("expected by, near"), incomplete.getMessage());
+    }
+
+    @Test
+    @DisplayName("A pipeline splits into its commands at every unquoted bar")
+    void parsePipeline_splitsStages() {
+        List<ParsedCommand> stages = parser.parsePipeline("search item --name \"a|b\" --keywords winter|move --to 42");
+
+        assertEquals(List.of(CommandType.SEARCH_ITEM, CommandType.MOVE),
+                stages.stream().map(ParsedCommand::commandType).toList());
+        assertEquals(Map.of("name", "a|b", "keywords", "winter"), stages.get(0).arguments());
+        assertEquals(Map.of("to", "42"), stages.get(1).arguments());
+        assertEquals(List.of(CommandType.LIST_ITEMS), parser.parsePipeline("list items").stream()
+                .map(ParsedCommand::commandType).toList());
+    }
+
+    @Test
+    @DisplayName("A bar is a syntax error outside a pipeline, and so is a pipeline stage without a command")
+    void parse_pipes_reportPosition() {
+        CommandSyntaxException unexpected = assertThrows(CommandSyntaxException.class,
+                () -> parser.parse("list items | remove items"));
+        assertTrue(unexpected.getMessage().contains("Unexpected '|'"), unexpected.getMessage());
+        assertEquals(11, unexpected.getPosition());
+
+        CommandSyntaxException empty = assertThrows(CommandSyntaxException.class,
+                () -> parser.parsePipeline("list items | | move --to 1"));
+        assertEquals(13, empty.getPosition());
+    }
+
+    private int positionOf(String input) {
+        return assertThrows(CommandSyntaxException.class, () -> parser.parse(input)).getPosition();
+    }
+}
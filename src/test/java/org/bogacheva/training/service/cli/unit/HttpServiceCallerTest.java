@@ -0,0 +1,146 @@
+package org.bogacheva.training.service.cli.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.exceptions.ResourceNotFoundException;
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.view.cli.remote.HttpServiceCaller;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpServiceCallerTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+    private final List<Headers> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private HttpServiceCaller caller;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.start();
+        caller = new HttpServiceCaller(URI.create("http://localhost:" + server.getAddress().getPort()),
+                Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Reads are sent as Smile, and repeated ones revalidated with the entity tag")
+    void getItemById_revalidatesWithEntityTag() {
+        ItemDTO item = ItemDTO.builder().id(7L).name("Torch").keywords(List.of("light")).build();
+        server.createContext("/api/items/7", exchange -> {
+            record(exchange);
+            exchange.getResponseHeaders().add("ETag", "\"item-7-v3-smile\"");
+            if ("\"item-7-v3-smile\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                respond(exchange, 200, item);
+            }
+        });
+
+        ItemDTO first = caller.getItemById(7L);
+        ItemDTO second = caller.getItemById(7L);
+
+        assertEquals("Torch", first.getName());
+        assertEquals("Torch", second.getName());
+        assertEquals(List.of("light"), second.getKeywords());
+        assertEquals(SMILE, requests.get(0).getFirst("Accept"));
+        assertNull(requests.get(0).getFirst("If-None-Match"));
+        assertEquals("\"item-7-v3-smile\"", requests.get(1).getFirst("If-None-Match"));
+    }
+
+    @Test
+    @DisplayName("An error response is raised with the message of the server")
+    void getItemById_notFound_throwsWithServerMessage() {
+        server.createContext("/api/items/8", exchange -> respond(exchange, 404,
+                Map.of("status", 404, "message", "Item with ID: 8 was not found.")));
+
+        ResourceNotFoundException thrown =
+                assertThrows(ResourceNotFoundException.class, () -> caller.getItemById(8L));
+
+        assertEquals("Item with ID: 8 was not found.", thrown.getMessage());
+    }
+
+    @Test
+    @DisplayName("Listings are requested in the normalized view and decoded element by element")
+    void getAllItems_streamsNormalizedRows() {
+        List<String> queries = new CopyOnWriteArrayList<>();
+        server.createContext("/api/items", exchange -> {
+            queries.add(exchange.getRequestURI().getQuery());
+            respond(exchange, 200, List.of(
+                    Map.of("id", 1, "name", "Torch", "storageId", 3, "keywords", List.of("light")),
+                    Map.of("id", 2, "name", "Tape", "storageId", 3)));
+        });
+
+        try (Stream<ItemRefDTO> items = caller.getAllItems()) {
+            List<ItemRefDTO> rows = items.toList();
+
+            assertEquals(List.of(1L, 2L), rows.stream().map(ItemRefDTO::getId).toList());
+            assertEquals(3L, rows.getFirst().getStorageId());
+            assertEquals(List.of("light"), rows.getFirst().getKeywords());
+        }
+        assertEquals(List.of("view=normalized"), queries);
+    }
+
+    @Test
+    @DisplayName("Storages are listed as summaries with their child counts")
+    void getAllStorages_streamsSummaries() {
+        List<String> queries = new CopyOnWriteArrayList<>();
+        server.createContext("/api/storages", exchange -> {
+            queries.add(exchange.getRequestURI().getQuery());
+            respond(exchange, 200, List.of(
+                    Map.of("id", 3, "name", "Hall", "type", "ROOM", "itemCount", 2, "storageCount", 1)));
+        });
+
+        try (Stream<StorageSummaryDTO> storages = caller.getAllStorages()) {
+            StorageSummaryDTO hall = storages.toList().getFirst();
+
+            assertEquals("Hall", hall.getName());
+            assertEquals(StorageType.ROOM, hall.getType());
+            assertEquals(2L, hall.getItemCount());
+            assertEquals(1L, hall.getStorageCount());
+        }
+        assertEquals(List.of("view=normalized"), queries);
+    }
+
+    private void record(HttpExchange exchange) {
+        requests.add(exchange.getRequestHeaders());
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = smile.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", SMILE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.bogacheva.training.service.cli.unit;
+
+import org.bogacheva.training.view.cli.parsing.DefaultCommandParser;
+import org.bogacheva.training.view.cli.remote.RemoteCommandValidator;
+import org.bogacheva.training.view.cli.validation.DefaultCommandValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteCommandValidatorTest {
+
+    private final DefaultCommandParser parser = new DefaultCommandParser();
+    private final RemoteCommandValidator validator = new RemoteCommandValidator(new DefaultCommandValidator());
+
+    @Test
+    @DisplayName("Commands that need the server's own database or JVM are rejected with an explanation")
+    void validate_localOnlyCommands_areRejected() {
+        IllegalArgumentException dataset = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(parser.parse("generate dataset --items 100")));
+        IllegalArgumentException profile = assertThrows(IllegalArgumentException.class,
+                () -> validator.validate(parser.parse("profile --seconds 5")));
+
+        assertTrue(dataset.getMessage().startsWith("'generate dataset' is not available in a remote CLI"));
+        assertTrue(profile.getMessage().contains("jfr management endpoint"));
+    }
+
+    @Test
+    @DisplayName("All other commands are validated as usual")
+    void validate_otherCommands_areValidatedAsUsual() {
+        assertDoesNotThrow(() -> validator.validate(parser.parse("tree --id 3")));
+        assertDoesNotThrow(() -> validator.validatePipeline(
+                parser.parsePipeline("search item --keywords winter | move --to 42")));
+        assertThrows(IllegalArgumentException.class, () -> validator.validate(parser.parse("tree --id x")));
+    }
+}
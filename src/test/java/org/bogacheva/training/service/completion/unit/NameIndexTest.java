@@ -0,0 +1,83 @@
+package org.bogacheva.training.service.completion.unit;
+
+import org.bogacheva.training.repository.NameRef;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.service.completion.NameIndex;
+import org.bogacheva.training.service.completion.PrefixIndex;
+import org.bogacheva.training.service.dto.SyncBatchDTO;
+import org.bogacheva.training.service.dto.SyncItemDTO;
+import org.bogacheva.training.service.sync.SyncService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NameIndexTest {
+
+    @Mock
+    private ItemRepository itemRepo;
+
+    @Mock
+    private StorageRepository storageRepo;
+
+    @Mock
+    private SyncService syncService;
+
+    @InjectMocks
+    private NameIndex nameIndex;
+
+    @Test
+    @DisplayName("Names are loaded once, and later refreshes only replay the change log")
+    void refresh_loadsOnceThenAppliesChanges() {
+        when(syncService.getCommittedVersion()).thenReturn(7L);
+        when(storageRepo.findNamesAfter(eq(0L), any())).thenReturn(List.of(name(1L, "Kitchen"), name(2L, "Garage")));
+        when(itemRepo.findNamesAfter(eq(0L), any())).thenReturn(List.of(name(10L, "Scissors"), name(11L, "Tape")));
+        when(syncService.getChangesSince(eq(7L), anyInt())).thenReturn(batch(7, 9,
+                List.of(SyncItemDTO.builder().id(11L).name("Scotch tape").build()), List.of(2L)));
+        when(syncService.getChangesSince(eq(9L), anyInt())).thenReturn(batch(9, 9, List.of(), List.of()));
+
+        nameIndex.refresh();
+        nameIndex.refresh();
+
+        assertEquals(List.of(new PrefixIndex.Match(10, "Scissors"), new PrefixIndex.Match(11, "Scotch tape")),
+                nameIndex.items().find("sc", 10));
+        assertEquals(List.of("Kitchen"), nameIndex.storages().findNames("", 10));
+        verify(itemRepo, times(1)).findNamesAfter(any(), any());
+        verify(syncService).getChangesSince(eq(9L), anyInt());
+    }
+
+    private static SyncBatchDTO batch(long since, long version, List<SyncItemDTO> items, List<Long> deletedStorageIds) {
+        return SyncBatchDTO.builder()
+                .since(since)
+                .version(version)
+                .items(items)
+                .storages(List.of())
+                .deletedItemIds(List.of())
+                .deletedStorageIds(deletedStorageIds)
+                .build();
+    }
+
+    private static NameRef name(Long id, String name) {
+        return new NameRef() {
+            public Long getId() {
+                return id;
+            }
+
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
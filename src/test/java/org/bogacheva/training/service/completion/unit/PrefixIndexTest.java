@@ -0,0 +1,50 @@
+package org.bogacheva.training.service.completion.unit;
+
+import org.bogacheva.training.service.completion.PrefixIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTest {
+
+    private final PrefixIndex index = new PrefixIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.put(1, "Box");
+        index.put(2, "box");
+        index.put(3, "Boxes");
+        index.put(4, "Bag");
+    }
+
+    @Test
+    @DisplayName("Entities are found by name prefix ignoring case, in name order")
+    void find_prefix_matchesIgnoringCase() {
+        assertEquals(List.of(new PrefixIndex.Match(1, "Box"), new PrefixIndex.Match(2, "box"),
+                new PrefixIndex.Match(3, "Boxes")), index.find("BO", 10));
+        assertEquals(List.of(new PrefixIndex.Match(4, "Bag")), index.find("b", 1));
+        assertTrue(index.find("crate", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Names shared by several entities, or differing only in case, are listed once")
+    void findNames_sharedName_isListedOnce() {
+        assertEquals(List.of("Bag", "Box", "Boxes"), index.findNames("", 10));
+    }
+
+    @Test
+    @DisplayName("Renamed entities move to their new name and removed ones disappear")
+    void putAndRemove_keepIndexCurrent() {
+        index.put(1, "Crate");
+        index.remove(2);
+        index.remove(99);
+
+        assertEquals(List.of(new PrefixIndex.Match(3, "Boxes")), index.find("box", 10));
+        assertEquals(List.of(new PrefixIndex.Match(1, "Crate")), index.find("cr", 10));
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,59 @@
+package org.bogacheva.training.service.concurrency.unit;
+
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.service.concurrency.OptimisticLockRetrier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticLockRetrierTest {
+
+    private final OptimisticLockRetrier retrier = new OptimisticLockRetrier();
+
+    @Test
+    @DisplayName("Retries an operation that lost an optimistic locking race")
+    void execute_whenConflictIsTransient_returnsResultOfRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retrier.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Storage.class, 1L);
+            }
+            return "moved";
+        });
+
+        assertEquals("moved", result);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Gives up after a bounded number of attempts")
+    void execute_whenConflictPersists_rethrowsAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retrier.execute(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Storage.class, 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    @DisplayName("Does not retry other failures")
+    void execute_whenOtherFailure_doesNotRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> retrier.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("Invalid");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
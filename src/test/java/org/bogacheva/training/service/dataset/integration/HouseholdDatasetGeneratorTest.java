@@ -0,0 +1,127 @@
+package org.bogacheva.training.service.dataset.integration;
+
+import org.bogacheva.training.ShelveItCommandLineRunner;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.bogacheva.training.service.dataset.DatasetSpec;
+import org.bogacheva.training.service.dataset.DatasetSummary;
+import org.bogacheva.training.service.dataset.HouseholdDatasetGenerator;
+import org.bogacheva.training.service.dto.StorageCreateDTO;
+import org.bogacheva.training.service.storage.StorageService;
+import org.bogacheva.training.service.testdb.AbstractEmbeddedDatabaseIT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class HouseholdDatasetGeneratorTest extends AbstractEmbeddedDatabaseIT {
+
+    @MockitoBean
+    private ShelveItCommandLineRunner commandLineRunner;
+
+    @Autowired
+    private HouseholdDatasetGenerator generator;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SyncChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        changeRepository.deleteAll();
+        itemRepository.deleteAll();
+        storageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Generated storages follow the storage type rules down to the requested depth")
+    void generate_buildsValidHierarchy() {
+        DatasetSummary summary = generator.generate(new DatasetSpec(7, 3, 2_000, 2, 500, 1.0));
+
+        List<Storage> storages = storageRepository.findAll();
+        assertThat(storages).hasSize(summary.storages());
+        assertThat(itemRepository.count()).isEqualTo(2_000);
+        assertThat(summary.depth()).isEqualTo(6);
+        assertThat(storages).filteredOn(storage -> storage.getParent() == null)
+                .hasSize(3)
+                .allMatch(storage -> storage.getType() == StorageType.RESIDENCE);
+        assertThat(storages).filteredOn(storage -> storage.getParent() != null)
+                .allMatch(storage -> storage.getParent().getType().getStrategy().canContain(storage.getType()));
+        assertThat(changeRepository.count()).isEqualTo(summary.storages() + 2_000L);
+    }
+
+    @Test
+    @DisplayName("Items are spread over storages by a Zipf distribution")
+    void generate_skewsItemsPerStorage() {
+        generator.generate(new DatasetSpec(7, 3, 2_000, 1, 500, 1.0));
+
+        List<Integer> itemsPerStorage = jdbcTemplate.queryForList(
+                "SELECT COUNT(*) FROM items GROUP BY storage_id", Integer.class);
+        Collections.sort(itemsPerStorage);
+        assertThat(itemsPerStorage.getLast()).isGreaterThan(10 * itemsPerStorage.get(itemsPerStorage.size() / 2));
+    }
+
+    @Test
+    @DisplayName("The same spec generates the same dataset")
+    void generate_sameSpec_isDeterministic() {
+        DatasetSpec spec = DatasetSpec.of(42, 2, 500);
+
+        DatasetSummary first = generator.generate(spec);
+        DatasetSummary second = generator.generate(spec);
+
+        assertThat(second.storages()).isEqualTo(first.storages());
+        assertThat(dataset(second.firstStorageId(), second.storages()))
+                .isEqualTo(dataset(first.firstStorageId(), first.storages()));
+    }
+
+    @Test
+    @DisplayName("Storages created after generation get IDs after the generated ones")
+    void generate_thenCreate_continuesIds() {
+        DatasetSummary summary = generator.generate(DatasetSpec.of(1, 1, 100));
+
+        Long id = storageService.create(new StorageCreateDTO("Cottage", StorageType.RESIDENCE, null)).getId();
+
+        assertThat(id).isEqualTo(summary.firstStorageId() + summary.storages());
+    }
+
+    // Storage names with their relative parent and item names, independent of the absolute IDs
+    private Map<Long, List<String>> dataset(long firstStorageId, int storages) {
+        return jdbcTemplate.queryForList("""
+                SELECT s.id - ? AS storage, s.name AS storage_name, s.parent_id - ? AS parent, i.name AS item
+                FROM storages s LEFT JOIN items i ON i.storage_id = s.id
+                WHERE s.id >= ? AND s.id < ?
+                ORDER BY s.id, i.name
+                """, firstStorageId, firstStorageId, firstStorageId, firstStorageId + storages)
+                .stream()
+                .collect(Collectors.groupingBy(row -> ((Number) row.get("storage")).longValue(),
+                        Collectors.mapping(row -> row.get("storage_name") + "/" + row.get("parent") + "/" + row.get("item"),
+                                Collectors.toList())));
+    }
+}
@@ -1,12 +1,17 @@
 package org.bogacheva.training.service.exceptions;
 
+import org.bogacheva.training.domain.item.Item;
 import org.bogacheva.training.exceptions.GlobalExceptionHandler;
 import org.bogacheva.training.exceptions.InvalidStorageHierarchyException;
+import org.bogacheva.training.exceptions.ItemNotFoundException;
+import org.bogacheva.training.exceptions.PreconditionFailedException;
 import org.bogacheva.training.exceptions.ShelveItError;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -33,6 +38,18 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getStatus()).isEqualTo(404);
     }
 
+    @Test
+    void handleItemNotFoundException_shouldReturnNotFound() {
+        ItemNotFoundException ex = new ItemNotFoundException(42L);
+
+        ResponseEntity<ShelveItError> response = handler.handle(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getMessage()).contains("42");
+        assertThat(response.getBody().getStatus()).isEqualTo(404);
+    }
+
     @Test
     void handleIllegalArgumentException_shouldReturnBadRequest() {
         IllegalArgumentException ex = new IllegalArgumentException("Invalid argument");
@@ -57,6 +74,30 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().getStatus()).isEqualTo(400);
     }
 
+    @Test
+    void handlePreconditionFailedException_shouldReturnPreconditionFailed() {
+        PreconditionFailedException ex = new PreconditionFailedException("Item with ID: 5 has changed since version 3.");
+
+        ResponseEntity<ShelveItError> response = handler.handle(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getMessage()).contains("version 3");
+        assertThat(response.getBody().getStatus()).isEqualTo(412);
+    }
+
+    @Test
+    void handleOptimisticLockingFailureException_shouldReturnPreconditionFailed() {
+        OptimisticLockingFailureException ex = new ObjectOptimisticLockingFailureException(Item.class, 5L);
+
+        ResponseEntity<ShelveItError> response = handler.handle(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getMessage()).contains("modified concurrently");
+        assertThat(response.getBody().getStatus()).isEqualTo(412);
+    }
+
     @Test
     void handleGenericException_shouldReturnInternalServerError() {
         Exception ex = new Exception("Something went wrong");
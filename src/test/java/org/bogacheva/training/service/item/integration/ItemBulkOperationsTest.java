@@ -0,0 +1,169 @@
+package org.bogacheva.training.service.item.integration;
+
+import org.bogacheva.training.ShelveItCommandLineRunner;
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.domain.sync.SyncChange;
+import org.bogacheva.training.domain.sync.SyncOperation;
+import org.bogacheva.training.exceptions.StorageNotFoundException;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.bogacheva.training.service.dto.ItemSelectionDTO;
+import org.bogacheva.training.service.item.crud.ItemService;
+import org.bogacheva.training.service.testdb.AbstractEmbeddedDatabaseIT;
+import org.bogacheva.training.service.testdb.RecordedStatements;
+import org.bogacheva.training.service.testdb.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemBulkOperationsTest extends AbstractEmbeddedDatabaseIT {
+
+    private static final int WINTER_ITEMS = 2_500;
+
+    @MockitoBean
+    private ShelveItCommandLineRunner commandLineRunner;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private SyncChangeRepository changeRepository;
+
+    @Autowired
+    private SqlStatementCounter counter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Storage wardrobe, attic, cellar;
+    private Item gloves;
+
+    @BeforeEach
+    void setUp() {
+        changeRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM item_keywords");
+        itemRepository.deleteAllInBatch();
+        storageRepository.deleteAll();
+
+        Storage home = storageRepository.save(new Storage("Home", StorageType.RESIDENCE, null));
+        wardrobe = storageRepository.save(new Storage("Wardrobe", StorageType.FURNITURE, home));
+        attic = storageRepository.save(new Storage("Attic", StorageType.ROOM, home));
+        cellar = storageRepository.save(new Storage("Cellar", StorageType.ROOM, home));
+        // Inserted in batches, as saving thousands of items one by one would dominate the test
+        List<Object[]> scarves = new ArrayList<>();
+        for (int i = 0; i < WINTER_ITEMS; i++) {
+            scarves.add(new Object[]{"Scarf " + i, (i % 2 == 0 ? wardrobe : cellar).getId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, storage_id, change_version, version) VALUES (?, ?, 0, 0)",
+                scarves);
+        jdbcTemplate.update("INSERT INTO item_keywords (item_id, keyword) SELECT id, 'winter' FROM items");
+        itemRepository.save(item("Sunglasses", wardrobe, "summer"));
+        gloves = itemRepository.save(item("Gloves", attic, "winter"));
+    }
+
+    @Test
+    @DisplayName("Selected items are moved in bulk, each with its own change recorded and stamped")
+    void moveAll_movesSelectionAndRecordsChanges() {
+        long versionBefore = changeRepository.findLatestVersion();
+
+        int moved = itemService.moveAll(ItemSelectionDTO.builder().keywords(List.of("Winter")).build(), attic.getId());
+
+        assertThat(moved).isEqualTo(WINTER_ITEMS);
+        assertThat(itemRepository.findIdsByStorageIds(List.of(attic.getId()))).hasSize(WINTER_ITEMS + 1);
+        assertThat(itemRepository.findIdsByStorageIds(List.of(wardrobe.getId()))).hasSize(1);
+        List<SyncChange> changes = changeRepository.findAll().stream()
+                .filter(change -> change.getVersion() > versionBefore)
+                .toList();
+        assertThat(changes).hasSize(WINTER_ITEMS + 3);
+        Map<Long, Long> itemVersions = changes.stream()
+                .filter(change -> change.getOperation() == SyncOperation.UPSERT)
+                .collect(Collectors.toMap(SyncChange::getEntityId, SyncChange::getVersion, Math::max));
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT id, change_version, version FROM items WHERE storage_id = ? AND id <> ?",
+                attic.getId(), gloves.getId())) {
+            assertThat(row.get("change_version")).isEqualTo(itemVersions.get((Long) row.get("id")));
+            assertThat(((Number) row.get("version")).longValue()).isEqualTo(1L);
+        }
+        assertThat(storageRepository.findById(cellar.getId()).orElseThrow().getChangeVersion())
+                .isGreaterThan(versionBefore);
+    }
+
+    @Test
+    @DisplayName("Moving runs a few statements per thousand items rather than several per item")
+    void moveAll_statementCountGrowsPerChunk() {
+        RecordedStatements statements = counter.record(() ->
+                itemService.moveAll(ItemSelectionDTO.builder().name("scarf").build(), attic.getId()));
+
+        // Lookups and storage stamps, then three statements for each of the three chunks
+        statements.assertAtMost(20);
+    }
+
+    @Test
+    @DisplayName("Nothing is moved when the target storage does not exist")
+    void moveAll_missingStorage_changesNothing() {
+        long changes = changeRepository.count();
+
+        assertThatThrownBy(() -> itemService.moveAll(
+                ItemSelectionDTO.builder().storageId(wardrobe.getId()).build(), 999_999L))
+                .isInstanceOf(StorageNotFoundException.class);
+
+        assertThat(itemRepository.findIdsByStorageIds(List.of(wardrobe.getId()))).hasSize(WINTER_ITEMS / 2 + 1);
+        assertThat(changeRepository.count()).isEqualTo(changes);
+    }
+
+    @Test
+    @DisplayName("Items already in the target storage are not moved again")
+    void moveAll_itemsInTarget_areLeftAlone() {
+        int moved = itemService.moveAll(ItemSelectionDTO.builder().storageId(wardrobe.getId()).build(), wardrobe.getId());
+
+        assertThat(moved).isZero();
+    }
+
+    @Test
+    @DisplayName("Selected items are deleted in bulk together with their keywords, and their deletes recorded")
+    void deleteAll_deletesSelectionWithKeywords() {
+        Item sunglasses = itemRepository.findAll().stream()
+                .filter(item -> item.getName().equals("Sunglasses"))
+                .findFirst().orElseThrow();
+
+        int deleted = itemService.deleteAll(ItemSelectionDTO.builder().nearItemId(sunglasses.getId()).build());
+
+        assertThat(deleted).isEqualTo(WINTER_ITEMS / 2);
+        assertThat(itemRepository.findIdsByStorageIds(List.of(wardrobe.getId()))).containsExactly(sunglasses.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM item_keywords", Long.class))
+                .isEqualTo(WINTER_ITEMS / 2 + 2L);
+        assertThat(changeRepository.findAll())
+                .filteredOn(change -> change.getOperation() == SyncOperation.DELETE)
+                .hasSize(WINTER_ITEMS / 2);
+    }
+
+    private static Item item(String name, Storage storage, String keyword) {
+        Item item = new Item(name, storage);
+        item.setKeywords(new ArrayList<>(List.of(keyword)));
+        return item;
+    }
+}
@@ -0,0 +1,100 @@
+package org.bogacheva.training.service.item.integration;
+
+import org.bogacheva.training.ShelveItCommandLineRunner;
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.bogacheva.training.service.dto.ItemCreateDTO;
+import org.bogacheva.training.service.item.crud.ItemService;
+import org.bogacheva.training.service.testdb.AbstractEmbeddedDatabaseIT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ItemConcurrentChangesTest extends AbstractEmbeddedDatabaseIT {
+
+    private static final int THREADS = 8;
+    private static final int ITEMS_PER_THREAD = 10;
+
+    @MockitoBean
+    private ShelveItCommandLineRunner commandLineRunner;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private SyncChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Storage drawer;
+
+    @BeforeEach
+    void setUp() {
+        changeRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM item_keywords");
+        itemRepository.deleteAllInBatch();
+        storageRepository.deleteAll();
+
+        drawer = storageRepository.save(new Storage("Drawer", StorageType.UNIT, null));
+    }
+
+    @Test
+    @DisplayName("Items are created in and deleted from the same storage concurrently without lock conflicts")
+    void createAndDelete_inSameStorageConcurrently_allSucceed() throws Exception {
+        List<Long> existingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS * ITEMS_PER_THREAD; i++) {
+            existingIds.add(itemRepository.save(new Item("Old pen " + i, drawer)).getId());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ITEMS_PER_THREAD; i++) {
+                        itemService.create(new ItemCreateDTO("Pen " + thread + "-" + i, drawer.getId(), List.of()));
+                        itemService.delete(existingIds.get(thread * ITEMS_PER_THREAD + i));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Item> items = itemRepository.findAll();
+        assertThat(items).hasSize(THREADS * ITEMS_PER_THREAD)
+                .allSatisfy(item -> assertThat(item.getName()).startsWith("Pen "));
+        assertThat(storageRepository.findById(drawer.getId()).orElseThrow().getChangeVersion()).isPositive();
+    }
+}
@@ -0,0 +1,145 @@
+package org.bogacheva.training.service.item.integration;
+
+import org.bogacheva.training.ShelveItCommandLineRunner;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.bogacheva.training.service.dto.ItemCreateDTO;
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.item.crud.ItemService;
+import org.bogacheva.training.service.testdb.AbstractEmbeddedDatabaseIT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ItemConditionalRequestTest extends AbstractEmbeddedDatabaseIT {
+
+    @MockitoBean
+    private ShelveItCommandLineRunner commandLineRunner;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private SyncChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ItemDTO lamp;
+
+    @BeforeEach
+    void setUp() {
+        changeRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM item_keywords");
+        itemRepository.deleteAllInBatch();
+        storageRepository.deleteAll();
+
+        Storage hall = storageRepository.save(new Storage("Hall", StorageType.ROOM, null));
+        lamp = itemService.create(new ItemCreateDTO("Lamp", hall.getId(), List.of("light")));
+    }
+
+    @Test
+    @DisplayName("An item the client already has is answered with 304 and no body")
+    void get_whenTagMatches_returnsNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/api/items/{id}", lamp.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Lamp"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/items/{id}", lamp.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("A changed item is sent again with a new tag")
+    void get_whenItemChanged_returnsItemWithNewTag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/items/{id}", lamp.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/api/items/{id}", lamp.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Desk lamp\"}"))
+                .andExpect(status().isOk());
+
+        String newTag = mockMvc.perform(get("/api/items/{id}", lamp.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Desk lamp"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newTag).isNotNull().isNotEqualTo(eTag);
+    }
+
+    @Test
+    @DisplayName("A list is answered with 304 until any item changes")
+    void getAll_whenNothingChanged_returnsNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/items").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        itemService.delete(lamp.getId());
+
+        mockMvc.perform(get("/api/items").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Each selection of a normalized view has a tag of its own")
+    void searchNormalized_tagSpellsOutSelection() throws Exception {
+        String names = mockMvc.perform(get("/api/items/search")
+                        .param("view", "normalized")
+                        .param("include", "storages,items")
+                        .param("fields", "name"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String storageIds = mockMvc.perform(get("/api/items/search")
+                        .param("view", "normalized")
+                        .param("fields", "storageId"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(names).endsWith("-n-include.items.storages-fields.id.name\"");
+        assertThat(storageIds).endsWith("-n-fields.id.storageId\"");
+        mockMvc.perform(get("/api/items/search")
+                        .param("view", "normalized")
+                        .param("fields", "name")
+                        .param("include", "items,storages")
+                        .header(HttpHeaders.IF_NONE_MATCH, names))
+                .andExpect(status().isNotModified());
+    }
+}
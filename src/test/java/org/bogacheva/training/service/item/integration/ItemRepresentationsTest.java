@@ -0,0 +1,201 @@
+package org.bogacheva.training.service.item.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.bogacheva.training.ShelveItCommandLineRunner;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.bogacheva.training.service.dto.ItemCreateDTO;
+import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.service.item.crud.ItemService;
+import org.bogacheva.training.service.paging.KeysetStreams;
+import org.bogacheva.training.service.testdb.AbstractEmbeddedDatabaseIT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ItemRepresentationsTest extends AbstractEmbeddedDatabaseIT {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
+    @MockitoBean
+    private ShelveItCommandLineRunner commandLineRunner;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private SyncChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Storage shelf;
+
+    @BeforeEach
+    void setUp() {
+        changeRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM item_keywords");
+        itemRepository.deleteAllInBatch();
+        storageRepository.deleteAll();
+
+        shelf = storageRepository.save(new Storage("Shelf", StorageType.FURNITURE, null));
+    }
+
+    @Test
+    @DisplayName("Each encoding of an item has a tag of its own, and responses vary by Accept")
+    void get_binaryEncodings_haveTagsOfTheirOwn() throws Exception {
+        ItemDTO book = itemService.create(new ItemCreateDTO("Book", shelf.getId(), List.of("paper")));
+
+        String jsonTag = eTag(mockMvc.perform(get("/api/items/{id}", book.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn());
+        MvcResult cbor = mockMvc.perform(get("/api/items/{id}", book.getId()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn();
+        String smileTag = eTag(mockMvc.perform(get("/api/items/{id}", book.getId()).accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn());
+
+        assertThat(eTag(cbor)).isEqualTo(jsonTag.replaceFirst("\"$", "-cbor\""));
+        assertThat(smileTag).isEqualTo(jsonTag.replaceFirst("\"$", "-smile\""));
+        JsonNode decoded = new ObjectMapper(new CBORFactory()).readTree(cbor.getResponse().getContentAsByteArray());
+        assertThat(decoded.get("name").asText()).isEqualTo("Book");
+
+        mockMvc.perform(get("/api/items/{id}", book.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag(cbor)))
+                .andExpect(status().isNotModified());
+        // The JSON tag does not stand for the CBOR bytes, nor the other way round
+        mockMvc.perform(get("/api/items/{id}", book.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/items/{id}", book.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag(cbor)))
+                .andExpect(status().isOk());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "*/*, application/cbor",
+            "application/*, application/x-jackson-smile",
+            "application/json;q=0.5, application/*;q=0.8, application/cbor;q=0.8",
+            "application/x-jackson-smile;q=0.5, application/cbor;q=0.5, application/json;q=0.4",
+            "application/json, application/cbor",
+            "application/*+json, application/cbor;q=0.9"})
+    @DisplayName("The tag's encoding suffix is that of the representation content negotiation selects")
+    void get_anyAccept_tagMatchesSentEncoding(String accept) throws Exception {
+        ItemDTO book = itemService.create(new ItemCreateDTO("Book", shelf.getId(), List.of("paper")));
+
+        MvcResult result = mockMvc.perform(get("/api/items/{id}", book.getId()).header(HttpHeaders.ACCEPT, accept))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        MediaType sent = MediaType.parseMediaType(result.getResponse().getContentType());
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(sent)) {
+            assertThat(eTag(result)).endsWith("-cbor\"");
+        } else if (SMILE.equalsTypeAndSubtype(sent)) {
+            assertThat(eTag(result)).endsWith("-smile\"");
+        } else {
+            assertThat(eTag(result)).doesNotEndWith("-cbor\"").doesNotEndWith("-smile\"");
+        }
+    }
+
+    @Test
+    @DisplayName("A list longer than one chunk is streamed completely and in order")
+    void getAll_acrossChunkBoundary_returnsEveryItemOnce() throws Exception {
+        int count = KeysetStreams.CHUNK_SIZE + 1;
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            books.add(new Object[]{"Book " + i, shelf.getId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (name, storage_id, change_version, version) VALUES (?, ?, 0, 0)",
+                books);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM items ORDER BY id", Long.class);
+
+        MvcResult result = mockMvc.perform(get("/api/items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(count))
+                .andReturn();
+
+        JsonNode items = new ObjectMapper().readTree(result.getResponse().getContentAsString());
+        List<Long> returnedIds = new ArrayList<>();
+        items.forEach(item -> returnedIds.add(item.get("id").asLong()));
+        assertThat(returnedIds).isEqualTo(ids);
+        assertThat(items.get(KeysetStreams.CHUNK_SIZE).get("name").asText()).isEqualTo("Book " + KeysetStreams.CHUNK_SIZE);
+    }
+
+    @Test
+    @DisplayName("The normalized full lists stream item references and storage summaries")
+    void getAllNormalized_streamsReferencesAndSummaries() throws Exception {
+        ItemDTO book = itemService.create(new ItemCreateDTO("Book", shelf.getId(), List.of("paper")));
+
+        MvcResult items = mockMvc.perform(get("/api/items").param("view", "normalized"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(book.getId()))
+                .andExpect(jsonPath("$[0].storageId").value(shelf.getId()))
+                .andExpect(jsonPath("$[0].keywords[0]").value("paper"))
+                .andExpect(jsonPath("$[0].storage").doesNotExist())
+                .andReturn();
+        mockMvc.perform(get("/api/items").param("view", "normalized").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Book"))
+                .andExpect(jsonPath("$[0].storageId").doesNotExist());
+        mockMvc.perform(get("/api/storages").param("view", "normalized"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(shelf.getId()))
+                .andExpect(jsonPath("$[0].itemCount").value(1))
+                .andExpect(jsonPath("$[0].storageCount").value(0))
+                .andExpect(jsonPath("$[0].items").doesNotExist());
+
+        assertThat(eTag(items)).endsWith("-n\"");
+        mockMvc.perform(get("/api/items").param("view", "normalized").header(HttpHeaders.IF_NONE_MATCH, eTag(items)))
+                .andExpect(status().isNotModified());
+    }
+
+    private static String eTag(MvcResult result) {
+        return result.getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
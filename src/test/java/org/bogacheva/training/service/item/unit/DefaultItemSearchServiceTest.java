@@ -9,7 +9,12 @@ import org.bogacheva.training.exceptions.InvalidItemOperationException;
 import org.bogacheva.training.exceptions.ItemNotFoundException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
 import org.bogacheva.training.service.item.search.DefaultItemSearchService;
+import org.bogacheva.training.service.item.search.ItemSelector;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
+import org.bogacheva.training.service.item.view.NormalizedItemsAssembler;
+import org.bogacheva.training.service.item.view.StorageInclude;
 import org.bogacheva.training.service.mapper.ItemMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,13 +23,14 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,9 +49,17 @@ class DefaultItemSearchServiceTest {
     @Mock
     private ItemMapper itemMapper;
 
-    @InjectMocks
+    @Mock
+    private NormalizedItemsAssembler normalizedAssembler;
+
     private DefaultItemSearchService itemSearchService;
 
+    @BeforeEach
+    void setUp() {
+        itemSearchService = new DefaultItemSearchService(itemRepository, storageRepository, itemMapper,
+                normalizedAssembler, new ItemSelector(itemRepository, storageRepository));
+    }
+
     @DisplayName("search returns empty list when both name is null/blank/empty and keywords list is empty")
     @ParameterizedTest
     @NullAndEmptySource
@@ -249,6 +263,27 @@ class DefaultItemSearchServiceTest {
         assertEquals(dtos, result);
     }
 
+    @Test
+    @DisplayName("getByStorageIdNormalized assembles the normalized view without mapping ItemDTOs")
+    void getByStorageIdNormalized_returnsNormalizedView() {
+        Long storageId = 20L;
+        Storage storage = new Storage();
+        storage.setId(storageId);
+
+        List<Item> items = List.of(new Item());
+        Set<StorageInclude> include = Set.of(StorageInclude.ITEMS);
+        NormalizedItemsDTO normalized = new NormalizedItemsDTO(List.of(), Map.of());
+
+        when(storageRepository.findById(storageId)).thenReturn(Optional.of(storage));
+        when(itemRepository.findItemsByStorageId(storageId)).thenReturn(items);
+        when(normalizedAssembler.assemble(items, include)).thenReturn(normalized);
+
+        NormalizedItemsDTO result = itemSearchService.getByStorageIdNormalized(storageId, include);
+
+        assertSame(normalized, result);
+        verify(itemMapper, never()).toDTOList(anyList());
+    }
+
     @Test
     @DisplayName("getStorageHierarchyIds throws ItemNotFoundException when item not found")
     void getStorageHierarchyIds_throwsException_whenItemNotFound() {
@@ -8,10 +8,13 @@ import org.bogacheva.training.service.dto.ItemCreateDTO;
 import org.bogacheva.training.service.dto.ItemDTO;
 import org.bogacheva.training.service.dto.ItemUpdateDTO;
 import org.bogacheva.training.exceptions.ItemNotFoundException;
+import org.bogacheva.training.exceptions.PreconditionFailedException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
 import org.bogacheva.training.service.item.crud.DefaultItemService;
 import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.sync.SyncChangeRecorder;
 import org.junit.jupiter.api.DisplayName;
+import org.springframework.data.domain.Pageable;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -38,6 +41,9 @@ class DefaultItemServiceTest {
     @Mock
     private ItemMapper itemMapper;
 
+    @Mock
+    private SyncChangeRecorder changeRecorder;
+
     @InjectMocks
     private DefaultItemService itemService;
 
@@ -420,4 +426,76 @@ class DefaultItemServiceTest {
         assertThrows(ItemNotFoundException.class, () -> itemService.update(itemId, updateDTO));
         verify(itemRepo).findById(itemId);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Update item with an outdated expected version throws PreconditionFailedException")
+    void update_whenExpectedVersionOutdated_throwsPreconditionFailedException() {
+        Long itemId = 1L;
+        Storage storage = new Storage();
+        storage.setChangeVersion(7L);
+        Item existingItem = new Item();
+        existingItem.setId(itemId);
+        existingItem.setStorage(storage);
+        existingItem.setChangeVersion(5L);
+
+        ItemUpdateDTO updateDTO = new ItemUpdateDTO();
+        updateDTO.setName("Name");
+
+        when(itemRepo.findById(itemId)).thenReturn(Optional.of(existingItem));
+
+        assertThrows(PreconditionFailedException.class, () -> itemService.update(itemId, updateDTO, 5L));
+        verify(itemRepo, never()).save(any());
+        verifyNoInteractions(changeRecorder);
+    }
+
+    @Test
+    @DisplayName("Update item with the current expected version applies the update")
+    void update_whenExpectedVersionCurrent_updatesItem() {
+        Long itemId = 1L;
+        Storage storage = new Storage();
+        storage.setChangeVersion(7L);
+        Item existingItem = new Item();
+        existingItem.setId(itemId);
+        existingItem.setStorage(storage);
+        existingItem.setChangeVersion(5L);
+
+        ItemUpdateDTO updateDTO = new ItemUpdateDTO();
+        updateDTO.setName("Name");
+
+        when(itemRepo.findById(itemId)).thenReturn(Optional.of(existingItem));
+        when(itemRepo.save(existingItem)).thenReturn(existingItem);
+
+        itemService.update(itemId, updateDTO, 7L);
+
+        assertEquals("Name", existingItem.getName());
+        verify(itemRepo).save(existingItem);
+    }
+
+    @Test
+    @DisplayName("Get page after loads the next item IDs and returns the items in ID order")
+    void getPageAfter_returnsItemsInIdOrder() {
+        Item second = new Item();
+        second.setId(12L);
+        Item first = new Item();
+        first.setId(11L);
+        ItemDTO firstDTO = new ItemDTO(11L, "First", null, null);
+        ItemDTO secondDTO = new ItemDTO(12L, "Second", null, null);
+
+        when(itemRepo.findIdsAfter(eq(10L), any(Pageable.class))).thenReturn(List.of(11L, 12L));
+        when(itemRepo.findAllWithKeywordsByIdIn(List.of(11L, 12L))).thenReturn(List.of(second, first));
+        when(itemMapper.toDTOList(List.of(first, second))).thenReturn(List.of(firstDTO, secondDTO));
+
+        List<ItemDTO> result = itemService.getPageAfter(10L, 2);
+
+        assertEquals(List.of(firstDTO, secondDTO), result);
+    }
+
+    @Test
+    @DisplayName("Get page after returns an empty list past the last item")
+    void getPageAfter_whenNoMoreItems_returnsEmptyList() {
+        when(itemRepo.findIdsAfter(eq(99L), any(Pageable.class))).thenReturn(List.of());
+
+        assertTrue(itemService.getPageAfter(99L, 500).isEmpty());
+        verify(itemRepo, never()).findAllWithKeywordsByIdIn(any());
+    }
+}
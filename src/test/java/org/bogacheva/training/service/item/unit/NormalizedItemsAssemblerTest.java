@@ -0,0 +1,138 @@
+package org.bogacheva.training.service.item.unit;
+
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageChildCount;
+import org.bogacheva.training.repository.storage.StorageChildRef;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.service.dto.ItemRefDTO;
+import org.bogacheva.training.service.dto.NormalizedItemsDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
+import org.bogacheva.training.service.item.view.NormalizedItemsAssembler;
+import org.bogacheva.training.service.item.view.StorageInclude;
+import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.mapper.StorageMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NormalizedItemsAssemblerTest {
+
+    @Mock
+    private ItemRepository itemRepo;
+
+    @Mock
+    private StorageRepository storageRepo;
+
+    @Mock
+    private ItemMapper itemMapper;
+
+    @Mock
+    private StorageMapper storageMapper;
+
+    @InjectMocks
+    private NormalizedItemsAssembler assembler;
+
+    @Test
+    @DisplayName("Each referenced storage is mapped once and summarized by child counts")
+    void assemble_mapsEachStorageOnceWithCounts() {
+        Storage room = new Storage("Room", StorageType.ROOM, null);
+        room.setId(2L);
+        List<Item> items = List.of(item(10L, room), item(11L, room));
+        List<ItemRefDTO> refs = List.of(new ItemRefDTO(10L, "A", 2L, null), new ItemRefDTO(11L, "B", 2L, null));
+
+        when(storageMapper.toSummaryDTO(room)).thenAnswer(invocation -> summary(2L));
+        when(itemMapper.toRefDTOList(items)).thenReturn(refs);
+        when(itemRepo.countByStorageIds(Set.of(2L))).thenReturn(List.of(count(2L, 2L)));
+        when(storageRepo.countByParentIds(Set.of(2L))).thenReturn(List.of());
+
+        NormalizedItemsDTO result = assembler.assemble(items, Set.of());
+
+        assertSame(refs, result.getItems());
+        StorageSummaryDTO storage = result.getStorages().get(2L);
+        assertEquals(2L, storage.getItemCount());
+        assertEquals(0L, storage.getStorageCount());
+        assertNull(storage.getItems());
+        verify(storageMapper, times(1)).toSummaryDTO(room);
+        verify(itemRepo, never()).findChildRefsByStorageIds(any());
+    }
+
+    @Test
+    @DisplayName("Included child ID lists replace the counts")
+    void assemble_whenChildrenIncluded_listsChildIds() {
+        Storage room = new Storage("Room", StorageType.ROOM, null);
+        room.setId(2L);
+        List<Item> items = List.of(item(10L, room));
+
+        when(storageMapper.toSummaryDTO(room)).thenAnswer(invocation -> summary(2L));
+        when(itemRepo.findChildRefsByStorageIds(Set.of(2L))).thenReturn(List.of(ref(2L, 10L), ref(2L, 12L)));
+        when(storageRepo.findChildRefsByParentIds(Set.of(2L))).thenReturn(List.of(ref(2L, 5L)));
+
+        NormalizedItemsDTO result = assembler.assemble(items, Set.of(StorageInclude.ITEMS, StorageInclude.STORAGES));
+
+        StorageSummaryDTO storage = result.getStorages().get(2L);
+        assertEquals(List.of(10L, 12L), storage.getItems());
+        assertEquals(List.of(5L), storage.getStorages());
+        assertNull(storage.getItemCount());
+        assertNull(storage.getStorageCount());
+        verify(itemRepo, never()).countByStorageIds(any());
+    }
+
+    @Test
+    @DisplayName("No child queries are run for an empty list")
+    void assemble_whenNoItems_runsNoQueries() {
+        NormalizedItemsDTO result = assembler.assemble(List.of(), Set.of());
+
+        assertTrue(result.getStorages().isEmpty());
+        verifyNoInteractions(itemRepo, storageRepo);
+    }
+
+    private Item item(Long id, Storage storage) {
+        Item item = new Item("Item " + id, storage);
+        item.setId(id);
+        return item;
+    }
+
+    private StorageSummaryDTO summary(Long id) {
+        StorageSummaryDTO summary = new StorageSummaryDTO();
+        summary.setId(id);
+        return summary;
+    }
+
+    private StorageChildCount count(Long storageId, Long count) {
+        return new StorageChildCount() {
+            public Long getStorageId() {
+                return storageId;
+            }
+
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+
+    private StorageChildRef ref(Long storageId, Long id) {
+        return new StorageChildRef() {
+            public Long getStorageId() {
+                return storageId;
+            }
+
+            public Long getId() {
+                return id;
+            }
+        };
+    }
+}
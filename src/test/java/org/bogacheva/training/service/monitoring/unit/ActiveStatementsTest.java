@@ -0,0 +1,126 @@
+package org.bogacheva.training.service.monitoring.unit;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.bogacheva.training.monitoring.ActiveStatements;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveStatementsTest {
+
+    @Mock
+    private Statement statement;
+
+    private final ActiveStatements activeStatements = new ActiveStatements();
+
+    @Test
+    @DisplayName("The statement a thread is executing is cancelled")
+    void cancel_whileExecuting_cancelsStatement() throws Exception {
+        activeStatements.beforeQuery(execution(statement), List.of());
+
+        assertTrue(activeStatements.cancel(Thread.currentThread()));
+        verify(statement).cancel();
+    }
+
+    @Test
+    @DisplayName("A statement that has finished is never cancelled")
+    void cancel_afterStatementFinished_doesNothing() throws Exception {
+        activeStatements.beforeQuery(execution(statement), List.of());
+        activeStatements.afterQuery(execution(statement), List.of());
+
+        assertFalse(activeStatements.cancel(Thread.currentThread()));
+        verify(statement, never()).cancel();
+    }
+
+    @Test
+    @DisplayName("A thread cannot finish its statement while a cancel of it is being sent")
+    void afterQuery_whileCancelling_waitsForCancel() throws Exception {
+        CountDownLatch registered = new CountDownLatch(1);
+        CountDownLatch cancelling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            cancelling.countDown();
+            release.await();
+            return null;
+        }).when(statement).cancel();
+        Thread worker = new Thread(() -> {
+            activeStatements.beforeQuery(execution(statement), List.of());
+            registered.countDown();
+            try {
+                cancelling.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            activeStatements.afterQuery(execution(statement), List.of());
+            finished.countDown();
+        });
+        worker.start();
+        assertTrue(registered.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Boolean> cancel = CompletableFuture.supplyAsync(() -> activeStatements.cancel(worker));
+
+        assertFalse(finished.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(cancel.get(5, TimeUnit.SECONDS));
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertFalse(activeStatements.cancel(worker));
+    }
+
+    @Test
+    @DisplayName("Other threads register and finish their statements while a cancel is being sent")
+    void otherThreads_whileCancelling_areNotBlocked() throws Exception {
+        CountDownLatch cancelling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            cancelling.countDown();
+            release.await();
+            return null;
+        }).when(statement).cancel();
+        activeStatements.beforeQuery(execution(statement), List.of());
+        Thread owner = Thread.currentThread();
+        CompletableFuture<Boolean> cancel = CompletableFuture.supplyAsync(() -> activeStatements.cancel(owner));
+        assertTrue(cancelling.await(5, TimeUnit.SECONDS));
+
+        ExecutorService others = Executors.newFixedThreadPool(64);
+        try {
+            List<Future<?>> queries = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                Statement other = mock(Statement.class);
+                queries.add(others.submit(() -> {
+                    activeStatements.beforeQuery(execution(other), List.of());
+                    activeStatements.afterQuery(execution(other), List.of());
+                }));
+            }
+            for (Future<?> query : queries) {
+                query.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            release.countDown();
+            others.shutdown();
+        }
+        assertTrue(cancel.get(5, TimeUnit.SECONDS));
+    }
+
+    private static ExecutionInfo execution(Statement statement) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setStatement(statement);
+        return info;
+    }
+}
@@ -0,0 +1,84 @@
+package org.bogacheva.training.service.monitoring.unit;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.bogacheva.training.monitoring.jfr.FlightRecorderService;
+import org.bogacheva.training.monitoring.jfr.SearchQueryEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecorderServiceTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private final FlightRecorderService recorder = new FlightRecorderService(Duration.ofSeconds(5));
+
+    @Test
+    @DisplayName("A recording contains the ShelveIt events emitted while it ran")
+    void record_capturesCustomEvents() throws Exception {
+        Path file = tempDir.resolve("search.jfr");
+        CompletableFuture<Void> recording = CompletableFuture.runAsync(
+                () -> recorder.record(Duration.ofMillis(500), "default", file));
+        awaitRecordingStarted();
+
+        SearchQueryEvent event = new SearchQueryEvent();
+        event.begin();
+        event.complete("item", "box", List.of("tools"), 3);
+        recording.get(5, TimeUnit.SECONDS);
+
+        List<RecordedEvent> searches = RecordingFile.readAllEvents(file).stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("shelveit.SearchQuery"))
+                .toList();
+        assertEquals(1, searches.size());
+        assertEquals("box", searches.get(0).getString("name"));
+        assertEquals(3, searches.get(0).getInt("results"));
+    }
+
+    @Test
+    @DisplayName("Only one recording can run at a time")
+    void record_whileRecording_throwsIllegalState() throws Exception {
+        CompletableFuture<Void> recording = CompletableFuture.runAsync(
+                () -> recorder.record(Duration.ofMillis(800), "default", tempDir.resolve("first.jfr")));
+        awaitRecordingStarted();
+
+        assertThrows(IllegalStateException.class,
+                () -> recorder.record(Duration.ofMillis(100), "default", tempDir.resolve("second.jfr")));
+        recording.get(5, TimeUnit.SECONDS);
+        assertTrue(tempDir.resolve("first.jfr").toFile().exists());
+    }
+
+    @Test
+    @DisplayName("Unknown settings and non-positive durations are rejected")
+    void record_invalidArguments_throwIllegalArgument() {
+        Path file = tempDir.resolve("invalid.jfr");
+
+        assertThrows(IllegalArgumentException.class, () -> recorder.record(Duration.ofSeconds(1), "nope", file));
+        assertThrows(IllegalArgumentException.class, () -> recorder.record(Duration.ZERO, "default", file));
+    }
+
+    private static void awaitRecordingStarted() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (FlightRecorder.isInitialized() && FlightRecorder.getFlightRecorder().getRecordings().stream()
+                    .anyMatch(recording -> recording.getState() == RecordingState.RUNNING)) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Flight recording did not start");
+    }
+}
@@ -0,0 +1,79 @@
+package org.bogacheva.training.service.monitoring.unit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.bogacheva.training.monitoring.JsonLinesSpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLinesSpanExporterTest {
+
+    @TempDir
+    private Path dir;
+
+    private SdkTracerProvider tracerProvider;
+
+    @AfterEach
+    void tearDown() {
+        if (tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Each finished span is appended as one JSON line")
+    void export_writesOneLinePerSpan() throws IOException {
+        Path file = dir.resolve("traces.jsonl");
+        Tracer tracer = tracer(new JsonLinesSpanExporter(file, DataSize.ofMegabytes(1)));
+
+        tracer.spanBuilder("list items").startSpan().end();
+        tracer.spanBuilder("search").startSpan().end();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode first = new ObjectMapper().readTree(lines.get(0));
+        assertEquals("list items", first.get("name").asText());
+        assertEquals(32, first.get("traceId").asText().length());
+    }
+
+    @Test
+    @DisplayName("A full file is rotated, so at most one older file is kept")
+    void export_beyondMaxSize_rotatesFile() throws IOException {
+        Path file = dir.resolve("traces.jsonl");
+        Path rotated = dir.resolve("traces.jsonl.1");
+        Tracer tracer = tracer(new JsonLinesSpanExporter(file, DataSize.ofBytes(1000)));
+
+        for (int i = 0; i < 50; i++) {
+            tracer.spanBuilder("span " + i).startSpan().end();
+        }
+
+        assertTrue(Files.size(file) < 1000);
+        assertTrue(Files.size(rotated) >= 1000);
+        String kept = Files.readString(rotated) + Files.readString(file);
+        assertTrue(kept.contains("\"span 49\""));
+        assertFalse(kept.contains("\"span 0\""));
+        try (var files = Files.list(dir)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    private Tracer tracer(JsonLinesSpanExporter exporter) {
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        return tracerProvider.get("test");
+    }
+}
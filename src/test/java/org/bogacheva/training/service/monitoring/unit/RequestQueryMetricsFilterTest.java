@@ -0,0 +1,111 @@
+package org.bogacheva.training.service.monitoring.unit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.FilterChain;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.bogacheva.training.monitoring.QueryMetricsListener;
+import org.bogacheva.training.monitoring.RequestQueryMetricsFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestQueryMetricsFilterTest {
+
+    private MeterRegistry registry;
+    private QueryMetricsListener listener;
+    private RequestQueryMetricsFilter filter;
+    private final List<Observation.Context> stopped = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig()
+                .observationHandler(new DefaultMeterObservationHandler(registry))
+                .observationHandler(new ObservationHandler<>() {
+                    @Override
+                    public boolean supportsContext(Observation.Context context) {
+                        return true;
+                    }
+
+                    @Override
+                    public void onStop(Observation.Context context) {
+                        stopped.add(context);
+                    }
+                });
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("observationRegistry", observationRegistry);
+        listener = new QueryMetricsListener(beanFactory.getBeanProvider(ObservationRegistry.class));
+        filter = new RequestQueryMetricsFilter(registry);
+    }
+
+    @Test
+    @DisplayName("Statements executed while serving a request are recorded per endpoint")
+    void doFilter_recordsStatementsOfRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items/storage/2");
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/items/storage/{storageId}");
+            executeStatement(3);
+            executeStatement(4);
+        };
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        DistributionSummary statements = registry.get("shelveit.request.sql.statements")
+                .tag("uri", "/api/items/storage/{storageId}")
+                .summary();
+        Timer time = registry.get("shelveit.request.sql.time").tag("method", "GET").timer();
+        assertEquals(1, statements.count());
+        assertEquals(2.0, statements.totalAmount());
+        assertEquals(7.0, time.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Statements executed outside of a request are only counted globally")
+    void afterQuery_outsideRequest_isNotAttributedToRequest() throws Exception {
+        executeStatement(5);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/items"), new MockHttpServletResponse(),
+                (req, res) -> { });
+
+        assertEquals(0.0, registry.get("shelveit.request.sql.statements").summary().totalAmount());
+        assertEquals(1, registry.get("shelveit.jdbc.statements").timer().count());
+    }
+
+    @Test
+    @DisplayName("Statement observations carry the SQL text and operation")
+    void afterQuery_observationCarriesStatement() {
+        executeStatement(1);
+
+        assertEquals(1, stopped.size());
+        Observation.Context context = stopped.get(0);
+        assertEquals("select", context.getLowCardinalityKeyValue("db.operation").getValue());
+        assertEquals("select * from items", context.getHighCardinalityKeyValue("db.statement").getValue());
+    }
+
+    private void executeStatement(long elapsedMillis) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(elapsedMillis);
+        info.setSuccess(true);
+        List<QueryInfo> queries = List.of(new QueryInfo("select * from items"));
+        listener.beforeQuery(info, queries);
+        listener.afterQuery(info, queries);
+    }
+}
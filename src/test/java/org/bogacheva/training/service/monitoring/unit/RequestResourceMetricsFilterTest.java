@@ -0,0 +1,96 @@
+package org.bogacheva.training.service.monitoring.unit;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.bogacheva.training.monitoring.RequestResourceMetricsFilter;
+import org.bogacheva.training.monitoring.RequestResourceTaskDecorator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestResourceMetricsFilterTest {
+
+    private static final int ALLOCATION = 4 * 1024 * 1024;
+
+    private MeterRegistry registry;
+    private final RequestResourceTaskDecorator decorator = new RequestResourceTaskDecorator();
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("CPU time and allocation of a request are recorded per endpoint")
+    void doFilter_recordsCpuAndAllocation() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/storages/1/items");
+        FilterChain chain = (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/storages/{id}/items");
+            blackhole(new byte[ALLOCATION]);
+        };
+
+        new RequestResourceMetricsFilter(registry, false).doFilter(request, new MockHttpServletResponse(), chain);
+
+        DistributionSummary allocation = registry.get("shelveit.request.allocation")
+                .tag("uri", "/api/storages/{id}/items")
+                .summary();
+        Timer cpu = registry.get("shelveit.request.cpu").tag("uri", "/api/storages/{id}/items").timer();
+        assertEquals(1, allocation.count());
+        assertTrue(allocation.totalAmount() >= ALLOCATION);
+        assertEquals(1, cpu.count());
+    }
+
+    @Test
+    @DisplayName("Work handed off to an executor is charged to the submitting request")
+    void doFilter_decoratedTask_isChargedToRequest() throws Exception {
+        FilterChain chain = (req, res) -> {
+            Thread worker = new Thread(decorator.decorate(() -> blackhole(new byte[ALLOCATION])));
+            worker.start();
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        new RequestResourceMetricsFilter(registry, false)
+                .doFilter(new MockHttpServletRequest("GET", "/api/items"), new MockHttpServletResponse(), chain);
+
+        assertTrue(registry.get("shelveit.request.allocation").summary().totalAmount() >= ALLOCATION);
+    }
+
+    @Test
+    @DisplayName("Server-Timing is added only when enabled, including to responses without a body")
+    void doFilter_serverTiming_addedWhenEnabled() throws Exception {
+        MockHttpServletResponse enabled = new MockHttpServletResponse();
+        MockHttpServletResponse disabled = new MockHttpServletResponse();
+        FilterChain notModified = (req, res) -> ((HttpServletResponse) res).setStatus(304);
+
+        new RequestResourceMetricsFilter(registry, true)
+                .doFilter(new MockHttpServletRequest("GET", "/api/items"), enabled, notModified);
+        new RequestResourceMetricsFilter(registry, false)
+                .doFilter(new MockHttpServletRequest("GET", "/api/items"), disabled, notModified);
+
+        assertNotNull(enabled.getHeader("Server-Timing"));
+        assertTrue(enabled.getHeader("Server-Timing").startsWith("cpu;dur="));
+        assertNull(disabled.getHeader("Server-Timing"));
+    }
+
+    private static void blackhole(byte[] bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.bogacheva.training.service.monitoring.unit;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.bogacheva.training.monitoring.SlowQueryListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SlowQueryListenerTest {
+
+    @Mock
+    private ObjectProvider<DataSource> dataSourceProvider;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    @Mock
+    private PreparedStatement explainStatement;
+
+    @Mock
+    private ResultSet plan;
+
+    private SlowQueryListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        listener = new SlowQueryListener(dataSourceProvider, Duration.ofMillis(100), 1.0, Duration.ofMinutes(10));
+
+        when(dataSourceProvider.getObject()).thenReturn(dataSource);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(connection.prepareStatement(anyString())).thenReturn(explainStatement);
+        when(explainStatement.executeQuery()).thenReturn(plan);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.destroy();
+    }
+
+    @Test
+    @DisplayName("Slow queries are explained with their bound parameters in a rolled back transaction")
+    void afterQuery_slowSelect_explainsWithParameters() throws Exception {
+        QueryInfo query = query("select * from items where lower(name) like ?", "%box%");
+
+        listener.afterQuery(execution(250), List.of(query));
+
+        verify(connection, timeout(1000))
+                .prepareStatement("EXPLAIN (ANALYZE, BUFFERS) select * from items where lower(name) like ?");
+        verify(explainStatement, timeout(1000)).setString(1, "%box%");
+        verify(connection, timeout(1000)).setReadOnly(true);
+        verify(connection, timeout(1000)).rollback();
+    }
+
+    @Test
+    @DisplayName("Slow updates are logged but never explained, as EXPLAIN ANALYZE would execute them")
+    void afterQuery_slowUpdate_isNotExplained() throws Exception {
+        QueryInfo update = query("update items set name = ? where id = 1", "Box");
+
+        listener.afterQuery(execution(250), List.of(update));
+
+        verify(dataSource, after(200).never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("Queries faster than the threshold are ignored")
+    void afterQuery_fastQuery_isIgnored() throws Exception {
+        QueryInfo query = query("select * from items where id = ?", "1");
+
+        listener.afterQuery(execution(5), List.of(query));
+
+        verify(dataSource, after(200).never()).getConnection();
+    }
+
+    @Test
+    @DisplayName("The same statement is explained at most once per interval")
+    void afterQuery_repeatedSlowQuery_isExplainedOnce() throws Exception {
+        QueryInfo query = query("select * from storages where parent_id = ?", "3");
+
+        listener.afterQuery(execution(250), List.of(query));
+        listener.afterQuery(execution(300), List.of(query));
+
+        verify(dataSource, after(300).times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("A statement is explained again once its interval is over")
+    void afterQuery_slowQueryAfterInterval_isExplainedAgain() throws Exception {
+        listener.destroy();
+        listener = new SlowQueryListener(dataSourceProvider, Duration.ofMillis(100), 1.0, Duration.ofMillis(50));
+        QueryInfo query = query("select * from storages where parent_id = ?", "3");
+
+        listener.afterQuery(execution(250), List.of(query));
+        verify(dataSource, timeout(1000).times(1)).getConnection();
+        Thread.sleep(100);
+        listener.afterQuery(execution(250), List.of(query));
+
+        verify(dataSource, timeout(1000).times(2)).getConnection();
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(elapsedMillis);
+        info.setSuccess(true);
+        return info;
+    }
+
+    private static QueryInfo query(String sql, String parameter) throws Exception {
+        QueryInfo query = new QueryInfo(sql);
+        ParameterSetOperation operation = new ParameterSetOperation(
+                PreparedStatement.class.getMethod("setString", int.class, String.class),
+                new Object[]{1, parameter});
+        query.getParametersList().add(List.of(operation));
+        return query;
+    }
+}
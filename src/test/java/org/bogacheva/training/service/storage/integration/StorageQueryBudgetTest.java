@@ -0,0 +1,163 @@
+package org.bogacheva.training.service.storage.integration;
+
+import org.bogacheva.training.ShelveItCommandLineRunner;
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.exceptions.StorageNotFoundException;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageTreeNodeDTO;
+import org.bogacheva.training.service.storage.StorageService;
+import org.bogacheva.training.service.testdb.AbstractEmbeddedDatabaseIT;
+import org.bogacheva.training.service.testdb.QueryBudget;
+import org.bogacheva.training.service.testdb.RecordedStatements;
+import org.bogacheva.training.service.testdb.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StorageQueryBudgetTest extends AbstractEmbeddedDatabaseIT {
+
+    @MockitoBean
+    private ShelveItCommandLineRunner commandLineRunner;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private SqlStatementCounter counter;
+
+    private Storage home, kitchen, bedroom;
+    private List<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository.deleteAll();
+        storageRepository.deleteAll();
+
+        home = storageRepository.save(new Storage("Home", StorageType.RESIDENCE, null));
+        kitchen = storageRepository.save(new Storage("Kitchen", StorageType.ROOM, home));
+        Storage fridge = storageRepository.save(new Storage("Fridge", StorageType.FURNITURE, kitchen));
+        bedroom = storageRepository.save(new Storage("Bedroom", StorageType.ROOM, home));
+        items = new ArrayList<>();
+        for (Storage storage : List.of(kitchen, fridge, bedroom)) {
+            for (int i = 0; i < 3; i++) {
+                Item item = new Item(storage.getName() + " item " + i, storage);
+                item.setKeywords(List.of("keyword " + i, storage.getName()));
+                items.add(itemRepository.save(item));
+            }
+        }
+    }
+
+    @Test
+    @QueryBudget(statements = 6)
+    @DisplayName("The normalized subtree view loads the storage, subtree, items and child counts in six statements")
+    void getAllItemsNormalized_staysWithinBudget() {
+        assertThat(storageService.getAllItemsNormalized(home.getId(), Set.of()).getItems()).hasSize(9);
+    }
+
+    @Test
+    @DisplayName("The normalized subtree view executes as many statements for a large subtree as for a small one")
+    void getAllItemsNormalized_statementCountDoesNotGrowWithSubtree() {
+        RecordedStatements small = counter.record(() -> storageService.getAllItemsNormalized(kitchen.getId(), Set.of()));
+        RecordedStatements large = counter.record(() -> storageService.getAllItemsNormalized(home.getId(), Set.of()));
+
+        assertThat(large.count()).isEqualTo(small.count());
+    }
+
+    @Test
+    @QueryBudget(statements = 1)
+    @DisplayName("The tree of a storage is read depth first, with its item and sub-storage counts, in one statement")
+    void getTree_readsWholeSubtreeInOneStatement() {
+        List<StorageTreeNodeDTO> tree = storageService.getTree(home.getId(), null);
+
+        assertThat(tree).extracting(StorageTreeNodeDTO::getName)
+                .containsExactly("Home", "Kitchen", "Fridge", "Bedroom");
+        assertThat(tree).extracting(StorageTreeNodeDTO::getDepth).containsExactly(0, 1, 2, 1);
+        assertThat(tree).extracting(StorageTreeNodeDTO::getItemCount).containsExactly(0L, 3L, 3L, 3L);
+        assertThat(tree).extracting(StorageTreeNodeDTO::getStorageCount).containsExactly(2L, 1L, 0L, 0L);
+        assertThat(tree.get(2).getType()).isEqualTo(StorageType.FURNITURE);
+        assertThat(tree.get(2).getParentId()).isEqualTo(kitchen.getId());
+    }
+
+    @Test
+    @DisplayName("The tree stops at the given depth, and a missing storage is reported as such")
+    void getTree_depthLimitAndMissingStorage() {
+        assertThat(storageService.getTree(home.getId(), 1)).extracting(StorageTreeNodeDTO::getName)
+                .containsExactly("Home", "Kitchen", "Bedroom");
+        assertThat(storageService.getTree(kitchen.getId(), 0)).extracting(StorageTreeNodeDTO::getName)
+                .containsExactly("Kitchen");
+        assertThatThrownBy(() -> storageService.getTree(999_999L, null))
+                .isInstanceOf(StorageNotFoundException.class);
+    }
+
+    @Test
+    @QueryBudget(statements = 3)
+    @DisplayName("A storage is mapped with its item and sub-storage IDs in three statements")
+    void getById_staysWithinBudget() {
+        StorageDTO dto = storageService.getById(kitchen.getId());
+
+        assertThat(dto.getItems()).hasSize(3);
+        assertThat(dto.getStorages()).hasSize(1);
+        assertThat(dto.getParentId()).isEqualTo(home.getId());
+    }
+
+    @Test
+    @QueryBudget(statements = 3)
+    @DisplayName("All storages are mapped with their item and sub-storage IDs in three statements")
+    void getAll_staysWithinBudget() {
+        List<StorageDTO> storages = storageService.getAll(null);
+
+        assertThat(storages).extracting(StorageDTO::getName)
+                .containsExactlyInAnyOrder("Home", "Kitchen", "Fridge", "Bedroom");
+        assertThat(storages).filteredOn(dto -> dto.getName().equals("Home"))
+                .singleElement()
+                .satisfies(dto -> assertThat(dto.getStorages()).containsExactlyInAnyOrder(kitchen.getId(), bedroom.getId()));
+    }
+
+    @Test
+    @DisplayName("Mapping all storages of a type executes as many statements for many storages as for a few")
+    void getAll_statementCountDoesNotGrowWithStorages() {
+        RecordedStatements few = counter.record(() -> storageService.getAll(StorageType.ROOM));
+        for (int i = 0; i < 20; i++) {
+            Storage room = storageRepository.save(new Storage("Room " + i, StorageType.ROOM, home));
+            itemRepository.save(new Item("Chair " + i, room));
+        }
+        RecordedStatements many = counter.record(() -> storageService.getAll(StorageType.ROOM));
+
+        assertThat(many.count()).isEqualTo(few.count());
+    }
+
+    @Test
+    @DisplayName("A statement repeated once per row is reported with its execution count")
+    void assertAtMost_repeatedStatement_isReportedAsNPlusOne() {
+        RecordedStatements statements = counter.record(() -> items.forEach(item -> itemRepository.findById(item.getId())));
+
+        assertThat(statements.count()).isGreaterThanOrEqualTo(items.size());
+        assertThatThrownBy(() -> statements.assertAtMost(3))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("Expected at most 3 SQL statements")
+                .hasMessageContaining(items.size() + " x select");
+    }
+}
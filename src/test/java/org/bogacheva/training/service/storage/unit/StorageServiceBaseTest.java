@@ -3,15 +3,18 @@ package org.bogacheva.training.service.storage.unit;
 import org.bogacheva.training.domain.item.Item;
 import org.bogacheva.training.domain.storage.Storage;
 import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.repository.item.ItemRepository;
 import org.bogacheva.training.repository.storage.StorageRepository;
 import org.bogacheva.training.service.dto.ItemDTO;
 import org.bogacheva.training.service.dto.StorageCreateDTO;
 import org.bogacheva.training.service.dto.StorageDTO;
 import org.bogacheva.training.service.dto.StorageUpdateDTO;
+import org.bogacheva.training.service.item.view.NormalizedItemsAssembler;
 import org.bogacheva.training.service.mapper.ItemMapper;
 import org.bogacheva.training.service.mapper.StorageMapper;
 import org.bogacheva.training.service.storage.DefaultStorageService;
 import org.bogacheva.training.service.storage.StorageValidatorService;
+import org.bogacheva.training.service.sync.SyncChangeRecorder;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -32,9 +35,18 @@ public abstract class StorageServiceBaseTest {
     @Mock
     protected StorageRepository storageRepo;
 
+    @Mock
+    protected ItemRepository itemRepo;
+
     @Mock
     protected StorageValidatorService validator;
 
+    @Mock
+    protected SyncChangeRecorder changeRecorder;
+
+    @Mock
+    protected NormalizedItemsAssembler normalizedAssembler;
+
     @InjectMocks
     protected DefaultStorageService storageService;
 
@@ -4,10 +4,13 @@ import org.bogacheva.training.domain.item.Item;
 import org.bogacheva.training.domain.storage.Storage;
 import org.bogacheva.training.domain.storage.StorageType;
 import org.bogacheva.training.service.dto.ItemDTO;
+import org.bogacheva.training.repository.storage.StorageChildCount;
 import org.bogacheva.training.service.dto.StorageDTO;
+import org.bogacheva.training.service.dto.StorageSummaryDTO;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 import java.util.Optional;
@@ -197,4 +200,59 @@ public class StorageServiceRetrievalTest extends StorageServiceBaseTest {
         verify(itemMapper, never()).toDTOList(any());
     }
 
+    @Test
+    @DisplayName("Should fill storage summaries with child counts fetched for the whole page")
+    void getSummaryPageAfter_shouldFillCountsForPage() {
+        // Arrange
+        Storage home = createStorage(1L, "Home", StorageType.RESIDENCE, null);
+        Storage room = createStorage(2L, "Room", StorageType.ROOM, home);
+        List<Storage> page = List.of(home, room);
+
+        when(storageRepo.findPageAfter(eq(null), eq(null), any(Pageable.class))).thenReturn(page);
+        when(storageMapper.toSummaryDTO(any(Storage.class))).thenAnswer(invocation -> {
+            StorageSummaryDTO summary = new StorageSummaryDTO();
+            summary.setId(((Storage) invocation.getArgument(0)).getId());
+            return summary;
+        });
+        when(itemRepo.countByStorageIds(List.of(1L, 2L))).thenReturn(List.of(count(2L, 5L)));
+        when(storageRepo.countByParentIds(List.of(1L, 2L))).thenReturn(List.of(count(1L, 1L)));
+
+        // Act
+        List<StorageSummaryDTO> results = storageService.getSummaryPageAfter(null, null, 2);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(0L, results.get(0).getItemCount());
+        assertEquals(1L, results.get(0).getStorageCount());
+        assertEquals(5L, results.get(1).getItemCount());
+        assertEquals(0L, results.get(1).getStorageCount());
+        verify(storageMapper, never()).toDTO(any());
+    }
+
+    @Test
+    @DisplayName("Should not count children when the page is empty")
+    void getSummaryPageAfter_shouldSkipCounts_whenPageIsEmpty() {
+        // Arrange
+        when(storageRepo.findPageAfter(eq(10L), eq(StorageType.UNIT), any(Pageable.class))).thenReturn(List.of());
+
+        // Act
+        List<StorageSummaryDTO> results = storageService.getSummaryPageAfter(StorageType.UNIT, 10L, 50);
+
+        // Assert
+        assertEquals(0, results.size());
+        verify(itemRepo, never()).countByStorageIds(any());
+        verify(storageRepo, never()).countByParentIds(any());
+    }
+
+    private StorageChildCount count(Long storageId, Long count) {
+        return new StorageChildCount() {
+            public Long getStorageId() {
+                return storageId;
+            }
+
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
 }
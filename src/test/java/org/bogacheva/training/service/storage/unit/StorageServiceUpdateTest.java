@@ -5,6 +5,7 @@ import org.bogacheva.training.domain.storage.StorageType;
 import org.bogacheva.training.service.dto.StorageDTO;
 import org.bogacheva.training.service.dto.StorageUpdateDTO;
 import org.bogacheva.training.exceptions.InvalidStorageHierarchyException;
+import org.bogacheva.training.exceptions.PreconditionFailedException;
 import org.bogacheva.training.exceptions.StorageNotFoundException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -142,4 +143,27 @@ public class StorageServiceUpdateTest extends StorageServiceBaseTest {
         verify(storageRepo, never()).save(any());
         verify(storageMapper, never()).toDTO(any());
     }
+
+    @Test
+    @DisplayName("Should throw exception when storage changed since the expected version")
+    void updateProperties_shouldThrowException_whenExpectedVersionOutdated() {
+        // Arrange
+        Long storageId = 1L;
+        Storage existingStorage = createStorage(storageId, "Storage Name", StorageType.RESIDENCE, null);
+        existingStorage.setChangeVersion(4L);
+
+        StorageUpdateDTO updateDTO = new StorageUpdateDTO();
+        updateDTO.setName("New Name");
+
+        when(storageRepo.findById(storageId)).thenReturn(Optional.of(existingStorage));
+
+        // Act & Assert
+        PreconditionFailedException exception = assertThrows(
+                PreconditionFailedException.class,
+                () -> storageService.update(storageId, updateDTO, 3L));
+
+        assertEquals("Storage with ID: 1 has changed since version 3.", exception.getMessage());
+        assertEquals("Storage Name", existingStorage.getName());
+        verify(storageRepo, never()).save(any());
+    }
 }
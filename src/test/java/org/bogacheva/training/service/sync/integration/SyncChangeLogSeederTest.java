@@ -0,0 +1,88 @@
+package org.bogacheva.training.service.sync.integration;
+
+import org.bogacheva.training.ShelveItCommandLineRunner;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.storage.StorageType;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.bogacheva.training.service.dto.SyncBatchDTO;
+import org.bogacheva.training.service.dto.SyncItemDTO;
+import org.bogacheva.training.service.dto.SyncStorageDTO;
+import org.bogacheva.training.service.sync.SyncChangeLogSeeder;
+import org.bogacheva.training.service.sync.SyncService;
+import org.bogacheva.training.service.testdb.AbstractEmbeddedDatabaseIT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "shelveit.sync.commit-lag=0s")
+@ActiveProfiles("test")
+class SyncChangeLogSeederTest extends AbstractEmbeddedDatabaseIT {
+
+    @MockitoBean
+    private ShelveItCommandLineRunner commandLineRunner;
+
+    @Autowired
+    private SyncChangeLogSeeder seeder;
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private StorageRepository storageRepository;
+
+    @Autowired
+    private SyncChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        changeRepository.deleteAllInBatch();
+        jdbcTemplate.update("DELETE FROM item_keywords");
+        itemRepository.deleteAllInBatch();
+        storageRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Items and storages that predate the change log reach a client syncing from version 0")
+    void recordUnloggedEntities_existingInventory_isSentInFullSync() {
+        Storage shelf = storageRepository.save(new Storage("Shelf", StorageType.FURNITURE, null));
+        jdbcTemplate.update("INSERT INTO items (name, storage_id, change_version, version) VALUES (?, ?, 0, 0)",
+                "Book", shelf.getId());
+        assertThat(syncService.getChangesSince(0, 100).getItems()).isEmpty();
+
+        seeder.recordUnloggedEntities();
+
+        SyncBatchDTO batch = syncService.getChangesSince(0, 100);
+        assertThat(batch.getStorages()).extracting(SyncStorageDTO::getName).containsExactly("Shelf");
+        assertThat(batch.getItems()).extracting(SyncItemDTO::getName).containsExactly("Book");
+    }
+
+    @Test
+    @DisplayName("Entities already in the change log are not recorded again")
+    void recordUnloggedEntities_loggedEntities_areLeftAlone() {
+        Storage shelf = storageRepository.save(new Storage("Shelf", StorageType.FURNITURE, null));
+        seeder.recordUnloggedEntities();
+        long version = changeRepository.findLatestVersion();
+
+        seeder.recordUnloggedEntities();
+
+        assertThat(changeRepository.findLatestVersion()).isEqualTo(version);
+        assertThat(syncService.getChangesSince(version, 100).getStorages()).isEmpty();
+        assertThat(syncService.getChangesSince(0, 100).getStorages())
+                .extracting(SyncStorageDTO::getId).containsExactly(shelf.getId());
+    }
+}
@@ -0,0 +1,175 @@
+package org.bogacheva.training.service.sync.unit;
+
+import org.bogacheva.training.domain.item.Item;
+import org.bogacheva.training.domain.storage.Storage;
+import org.bogacheva.training.domain.sync.SyncChange;
+import org.bogacheva.training.domain.sync.SyncEntityType;
+import org.bogacheva.training.domain.sync.SyncOperation;
+import org.bogacheva.training.repository.item.ItemRepository;
+import org.bogacheva.training.repository.storage.StorageRepository;
+import org.bogacheva.training.repository.sync.SyncChangeRepository;
+import org.bogacheva.training.service.dto.SyncBatchDTO;
+import org.bogacheva.training.service.dto.SyncItemDTO;
+import org.bogacheva.training.service.dto.SyncStorageDTO;
+import org.bogacheva.training.service.mapper.ItemMapper;
+import org.bogacheva.training.service.mapper.StorageMapper;
+import org.bogacheva.training.service.sync.DefaultSyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DefaultSyncServiceTest {
+
+    @Mock
+    private SyncChangeRepository changeRepo;
+
+    @Mock
+    private ItemRepository itemRepo;
+
+    @Mock
+    private StorageRepository storageRepo;
+
+    @Mock
+    private ItemMapper itemMapper;
+
+    @Mock
+    private StorageMapper storageMapper;
+
+    private DefaultSyncService syncService;
+
+    @BeforeEach
+    void setUp() {
+        syncService = new DefaultSyncService(changeRepo, itemRepo, storageRepo, itemMapper, storageMapper,
+                Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("getChangesSince returns the same version and no data when nothing changed")
+    void getChangesSince_whenNoChanges_returnsEmptyBatch() {
+        when(changeRepo.findChangesSince(eq(42L), any(Pageable.class))).thenReturn(List.of());
+
+        SyncBatchDTO batch = syncService.getChangesSince(42L, 100);
+
+        assertEquals(42L, batch.getVersion());
+        assertFalse(batch.isHasMore());
+        assertTrue(batch.getItems().isEmpty());
+        assertTrue(batch.getDeletedItemIds().isEmpty());
+        verifyNoInteractions(itemRepo, storageRepo);
+    }
+
+    @Test
+    @DisplayName("getChangesSince collapses repeated changes of an entity into its latest operation")
+    void getChangesSince_collapsesChangesPerEntity() {
+        List<SyncChange> changes = List.of(
+                change(1L, SyncEntityType.ITEM, 10L, SyncOperation.UPSERT),
+                change(2L, SyncEntityType.STORAGE, 5L, SyncOperation.UPSERT),
+                change(3L, SyncEntityType.ITEM, 11L, SyncOperation.UPSERT),
+                change(4L, SyncEntityType.ITEM, 10L, SyncOperation.DELETE),
+                change(5L, SyncEntityType.ITEM, 11L, SyncOperation.UPSERT));
+        Item item = new Item();
+        item.setId(11L);
+        Storage storage = new Storage();
+        storage.setId(5L);
+        List<SyncItemDTO> itemDTOs = List.of(new SyncItemDTO(11L, "Lamp", 5L, List.of()));
+        List<SyncStorageDTO> storageDTOs = List.of(new SyncStorageDTO(5L, "Hall", null, null));
+
+        when(changeRepo.findChangesSince(eq(0L), any(Pageable.class))).thenReturn(changes);
+        when(itemRepo.findAllWithKeywordsByIdIn(Set.of(11L))).thenReturn(List.of(item));
+        when(storageRepo.findAllById(Set.of(5L))).thenReturn(List.of(storage));
+        when(itemMapper.toSyncDTOList(List.of(item))).thenReturn(itemDTOs);
+        when(storageMapper.toSyncDTOList(List.of(storage))).thenReturn(storageDTOs);
+
+        SyncBatchDTO batch = syncService.getChangesSince(0L, 100);
+
+        assertEquals(5L, batch.getVersion());
+        assertFalse(batch.isHasMore());
+        assertEquals(itemDTOs, batch.getItems());
+        assertEquals(storageDTOs, batch.getStorages());
+        assertEquals(List.of(10L), batch.getDeletedItemIds());
+        assertTrue(batch.getDeletedStorageIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("getChangesSince stops at the batch limit and reports that more changes exist")
+    void getChangesSince_whenMoreChangesThanLimit_setsHasMore() {
+        List<SyncChange> changes = new ArrayList<>(List.of(
+                change(7L, SyncEntityType.STORAGE, 1L, SyncOperation.DELETE),
+                change(8L, SyncEntityType.STORAGE, 2L, SyncOperation.DELETE),
+                change(9L, SyncEntityType.STORAGE, 3L, SyncOperation.DELETE)));
+        when(changeRepo.findChangesSince(eq(6L), any(Pageable.class))).thenReturn(changes);
+
+        SyncBatchDTO batch = syncService.getChangesSince(6L, 2);
+
+        assertTrue(batch.isHasMore());
+        assertEquals(8L, batch.getVersion());
+        assertEquals(List.of(1L, 2L), batch.getDeletedStorageIds());
+    }
+
+    @Test
+    @DisplayName("getChangesSince holds back recent changes and everything after them")
+    void getChangesSince_holdsBackChangesWithinCommitLag() {
+        Instant old = Instant.now().minusSeconds(60);
+        List<SyncChange> changes = List.of(
+                change(3L, SyncEntityType.STORAGE, 1L, SyncOperation.DELETE, old),
+                change(4L, SyncEntityType.STORAGE, 2L, SyncOperation.DELETE, Instant.now()),
+                change(5L, SyncEntityType.STORAGE, 3L, SyncOperation.DELETE, old));
+        when(changeRepo.findChangesSince(eq(2L), any(Pageable.class))).thenReturn(changes);
+
+        SyncBatchDTO batch = syncService.getChangesSince(2L, 10);
+
+        assertFalse(batch.isHasMore());
+        assertEquals(3L, batch.getVersion());
+        assertEquals(List.of(1L), batch.getDeletedStorageIds());
+    }
+
+    @Test
+    @DisplayName("getCommittedVersion stops before the first change within the commit lag")
+    void getCommittedVersion_stopsBeforeRecentChanges() {
+        when(changeRepo.findFirstVersionRecordedSince(any(Instant.class))).thenReturn(12L, (Long) null);
+        when(changeRepo.findLatestVersion()).thenReturn(20L);
+
+        assertEquals(11L, syncService.getCommittedVersion());
+        assertEquals(20L, syncService.getCommittedVersion());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1, 5001})
+    @DisplayName("getChangesSince rejects a batch size out of range")
+    void getChangesSince_whenLimitOutOfRange_throwsIllegalArgumentException(int limit) {
+        assertThrows(IllegalArgumentException.class, () -> syncService.getChangesSince(0L, limit));
+        verifyNoInteractions(changeRepo);
+    }
+
+    @Test
+    @DisplayName("getChangesSince rejects a negative version")
+    void getChangesSince_whenSinceNegative_throwsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> syncService.getChangesSince(-1L, 10));
+    }
+
+    private SyncChange change(Long version, SyncEntityType type, Long entityId, SyncOperation operation) {
+        return change(version, type, entityId, operation, null);
+    }
+
+    private SyncChange change(Long version, SyncEntityType type, Long entityId, SyncOperation operation,
+                              Instant recordedAt) {
+        return new SyncChange(version, type, entityId, operation, recordedAt);
+    }
+}
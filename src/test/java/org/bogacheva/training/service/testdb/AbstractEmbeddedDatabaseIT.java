@@ -0,0 +1,29 @@
+package org.bogacheva.training.service.testdb;
+
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.UUID;
+
+/**
+ * In-memory stand-in for {@link AbstractPostgresIT}, for tests that must run without Docker.
+ * H2 runs in PostgreSQL compatibility mode, which covers the native queries of the
+ * repositories but not PostgreSQL query plans, so it suits statement budgets rather than
+ * latency budgets.
+ */
+@Import(SqlStatementCountingConfiguration.class)
+public abstract class AbstractEmbeddedDatabaseIT {
+
+    @DynamicPropertySource
+    static void embeddedDatabaseProperties(DynamicPropertyRegistry registry) {
+        // One database per application context, as cached contexts outlive the test class
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE";
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "sa");
+        registry.add("spring.datasource.password", () -> "");
+        registry.add("spring.datasource.driver-class-name", () -> "org.h2.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.H2Dialect");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.H2Dialect");
+    }
+}
@@ -1,5 +1,6 @@
 package org.bogacheva.training.service.testdb;
 
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -7,6 +8,7 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 @Testcontainers
+@Import(SqlStatementCountingConfiguration.class)
 public abstract class AbstractPostgresIT {
 
     @Container
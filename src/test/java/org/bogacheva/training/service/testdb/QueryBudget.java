@@ -0,0 +1,30 @@
+package org.bogacheva.training.service.testdb;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails a Spring test when its body executes more SQL statements, or spends more time in the
+ * database, than allowed. Setup in {@code @BeforeEach} methods is not counted. Requires a
+ * {@link SqlStatementCounter} bean, e.g. by extending {@link AbstractPostgresIT} or
+ * {@link AbstractEmbeddedDatabaseIT}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    /**
+     * @return the maximum number of statements
+     */
+    int statements();
+
+    /**
+     * @return the maximum time spent executing statements, or -1 for no limit
+     */
+    long databaseMillis() default -1;
+}
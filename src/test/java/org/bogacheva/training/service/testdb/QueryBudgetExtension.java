@@ -0,0 +1,46 @@
+package org.bogacheva.training.service.testdb;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+
+/**
+ * Enforces {@link QueryBudget} around the execution of each test method.
+ */
+class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        SqlStatementCounter counter = SpringExtension.getApplicationContext(context)
+                .getBean(SqlStatementCounter.class);
+        context.getStore(NAMESPACE).put(context.getUniqueId(), counter.start());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlStatementCounter.Recording recording = context.getStore(NAMESPACE)
+                .remove(context.getUniqueId(), SqlStatementCounter.Recording.class);
+        recording.close();
+        if (context.getExecutionException().isPresent()) {
+            return;
+        }
+        QueryBudget budget = findBudget(context);
+        recording.statements().assertAtMost(budget.statements());
+        if (budget.databaseMillis() >= 0) {
+            recording.statements().assertDatabaseTimeAtMost(Duration.ofMillis(budget.databaseMillis()));
+        }
+    }
+
+    private static QueryBudget findBudget(ExtensionContext context) {
+        return AnnotationSupport.findAnnotation(context.getRequiredTestMethod(), QueryBudget.class)
+                .or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), QueryBudget.class))
+                .orElseThrow();
+    }
+}
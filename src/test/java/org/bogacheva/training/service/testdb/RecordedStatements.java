@@ -0,0 +1,80 @@
+package org.bogacheva.training.service.testdb;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The SQL statements recorded by {@link SqlStatementCounter}, with assertions for query-count and
+ * database-time budgets. A failed assertion lists the statements grouped by SQL text, most
+ * repeated first, so an N+1 shows up as one statement executed once per row of another.
+ */
+public class RecordedStatements {
+
+    private final List<String> statements = new ArrayList<>();
+    private long elapsedMillis;
+
+    synchronized void add(String sql, long elapsedMillis) {
+        statements.add(sql);
+        this.elapsedMillis += elapsedMillis;
+    }
+
+    public synchronized int count() {
+        return statements.size();
+    }
+
+    public synchronized Duration databaseTime() {
+        return Duration.ofMillis(elapsedMillis);
+    }
+
+    public synchronized List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    /**
+     * Fails unless at most the given number of statements was executed.
+     *
+     * @param maxStatements the statement budget
+     * @return this, for chaining
+     */
+    public RecordedStatements assertAtMost(int maxStatements) {
+        int count = count();
+        if (count > maxStatements) {
+            throw new AssertionError(String.format("Expected at most %d SQL statements but %d were executed:%n%s",
+                    maxStatements, count, summary()));
+        }
+        return this;
+    }
+
+    /**
+     * Fails unless the recorded statements spent at most the given time in the database.
+     *
+     * @param maxDatabaseTime the latency budget
+     * @return this, for chaining
+     */
+    public RecordedStatements assertDatabaseTimeAtMost(Duration maxDatabaseTime) {
+        Duration databaseTime = databaseTime();
+        if (databaseTime.compareTo(maxDatabaseTime) > 0) {
+            throw new AssertionError(String.format("Expected at most %d ms in the database but %d ms were spent:%n%s",
+                    maxDatabaseTime.toMillis(), databaseTime.toMillis(), summary()));
+        }
+        return this;
+    }
+
+    /**
+     * Describes the recorded statements, one line per distinct SQL text with its execution count.
+     *
+     * @return the summary
+     */
+    public String summary() {
+        Map<String, Long> counts = statements().stream()
+                .collect(Collectors.groupingBy(sql -> sql, LinkedHashMap::new, Collectors.counting()));
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .map(entry -> String.format("%5d x %s", entry.getValue(), entry.getKey()))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
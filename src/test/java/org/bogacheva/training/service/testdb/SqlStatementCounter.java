@@ -0,0 +1,82 @@
+package org.bogacheva.training.service.testdb;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Records the SQL statements executed while a block of test code runs, so that tests can put a
+ * budget on them. Plugged into the application data source proxy by
+ * {@link SqlStatementCountingConfiguration}.
+ * <p>
+ * Statements are recorded from every thread, which also covers requests served by an embedded
+ * server, so tests using it must not run in parallel. A JDBC batch counts as one statement.
+ */
+public class SqlStatementCounter implements QueryExecutionListener {
+
+    private final List<RecordedStatements> active = new CopyOnWriteArrayList<>();
+
+    /**
+     * Runs a block of code and returns the statements it executed.
+     *
+     * @param block the code to record
+     * @return the recorded statements
+     */
+    public RecordedStatements record(Runnable block) {
+        try (Recording recording = start()) {
+            block.run();
+            return recording.statements();
+        }
+    }
+
+    /**
+     * Starts recording until the returned recording is closed.
+     *
+     * @return the started recording
+     */
+    public Recording start() {
+        RecordedStatements statements = new RecordedStatements();
+        active.add(statements);
+        return new Recording(statements);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (active.isEmpty()) {
+            return;
+        }
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+        for (RecordedStatements statements : active) {
+            statements.add(sql, execInfo.getElapsedTime());
+        }
+    }
+
+    /**
+     * A running recording, stopped by closing it.
+     */
+    public final class Recording implements AutoCloseable {
+
+        private final RecordedStatements statements;
+
+        private Recording(RecordedStatements statements) {
+            this.statements = statements;
+        }
+
+        public RecordedStatements statements() {
+            return statements;
+        }
+
+        @Override
+        public void close() {
+            active.remove(statements);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.bogacheva.training.service.testdb;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registers a {@link SqlStatementCounter}, which the application data source proxy picks up
+ * like any other query listener.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlStatementCountingConfiguration {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+}